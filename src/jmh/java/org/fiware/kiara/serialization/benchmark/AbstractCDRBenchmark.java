@@ -0,0 +1,95 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Common state of the {@link CDRSerializer} benchmarks.
+ *
+ * Every benchmark is run for both byte orders. Output is written into a
+ * single {@link BinaryOutputStream} that is reset before each operation, and
+ * input is read from data encoded once during setup, so the numbers reflect
+ * the codec and not the stream allocation done by the transports.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public abstract class AbstractCDRBenchmark {
+
+    @Param({"BIG_ENDIAN", "LITTLE_ENDIAN"})
+    public String byteOrder;
+
+    protected CDRSerializer ser;
+    protected BinaryOutputStream out;
+    private BinaryInputStream in;
+
+    @Setup
+    public void setUp() throws IOException {
+        ser = new CDRSerializer("LITTLE_ENDIAN".equals(byteOrder));
+        out = new BinaryOutputStream();
+        in = new BinaryInputStream(new byte[0]);
+        prepare();
+    }
+
+    /**
+     * Builds the payloads of the benchmark and encodes the input data.
+     * Called once per trial after the serializer has been created.
+     *
+     * @throws IOException
+     */
+    protected abstract void prepare() throws IOException;
+
+    /**
+     * Returns the bytes written to {@link #out} since the last reset.
+     *
+     * @return copy of the written data
+     */
+    protected byte[] written() {
+        return out.toByteArray();
+    }
+
+    /**
+     * Rewinds the shared input stream to the beginning of data.
+     *
+     * @param data encoded message
+     * @return input stream positioned at the beginning of data
+     */
+    protected BinaryInputStream input(byte[] data) {
+        in.setBuffer(data);
+        return in;
+    }
+
+}
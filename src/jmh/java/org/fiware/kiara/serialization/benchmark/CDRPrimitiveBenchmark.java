@@ -0,0 +1,111 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark;
+
+import java.io.IOException;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of primitive and string encoding. The primitive record mixes
+ * sizes so that every multi-byte value needs alignment padding.
+ */
+public class CDRPrimitiveBenchmark extends AbstractCDRBenchmark {
+
+    private static final String SHORT_STRING = "getSample";
+    private static final String LONG_STRING =
+            "The quick brown fox jumps over the lazy dog, then over the lazy cat, then home again.";
+
+    private byte[] primitiveData;
+    private byte[] shortStringData;
+    private byte[] longStringData;
+
+    @Override
+    protected void prepare() throws IOException {
+        out.reset();
+        serializePrimitives();
+        primitiveData = written();
+
+        out.reset();
+        ser.serializeString(out, "", SHORT_STRING);
+        shortStringData = written();
+
+        out.reset();
+        ser.serializeString(out, "", LONG_STRING);
+        longStringData = written();
+    }
+
+    @Benchmark
+    public int serializePrimitives() throws IOException {
+        out.reset();
+        ser.serializeByte(out, "", (byte) 1);
+        ser.serializeI16(out, "", (short) 2);
+        ser.serializeI32(out, "", 3);
+        ser.serializeBoolean(out, "", true);
+        ser.serializeI64(out, "", 4L);
+        ser.serializeChar(out, "", 'k');
+        ser.serializeFloat32(out, "", 5.0f);
+        ser.serializeUI16(out, "", (short) 6);
+        ser.serializeFloat64(out, "", 7.0);
+        ser.serializeUI32(out, "", 8);
+        ser.serializeUI64(out, "", 9L);
+        return out.size();
+    }
+
+    @Benchmark
+    public void deserializePrimitives(Blackhole bh) throws IOException {
+        final BinaryInputStream bis = input(primitiveData);
+        bh.consume(ser.deserializeByte(bis, ""));
+        bh.consume(ser.deserializeI16(bis, ""));
+        bh.consume(ser.deserializeI32(bis, ""));
+        bh.consume(ser.deserializeBoolean(bis, ""));
+        bh.consume(ser.deserializeI64(bis, ""));
+        bh.consume(ser.deserializeChar(bis, ""));
+        bh.consume(ser.deserializeFloat32(bis, ""));
+        bh.consume(ser.deserializeUI16(bis, ""));
+        bh.consume(ser.deserializeFloat64(bis, ""));
+        bh.consume(ser.deserializeUI32(bis, ""));
+        bh.consume(ser.deserializeUI64(bis, ""));
+    }
+
+    @Benchmark
+    public int serializeShortString() throws IOException {
+        out.reset();
+        ser.serializeString(out, "", SHORT_STRING);
+        return out.size();
+    }
+
+    @Benchmark
+    public String deserializeShortString() throws IOException {
+        return ser.deserializeString(input(shortStringData), "");
+    }
+
+    @Benchmark
+    public int serializeLongString() throws IOException {
+        out.reset();
+        ser.serializeString(out, "", LONG_STRING);
+        return out.size();
+    }
+
+    @Benchmark
+    public String deserializeLongString() throws IOException {
+        return ser.deserializeString(input(longStringData), "");
+    }
+
+}
@@ -0,0 +1,143 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.fiware.kiara.serialization.impl.BasicSerializers;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.ListAsSequenceSerializer;
+import org.fiware.kiara.serialization.impl.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Throughput of sequence encoding, both through the boxed
+ * {@link ListAsSequenceSerializer} and through the primitive array
+ * serializers of {@link BasicSerializers}.
+ */
+public class CDRSequenceBenchmark extends AbstractCDRBenchmark {
+
+    private static final Serializer<List<Integer>> s_intList =
+            new ListAsSequenceSerializer<>(new BasicSerializers.I32Serializer());
+    private static final Serializer<int[]> s_intArray =
+            new BasicSerializers.ArrayAsI32SequenceSerializer();
+    private static final Serializer<float[]> s_floatArray =
+            new BasicSerializers.ArrayAsFloat32SequenceSerializer();
+    private static final Serializer<double[]> s_doubleArray =
+            new BasicSerializers.ArrayAsFloat64SequenceSerializer();
+
+    @Param({"16", "4096"})
+    public int length;
+
+    private List<Integer> intList;
+    private int[] intArray;
+    private float[] floatArray;
+    private double[] doubleArray;
+
+    private byte[] intListData;
+    private byte[] intArrayData;
+    private byte[] floatArrayData;
+    private byte[] doubleArrayData;
+
+    @Override
+    protected void prepare() throws IOException {
+        intList = new ArrayList<>(length);
+        intArray = new int[length];
+        floatArray = new float[length];
+        doubleArray = new double[length];
+        for (int i = 0; i < length; ++i) {
+            intList.add(i);
+            intArray[i] = i;
+            floatArray[i] = i * 0.5f;
+            doubleArray[i] = i * 0.25;
+        }
+
+        intListData = encode(s_intList, intList);
+        intArrayData = encode(s_intArray, intArray);
+        floatArrayData = encode(s_floatArray, floatArray);
+        doubleArrayData = encode(s_doubleArray, doubleArray);
+    }
+
+    private <T> byte[] encode(Serializer<T> serializer, T value) throws IOException {
+        out.reset();
+        // start unaligned so that the sequence length needs padding
+        ser.serializeByte(out, "", (byte) 0);
+        serializer.write(ser, out, "", value);
+        return written();
+    }
+
+    private <T> int write(Serializer<T> serializer, T value) throws IOException {
+        out.reset();
+        ser.serializeByte(out, "", (byte) 0);
+        serializer.write(ser, out, "", value);
+        return out.size();
+    }
+
+    private <T> T read(Serializer<T> serializer, byte[] data) throws IOException {
+        return serializer.read(ser, skipByte(data), "");
+    }
+
+    private BinaryInputStream skipByte(byte[] data) throws IOException {
+        final BinaryInputStream bis = input(data);
+        ser.deserializeByte(bis, "");
+        return bis;
+    }
+
+    @Benchmark
+    public int serializeIntList() throws IOException {
+        return write(s_intList, intList);
+    }
+
+    @Benchmark
+    public List<Integer> deserializeIntList() throws IOException {
+        return read(s_intList, intListData);
+    }
+
+    @Benchmark
+    public int serializeIntArray() throws IOException {
+        return write(s_intArray, intArray);
+    }
+
+    @Benchmark
+    public int[] deserializeIntArray() throws IOException {
+        return read(s_intArray, intArrayData);
+    }
+
+    @Benchmark
+    public int serializeFloatArray() throws IOException {
+        return write(s_floatArray, floatArray);
+    }
+
+    @Benchmark
+    public float[] deserializeFloatArray() throws IOException {
+        return read(s_floatArray, floatArrayData);
+    }
+
+    @Benchmark
+    public int serializeDoubleArray() throws IOException {
+        return write(s_doubleArray, doubleArray);
+    }
+
+    @Benchmark
+    public double[] deserializeDoubleArray() throws IOException {
+        return read(s_doubleArray, doubleArrayData);
+    }
+
+}
@@ -0,0 +1,119 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.fiware.kiara.serialization.benchmark.types.Position;
+import org.fiware.kiara.serialization.benchmark.types.Sample;
+import org.fiware.kiara.serialization.benchmark.types.SampleUnion;
+import org.fiware.kiara.serialization.impl.BasicSerializers;
+import org.fiware.kiara.serialization.impl.MapAsMapSerializer;
+import org.fiware.kiara.serialization.impl.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Throughput of constructed types: nested structs, unions and maps.
+ */
+public class CDRStructBenchmark extends AbstractCDRBenchmark {
+
+    private static final Serializer<Map<String, Integer>> s_map =
+            new MapAsMapSerializer<>(new BasicSerializers.StringSerializer(), new BasicSerializers.I32Serializer());
+
+    private Sample sample;
+    private SampleUnion union;
+    private Map<String, Integer> map;
+
+    private byte[] sampleData;
+    private byte[] unionData;
+    private byte[] mapData;
+
+    @Override
+    protected void prepare() throws IOException {
+        final List<Integer> readings = new ArrayList<>();
+        for (int i = 0; i < 32; ++i) {
+            readings.add(i * 7);
+        }
+        final List<Position> track = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            track.add(new Position(i, i + 0.5, i + 0.25));
+        }
+        sample = new Sample(42, 1420070400000L, "sensor/temperature/42", new Position(1.0, 2.0, 3.0), readings, track);
+
+        union = new SampleUnion();
+        union._d(1);
+        union.setStringVal("operation");
+
+        map = new HashMap<>();
+        for (int i = 0; i < 16; ++i) {
+            map.put("key" + i, i);
+        }
+
+        out.reset();
+        serializeStruct();
+        sampleData = written();
+
+        out.reset();
+        serializeUnion();
+        unionData = written();
+
+        out.reset();
+        serializeMap();
+        mapData = written();
+    }
+
+    @Benchmark
+    public int serializeStruct() throws IOException {
+        out.reset();
+        ser.serialize(out, "", sample);
+        return out.size();
+    }
+
+    @Benchmark
+    public Sample deserializeStruct() throws Exception {
+        return ser.deserialize(input(sampleData), "", Sample.class);
+    }
+
+    @Benchmark
+    public int serializeUnion() throws IOException {
+        out.reset();
+        ser.serialize(out, "", union);
+        return out.size();
+    }
+
+    @Benchmark
+    public SampleUnion deserializeUnion() throws Exception {
+        return ser.deserialize(input(unionData), "", SampleUnion.class);
+    }
+
+    @Benchmark
+    public int serializeMap() throws IOException {
+        out.reset();
+        s_map.write(ser, out, "", map);
+        return out.size();
+    }
+
+    @Benchmark
+    public Map<String, Integer> deserializeMap() throws IOException {
+        return s_map.read(ser, input(mapData), "");
+    }
+
+}
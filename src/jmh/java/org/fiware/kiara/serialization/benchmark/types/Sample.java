@@ -0,0 +1,93 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark.types;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.fiware.kiara.serialization.impl.BasicSerializers;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.ListAsSequenceSerializer;
+import org.fiware.kiara.serialization.impl.ObjectSerializer;
+import org.fiware.kiara.serialization.impl.Serializable;
+import org.fiware.kiara.serialization.impl.Serializer;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+
+/**
+ * Typical telemetry sample: primitives, a string, a nested struct, a
+ * sequence of primitives and a sequence of nested structs.
+ */
+public class Sample implements Serializable {
+
+    private static final Serializer<List<Integer>> s_readings =
+            new ListAsSequenceSerializer<>(new BasicSerializers.I32Serializer());
+
+    private static final Serializer<List<Position>> s_track =
+            new ListAsSequenceSerializer<>(new ObjectSerializer<>(Position.class));
+
+    private int id;
+    private long timestamp;
+    private String name;
+    private Position position;
+    private List<Integer> readings;
+    private List<Position> track;
+
+    public Sample() {
+        this.id = 0;
+        this.timestamp = 0;
+        this.name = "";
+        this.position = new Position();
+        this.readings = new ArrayList<>();
+        this.track = new ArrayList<>();
+    }
+
+    public Sample(int id, long timestamp, String name, Position position, List<Integer> readings, List<Position> track) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.name = name;
+        this.position = position;
+        this.readings = readings;
+        this.track = track;
+    }
+
+    @Override
+    public void serialize(SerializerImpl impl, BinaryOutputStream message, String name) throws IOException {
+        impl.serializeI32(message, name, this.id);
+        impl.serializeI64(message, name, this.timestamp);
+        impl.serializeString(message, name, this.name);
+        impl.serialize(message, name, this.position);
+        s_readings.write(impl, message, name, this.readings);
+        s_track.write(impl, message, name, this.track);
+    }
+
+    @Override
+    public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
+        this.id = impl.deserializeI32(message, name);
+        this.timestamp = impl.deserializeI64(message, name);
+        this.name = impl.deserializeString(message, name);
+        try {
+            this.position = impl.deserialize(message, name, Position.class);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IOException(e);
+        }
+        this.readings = s_readings.read(impl, message, name);
+        this.track = s_track.read(impl, message, name);
+    }
+
+}
@@ -0,0 +1,96 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.benchmark.types;
+
+import java.io.IOException;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.Serializable;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+
+/**
+ * Union with an integer discriminator selecting between an int, a string and
+ * a double member.
+ */
+public class SampleUnion implements Serializable {
+
+    private int m_d;
+
+    private int intVal;
+    private String stringVal;
+    private double doubleVal;
+
+    public SampleUnion() {
+        this.intVal = 0;
+        this.stringVal = "";
+        this.doubleVal = 0.0;
+    }
+
+    public void _d(int discriminator) {
+        this.m_d = discriminator;
+    }
+
+    public void setIntVal(int intVal) {
+        this.intVal = intVal;
+    }
+
+    public void setStringVal(String stringVal) {
+        this.stringVal = stringVal;
+    }
+
+    public void setDoubleVal(double doubleVal) {
+        this.doubleVal = doubleVal;
+    }
+
+    @Override
+    public void serialize(SerializerImpl impl, BinaryOutputStream message, String name) throws IOException {
+        impl.serializeUnionBegin(message, name);
+        impl.serializeI32(message, name, this.m_d);
+        switch (this.m_d) {
+            case 0:
+                impl.serializeI32(message, name, this.intVal);
+                break;
+            case 1:
+                impl.serializeString(message, name, this.stringVal);
+                break;
+            default:
+                impl.serializeFloat64(message, name, this.doubleVal);
+                break;
+        }
+        impl.serializeUnionEnd(message, name);
+    }
+
+    @Override
+    public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
+        impl.deserializeUnionBegin(message, name);
+        this.m_d = impl.deserializeI32(message, name);
+        switch (this.m_d) {
+            case 0:
+                this.intVal = impl.deserializeI32(message, name);
+                break;
+            case 1:
+                this.stringVal = impl.deserializeString(message, name);
+                break;
+            default:
+                this.doubleVal = impl.deserializeFloat64(message, name);
+                break;
+        }
+        impl.deserializeUnionEnd(message, name);
+    }
+
+}
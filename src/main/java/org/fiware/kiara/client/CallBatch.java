@@ -0,0 +1,68 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.fiware.kiara.dynamic.services.DynamicProxy;
+
+/**
+ * Proxies of a call batch queue their requests instead of sending them.
+ * {@link #flush()} sends all queued requests to the server as one message,
+ * the server processes them, in parallel when its dispatching executor
+ * allows it, and answers all of them with one message.
+ *
+ * Only asynchronous calls can be batched: a synchronous call through a
+ * batch proxy waits for a reply that is not requested before the batch is
+ * flushed.
+ */
+public interface CallBatch {
+
+    /**
+     * Creates a proxy whose calls are queued in this batch.
+     *
+     * @param <T>
+     * @param interfaceClass
+     * @return new proxy instance
+     * @throws Exception
+     * @see Connection#getServiceProxy(java.lang.Class)
+     */
+    public <T> T getServiceProxy(Class<T> interfaceClass) throws Exception;
+
+    /**
+     * Creates a dynamic proxy whose calls are queued in this batch.
+     *
+     * @param name
+     * @return new dynamic proxy instance or null if there is no such service
+     * @see Connection#getDynamicProxy(java.lang.String)
+     */
+    public DynamicProxy getDynamicProxy(String name);
+
+    /**
+     * @return number of queued calls
+     */
+    public int size();
+
+    /**
+     * Sends all queued calls. Their results are passed to the callbacks of
+     * the calls when the reply to the batch arrives.
+     *
+     * @return future completed when the batch was sent
+     */
+    public ListenableFuture<Void> flush();
+
+}
@@ -55,4 +55,13 @@ public interface Connection {
      */
     public DynamicProxy getDynamicProxy(String name);
 
+    /**
+     * Creates a batch whose proxies queue their calls until the batch is
+     * flushed, then send them to the server in a single message.
+     *
+     * @return new call batch
+     * @see CallBatch
+     */
+    public CallBatch createBatch();
+
 }
@@ -0,0 +1,51 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.dynamic.impl.services;
+
+import com.google.common.util.concurrent.Futures;
+import org.fiware.kiara.dynamic.services.AsyncDynamicFunctionHandler;
+import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
+import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
+import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
+
+/**
+ * Registers an {@link AsyncDynamicFunctionHandler} where a
+ * {@link DynamicFunctionHandler} is expected. {@link DynamicServant} calls
+ * the asynchronous handler directly, {@link #process} waits for it.
+ */
+public class AsyncDynamicFunctionHandlerAdapter implements DynamicFunctionHandler {
+
+    private final AsyncDynamicFunctionHandler handler;
+
+    public AsyncDynamicFunctionHandlerAdapter(AsyncDynamicFunctionHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("handler");
+        }
+        this.handler = handler;
+    }
+
+    public AsyncDynamicFunctionHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public void process(DynamicFunctionRequest request, DynamicFunctionResponse response) {
+        Futures.getUnchecked(handler.processAsync(request, response));
+    }
+
+}
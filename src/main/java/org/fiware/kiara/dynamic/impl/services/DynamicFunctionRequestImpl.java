@@ -32,6 +32,7 @@ import org.fiware.kiara.netty.TransportMessageDispatcher;
 import org.fiware.kiara.serialization.Serializer;
 import org.fiware.kiara.serialization.impl.BinaryInputStream;
 import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
 import org.fiware.kiara.serialization.impl.SerializerImpl;
 import org.fiware.kiara.transport.Transport;
 import org.fiware.kiara.transport.impl.TransportImpl;
@@ -76,7 +77,7 @@ public class DynamicFunctionRequestImpl extends DynamicTypeImpl implements Dynam
     @Override
     public DynamicFunctionResponse execute() {
         if (this.m_serializer != null && this.m_transport != null) {
-            final BinaryOutputStream bos = new BinaryOutputStream();
+            final BinaryOutputStream bos = BinaryStreamPool.getDefault().acquireOutputStream();
             final TransportMessage trequest = this.m_transport.createTransportMessage(null);
             final Object messageId = this.m_serializer.getNewMessageId();
 
@@ -92,9 +93,9 @@ public class DynamicFunctionRequestImpl extends DynamicTypeImpl implements Dynam
                 throw new RuntimeException(ex);
             }
 
-            trequest.setPayload(bos.getByteBuffer());
+            trequest.setPayload(bos);
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, this.m_serializer, this.m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, this.m_serializer, this.m_transport, trequest);
 
             this.m_transport.send(trequest);
 
@@ -129,7 +130,7 @@ public class DynamicFunctionRequestImpl extends DynamicTypeImpl implements Dynam
     @Override
     public void executeAsync(final AsyncCallback<DynamicFunctionResponse> callback) {
         if (this.m_serializer != null && this.m_transport != null) {
-            final BinaryOutputStream bos = new BinaryOutputStream();
+            final BinaryOutputStream bos = BinaryStreamPool.getDefault().acquireOutputStream();
             final TransportMessage trequest = this.m_transport.createTransportMessage(null);
             final Object messageId = this.m_serializer.getNewMessageId();
 
@@ -141,9 +142,9 @@ public class DynamicFunctionRequestImpl extends DynamicTypeImpl implements Dynam
                 throw new RuntimeException(ex);
             }
 
-            trequest.setPayload(bos.getByteBuffer());
+            trequest.setPayload(bos);
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, this.m_serializer, this.m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, this.m_serializer, this.m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
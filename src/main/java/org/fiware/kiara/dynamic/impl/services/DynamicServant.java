@@ -17,20 +17,27 @@
  */
 package org.fiware.kiara.dynamic.impl.services;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.fiware.kiara.Kiara;
 import org.fiware.kiara.dynamic.DynamicValueBuilder;
+import org.fiware.kiara.dynamic.services.AsyncDynamicFunctionHandler;
 import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
 import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
 import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
+import org.fiware.kiara.metrics.OperationMetrics;
 import org.fiware.kiara.serialization.Serializer;
 import org.fiware.kiara.serialization.impl.BinaryInputStream;
 import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.NameTable;
 import org.fiware.kiara.serialization.impl.SerializerImpl;
-import org.fiware.kiara.server.Servant;
+import org.fiware.kiara.server.AsyncServant;
 import org.fiware.kiara.transport.Transport;
 import org.fiware.kiara.transport.impl.TransportImpl;
 import org.fiware.kiara.transport.impl.TransportMessage;
@@ -40,10 +47,12 @@ import org.fiware.kiara.typecode.services.FunctionTypeDescriptor;
  *
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  */
-public class DynamicServant implements Servant {
+public class DynamicServant implements AsyncServant {
 
     private final String serviceName;
     private final Map<String, FunctionTypeAndHandler> handlers;
+    // copy of handlers that is searched with the operation name bytes
+    private volatile NameTable<FunctionTypeAndHandler> operations;
 
     public static class FunctionTypeAndHandler {
 
@@ -63,6 +72,7 @@ public class DynamicServant implements Servant {
     public DynamicServant(String serviceName, Map<String, FunctionTypeAndHandler> handlers) {
         this.serviceName = serviceName;
         this.handlers = handlers == null ? new HashMap<String, FunctionTypeAndHandler>() : handlers;
+        this.operations = NameTable.of(this.handlers);
     }
 
     @Override
@@ -70,16 +80,24 @@ public class DynamicServant implements Servant {
         return serviceName;
     }
 
-    public void addFunctionHandler(FunctionTypeDescriptor typeDesc, DynamicFunctionHandler handler) {
+    public synchronized void addFunctionHandler(FunctionTypeDescriptor typeDesc, DynamicFunctionHandler handler) {
         handlers.put(typeDesc.getName(), new FunctionTypeAndHandler(typeDesc, handler));
+        operations = NameTable.of(handlers);
     }
 
-    public FunctionTypeAndHandler removeFunctionHandler(FunctionTypeDescriptor typeDesc) {
-        return handlers.remove(typeDesc.getName());
+    public synchronized FunctionTypeAndHandler removeFunctionHandler(FunctionTypeDescriptor typeDesc) {
+        final FunctionTypeAndHandler typeAndHandler = handlers.remove(typeDesc.getName());
+        operations = NameTable.of(handlers);
+        return typeAndHandler;
     }
 
     @Override
     public TransportMessage process(Serializer ser, TransportMessage message, Transport transport, Object messageId, BinaryInputStream bis) {
+        return Futures.getUnchecked(processAsync(ser, message, transport, messageId, bis));
+    }
+
+    @Override
+    public ListenableFuture<TransportMessage> processAsync(Serializer ser, final TransportMessage message, Transport transport, final Object messageId, BinaryInputStream bis) {
         final SerializerImpl serImpl = (SerializerImpl) ser;
         final TransportImpl transportImpl = (TransportImpl) transport;
 
@@ -87,32 +105,58 @@ public class DynamicServant implements Servant {
             // FIXME: We need to save and restore current position since DynamicFunctionRequest will deserialize operation name as well.
             //        THIS IS POSSIBLY A WRONG APPROACH !!!
             final int savedPos = bis.getPosition();
-            final String operation = serImpl.deserializeOperation(bis);
+            final FunctionTypeAndHandler typeAndHandler = serImpl.deserializeOperation(bis, operations);
             bis.setPosition(savedPos);
 
-            final FunctionTypeAndHandler typeAndHandler = handlers.get(operation);
             if (typeAndHandler != null) {
+                final String operation = typeAndHandler.typeDesc.getName();
                 final DynamicValueBuilder valueBuilder = Kiara.getDynamicValueBuilder();
                 final DynamicFunctionRequest req = valueBuilder.createFunctionRequest(typeAndHandler.typeDesc, serImpl, transportImpl);
                 final DynamicFunctionResponse res = valueBuilder.createFunctionResponse(typeAndHandler.typeDesc, serImpl, transportImpl);
 
                 req.deserialize(serImpl, bis, operation);
 
-                typeAndHandler.handler.process(req, res);
+                final long handlerStarted = System.nanoTime();
+                final OperationMetrics metrics = OperationMetrics.current();
+                if (typeAndHandler.handler instanceof AsyncDynamicFunctionHandlerAdapter) {
+                    final AsyncDynamicFunctionHandler handler = ((AsyncDynamicFunctionHandlerAdapter) typeAndHandler.handler).getHandler();
+                    return Futures.transform(handler.processAsync(req, res), new Function<Void, TransportMessage>() {
+
+                        @Override
+                        public TransportMessage apply(Void input) {
+                            if (metrics != null) {
+                                metrics.recordHandlerTime(System.nanoTime() - handlerStarted);
+                            }
+                            return createResponse(serImpl, transportImpl, message, messageId, operation, res);
+                        }
+                    });
+                }
 
-                final BinaryOutputStream retBuffer = new BinaryOutputStream();
-                final TransportMessage retMsg = transportImpl.createTransportMessage(message);
-                serImpl.serializeMessageId(retBuffer, messageId);
-
-                res.serialize(serImpl, retBuffer, operation);
-                retMsg.setPayload(retBuffer.getByteBuffer());
-                return retMsg;
+                typeAndHandler.handler.process(req, res);
+                if (metrics != null) {
+                    metrics.recordHandlerTime(System.nanoTime() - handlerStarted);
+                }
+                return Futures.immediateFuture(createResponse(serImpl, transportImpl, message, messageId, operation, res));
             }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
 
-        return null;
+        return Futures.immediateFuture(null);
+    }
+
+    private static TransportMessage createResponse(SerializerImpl serImpl, TransportImpl transportImpl, TransportMessage message, Object messageId, String operation, DynamicFunctionResponse res) {
+        try {
+            final BinaryOutputStream retBuffer = BinaryStreamPool.getDefault().acquireOutputStream();
+            final TransportMessage retMsg = transportImpl.createTransportMessage(message);
+            serImpl.serializeMessageId(retBuffer, messageId);
+
+            res.serialize(serImpl, retBuffer, operation);
+            retMsg.setPayload(retBuffer);
+            return retMsg;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
     }
 
 }
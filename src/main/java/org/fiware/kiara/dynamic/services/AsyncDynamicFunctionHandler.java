@@ -0,0 +1,38 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.dynamic.services;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Implementation of a function that completes its response asynchronously,
+ * see {@link DynamicFunctionHandler}.
+ */
+public interface AsyncDynamicFunctionHandler {
+
+    /**
+     * This function is called when a client invokes remotely a function. The
+     * response is sent to the client when the returned future completes.
+     *
+     * @param request dynamic function request
+     * @param response dynamic function response to fill before the returned
+     * future completes
+     * @return future that completes when response is filled
+     */
+    public ListenableFuture<Void> processAsync(DynamicFunctionRequest request, DynamicFunctionResponse response);
+}
@@ -29,9 +29,12 @@ public class GenericRemoteException extends RemoteException {
     private final Object errorData;
 
     // Common error codes (borrowed from JSON RPC spec)
+    public static final int INVALID_REQUEST        = -32600;
     public static final int METHOD_NOT_FOUND       = -32601;
     public static final int INVALID_METHOD_PARAMS  = -32602;
     public static final int INTERNAL_ERROR         = -32603;
+    // from the implementation defined server error range
+    public static final int SERVER_OVERLOADED      = -32000;
 
     public GenericRemoteException() {
         super();
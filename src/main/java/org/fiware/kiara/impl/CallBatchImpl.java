@@ -0,0 +1,110 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.impl;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.fiware.kiara.client.CallBatch;
+import org.fiware.kiara.dynamic.services.DynamicProxy;
+import org.fiware.kiara.netty.BatchTransport;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.typecode.services.ServiceTypeDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Call batch of a {@link ConnectionImpl}. Calls to services reached over
+ * different transports are queued in one {@link BatchTransport} per
+ * transport.
+ */
+public class CallBatchImpl implements CallBatch {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallBatchImpl.class);
+
+    private final ConnectionImpl connection;
+    // guarded by this
+    private final Map<Transport, BatchTransport> batches = new IdentityHashMap<>();
+
+    CallBatchImpl(ConnectionImpl connection) {
+        this.connection = connection;
+    }
+
+    private synchronized BatchTransport getBatchTransport(ConnectionImpl.TransportAndSerializer ts) {
+        BatchTransport batch = batches.get(ts.transport);
+        if (batch == null) {
+            batch = new BatchTransport((TransportImpl) ts.transport, (SerializerImpl) ts.serializer);
+            batches.put(ts.transport, batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public <T> T getServiceProxy(Class<T> interfaceClass) throws Exception {
+        final ConnectionImpl.ProxyType proxyType = ConnectionImpl.ProxyType.of(interfaceClass);
+        final ConnectionImpl.TransportAndSerializer ts = connection.getTransportAndSerializer(proxyType.serviceName);
+        return proxyType.newInstance(interfaceClass, ts.serializer, getBatchTransport(ts));
+    }
+
+    @Override
+    public DynamicProxy getDynamicProxy(String name) {
+        final ServiceTypeDescriptor serviceType = connection.getServiceType(name);
+        if (serviceType != null) {
+            try {
+                final ConnectionImpl.TransportAndSerializer ts = connection.getTransportAndSerializer(name);
+                return TypeMapper.createDynamicProxy(serviceType, ts.serializer, getBatchTransport(ts));
+            } catch (Exception ex) {
+                logger.error("getDynamicProxy", ex);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int size() {
+        int size = 0;
+        for (BatchTransport batch : batches.values()) {
+            size += batch.size();
+        }
+        return size;
+    }
+
+    @Override
+    public ListenableFuture<Void> flush() {
+        final List<ListenableFuture<Void>> sent = new ArrayList<>();
+        synchronized (this) {
+            for (BatchTransport batch : batches.values()) {
+                sent.add(batch.flush());
+            }
+        }
+        return Futures.transform(Futures.allAsList(sent), new Function<List<Void>, Void>() {
+
+            @Override
+            public Void apply(List<Void> input) {
+                return null;
+            }
+        });
+    }
+
+}
@@ -2,16 +2,20 @@ package org.fiware.kiara.impl;
 
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ListMultimap;
+import org.fiware.kiara.client.CallBatch;
 import org.fiware.kiara.client.Connection;
 import org.fiware.kiara.dynamic.services.DynamicProxy;
 import org.fiware.kiara.serialization.Serializer;
 import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.impl.LoadBalancingTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,13 +25,28 @@ import org.fiware.kiara.typecode.services.ServiceTypeDescriptor;
 
 public class ConnectionImpl implements Connection {
 
+    /**
+     * System property with the default number of pooled transports per
+     * endpoint, see {@link #CONNECTIONS_PARAMETER}.
+     */
+    public static final String CONNECTIONS_PROPERTY = "kiara.connections";
+
+    /**
+     * Connect URI query parameter with the number of transports opened to
+     * each endpoint. When greater than 0 calls are balanced over the
+     * transports to all endpoints with the best priority, 0 uses a single
+     * transport to the best endpoint.
+     */
+    public static final String CONNECTIONS_PARAMETER = "connections";
+
     private static final Logger logger = LoggerFactory.getLogger(ConnectionImpl.class);
 
     private final URI configUri;
+    private final int connectionsPerEndpoint;
     private final ListMultimap<String, EndpointInfo> serviceProviders;
     private final Map<String, TransportAndSerializer> activeConnections;
 
-    private static class TransportAndSerializer {
+    static class TransportAndSerializer {
 
         public final Transport transport;
         public final Serializer serializer;
@@ -39,35 +58,49 @@ public class ConnectionImpl implements Connection {
     }
 
     public ConnectionImpl(URI configUri, ListMultimap<String, EndpointInfo> serviceProviders) {
+        this(configUri, serviceProviders, Integer.getInteger(CONNECTIONS_PROPERTY, 0));
+    }
+
+    public ConnectionImpl(URI configUri, ListMultimap<String, EndpointInfo> serviceProviders, int connectionsPerEndpoint) {
         this.configUri = configUri;
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
         this.serviceProviders = serviceProviders;
         this.activeConnections = new HashMap<>();
     }
 
     public ConnectionImpl(Transport transport, Serializer serializer) {
         this.configUri = null;
+        this.connectionsPerEndpoint = 0;
         this.serviceProviders = null;
         this.activeConnections = new HashMap<>();
         this.activeConnections.put("*", new TransportAndSerializer(transport, serializer));
     }
 
+    private List<EndpointInfo> getEndpoints(String serviceName) {
+        List<EndpointInfo> esiList = serviceProviders.get(serviceName);
+        if (esiList == null || esiList.isEmpty()) {
+            esiList = serviceProviders.get("*");
+            if (esiList == null || esiList.isEmpty()) {
+                esiList = serviceProviders.get("");
+            }
+        }
+        return esiList;
+    }
+
+    private static int getPriority(EndpointInfo esi) {
+        return esi.transportFactory.getPriority() + esi.serializerFactory.getPriority();
+    }
+
     private EndpointInfo getBestEndpoint(String serviceName) {
         EndpointInfo selectedEndpoint = null;
         if (serviceProviders != null) {
-            List<EndpointInfo> esiList = serviceProviders.get(serviceName);
-            if (esiList == null || esiList.isEmpty()) {
-                esiList = serviceProviders.get("*");
-                if (esiList == null || esiList.isEmpty()) {
-                    esiList = serviceProviders.get("");
-                }
-            }
+            List<EndpointInfo> esiList = getEndpoints(serviceName);
             if (esiList != null) {
                 for (EndpointInfo esi : esiList) {
                     // we change selected endpoint only if priority is higher
                     // i.e. when priority value is less than current one
                     if (selectedEndpoint != null
-                            && selectedEndpoint.transportFactory.getPriority() + selectedEndpoint.serializerFactory.getPriority()
-                            < esi.transportFactory.getPriority() + esi.serializerFactory.getPriority()) {
+                            && getPriority(selectedEndpoint) < getPriority(esi)) {
                         continue;
                     }
                     selectedEndpoint = esi;
@@ -77,62 +110,136 @@ public class ConnectionImpl implements Connection {
         return selectedEndpoint;
     }
 
-    @Override
-    public <T> T getServiceProxy(Class<T> interfaceClass) throws Exception {
-        // name of the interface class can end with 'Async' or 'Client'
-        String interfaceName = interfaceClass.getName();
-        if (interfaceName.endsWith("Async")) {
-            interfaceName = interfaceName.substring(0, interfaceName.length() - 5);
-        } else if (interfaceName.endsWith("Client")) {
-            interfaceName = interfaceName.substring(0, interfaceName.length() - 6);
-        }
-        final String proxyClassName = interfaceName + "Proxy";
-        Class<?> proxyClass = Class.forName(proxyClassName);
-        if (!interfaceClass.isAssignableFrom(proxyClass)) {
-            throw new RuntimeException("Proxy class " + proxyClass + " does not implement interface " + interfaceClass);
+    /**
+     * Returns the endpoints with the same priority, transport and serializer
+     * as the best one.
+     */
+    private List<LoadBalancingTransport.Endpoint> getEquivalentEndpoints(EndpointInfo best, String serviceName) throws URISyntaxException {
+        final List<LoadBalancingTransport.Endpoint> result = new ArrayList<>();
+        for (EndpointInfo esi : getEndpoints(serviceName)) {
+            if (getPriority(esi) == getPriority(best)
+                    && esi.transportFactory == best.transportFactory
+                    && esi.serializerFactory == best.serializerFactory) {
+                result.add(new LoadBalancingTransport.Endpoint(esi.transportFactory, getTransportUri(esi).toString()));
+            }
         }
+        return result;
+    }
+
+    private URI getTransportUri(EndpointInfo esi) throws URISyntaxException {
+        return configUri == null ? new URI(esi.serverInfo.transport.url) : configUri.resolve(esi.serverInfo.transport.url);
+    }
 
-        String serviceName = interfaceName; // FIXME this is a hack
-        try {
-            final Field field = proxyClass.getField("serviceName");
-            field.setAccessible(true);
-            serviceName = (String) field.get(null);
-        } catch (NoSuchFieldException ex) {
+    /**
+     * Generated proxy class of a service interface.
+     */
+    static final class ProxyType {
 
+        final String serviceName;
+        final Constructor<?> constructor;
+
+        private ProxyType(String serviceName, Constructor<?> constructor) {
+            this.serviceName = serviceName;
+            this.constructor = constructor;
         }
 
-        Constructor<?> proxyConstr = proxyClass.getConstructor(Serializer.class, Transport.class);
-        proxyConstr.setAccessible(true);
+        static ProxyType of(Class<?> interfaceClass) throws Exception {
+            // name of the interface class can end with 'Async' or 'Client'
+            String interfaceName = interfaceClass.getName();
+            if (interfaceName.endsWith("Async")) {
+                interfaceName = interfaceName.substring(0, interfaceName.length() - 5);
+            } else if (interfaceName.endsWith("Client")) {
+                interfaceName = interfaceName.substring(0, interfaceName.length() - 6);
+            }
+            final String proxyClassName = interfaceName + "Proxy";
+            Class<?> proxyClass = Class.forName(proxyClassName);
+            if (!interfaceClass.isAssignableFrom(proxyClass)) {
+                throw new RuntimeException("Proxy class " + proxyClass + " does not implement interface " + interfaceClass);
+            }
 
-        Serializer serializer = null;
-        Transport transport = null;
+            String serviceName = interfaceName; // FIXME this is a hack
+            try {
+                final Field field = proxyClass.getField("serviceName");
+                field.setAccessible(true);
+                serviceName = (String) field.get(null);
+            } catch (NoSuchFieldException ex) {
 
-        final TransportAndSerializer ts;
-        synchronized (activeConnections) {
-            ts = activeConnections.get(serviceName);
+            }
+
+            Constructor<?> proxyConstr = proxyClass.getConstructor(Serializer.class, Transport.class);
+            proxyConstr.setAccessible(true);
+            return new ProxyType(serviceName, proxyConstr);
         }
-        if (ts != null) {
-            serializer = ts.serializer;
-            transport = ts.transport;
-        } else {
-            final EndpointInfo esi = getBestEndpoint(serviceName);
-            if (esi == null) {
-                throw new ConnectException("No endpoint found for service '" + serviceName + "'");
+
+        <T> T newInstance(Class<T> interfaceClass, Serializer serializer, Transport transport) throws Exception {
+            return interfaceClass.cast(constructor.newInstance(serializer, transport));
+        }
+    }
+
+    /**
+     * Returns the transport and serializer used for calls to serviceName,
+     * connecting to the best endpoint on first use.
+     */
+    TransportAndSerializer getTransportAndSerializer(String serviceName) throws Exception {
+        synchronized (activeConnections) {
+            TransportAndSerializer ts = activeConnections.get(serviceName);
+            if (ts == null) {
+                // connection created with an explicit transport
+                ts = activeConnections.get("*");
+            }
+            if (ts != null) {
+                return ts;
             }
+        }
 
-            logger.debug("Selected transport: {}", esi.serverInfo.transport.name);
-            logger.debug("Selected protocol: {}", esi.serverInfo.protocol.name);
+        final EndpointInfo esi = getBestEndpoint(serviceName);
+        if (esi == null) {
+            throw new ConnectException("No endpoint found for service '" + serviceName + "'");
+        }
 
-            URI transportUri = configUri == null ? new URI(esi.serverInfo.transport.url) : configUri.resolve(esi.serverInfo.transport.url);
+        logger.debug("Selected transport: {}", esi.serverInfo.transport.name);
+        logger.debug("Selected protocol: {}", esi.serverInfo.protocol.name);
 
-            serializer = esi.serializerFactory.createSerializer();
-            transport = esi.transportFactory.createTransport(transportUri.toString(), null).get();
-            synchronized (activeConnections) {
-                activeConnections.put(serviceName, new TransportAndSerializer(transport, serializer));
+        final Serializer serializer = esi.serializerFactory.createSerializer();
+        final Transport transport;
+        if (connectionsPerEndpoint > 0) {
+            transport = new LoadBalancingTransport(getEquivalentEndpoints(esi, serviceName), connectionsPerEndpoint);
+        } else {
+            transport = esi.transportFactory.createTransport(getTransportUri(esi).toString(), null).get();
+        }
+        final TransportAndSerializer ts = new TransportAndSerializer(transport, serializer);
+        synchronized (activeConnections) {
+            activeConnections.put(serviceName, ts);
+        }
+        return ts;
+    }
+
+    /**
+     * @param name scoped service name
+     * @return type of the service or null
+     */
+    ServiceTypeDescriptor getServiceType(String name) {
+        final EndpointInfo esi = getBestEndpoint(name);
+        if (esi != null) {
+            for (ServiceTypeDescriptor serviceType : esi.serviceTypes) {
+                if (serviceType.getScopedName().equals(name)) {
+                    return serviceType;
+                }
             }
         }
+        return null;
+    }
 
-        return interfaceClass.cast(proxyConstr.newInstance(serializer, transport));
+    @Override
+    public <T> T getServiceProxy(Class<T> interfaceClass) throws Exception {
+        final ProxyType proxyType = ProxyType.of(interfaceClass);
+        final TransportAndSerializer ts = getTransportAndSerializer(proxyType.serviceName);
+        return proxyType.newInstance(interfaceClass, ts.serializer, ts.transport);
+    }
+
+    @Override
+    public CallBatch createBatch() {
+        return new CallBatchImpl(this);
     }
 
     @Override
@@ -142,12 +249,9 @@ public class ConnectionImpl implements Connection {
             try {
                 for (ServiceTypeDescriptor serviceType : esi.serviceTypes) {
                     if (serviceType.getScopedName().equals(name)) {
-                        URI transportUri = configUri == null ? new URI(esi.serverInfo.transport.url) : configUri.resolve(esi.serverInfo.transport.url);
-
-                        final Serializer serializer = esi.serializerFactory.createSerializer();
-                        final Transport transport = esi.transportFactory.createTransport(transportUri.toString(), null).get();
-
-                        return TypeMapper.createDynamicProxy(serviceType, serializer, transport);
+                        // shares the pooled connections with the generated proxies
+                        final TransportAndSerializer ts = getTransportAndSerializer(name);
+                        return TypeMapper.createDynamicProxy(serviceType, ts.serializer, ts.transport);
                     }
                 }
             } catch (Exception ex) {
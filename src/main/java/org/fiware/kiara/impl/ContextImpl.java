@@ -24,10 +24,11 @@ import org.fiware.kiara.config.EndpointInfo;
 import org.fiware.kiara.config.ServerConfiguration;
 import org.fiware.kiara.config.ServerInfo;
 import org.fiware.kiara.exceptions.ConnectException;
-import org.fiware.kiara.netty.URILoader;
 import org.fiware.kiara.serialization.SerializerFactory;
 import org.fiware.kiara.serialization.impl.CDRSerializerFactory;
 import org.fiware.kiara.transport.http.HttpTransportFactory;
+import org.fiware.kiara.transport.inproc.InProcessTransportFactory;
+import org.fiware.kiara.transport.shm.SharedMemoryTransportFactory;
 import org.fiware.kiara.typecode.services.ServiceTypeDescriptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,8 @@ public class ContextImpl implements Context {
         registerTransportFactory(new TcpBlockTransportFactory(true));
         registerTransportFactory(new HttpTransportFactory(/*secure = */false));
         registerTransportFactory(new HttpTransportFactory(true));
+        registerTransportFactory(new InProcessTransportFactory());
+        registerTransportFactory(new SharedMemoryTransportFactory());
         registerSerializerFactory(new CDRSerializerFactory());
     }
 
@@ -122,12 +125,23 @@ public class ContextImpl implements Context {
         }
     }
 
+    private static int getConnectionsPerEndpoint(URI uri) {
+        final List<String> values = new QueryStringDecoder(uri).parameters().get(ConnectionImpl.CONNECTIONS_PARAMETER);
+        if (values == null || values.isEmpty()) {
+            return Integer.getInteger(ConnectionImpl.CONNECTIONS_PROPERTY, 0);
+        }
+        try {
+            return Integer.parseInt(values.get(0));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number of connections: " + values.get(0));
+        }
+    }
+
     @Override
     public Connection connect(String url) throws IOException {
         try {
             Transport transport = null;
             Serializer serializer = null;
-            ParserContextImpl ctx = null;
 
             final URI uri = new URI(url);
             
@@ -139,22 +153,9 @@ public class ContextImpl implements Context {
                         uri.getPath(), uri.getQuery(),
                         uri.getFragment());
 
-                // 1. load server configuration
-                String configText;
-                try {
-                    configText = URILoader.load(configUri, "UTF-8");
-                } catch (IOException ex) {
-                    throw new ConnectException("Could not load server configuration", ex);
-                }
-
-                logger.debug("Config text: {}", configText);
-
-                ServerConfiguration serverConfig;
-                try {
-                    serverConfig = ServerConfiguration.fromJson(configText);
-                } catch (IOException ex) {
-                    throw new ConnectException("Could not parse server configuration", ex);
-                }
+                // 1. load server configuration and IDL
+                final ServerConfigurationCache.Entry cached = ServerConfigurationCache.getDefault().get(configUri);
+                final ServerConfiguration serverConfig = cached.serverConfiguration;
 
                 //???DEBUG BEGIN
                 if (logger.isDebugEnabled()) {
@@ -167,21 +168,7 @@ public class ContextImpl implements Context {
                 }
                 //???DEBUG END
 
-                // load IDL
-                if (serverConfig.idlContents != null && !serverConfig.idlContents.isEmpty()) {
-                    ctx = IDLUtils.loadIDL(serverConfig.idlContents, configUri.toString());
-                } else if (serverConfig.idlURL != null && !serverConfig.idlURL.isEmpty()) {
-                    URI idlUri = configUri.resolve(serverConfig.idlURL);
-                    String idlContents = URILoader.load(idlUri, "UTF-8");
-
-                    logger.debug("IDL CONTENTS: {}", idlContents); //???DEBUG
-
-                    ctx = IDLUtils.loadIDL(idlContents, idlUri.toString());
-                } else {
-                    throw new ConnectException("No IDL specified in server configuration");
-                }
-
-                List<ServiceTypeDescriptor> allServiceTypes = TypeMapper.getServiceTypes(ctx);
+                final List<ServiceTypeDescriptor> allServiceTypes = cached.serviceTypes;
                 // build service map
                 Map<String, ServiceTypeDescriptor> serviceNameMap = new HashMap<>();
                 for (ServiceTypeDescriptor serviceType : allServiceTypes) {
@@ -193,6 +180,16 @@ public class ContextImpl implements Context {
 
                 for (ServerInfo si : serverConfig.servers) {
                     final TransportFactory t = ContextImpl.getTransportFactoryByName(si.transport.name);
+                    // in-process endpoints are only reachable from the server's own JVM
+                    if (t instanceof InProcessTransportFactory
+                            && !((InProcessTransportFactory) t).isBound(si.transport.url)) {
+                        continue;
+                    }
+                    // shared memory endpoints are only reachable from the server's host
+                    if (t instanceof SharedMemoryTransportFactory
+                            && !((SharedMemoryTransportFactory) t).isBound(si.transport.url)) {
+                        continue;
+                    }
                     if (t != null) {
                         final SerializerFactory s = ContextImpl.getSerializerFactoryByName(si.protocol.name);
                         if (s != null) {
@@ -222,7 +219,7 @@ public class ContextImpl implements Context {
                     throw new ConnectException("No matching endpoint found");
                 }
 
-                return new ConnectionImpl(configUri, serviceProviders);
+                return new ConnectionImpl(configUri, serviceProviders, getConnectionsPerEndpoint(uri));
             } else {
                 QueryStringDecoder decoder = new QueryStringDecoder(uri);
                 
@@ -251,7 +248,7 @@ public class ContextImpl implements Context {
                 // register endpoint for all services
                 serviceProviders.put("*", esi);
                 
-                return new ConnectionImpl(null, serviceProviders);
+                return new ConnectionImpl(null, serviceProviders, getConnectionsPerEndpoint(uri));
             }
         } catch (URISyntaxException ex) {
             throw new IOException(ex);
@@ -17,6 +17,8 @@
  */
 package org.fiware.kiara.impl;
 
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -64,6 +66,7 @@ public class NegotiationHandler implements TransportConnectionListener, Transpor
 
         String responseText = null;
         String contentType = null;
+        String etag = null;
         boolean requestProcessed = false;
         int statusCode = 200; // OK
 
@@ -80,6 +83,13 @@ public class NegotiationHandler implements TransportConnectionListener, Transpor
                     responseText = config.toJson();
                     contentType = "application/json";
                     requestProcessed = true;
+
+                    // clients revalidate their cached configuration
+                    etag = '"' + Hashing.sha1().hashString(responseText, Charsets.UTF_8).toString() + '"';
+                    if (etag.equals(request.get(HttpMessage.Names.IF_NONE_MATCH))) {
+                        responseText = "";
+                        statusCode = 304;
+                    }
                 } else {
                     responseText = "Error: '"+requestUri.getPath()+"' - File not found";
                     contentType = "text/plain; charset=UTF-8";
@@ -100,6 +110,9 @@ public class NegotiationHandler implements TransportConnectionListener, Transpor
                 response.setPayload(ByteBuffer.wrap(responseText.getBytes("UTF-8")));
                 response.setContentType(contentType);
                 response.set(HttpMessage.Names.STATUS_CODE, statusCode);
+                if (etag != null) {
+                    response.set(HttpMessage.Names.ETAG, etag);
+                }
                 transport.send(response);
             }
         } catch (UnsupportedEncodingException ex) {
@@ -25,14 +25,34 @@ import org.fiware.kiara.serialization.Serializer;
 import org.fiware.kiara.serialization.impl.SerializerImpl;
 import org.fiware.kiara.server.Servant;
 import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.Transport;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import java.io.Closeable;
 import java.io.IOException;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.metrics.Gauge;
+import org.fiware.kiara.metrics.MetricsRegistry;
+import org.fiware.kiara.metrics.OperationMetrics;
+import org.fiware.kiara.netty.BaseHandler;
+import org.fiware.kiara.netty.BatchTransport;
 import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.NameTable;
+import org.fiware.kiara.server.AsyncServant;
+import org.fiware.kiara.server.ServiceWorkerPool;
 
 /**
  *
@@ -40,11 +60,132 @@ import org.fiware.kiara.serialization.impl.BinaryInputStream;
  */
 public class ServantDispatcher implements TransportConnectionListener, TransportMessageListener, Closeable {
 
+    // marks batch requests in the servant table, see BatchTransport
+    private static final Servant BATCH = new Servant() {
+
+        @Override
+        public String getServiceName() {
+            return BatchTransport.BATCH_SERVICE_NAME;
+        }
+
+        @Override
+        public TransportMessage process(Serializer ser, TransportMessage message, Transport transport, Object messageId, BinaryInputStream bis) {
+            return null;
+        }
+    };
+
+    /**
+     * Request of a batch.
+     */
+    private static final class BatchCall {
+
+        final Object messageId;
+        final Servant servant;
+        final BinaryInputStream bis;
+        final OperationMetrics operation;
+        TransportMessage reply;
+        // set when the call failed or was rejected and is already counted
+        boolean counted;
+        // error reply of a call without a reply, 0 if there is none
+        int errorCode;
+        String errorMessage;
+
+        BatchCall(Object messageId, Servant servant, BinaryInputStream bis, OperationMetrics operation) {
+            this.messageId = messageId;
+            this.servant = servant;
+            this.bis = bis;
+            this.operation = operation;
+        }
+
+        void fail(int code, String message) {
+            errorCode = code;
+            errorMessage = message;
+        }
+    }
+
+    /**
+     * Requests in flight of a connection.
+     */
+    private static final class ConnectionState {
+
+        final TransportImpl transport;
+        final AtomicInteger inFlight = new AtomicInteger();
+        // guarded by this
+        boolean suspended;
+
+        ConnectionState(TransportImpl transport) {
+            this.transport = transport;
+        }
+    }
+
+    private static final String OVERLOADED_MESSAGE = "Server overloaded";
+    private static final String NO_REPLY_MESSAGE = "Operation not found";
+    private static final String UNKNOWN_SERVICE_MESSAGE = "Service not found";
+    private static final String INVALID_REQUEST_MESSAGE = "Invalid request";
+
+    /**
+     * Names of the gauges every dispatcher adds to its metrics registry.
+     */
+    public static final String IN_FLIGHT_GAUGE = "inFlightRequests";
+    public static final String QUEUED_GAUGE = "queuedRequests";
+    public static final String REJECTED_GAUGE = "rejectedRequests";
+    public static final String SUSPENDED_GAUGE = "suspendedConnections";
+
     private final SerializerImpl serializer;
-    private final HashMap<String, Servant> servants;
+    // replaced on every change so that lookups need no lock
+    private volatile NameTable<Servant> servants;
     private final ExecutorService executor;
 
+    private final int maxInFlight;
+    private final int maxInFlightPerConnection;
+    private final boolean rejectWhenOverloaded;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger suspendedConnections = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    // only tracked when a limit is set
+    private final ConcurrentMap<TransportImpl, ConnectionState> connections = new ConcurrentHashMap<>();
+
+    private final MetricsRegistry metrics;
+    // requests waiting for a worker
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Gauge inFlightGauge = new Gauge() {
+
+        @Override
+        public long getValue() {
+            return inFlight.get();
+        }
+    };
+
+    private final Gauge queuedGauge = new Gauge() {
+
+        @Override
+        public long getValue() {
+            return queued.get();
+        }
+    };
+
+    private final Gauge rejectedGauge = new Gauge() {
+
+        @Override
+        public long getValue() {
+            return rejected.get();
+        }
+    };
+
+    private final Gauge suspendedGauge = new Gauge() {
+
+        @Override
+        public long getValue() {
+            return suspendedConnections.get();
+        }
+    };
+
     public ServantDispatcher(Serializer serializer, ServerTransport transport) {
+        this(serializer, transport, new MetricsRegistry());
+    }
+
+    public ServantDispatcher(Serializer serializer, ServerTransport transport, MetricsRegistry metrics) {
         if (serializer == null) {
             throw new NullPointerException("serializer");
         }
@@ -63,11 +204,47 @@ public class ServantDispatcher implements TransportConnectionListener, Transport
         //TODO Send error.
         ServerTransportImpl serverTransport = (ServerTransportImpl) transport;
         executor = serverTransport.getDispatchingExecutor();
-        servants = new HashMap<>();
+        maxInFlight = serverTransport.getMaxInFlightRequests();
+        maxInFlightPerConnection = serverTransport.getMaxInFlightRequestsPerConnection();
+        rejectWhenOverloaded = serverTransport.isRejectWhenOverloaded();
+        servants = NameTable.<Servant>empty().with(BATCH.getServiceName(), BATCH);
+        if (metrics == null) {
+            throw new NullPointerException("metrics");
+        }
+        this.metrics = metrics;
+        metrics.addGauge(IN_FLIGHT_GAUGE, inFlightGauge);
+        metrics.addGauge(QUEUED_GAUGE, queuedGauge);
+        metrics.addGauge(REJECTED_GAUGE, rejectedGauge);
+        metrics.addGauge(SUSPENDED_GAUGE, suspendedGauge);
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return number of requests dispatched but not yet answered
+     */
+    public int getInFlightRequests() {
+        return inFlight.get();
     }
 
-    public void addServant(Servant servant) {
-        servants.put(servant.getServiceName(), servant);
+    /**
+     * @return number of requests answered with an overloaded error
+     */
+    public long getRejectedRequests() {
+        return rejected.get();
+    }
+
+    /**
+     * @return number of connections which are currently not read from
+     */
+    public int getSuspendedConnections() {
+        return suspendedConnections.get();
+    }
+
+    public synchronized void addServant(Servant servant) {
+        servants = servants.with(servant.getServiceName(), servant);
     }
 
     @Override
@@ -78,53 +255,683 @@ public class ServantDispatcher implements TransportConnectionListener, Transport
     @Override
     public void onConnectionClosed(TransportImpl connection) {
         connection.removeMessageListener(this);
+        final ConnectionState state = connections.remove(connection);
+        if (state != null) {
+            synchronized (state) {
+                if (state.suspended) {
+                    state.suspended = false;
+                    suspendedConnections.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private ConnectionState getConnectionState(TransportImpl transport) {
+        if (maxInFlight == 0 && maxInFlightPerConnection == 0) {
+            return null;
+        }
+        ConnectionState state = connections.get(transport);
+        if (state == null) {
+            final ConnectionState newState = new ConnectionState(transport);
+            state = connections.putIfAbsent(transport, newState);
+            if (state == null) {
+                state = newState;
+            }
+        }
+        return state;
+    }
+
+    private boolean isOverloaded(ConnectionState connection) {
+        return (maxInFlight > 0 && inFlight.get() >= maxInFlight)
+                || (maxInFlightPerConnection > 0 && connection.inFlight.get() >= maxInFlightPerConnection);
+    }
+
+    /**
+     * Adds calls to counter unless that exceeds limit. Checking and adding
+     * in one step keeps concurrent I/O threads from overshooting the limit.
+     *
+     * @param limit maximal value of counter, 0 for none
+     * @return false if the calls were not added
+     */
+    private static boolean tryAdd(AtomicInteger counter, int limit, int calls) {
+        for (;;) {
+            final int current = counter.get();
+            if (limit > 0 && current + calls > limit) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + calls)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Counts the calls of a request as in flight. A batch counts with every
+     * call it contains.
+     *
+     * @param connection state of the connection, null when no limit is set
+     * @param calls number of calls of the request
+     * @return false if the request must be rejected
+     */
+    private boolean admit(ConnectionState connection, int calls) {
+        if (connection == null) {
+            inFlight.addAndGet(calls);
+            return true;
+        }
+        if (rejectWhenOverloaded) {
+            if (!tryAdd(inFlight, maxInFlight, calls)) {
+                return false;
+            }
+            if (!tryAdd(connection.inFlight, maxInFlightPerConnection, calls)) {
+                inFlight.addAndGet(-calls);
+                return false;
+            }
+        } else {
+            inFlight.addAndGet(calls);
+            connection.inFlight.addAndGet(calls);
+        }
+        if (isOverloaded(connection)) {
+            updateReading(connection);
+        }
+        return true;
+    }
+
+    private void complete(ConnectionState connection) {
+        complete(connection, 1);
+    }
+
+    /**
+     * Counts the calls of a request as answered and resumes reading from
+     * connections that are below their limit again.
+     *
+     * @param connection state of the connection, null when no limit is set
+     * @param calls number of calls of the request
+     */
+    private void complete(ConnectionState connection, int calls) {
+        inFlight.addAndGet(-calls);
+        if (connection == null) {
+            return;
+        }
+        connection.inFlight.addAndGet(-calls);
+        if (suspendedConnections.get() == 0) {
+            return;
+        }
+        updateReading(connection);
+        if (maxInFlight > 0 && inFlight.get() < maxInFlight) {
+            for (ConnectionState state : connections.values()) {
+                updateReading(state);
+            }
+        }
+    }
+
+    private void updateReading(ConnectionState connection) {
+        synchronized (connection) {
+            final boolean overloaded = isOverloaded(connection);
+            if (overloaded == connection.suspended) {
+                return;
+            }
+            connection.suspended = overloaded;
+            if (overloaded) {
+                suspendedConnections.incrementAndGet();
+            } else {
+                suspendedConnections.decrementAndGet();
+            }
+            // other transports deliver requests regardless, limits are then
+            // only enforced by rejecting
+            if (connection.transport instanceof BaseHandler) {
+                ((BaseHandler<?, ?>) connection.transport).setReadingSuspended(overloaded);
+            }
+        }
+    }
+
+    /**
+     * Answers a request with an overloaded error. Every call of a batch is
+     * answered with an empty entry.
+     *
+     * @param count number of calls of a batch, -1 for a single request
+     */
+    private void sendOverloaded(TransportMessage message, TransportImpl transport, Object messageId, int count) throws IOException {
+        if (count < 0) {
+            rejected.incrementAndGet();
+            sendError(message, transport, messageId, GenericRemoteException.SERVER_OVERLOADED, OVERLOADED_MESSAGE);
+            return;
+        }
+        rejected.addAndGet(count);
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        serializer.serializeMessageId(bos, messageId);
+        serializer.serializeUI32(bos, "", count);
+        for (int i = 0; i < count; ++i) {
+            serializer.serializeUI32(bos, "", 0);
+        }
+        final TransportMessage reply = transport.createTransportMessage(message);
+        reply.setPayload(bos.getByteBuffer());
+        reply.setContentType(serializer.getContentType());
+        transport.send(reply);
+    }
+
+    /**
+     * Answers a request with an error in the same format as an overloaded
+     * error, so that every request gets exactly one reply.
+     */
+    private void sendError(TransportMessage message, TransportImpl transport, Object messageId, int code, String text) {
+        final ByteBuffer payload;
+        try {
+            payload = serializeError(messageId, code, text);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        final TransportMessage reply = transport.createTransportMessage(message);
+        reply.setPayload(payload);
+        reply.setContentType(serializer.getContentType());
+        transport.send(reply);
+    }
+
+    private ByteBuffer serializeError(Object messageId, int code, String text) throws IOException {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        serializer.serializeMessageId(bos, messageId);
+        serializer.serializeUI32(bos, "", code);
+        serializer.serializeString(bos, "", text != null ? text : "");
+        return bos.getByteBuffer();
+    }
+
+    /**
+     * Reads the number of calls of a batch. Every call takes at least the 4
+     * bytes of its length, a larger count is rejected before anything is
+     * allocated for it.
+     */
+    private int deserializeBatchCount(BinaryInputStream bis) throws IOException {
+        final int count = serializer.deserializeUI32(bis, "");
+        if (count < 0 || count > bis.available() / 4) {
+            throw new IOException("Invalid batch size " + count);
+        }
+        return count;
     }
 
     @Override
     public boolean onMessage(final TransportMessage message) {
+        final long received = System.nanoTime();
+        final BinaryStreamPool pool = BinaryStreamPool.getDefault();
+        final ByteBuffer buffer = message.getPayload();
+        final int requestBytes = buffer.remaining();
+        final TransportImpl transport = message.getTransport();
+        final BinaryInputStream bis = pool.acquireInputStream(buffer);
+        boolean dispatched = false;
+        Object messageId = null;
         try {
-            final ByteBuffer buffer = message.getPayload();
-            final TransportImpl transport = message.getTransport();
-            final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(buffer);
-            final Object messageId = serializer.deserializeMessageId(bis);
-            final String service = serializer.deserializeService(bis);
-            final Servant servant = servants.get(service);
-
-            if (servant != null) {
+            messageId = serializer.deserializeMessageId(bis);
+            final Servant servant = serializer.deserializeService(bis, servants);
+            if (servant == null) {
+                sendError(message, transport, messageId, GenericRemoteException.METHOD_NOT_FOUND, UNKNOWN_SERVICE_MESSAGE);
+                return true;
+            }
+            final OperationMetrics operation = servant != BATCH
+                    ? metrics.getOperationMetrics(servant.getServiceName(), serializer, bis)
+                    : null;
+
+            // calls of a batch count against the limits one by one
+            final int batchCount = servant == BATCH ? deserializeBatchCount(bis) : -1;
+
+            final ConnectionState connection = getConnectionState(transport);
+            if (!admit(connection, servant == BATCH ? batchCount : 1)) {
+                if (operation != null) {
+                    operation.recordRejected();
+                }
+                sendOverloaded(message, transport, messageId, batchCount);
+                return true;
+            }
+
+            if (servant == BATCH) {
+                dispatched = true;
+                try {
+                    processBatch(message, transport, messageId, bis, batchCount, connection, received);
+                } finally {
+                    pool.release(bis);
+                }
+                return true;
+            }
+
+            operation.recordRequest(requestBytes);
+            final Object requestId = messageId;
+            if (executor == null) {
+                // from here on the stream is released after processing
+                dispatched = true;
+                try {
+                    execute(servant, operation, message, transport, messageId, bis, received, connection);
+                } finally {
+                    pool.release(bis);
+                }
+            } else {
+                // the payload may be a view of a transport buffer which
+                // is only valid until this method returns
+                message.retainPayload();
+                final Runnable task = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        queued.decrementAndGet();
+                        try {
+                            execute(servant, operation, message, transport, requestId, bis, received, connection);
+                        } finally {
+                            pool.release(bis);
+                            message.releasePayload();
+                        }
+                    }
+                };
+                // run instead of task when the request can not be started
+                final Runnable reject = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        queued.decrementAndGet();
+                        operation.recordRejected();
+                        try {
+                            rejected.incrementAndGet();
+                            sendError(message, transport, requestId, GenericRemoteException.SERVER_OVERLOADED, OVERLOADED_MESSAGE);
+                        } finally {
+                            pool.release(bis);
+                            message.releasePayload();
+                            complete(connection);
+                        }
+                    }
+                };
+                queued.incrementAndGet();
+                try {
+                    if (executor instanceof ServiceWorkerPool) {
+                        // one queue per service, a slow service only delays itself
+                        ((ServiceWorkerPool) executor).execute(servant.getServiceName(), task, reject);
+                    } else {
+                        executor.submit(task);
+                    }
+                } catch (RejectedExecutionException ex) {
+                    dispatched = true;
+                    reject.run();
+                    return true;
+                } catch (RuntimeException ex) {
+                    queued.decrementAndGet();
+                    message.releasePayload();
+                    complete(connection);
+                    throw ex;
+                }
+                dispatched = true;
+            }
+        } catch (IOException ex) {
+            // every request is answered, pipelining transports would
+            // otherwise hold back the replies of later requests
+            if (messageId != null) {
+                sendError(message, transport, messageId, GenericRemoteException.INVALID_REQUEST, INVALID_REQUEST_MESSAGE);
+            } else {
+                message.discard();
+            }
+        } finally {
+            if (!dispatched) {
+                pool.release(bis);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs a request in its servant, sends the reply and completes the
+     * request. Replies of asynchronous servants are sent when they are done.
+     */
+    private void execute(Servant servant, final OperationMetrics operation, final TransportMessage message, final TransportImpl transport, final Object messageId, BinaryInputStream bis, final long received, final ConnectionState connection) {
+        boolean pending = false;
+        try {
+            if (servant instanceof AsyncServant) {
+                final ListenableFuture<TransportMessage> reply;
+                try {
+                    reply = processAsync((AsyncServant) servant, operation, message, transport, messageId, bis, received);
+                } catch (RuntimeException ex) {
+                    sendError(message, transport, messageId, GenericRemoteException.INTERNAL_ERROR, getErrorMessage(ex));
+                    return;
+                }
+                pending = true;
+                Futures.addCallback(reply, new FutureCallback<TransportMessage>() {
+
+                    @Override
+                    public void onSuccess(TransportMessage result) {
+                        try {
+                            sendReply(result, message, transport, messageId, operation, received);
+                        } finally {
+                            complete(connection);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        operation.recordFailed();
+                        try {
+                            sendError(message, transport, messageId, GenericRemoteException.INTERNAL_ERROR, getErrorMessage(t));
+                        } finally {
+                            complete(connection);
+                        }
+                    }
+                });
+            } else {
+                final TransportMessage reply;
+                try {
+                    reply = process(servant, operation, message, transport, messageId, bis, received);
+                } catch (RuntimeException ex) {
+                    sendError(message, transport, messageId, GenericRemoteException.INTERNAL_ERROR, getErrorMessage(ex));
+                    return;
+                }
+                sendReply(reply, message, transport, messageId, operation, received);
+            }
+        } finally {
+            if (!pending) {
+                complete(connection);
+            }
+        }
+    }
+
+    private static String getErrorMessage(Throwable t) {
+        return t.getMessage() != null ? t.getMessage() : t.toString();
+    }
+
+    /**
+     * Runs a request in its servant and records its timings.
+     */
+    private TransportMessage process(Servant servant, OperationMetrics operation, TransportMessage message, TransportImpl transport, Object messageId, BinaryInputStream bis, long received) {
+        final long started = System.nanoTime();
+        operation.recordQueueTime(started - received);
+        final OperationMetrics previous = OperationMetrics.setCurrent(operation);
+        try {
+            return servant.process(serializer, message, transport, messageId, bis);
+        } catch (RuntimeException ex) {
+            operation.recordFailed();
+            throw ex;
+        } finally {
+            OperationMetrics.setCurrent(previous);
+            operation.recordProcessTime(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Starts a request in an asynchronous servant and records its timings.
+     */
+    private ListenableFuture<TransportMessage> processAsync(AsyncServant servant, final OperationMetrics operation, TransportMessage message, TransportImpl transport, Object messageId, BinaryInputStream bis, long received) {
+        final long started = System.nanoTime();
+        operation.recordQueueTime(started - received);
+        final OperationMetrics previous = OperationMetrics.setCurrent(operation);
+        final ListenableFuture<TransportMessage> reply;
+        try {
+            reply = servant.processAsync(serializer, message, transport, messageId, bis);
+        } catch (RuntimeException ex) {
+            operation.recordFailed();
+            operation.recordProcessTime(System.nanoTime() - started);
+            throw ex;
+        } finally {
+            OperationMetrics.setCurrent(previous);
+        }
+        reply.addListener(new Runnable() {
+
+            @Override
+            public void run() {
+                operation.recordProcessTime(System.nanoTime() - started);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return reply;
+    }
+
+    /**
+     * Sends the reply of a servant, a servant which has no reply for the
+     * request is answered with an error.
+     */
+    private void sendReply(TransportMessage reply, TransportMessage message, TransportImpl transport, Object messageId, OperationMetrics operation, long received) {
+        if (reply != null) {
+            reply.setContentType(serializer.getContentType());
+            final ByteBuffer payload = reply.getPayload();
+            final int replyBytes = payload != null ? payload.remaining() : 0;
+            transport.send(reply);
+            operation.recordReply(replyBytes, System.nanoTime() - received);
+        } else {
+            operation.recordFailed();
+            sendError(message, transport, messageId, GenericRemoteException.METHOD_NOT_FOUND, NO_REPLY_MESSAGE);
+        }
+    }
+
+    /**
+     * Runs the calls of a batch and sends their replies as one batch reply.
+     *
+     * @param count number of calls, already admitted
+     */
+    private void processBatch(final TransportMessage message, final TransportImpl transport, final Object batchId, BinaryInputStream bis, final int count, final ConnectionState connection, final long received) throws IOException {
+        final BinaryStreamPool pool = BinaryStreamPool.getDefault();
+        final ByteBuffer buffer = message.getPayload();
+        BatchCall[] parsed = null;
+        try {
+            parsed = new BatchCall[count];
+            for (int i = 0; i < count; ++i) {
+                final int length = serializer.deserializeUI32(bis, "");
+                if (length < 0 || length > bis.available()) {
+                    throw new IOException("Invalid length " + length + " of call " + i + " in batch");
+                }
+                final ByteBuffer data = buffer.duplicate();
+                data.position(buffer.position() + bis.getPosition());
+                data.limit(data.position() + length);
+                bis.skipBytes(length);
+
+                final BinaryInputStream callBis = pool.acquireInputStream(data.slice());
+                Object messageId = null;
+                try {
+                    messageId = serializer.deserializeMessageId(callBis);
+                    final Servant servant = serializer.deserializeService(callBis, servants);
+                    if (servant != null && servant != BATCH) {
+                        final OperationMetrics operation = metrics.getOperationMetrics(servant.getServiceName(), serializer, callBis);
+                        operation.recordRequest(length);
+                        parsed[i] = new BatchCall(messageId, servant, callBis, operation);
+                    } else {
+                        parsed[i] = new BatchCall(messageId, null, callBis, null);
+                        parsed[i].fail(GenericRemoteException.METHOD_NOT_FOUND, UNKNOWN_SERVICE_MESSAGE);
+                    }
+                } catch (IOException ex) {
+                    pool.release(callBis);
+                    // answered with an empty entry if not even the message
+                    // id could be read
+                    parsed[i] = new BatchCall(messageId, null, null, null);
+                    parsed[i].fail(GenericRemoteException.INVALID_REQUEST, INVALID_REQUEST_MESSAGE);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            if (parsed != null) {
+                for (BatchCall call : parsed) {
+                    if (call != null && call.bis != null) {
+                        pool.release(call.bis);
+                    }
+                }
+            }
+            complete(connection, count);
+            throw ex;
+        }
+        final BatchCall[] calls = parsed;
+
+        // the reply is sent by the call finishing last, the additional count
+        // is held until all calls are started
+        final AtomicInteger remaining = new AtomicInteger(count + 1);
+        message.retainPayload();
+        final Runnable done = new Runnable() {
+
+            @Override
+            public void run() {
+                if (remaining.decrementAndGet() == 0) {
+                    try {
+                        finishBatch(message, transport, batchId, calls, connection, received);
+                    } finally {
+                        message.releasePayload();
+                    }
+                }
+            }
+        };
+        try {
+            for (final BatchCall call : calls) {
                 if (executor == null) {
-                    TransportMessage tpmreply = servant.process(serializer, message, transport, messageId, bis);
-                    if (tpmreply != null) {
-                        tpmreply.setContentType(serializer.getContentType());
-                        //TransportMessage tresponse = transport.createTransportMessage(message);
-                        //tresponse.setPayload(reply);
-                        transport.send(tpmreply);
+                    processBatchCall(message, transport, call, received, done);
+                    continue;
+                }
+                final Runnable task = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        processBatchCall(message, transport, call, received, done);
+                    }
+                };
+                final Runnable reject = new Runnable() {
+
+                    @Override
+                    public void run() {
+                        rejected.incrementAndGet();
+                        if (call.operation != null) {
+                            call.operation.recordRejected();
+                        }
+                        call.counted = true;
+                        call.fail(GenericRemoteException.SERVER_OVERLOADED, OVERLOADED_MESSAGE);
+                        if (call.bis != null) {
+                            pool.release(call.bis);
+                        }
+                        done.run();
+                    }
+                };
+                try {
+                    if (executor instanceof ServiceWorkerPool && call.servant != null) {
+                        ((ServiceWorkerPool) executor).execute(call.servant.getServiceName(), task, reject);
                     } else {
-                        // TODO return an error to the client.
+                        executor.submit(task);
                     }
-                } else {
-                    executor.submit(new Runnable() {
-
-                        @Override
-                        public void run() {
-                            TransportMessage tpmreply = servant.process(serializer, message, transport, messageId, bis);
-                            if (tpmreply != null) {
-                                tpmreply.setContentType(serializer.getContentType());
-                                //TransportMessage tresponse = transport.createTransportMessage(message);
-                                //tresponse.setPayload(reply);
-                                transport.send(tpmreply);
-                            } else {
-                                // TODO return an error to the client.
-                            }
+                } catch (RejectedExecutionException ex) {
+                    reject.run();
+                }
+            }
+        } finally {
+            done.run();
+        }
+    }
+
+    private void finishBatch(TransportMessage message, TransportImpl transport, Object batchId, BatchCall[] calls, ConnectionState connection, long received) {
+        try {
+            sendBatchReply(message, transport, batchId, calls, received);
+        } finally {
+            complete(connection, calls.length);
+        }
+    }
+
+    /**
+     * Runs a call of a batch, done is run when its reply is available.
+     */
+    private void processBatchCall(TransportMessage message, TransportImpl transport, final BatchCall call, long received, final Runnable done) {
+        if (call.bis == null || call.servant == null) {
+            if (call.bis != null) {
+                BinaryStreamPool.getDefault().release(call.bis);
+            }
+            done.run();
+            return;
+        }
+        boolean pending = false;
+        try {
+            if (call.servant instanceof AsyncServant) {
+                final ListenableFuture<TransportMessage> reply = processAsync((AsyncServant) call.servant, call.operation, message, transport, call.messageId, call.bis, received);
+                pending = true;
+                Futures.addCallback(reply, new FutureCallback<TransportMessage>() {
+
+                    @Override
+                    public void onSuccess(TransportMessage result) {
+                        call.reply = result;
+                        if (result == null) {
+                            call.fail(GenericRemoteException.METHOD_NOT_FOUND, NO_REPLY_MESSAGE);
                         }
-                    });
+                        done.run();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        call.operation.recordFailed();
+                        call.counted = true;
+                        call.fail(GenericRemoteException.INTERNAL_ERROR, getErrorMessage(t));
+                        done.run();
+                    }
+                });
+            } else {
+                call.reply = process(call.servant, call.operation, message, transport, call.messageId, call.bis, received);
+                if (call.reply == null) {
+                    call.fail(GenericRemoteException.METHOD_NOT_FOUND, NO_REPLY_MESSAGE);
+                }
+            }
+        } catch (RuntimeException ex) {
+            call.counted = true;
+            call.fail(GenericRemoteException.INTERNAL_ERROR, getErrorMessage(ex));
+        } finally {
+            BinaryStreamPool.getDefault().release(call.bis);
+            if (!pending) {
+                done.run();
+            }
+        }
+    }
+
+    private void sendBatchReply(TransportMessage message, TransportImpl transport, Object batchId, BatchCall[] calls, long received) {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final int[] replyBytes = new int[calls.length];
+        try {
+            serializer.serializeMessageId(bos, batchId);
+            serializer.serializeUI32(bos, "", calls.length);
+            for (int i = 0; i < calls.length; ++i) {
+                final BatchCall call = calls[i];
+                ByteBuffer payload = call.reply != null ? call.reply.getPayload() : null;
+                replyBytes[i] = payload != null ? payload.remaining() : -1;
+                if (payload == null && call.errorCode != 0 && call.messageId != null) {
+                    // the same error reply a single call gets
+                    payload = serializeError(call.messageId, call.errorCode, call.errorMessage);
+                }
+                if (payload == null) {
+                    serializer.serializeUI32(bos, "", 0);
+                    continue;
+                }
+                serializer.serializeUI32(bos, "", payload.remaining());
+                if (payload.hasArray()) {
+                    bos.write(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+                } else {
+                    final byte[] bytes = new byte[payload.remaining()];
+                    payload.duplicate().get(bytes);
+                    bos.write(bytes, 0, bytes.length);
+                }
+                if (call.reply != null) {
+                    call.reply.releasePayload();
                 }
             }
         } catch (IOException ex) {
+            for (BatchCall call : calls) {
+                if (call.reply != null) {
+                    call.reply.releasePayload();
+                }
+                if (call.operation != null && !call.counted) {
+                    call.operation.recordFailed();
+                }
+            }
+            sendError(message, transport, batchId, GenericRemoteException.INTERNAL_ERROR, getErrorMessage(ex));
+            return;
+        }
+        final TransportMessage reply = transport.createTransportMessage(message);
+        reply.setPayload(bos.getByteBuffer());
+        reply.setContentType(serializer.getContentType());
+        transport.send(reply);
+
+        final long latency = System.nanoTime() - received;
+        for (int i = 0; i < calls.length; ++i) {
+            final OperationMetrics operation = calls[i].operation;
+            if (operation == null || calls[i].counted) {
+                continue;
+            }
+            if (replyBytes[i] >= 0) {
+                operation.recordReply(replyBytes[i], latency);
+            } else {
+                operation.recordFailed();
+            }
         }
-        return true;
     }
 
     @Override
     public void close() throws IOException {
+        metrics.removeGauge(IN_FLIGHT_GAUGE, inFlightGauge);
+        metrics.removeGauge(QUEUED_GAUGE, queuedGauge);
+        metrics.removeGauge(REJECTED_GAUGE, rejectedGauge);
+        metrics.removeGauge(SUSPENDED_GAUGE, suspendedGauge);
     }
 }
@@ -0,0 +1,191 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.config.ServerConfiguration;
+import org.fiware.kiara.exceptions.ConnectException;
+import org.fiware.kiara.netty.URILoader;
+import org.fiware.kiara.typecode.services.ServiceTypeDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process wide cache of negotiated server configurations and the service
+ * types of their IDL, keyed by configuration URI.
+ *
+ * A cached configuration is used without contacting the server while it is
+ * fresh, i.e. for the max-age sent by the server or, without one, for
+ * {@value #TTL_PROPERTY} milliseconds (default {@value #DEFAULT_TTL}). After
+ * that it is revalidated with its entity tag and only loaded and parsed
+ * again when it changed. An IDL referenced by URL is revalidated the same
+ * way, also when the configuration itself did not change, and is parsed
+ * again only when its text changed.
+ */
+public final class ServerConfigurationCache {
+
+    public static final String TTL_PROPERTY = "kiara.negotiation.ttl";
+
+    public static final long DEFAULT_TTL = 30000;
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerConfigurationCache.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final ServerConfigurationCache defaultCache = new ServerConfigurationCache(Long.getLong(TTL_PROPERTY, DEFAULT_TTL));
+
+    /**
+     * Negotiated server configuration with the service types of its IDL.
+     */
+    public static final class Entry {
+
+        public final ServerConfiguration serverConfiguration;
+        public final List<ServiceTypeDescriptor> serviceTypes;
+        private final String etag;
+        private final String idlContents;
+        private final String idlFileName;
+        private final String idlETag;
+        private final long expiresAt;
+
+        Entry(ServerConfiguration serverConfiguration, List<ServiceTypeDescriptor> serviceTypes,
+                String etag, String idlContents, String idlFileName, String idlETag, long expiresAt) {
+            this.serverConfiguration = serverConfiguration;
+            this.serviceTypes = Collections.unmodifiableList(serviceTypes);
+            this.etag = etag;
+            this.idlContents = idlContents;
+            this.idlFileName = idlFileName;
+            this.idlETag = idlETag;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    public ServerConfigurationCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static ServerConfigurationCache getDefault() {
+        return defaultCache;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private long expiresAt(long now, URILoader.Content content) {
+        final long maxAge = content.getMaxAge();
+        return now + (maxAge >= 0 ? TimeUnit.SECONDS.toMillis(maxAge) : ttlMillis);
+    }
+
+    private static String toString(ByteBuffer buf) {
+        return new String(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining(), UTF_8);
+    }
+
+    /**
+     * Returns the configuration served at configUri, loading it only when
+     * the cached one is outdated.
+     *
+     * @param configUri URI of the server configuration
+     * @return negotiated configuration
+     * @throws IOException if the configuration or its IDL could not be loaded
+     */
+    public Entry get(URI configUri) throws IOException {
+        final String key = configUri.toString();
+        final Entry cached = entries.get(key);
+        final long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt > now) {
+            return cached;
+        }
+
+        // 1. load server configuration
+        final URILoader.Content content;
+        try {
+            content = URILoader.loadIfModified(configUri, cached != null ? cached.etag : null);
+        } catch (IOException ex) {
+            throw new ConnectException("Could not load server configuration", ex);
+        }
+
+        final ServerConfiguration serverConfig;
+        if (cached != null && content.isNotModified()) {
+            serverConfig = cached.serverConfiguration;
+        } else {
+            final String configText = toString(content.getContent());
+
+            logger.debug("Config text: {}", configText);
+
+            try {
+                serverConfig = ServerConfiguration.fromJson(configText);
+            } catch (IOException ex) {
+                throw new ConnectException("Could not parse server configuration", ex);
+            }
+        }
+        long expiresAt = expiresAt(now, content);
+
+        // load IDL
+        final String idlContents;
+        final String idlFileName;
+        String idlETag = null;
+        if (serverConfig.idlContents != null && !serverConfig.idlContents.isEmpty()) {
+            idlContents = serverConfig.idlContents;
+            idlFileName = configUri.toString();
+        } else if (serverConfig.idlURL != null && !serverConfig.idlURL.isEmpty()) {
+            URI idlUri = configUri.resolve(serverConfig.idlURL);
+            idlFileName = idlUri.toString();
+            final boolean sameIdl = cached != null && cached.idlETag != null && idlFileName.equals(cached.idlFileName);
+            final URILoader.Content idl = URILoader.loadIfModified(idlUri, sameIdl ? cached.idlETag : null);
+            if (idl.isNotModified()) {
+                idlContents = cached.idlContents;
+            } else {
+                idlContents = toString(idl.getContent());
+
+                logger.debug("IDL CONTENTS: {}", idlContents);
+            }
+            idlETag = idl.getETag();
+            expiresAt = Math.min(expiresAt, expiresAt(now, idl));
+        } else {
+            throw new ConnectException("No IDL specified in server configuration");
+        }
+
+        final List<ServiceTypeDescriptor> serviceTypes;
+        if (cached != null && idlContents.equals(cached.idlContents)) {
+            serviceTypes = cached.serviceTypes;
+        } else {
+            serviceTypes = TypeMapper.getServiceTypes(IDLUtils.loadIDL(idlContents, idlFileName));
+        }
+
+        final Entry entry = new Entry(serverConfig, serviceTypes, content.getETag(), idlContents,
+                idlFileName, idlETag, expiresAt);
+        // without an entity tag the configuration can't be revalidated
+        if (entry.etag != null || entry.expiresAt > now) {
+            entries.put(key, entry);
+        } else {
+            entries.remove(key);
+        }
+        return entry;
+    }
+}
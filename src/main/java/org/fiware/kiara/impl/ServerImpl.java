@@ -2,6 +2,7 @@ package org.fiware.kiara.impl;
 
 import com.google.common.collect.Sets;
 import org.fiware.kiara.Context;
+import org.fiware.kiara.metrics.MetricsRegistry;
 import org.fiware.kiara.server.Server;
 import org.fiware.kiara.server.Service;
 import org.fiware.kiara.serialization.Serializer;
@@ -22,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.management.JMException;
 import javax.net.ssl.SSLException;
 
 import org.fiware.kiara.config.ProtocolInfo;
@@ -32,15 +34,20 @@ import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
 import org.fiware.kiara.transport.TransportFactory;
 import org.fiware.kiara.typecode.services.FunctionTypeDescriptor;
 import org.fiware.kiara.typecode.services.ServiceTypeDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ServerImpl implements Server {
 
+    private static final Logger logger = LoggerFactory.getLogger(ServerImpl.class);
+
     private final Context context;
     private final TransportServer transportServer;
     private final List<ServiceInstanceInfo> serviceInstanceInfos;
     private final List<ServantDispatcher> servantDispatchers;
     private final Map<String, DynamicServant> dynamicServants;
     private NegotiationHandler negotiationHandler;
+    private final MetricsRegistry metrics = new MetricsRegistry();
 
     private String configHost;
     private int configPort;
@@ -139,7 +146,7 @@ public class ServerImpl implements Server {
 
     @Override
     public void addService(Service service, ServerTransport serverTransport, Serializer serializer) throws IOException {
-        ServantDispatcher dispatcher = new ServantDispatcher(serializer, serverTransport);
+        ServantDispatcher dispatcher = new ServantDispatcher(serializer, serverTransport, metrics);
 
         ServiceInstanceInfo serviceInstanceInfo = new ServiceInstanceInfo(service, serverTransport, serializer);
         synchronized (serviceInstanceInfos) {
@@ -232,8 +239,20 @@ public class ServerImpl implements Server {
         return configUri;
     }
 
+    @Override
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void run() {
+        if (Boolean.getBoolean(MetricsRegistry.JMX_PROPERTY)) {
+            try {
+                metrics.registerMBean();
+            } catch (JMException ex) {
+                logger.warn("Could not register server metrics", ex);
+            }
+        }
         try {
             transportServer.run();
         } catch (IOException ex) {
@@ -247,6 +266,11 @@ public class ServerImpl implements Server {
         for (ServantDispatcher servantDispatcher : servantDispatchers) {
             servantDispatcher.close();
         }
+        try {
+            metrics.unregisterMBean();
+        } catch (JMException ex) {
+            logger.warn("Could not unregister server metrics", ex);
+        }
     }
 
 }
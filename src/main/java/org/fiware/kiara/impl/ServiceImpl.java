@@ -6,6 +6,8 @@ import org.fiware.kiara.server.Servant;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.fiware.kiara.dynamic.impl.services.AsyncDynamicFunctionHandlerAdapter;
+import org.fiware.kiara.dynamic.services.AsyncDynamicFunctionHandler;
 import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
 import org.fiware.kiara.exceptions.IDLParseException;
 import org.fiware.kiara.typecode.services.FunctionTypeDescriptor;
@@ -84,6 +86,14 @@ public class ServiceImpl implements Service {
         dynamicHandlers.put(type, handler);
     }
 
+    @Override
+    public void register(String idlOperationName, AsyncDynamicFunctionHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("handler");
+        }
+        register(idlOperationName, new AsyncDynamicFunctionHandlerAdapter(handler));
+    }
+
     @Override
     public void loadServiceIDLFromString(String idlContents) throws IDLParseException {
         idlInfoDatabase.loadServiceIDLFromString(idlContents);
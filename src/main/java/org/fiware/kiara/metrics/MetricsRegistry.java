@@ -0,0 +1,248 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.NameTable;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+
+/**
+ * Metrics of a server: {@link OperationMetrics} per service and operation,
+ * and named {@link Gauge}s. Gauges registered under the same name are summed
+ * up, so that every dispatcher of a server can contribute its own.
+ *
+ * Operations are resolved from the request bytes, recording the metrics of
+ * a known operation does not allocate.
+ */
+public final class MetricsRegistry implements MetricsRegistryMXBean {
+
+    /**
+     * System property enabling the registration of every server's metrics
+     * with the platform MBean server.
+     */
+    public static final String JMX_PROPERTY = "kiara.metrics.jmx";
+
+    public static final String JMX_DOMAIN = "org.fiware.kiara";
+
+    // requests for further operations of a service are counted together,
+    // so that clients can not grow the registry without bounds
+    private static final int MAX_OPERATIONS_PER_SERVICE = 256;
+    private static final String OTHER_OPERATIONS = "*";
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private static final class ServiceEntry {
+
+        final String serviceName;
+        final OperationMetrics other;
+        // replaced on every change so that lookups need no lock
+        volatile NameTable<OperationMetrics> operations = NameTable.empty();
+
+        ServiceEntry(String serviceName) {
+            this.serviceName = serviceName;
+            this.other = new OperationMetrics(serviceName, OTHER_OPERATIONS);
+        }
+
+        synchronized OperationMetrics add(String operationName) {
+            OperationMetrics metrics = operations.get(operationName);
+            if (metrics == null) {
+                if (operations.size() >= MAX_OPERATIONS_PER_SERVICE) {
+                    return other;
+                }
+                metrics = new OperationMetrics(serviceName, operationName);
+                operations = operations.with(operationName, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    private final ConcurrentMap<String, ServiceEntry> services = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<Gauge>> gauges = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    private ServiceEntry getServiceEntry(String serviceName) {
+        ServiceEntry entry = services.get(serviceName);
+        if (entry == null) {
+            final ServiceEntry newEntry = new ServiceEntry(serviceName);
+            entry = services.putIfAbsent(serviceName, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry;
+    }
+
+    public OperationMetrics getOperationMetrics(String serviceName, String operationName) {
+        final ServiceEntry entry = getServiceEntry(serviceName);
+        final OperationMetrics metrics = entry.operations.get(operationName);
+        return metrics != null ? metrics : entry.add(operationName);
+    }
+
+    /**
+     * Returns the metrics of the operation that follows in a request. The
+     * position of the stream is not changed.
+     *
+     * @param serviceName service of the request
+     * @param ser serializer of the request
+     * @param bis request positioned at the operation name
+     * @return metrics of the operation
+     */
+    public OperationMetrics getOperationMetrics(String serviceName, SerializerImpl ser, BinaryInputStream bis) {
+        final ServiceEntry entry = getServiceEntry(serviceName);
+        final int position = bis.getPosition();
+        try {
+            OperationMetrics metrics = ser.deserializeOperation(bis, entry.operations);
+            if (metrics == null) {
+                bis.setPosition(position);
+                metrics = entry.add(ser.deserializeOperation(bis));
+            }
+            return metrics;
+        } catch (IOException | RuntimeException ex) {
+            return entry.other;
+        } finally {
+            bis.setPosition(position);
+        }
+    }
+
+    /**
+     * @return metrics of every operation that received requests
+     */
+    public List<OperationMetrics> getOperationMetrics() {
+        final List<OperationMetrics> result = new ArrayList<>();
+        for (ServiceEntry entry : services.values()) {
+            result.addAll(entry.operations.toMap().values());
+            if (entry.other.getRequests() != 0) {
+                result.add(entry.other);
+            }
+        }
+        return result;
+    }
+
+    public void addGauge(String name, Gauge gauge) {
+        List<Gauge> list = gauges.get(name);
+        if (list == null) {
+            final List<Gauge> newList = new CopyOnWriteArrayList<>();
+            list = gauges.putIfAbsent(name, newList);
+            if (list == null) {
+                list = newList;
+            }
+        }
+        list.add(gauge);
+    }
+
+    public boolean removeGauge(String name, Gauge gauge) {
+        final List<Gauge> list = gauges.get(name);
+        return list != null && list.remove(gauge);
+    }
+
+    /**
+     * @param name gauge name
+     * @return sum of the gauges registered under name
+     */
+    public long getGaugeValue(String name) {
+        final List<Gauge> list = gauges.get(name);
+        long value = 0;
+        if (list != null) {
+            for (Gauge gauge : list) {
+                value += gauge.getValue();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        final Map<String, Long> result = new TreeMap<>();
+        for (String name : gauges.keySet()) {
+            result.put(name, getGaugeValue(name));
+        }
+        return result;
+    }
+
+    @Override
+    public long getRequests() {
+        long requests = 0;
+        for (OperationMetrics metrics : getOperationMetrics()) {
+            requests += metrics.getRequests();
+        }
+        return requests;
+    }
+
+    @Override
+    public List<OperationStatistics> getOperations() {
+        final List<OperationStatistics> result = new ArrayList<>();
+        for (OperationMetrics metrics : getOperationMetrics()) {
+            result.add(metrics.getStatistics());
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        for (ServiceEntry entry : services.values()) {
+            for (OperationMetrics metrics : entry.operations.toMap().values()) {
+                metrics.reset();
+            }
+            entry.other.reset();
+        }
+    }
+
+    /**
+     * Registers this registry with the platform MBean server under a name
+     * unique within the JVM.
+     *
+     * @return name of the registered MBean
+     * @throws JMException if the registration fails
+     */
+    public synchronized ObjectName registerMBean() throws JMException {
+        if (objectName == null) {
+            final ObjectName name = new ObjectName(JMX_DOMAIN + ":type=Server,id=" + nextId.getAndIncrement());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        }
+        return objectName;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+}
@@ -0,0 +1,48 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX view of a {@link MetricsRegistry}.
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * @return number of requests received over all operations
+     */
+    public long getRequests();
+
+    /**
+     * @return current values of all gauges by name
+     */
+    public Map<String, Long> getGauges();
+
+    /**
+     * @return statistics of every operation that received requests
+     */
+    public List<OperationStatistics> getOperations();
+
+    /**
+     * Clears all counters and timings, gauges are not affected.
+     */
+    public void reset();
+
+}
@@ -0,0 +1,181 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and timings of one operation of a service. All times are
+ * recorded in nanoseconds:
+ * <ul>
+ * <li>latency: from receiving the request until its reply is handed to the
+ * transport</li>
+ * <li>queue time: from receiving the request until a worker starts it</li>
+ * <li>process time: time spent in the servant, including the
+ * deserialization of the arguments and the serialization of the result</li>
+ * <li>handler time: time spent in the user code only, recorded by servants
+ * that can separate it from the serialization</li>
+ * </ul>
+ */
+public final class OperationMetrics {
+
+    private static final ThreadLocal<OperationMetrics> current = new ThreadLocal<>();
+
+    private final String serviceName;
+    private final String operationName;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private final Histogram latency = new Histogram();
+    private final Histogram queueTime = new Histogram();
+    private final Histogram processTime = new Histogram();
+    private final Histogram handlerTime = new Histogram();
+
+    public OperationMetrics(String serviceName, String operationName) {
+        this.serviceName = serviceName;
+        this.operationName = operationName;
+    }
+
+    /**
+     * Returns the metrics of the request processed by the calling thread.
+     *
+     * @return metrics or null if the thread does not process a request
+     */
+    public static OperationMetrics current() {
+        return current.get();
+    }
+
+    /**
+     * Sets the metrics of the request processed by the calling thread.
+     *
+     * @param metrics metrics or null
+     * @return previously set metrics
+     */
+    public static OperationMetrics setCurrent(OperationMetrics metrics) {
+        final OperationMetrics previous = current.get();
+        current.set(metrics);
+        return previous;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public void recordRequest(int bytes) {
+        requests.incrementAndGet();
+        bytesReceived.addAndGet(bytes);
+    }
+
+    public void recordReply(int bytes, long latencyNanos) {
+        bytesSent.addAndGet(bytes);
+        latency.record(latencyNanos);
+    }
+
+    public void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    public void recordFailed() {
+        failed.incrementAndGet();
+    }
+
+    public void recordQueueTime(long nanos) {
+        queueTime.record(nanos);
+    }
+
+    public void recordProcessTime(long nanos) {
+        processTime.record(nanos);
+    }
+
+    public void recordHandlerTime(long nanos) {
+        handlerTime.record(nanos);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getQueueTime() {
+        return queueTime;
+    }
+
+    public Histogram getProcessTime() {
+        return processTime;
+    }
+
+    public Histogram getHandlerTime() {
+        return handlerTime;
+    }
+
+    /**
+     * @return copy of the current values
+     */
+    public OperationStatistics getStatistics() {
+        return new OperationStatistics(serviceName, operationName,
+                requests.get(), rejected.get(), failed.get(),
+                bytesReceived.get(), bytesSent.get(),
+                latency.getMean(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMax(),
+                queueTime.getMean(), processTime.getMean(), handlerTime.getMean());
+    }
+
+    public void reset() {
+        requests.set(0);
+        rejected.set(0);
+        failed.set(0);
+        bytesReceived.set(0);
+        bytesSent.set(0);
+        latency.reset();
+        queueTime.reset();
+        processTime.reset();
+        handlerTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return serviceName + "." + operationName;
+    }
+
+}
@@ -0,0 +1,126 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of {@link OperationMetrics}, times are in nanoseconds.
+ */
+public final class OperationStatistics {
+
+    private final String serviceName;
+    private final String operationName;
+    private final long requests;
+    private final long rejected;
+    private final long failed;
+    private final long bytesReceived;
+    private final long bytesSent;
+    private final double meanLatency;
+    private final long medianLatency;
+    private final long latency99;
+    private final long maxLatency;
+    private final double meanQueueTime;
+    private final double meanProcessTime;
+    private final double meanHandlerTime;
+
+    @ConstructorProperties({"serviceName", "operationName", "requests", "rejected", "failed",
+        "bytesReceived", "bytesSent", "meanLatency", "medianLatency", "latency99", "maxLatency",
+        "meanQueueTime", "meanProcessTime", "meanHandlerTime"})
+    public OperationStatistics(String serviceName, String operationName, long requests, long rejected, long failed,
+            long bytesReceived, long bytesSent, double meanLatency, long medianLatency, long latency99, long maxLatency,
+            double meanQueueTime, double meanProcessTime, double meanHandlerTime) {
+        this.serviceName = serviceName;
+        this.operationName = operationName;
+        this.requests = requests;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.bytesReceived = bytesReceived;
+        this.bytesSent = bytesSent;
+        this.meanLatency = meanLatency;
+        this.medianLatency = medianLatency;
+        this.latency99 = latency99;
+        this.maxLatency = maxLatency;
+        this.meanQueueTime = meanQueueTime;
+        this.meanProcessTime = meanProcessTime;
+        this.meanHandlerTime = meanHandlerTime;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public double getMeanLatency() {
+        return meanLatency;
+    }
+
+    public long getMedianLatency() {
+        return medianLatency;
+    }
+
+    public long getLatency99() {
+        return latency99;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    public double getMeanQueueTime() {
+        return meanQueueTime;
+    }
+
+    public double getMeanProcessTime() {
+        return meanProcessTime;
+    }
+
+    public double getMeanHandlerTime() {
+        return meanHandlerTime;
+    }
+
+    @Override
+    public String toString() {
+        return serviceName + "." + operationName + "{requests=" + requests + ", rejected=" + rejected
+                + ", failed=" + failed + ", meanLatency=" + meanLatency + ", latency99=" + latency99 + "}";
+    }
+
+}
@@ -20,6 +20,7 @@ package org.fiware.kiara.netty;
 import org.fiware.kiara.transport.impl.TransportImpl;
 import org.fiware.kiara.transport.TransportFactory;
 import org.fiware.kiara.transport.impl.TransportMessageListener;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
 import org.fiware.kiara.transport.impl.TransportMessage;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import io.netty.channel.Channel;
@@ -40,7 +41,7 @@ import org.slf4j.LoggerFactory;
  * @param <I>
  * @param <T>
  */
-public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleChannelInboundHandler<I> implements TransportImpl {
+public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleChannelInboundHandler<I> implements TransportImpl, CallRegistry {
 
     private static final Logger logger = LoggerFactory.getLogger(BaseHandler.class);
 
@@ -48,6 +49,7 @@ public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleC
     protected volatile Channel channel = null;
     private TransportConnectionListener connectionListener;
     private final List<TransportMessageListener> listeners = new ArrayList<>();
+    private final PendingCalls pendingCalls = new PendingCalls();
 
     public static enum Mode {
 
@@ -98,6 +100,23 @@ public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleC
         }
     }
 
+    /**
+     * @return table of the calls waiting for a response on this transport
+     */
+    public PendingCalls getPendingCalls() {
+        return pendingCalls;
+    }
+
+    @Override
+    public CallRegistry register(TransportMessageDispatcher call, SerializerImpl ser, TransportMessage request) {
+        return pendingCalls.register(call, ser) ? this : null;
+    }
+
+    @Override
+    public void unregister(TransportMessageDispatcher call) {
+        pendingCalls.unregister(call);
+    }
+
     public TransportConnectionListener getConnectionListener() {
         return connectionListener;
     }
@@ -107,6 +126,9 @@ public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleC
     }
 
     protected final void notifyListeners(final TransportMessage message) {
+        if (pendingCalls.onMessage(message)) {
+            return;
+        }
         TransportMessageListener currentListeners[] = null;
         synchronized (listeners) {
             if (!listeners.isEmpty()) {
@@ -121,6 +143,35 @@ public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleC
         }
     }
 
+    /**
+     * Returns the pooled payload of message when future is done.
+     *
+     * @param future write future of the message
+     * @param message written message
+     */
+    protected static void releasePayloadWhenDone(ChannelFuture future, final TransportMessage message) {
+        future.addListener(new ChannelFutureListener() {
+
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                message.releasePayload();
+            }
+        });
+    }
+
+    /**
+     * Stops or resumes reading from the channel. While reading is suspended
+     * the peer is throttled by the socket buffers filling up.
+     *
+     * @param suspended true to stop reading, false to resume
+     */
+    public void setReadingSuspended(boolean suspended) {
+        final Channel currentChannel = channel;
+        if (currentChannel != null) {
+            currentChannel.config().setAutoRead(!suspended);
+        }
+    }
+
     @Override
     public SocketAddress getLocalAddress() {
         if (channel == null) {
@@ -170,7 +221,9 @@ public abstract class BaseHandler<I, T extends TransportFactory> extends SimpleC
             channel.close();
         }
         // END NEW
-        
+
+        pendingCalls.failAll(new IOException("Connection closed"));
+
         if (connectionListener != null) {
             connectionListener.onConnectionClosed(this);
         }
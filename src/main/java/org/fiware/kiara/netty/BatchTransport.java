@@ -0,0 +1,302 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.transport.TransportFactory;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.impl.TransportMessageListener;
+
+/**
+ * Transport of batch proxies. Requests sent over it are queued and written
+ * to the underlying transport as a single batch request by
+ * {@link #flush()}.
+ *
+ * A batch request consists of its own message id, the service name
+ * {@value #BATCH_SERVICE_NAME} and the number of requests, followed by
+ * the length and the serialized data of each request. The reply has the
+ * same layout without the service name, with one entry per request in
+ * request order. A failed request is answered with the same error reply it
+ * would get outside a batch, an empty entry means the request could not
+ * even be decoded.
+ */
+public class BatchTransport implements TransportImpl, CallRegistry {
+
+    public static final String BATCH_SERVICE_NAME = "kiara.batch";
+
+    private static final class Request {
+
+        final Object messageId;
+        final TransportMessage message;
+
+        Request(Object messageId, TransportMessage message) {
+            this.messageId = messageId;
+            this.message = message;
+        }
+    }
+
+    private final class BatchMessage extends TransportMessage {
+
+        private final Map<String, Object> properties = new HashMap<>();
+
+        BatchMessage(ByteBuffer payload) {
+            super(BatchTransport.this, payload);
+        }
+
+        @Override
+        public TransportMessage set(String name, Object value) {
+            properties.put(name, value);
+            return this;
+        }
+
+        @Override
+        public Object get(String name) {
+            return properties.get(name);
+        }
+    }
+
+    private final TransportImpl transport;
+    private final SerializerImpl serializer;
+    private final ConcurrentMap<Object, TransportMessageDispatcher> calls = new ConcurrentHashMap<>();
+    // guarded by this
+    private List<Request> queue = new ArrayList<>();
+
+    public BatchTransport(TransportImpl transport, SerializerImpl serializer) {
+        if (transport == null) {
+            throw new NullPointerException("transport");
+        }
+        if (serializer == null) {
+            throw new NullPointerException("serializer");
+        }
+        this.transport = transport;
+        this.serializer = serializer;
+    }
+
+    /**
+     * @return transport batches are sent over
+     */
+    public TransportImpl getTransport() {
+        return transport;
+    }
+
+    @Override
+    public CallRegistry register(TransportMessageDispatcher call, SerializerImpl ser, TransportMessage request) {
+        // answered when the reply to the batch arrives
+        calls.put(call.getMessageId(), call);
+        return this;
+    }
+
+    @Override
+    public void unregister(TransportMessageDispatcher call) {
+        calls.remove(call.getMessageId(), call);
+    }
+
+    /**
+     * @return number of queued requests
+     */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    @Override
+    public TransportMessage createTransportMessage(TransportMessage message) {
+        if (message != null) {
+            return transport.createTransportMessage(message);
+        }
+        return new BatchMessage(null);
+    }
+
+    @Override
+    public ListenableFuture<Void> send(TransportMessage message) {
+        final BinaryInputStream bis = BinaryStreamPool.getDefault().acquireInputStream(message.getPayload());
+        final Object messageId;
+        try {
+            messageId = serializer.deserializeMessageId(bis);
+        } catch (IOException ex) {
+            message.releasePayload();
+            return Futures.immediateFailedFuture(ex);
+        } finally {
+            BinaryStreamPool.getDefault().release(bis);
+        }
+        synchronized (this) {
+            queue.add(new Request(messageId, message));
+        }
+        return Futures.immediateFuture(null);
+    }
+
+    /**
+     * Sends all queued requests as one batch.
+     *
+     * @return future completed when the batch was sent
+     */
+    public ListenableFuture<Void> flush() {
+        final List<Request> requests;
+        synchronized (this) {
+            if (queue.isEmpty()) {
+                return Futures.immediateFuture(null);
+            }
+            requests = queue;
+            queue = new ArrayList<>();
+        }
+
+        final Object batchId = serializer.getNewMessageId();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        try {
+            serializer.serializeMessageId(bos, batchId);
+            serializer.serializeService(bos, BATCH_SERVICE_NAME);
+            serializer.serializeUI32(bos, "", requests.size());
+            for (Request request : requests) {
+                final ByteBuffer payload = request.message.getPayload();
+                serializer.serializeUI32(bos, "", payload.remaining());
+                if (payload.hasArray()) {
+                    bos.write(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+                } else {
+                    final byte[] bytes = new byte[payload.remaining()];
+                    payload.duplicate().get(bytes);
+                    bos.write(bytes, 0, bytes.length);
+                }
+                request.message.releasePayload();
+            }
+        } catch (IOException ex) {
+            fail(requests, ex);
+            return Futures.immediateFailedFuture(ex);
+        }
+
+        final TransportMessage batch = transport.createTransportMessage(null);
+        batch.setPayload(bos.getByteBuffer());
+        batch.setContentType(serializer.getContentType());
+        final TransportMessageDispatcher reply = new TransportMessageDispatcher(batchId, serializer, transport, batch);
+        Futures.addCallback(reply, new FutureCallback<TransportMessage>() {
+
+            @Override
+            public void onSuccess(TransportMessage result) {
+                complete(requests, result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                fail(requests, t);
+            }
+        });
+        final ListenableFuture<Void> sent = transport.send(batch);
+        Futures.addCallback(sent, new FutureCallback<Void>() {
+
+            @Override
+            public void onSuccess(Void result) {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                reply.cancel(false);
+                fail(requests, t);
+            }
+        });
+        return sent;
+    }
+
+    private void complete(List<Request> requests, TransportMessage batchReply) {
+        final ByteBuffer payload = batchReply.getPayload();
+        final BinaryInputStream bis = BinaryStreamPool.getDefault().acquireInputStream(payload);
+        try {
+            serializer.deserializeMessageId(bis);
+            final int count = serializer.deserializeUI32(bis, "");
+            for (int i = 0; i < requests.size(); ++i) {
+                final TransportMessageDispatcher call = calls.remove(requests.get(i).messageId);
+                final int length = i < count ? serializer.deserializeUI32(bis, "") : 0;
+                if (call == null) {
+                    bis.skipBytes(length);
+                } else if (length == 0) {
+                    call.fail(new IOException("No reply to message " + requests.get(i).messageId + " in batch"));
+                } else {
+                    final ByteBuffer data = payload.duplicate();
+                    data.position(payload.position() + bis.getPosition());
+                    data.limit(data.position() + length);
+                    bis.skipBytes(length);
+                    final TransportMessage message = new BatchMessage(data.slice());
+                    message.setMessageId(requests.get(i).messageId);
+                    call.complete(message);
+                }
+            }
+        } catch (IOException ex) {
+            fail(requests, ex);
+        } finally {
+            BinaryStreamPool.getDefault().release(bis);
+        }
+    }
+
+    private void fail(List<Request> requests, Throwable cause) {
+        for (Request request : requests) {
+            final TransportMessageDispatcher call = calls.remove(request.messageId);
+            if (call != null) {
+                call.fail(cause);
+            }
+        }
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return transport.getLocalAddress();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return transport.getRemoteAddress();
+    }
+
+    @Override
+    public void addMessageListener(TransportMessageListener listener) {
+        transport.addMessageListener(listener);
+    }
+
+    @Override
+    public boolean removeMessageListener(TransportMessageListener listener) {
+        return transport.removeMessageListener(listener);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return transport.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the underlying transport is owned by the connection
+    }
+
+    @Override
+    public TransportFactory getTransportFactory() {
+        return transport.getTransportFactory();
+    }
+
+}
@@ -0,0 +1,49 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+
+/**
+ * Transport that delivers responses to the calls waiting for them itself,
+ * instead of each call listening to all messages of the transport.
+ */
+public interface CallRegistry {
+
+    /**
+     * Registers a call waiting for the response to its request.
+     *
+     * @param call call waiting for the response
+     * @param ser serializer of the call
+     * @param request request of the call, created by this transport, null
+     * if unknown
+     * @return registry the call is registered with, this or the registry
+     * of the connection the request is sent over; null if the call has to
+     * listen to the messages of the connection of its request
+     */
+    public CallRegistry register(TransportMessageDispatcher call, SerializerImpl ser, TransportMessage request);
+
+    /**
+     * Removes a call that no longer waits for its response.
+     *
+     * @param call registered call
+     */
+    public void unregister(TransportMessageDispatcher call);
+
+}
@@ -0,0 +1,232 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.bootstrap.ChannelFactory;
+import io.netty.channel.ChannelException;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.internal.PlatformDependent;
+import java.io.IOException;
+import java.net.SocketOption;
+import java.nio.channels.NetworkChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the Netty event loop implementation used by all transports. The
+ * backend is chosen once with the {@value #PROPERTY} system property
+ * ({@code nio} or {@code epoll}), the default is NIO. The native epoll
+ * backend uses edge-triggered I/O and supports {@code SO_REUSEPORT}; when it
+ * is requested but not usable on the platform NIO is used instead.
+ *
+ * Channels must be created by the same backend as the event loop group they
+ * are registered with.
+ */
+public enum EventLoopBackend {
+
+    NIO {
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int nThreads) {
+            return new NioEventLoopGroup(nThreads);
+        }
+
+        @Override
+        public Class<? extends SocketChannel> getSocketChannelClass() {
+            return NioSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(InternetProtocolFamily ipFamily) {
+            return new NioDatagramChannelFactory(ipFamily);
+        }
+
+        @Override
+        public boolean isReusePortSupported() {
+            return false;
+        }
+
+        @Override
+        public void setReusePort(AbstractBootstrap<?, ?> bootstrap) {
+            throw new UnsupportedOperationException("SO_REUSEPORT requires the epoll backend");
+        }
+    },
+    EPOLL {
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int nThreads) {
+            return new EpollEventLoopGroup(nThreads);
+        }
+
+        @Override
+        public Class<? extends SocketChannel> getSocketChannelClass() {
+            return EpollSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(InternetProtocolFamily ipFamily) {
+            // native datagram sockets are dual stack
+            return new ChannelFactory<EpollDatagramChannel>() {
+
+                @Override
+                public EpollDatagramChannel newChannel() {
+                    try {
+                        return new EpollDatagramChannel();
+                    } catch (Throwable t) {
+                        throw new ChannelException("Unable to create Channel from class EpollDatagramChannel", t);
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return "EpollDatagramChannelFactory";
+                }
+            };
+        }
+
+        @Override
+        public boolean isReusePortSupported() {
+            return true;
+        }
+
+        @Override
+        public void setReusePort(AbstractBootstrap<?, ?> bootstrap) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+    };
+
+    /**
+     * System property selecting the backend.
+     */
+    public static final String PROPERTY = "kiara.netty.backend";
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLoopBackend.class);
+
+    private static final class Holder {
+
+        static final EventLoopBackend SELECTED = forName(System.getProperty(PROPERTY, "nio"));
+    }
+
+    /**
+     * @param name backend name, {@code nio} or {@code epoll}
+     * @return the named backend, NIO if it is unknown or not available
+     */
+    public static EventLoopBackend forName(String name) {
+        if ("epoll".equalsIgnoreCase(name)) {
+            if (isEpollUsable()) {
+                return EPOLL;
+            }
+            logger.warn("Native epoll transport is not available, using NIO");
+        } else if (!"nio".equalsIgnoreCase(name)) {
+            logger.warn("Unknown event loop backend {}, using NIO", name);
+        }
+        return NIO;
+    }
+
+    /**
+     * The native transport reads into direct buffers only, which Netty does
+     * not allocate for I/O when it cannot access sun.misc.Unsafe.
+     *
+     * @return true if the epoll backend can be used on this platform
+     */
+    public static boolean isEpollUsable() {
+        return Epoll.isAvailable() && PlatformDependent.hasUnsafe();
+    }
+
+    /**
+     * @return backend selected for this process
+     */
+    public static EventLoopBackend get() {
+        return Holder.SELECTED;
+    }
+
+    /**
+     * @param nThreads number of threads, 0 for the Netty default
+     * @return new event loop group
+     */
+    public abstract EventLoopGroup newEventLoopGroup(int nThreads);
+
+    public abstract Class<? extends SocketChannel> getSocketChannelClass();
+
+    public abstract Class<? extends ServerSocketChannel> getServerSocketChannelClass();
+
+    /**
+     * @param ipFamily protocol family, ignored by backends with dual stack
+     * sockets
+     * @return factory for datagram channels of this backend
+     */
+    public abstract ChannelFactory<? extends DatagramChannel> getDatagramChannelFactory(InternetProtocolFamily ipFamily);
+
+    public abstract boolean isReusePortSupported();
+
+    /**
+     * Lets several sockets bind the same address and port, the kernel
+     * distributes the received datagrams and connections between them.
+     *
+     * @param bootstrap bootstrap of a channel of this backend
+     * @throws UnsupportedOperationException if not supported by the backend
+     */
+    public abstract void setReusePort(AbstractBootstrap<?, ?> bootstrap);
+
+    /**
+     * Enables {@code SO_REUSEPORT} on a plain JDK channel if this backend
+     * supports it and the running JDK exposes the option.
+     *
+     * @param channel unbound channel
+     * @return true if the option was set
+     * @throws IOException if setting the option failed
+     */
+    @SuppressWarnings("unchecked")
+    public boolean setReusePort(NetworkChannel channel) throws IOException {
+        if (!isReusePortSupported()) {
+            return false;
+        }
+        // StandardSocketOptions.SO_REUSEPORT only exists since Java 9
+        for (SocketOption<?> option : channel.supportedOptions()) {
+            if ("SO_REUSEPORT".equals(option.name()) && option.type() == Boolean.class) {
+                channel.setOption((SocketOption<Boolean>) option, Boolean.TRUE);
+                return true;
+            }
+        }
+        return false;
+    }
+}
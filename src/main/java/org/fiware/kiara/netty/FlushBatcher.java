@@ -0,0 +1,141 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelPromise;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the writes to a channel into fewer flushes. Messages written
+ * while the channel reads a batch of requests are flushed when the batch is
+ * complete. Messages written from other threads or outside of a read are
+ * flushed by a task scheduled on the event loop after at most maxDelay
+ * nanoseconds, so all messages written until then share a single flush.
+ * A flush is forced when more than maxPendingBytes are waiting.
+ *
+ * All state is confined to the event loop of the channel: writes from other
+ * threads are handed over to it. {@link #readStarted()} and
+ * {@link #readComplete()} must be called from the event loop,
+ * {@link #write(Object, int)} from any thread.
+ */
+public class FlushBatcher {
+
+    private final Channel channel;
+    private final int maxPendingBytes;
+    private final long maxDelayNanos;
+    private final FlushStatistics statistics;
+
+    private int pendingMessages = 0;
+    private int pendingBytes = 0;
+    private boolean flushScheduled = false;
+    private boolean readInProgress = false;
+
+    private final Runnable flushTask = new Runnable() {
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            if (pendingMessages > 0) {
+                flush();
+            }
+        }
+    };
+
+    public FlushBatcher(Channel channel, int maxPendingBytes, long maxDelayNanos, FlushStatistics statistics) {
+        if (channel == null) {
+            throw new NullPointerException("channel");
+        }
+        this.channel = channel;
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxDelayNanos = maxDelayNanos;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Writes msg without flushing it immediately.
+     *
+     * @param msg message to write
+     * @param size size of msg in bytes
+     * @return write future
+     */
+    public ChannelFuture write(final Object msg, final int size) {
+        final ChannelPromise promise = channel.newPromise();
+        if (channel.eventLoop().inEventLoop()) {
+            write(msg, size, promise);
+        } else {
+            try {
+                channel.eventLoop().execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        write(msg, size, promise);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                promise.setFailure(ex);
+            }
+        }
+        return promise;
+    }
+
+    private void write(Object msg, int size, ChannelPromise promise) {
+        channel.write(msg, promise);
+        ++pendingMessages;
+        pendingBytes += size;
+        if (pendingBytes >= maxPendingBytes) {
+            flush();
+        } else if (!readInProgress) {
+            scheduleFlush();
+        }
+    }
+
+    public void readStarted() {
+        readInProgress = true;
+    }
+
+    public void readComplete() {
+        readInProgress = false;
+        if (pendingMessages > 0) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (statistics != null) {
+            statistics.record(pendingMessages);
+        }
+        pendingMessages = 0;
+        pendingBytes = 0;
+        channel.flush();
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            if (maxDelayNanos > 0) {
+                channel.eventLoop().schedule(flushTask, maxDelayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                channel.eventLoop().execute(flushTask);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how many messages are written per flush by {@link FlushBatcher}s.
+ */
+public class FlushStatistics {
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    void record(int flushedMessages) {
+        messages.addAndGet(flushedMessages);
+        flushes.incrementAndGet();
+    }
+
+    /**
+     * @return number of messages written
+     */
+    public long getMessageCount() {
+        return messages.get();
+    }
+
+    /**
+     * @return number of flushes
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * @return average number of messages written per flush
+     */
+    public double getMessagesPerFlush() {
+        final long n = flushes.get();
+        return n == 0 ? 0.0 : (double) messages.get() / n;
+    }
+
+    public void reset() {
+        messages.set(0);
+        flushes.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "FlushStatistics{messages=" + getMessageCount() + ", flushes=" + getFlushCount() + '}';
+    }
+
+}
@@ -0,0 +1,45 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Writes a ByteBuffer prefixed with its length as 4 byte little endian
+ * integer. The header and the wrapped payload are written as separate
+ * buffers, so the payload is not copied.
+ *
+ * Produces the same frames as {@link ByteBufferEncoder} followed by a 4 byte
+ * little endian LengthFieldPrepender.
+ */
+public class LengthPrefixedByteBufferEncoder extends MessageToMessageEncoder<ByteBuffer> {
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuffer msg, List<Object> out) throws Exception {
+        final ByteBuf header = ctx.alloc().buffer(4);
+        header.writeInt(Integer.reverseBytes(msg.remaining()));
+        out.add(header);
+        out.add(Unpooled.wrappedBuffer(msg));
+    }
+
+}
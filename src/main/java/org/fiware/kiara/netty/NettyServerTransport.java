@@ -31,6 +31,12 @@ import java.util.concurrent.ExecutorService;
  */
 public class NettyServerTransport implements ServerTransportImpl {
 
+    /**
+     * System property providing the default of {@link #setReusePort(boolean)}
+     * for new server transports.
+     */
+    public static final String REUSE_PORT_PROPERTY = "kiara.server.reusePort";
+
     private final String path;
     private final SocketAddress localSocketAddress;
     private final NettyTransportFactory transportFactory;
@@ -40,6 +46,10 @@ public class NettyServerTransport implements ServerTransportImpl {
     private Channel channel;
     private TransportConnectionListener listener;
     private ExecutorService dispatchingExecutor;
+    private int maxInFlightRequests = Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 0);
+    private int maxInFlightRequestsPerConnection = Integer.getInteger(MAX_IN_FLIGHT_PER_CONNECTION_PROPERTY, 0);
+    private boolean rejectWhenOverloaded = Boolean.getBoolean(REJECT_OVERLOADED_PROPERTY);
+    private boolean reusePort = Boolean.getBoolean(REUSE_PORT_PROPERTY);
 
     public NettyServerTransport(SocketAddress endpoint, String path, NettyTransportFactory transportFactory) {
         this.localSocketAddress = endpoint;
@@ -100,6 +110,58 @@ public class NettyServerTransport implements ServerTransportImpl {
         return dispatchingExecutor;
     }
 
+    @Override
+    public void setMaxInFlightRequests(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequests = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    @Override
+    public void setMaxInFlightRequestsPerConnection(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequestsPerConnection = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequestsPerConnection() {
+        return maxInFlightRequestsPerConnection;
+    }
+
+    @Override
+    public void setRejectWhenOverloaded(boolean reject) {
+        this.rejectWhenOverloaded = reject;
+    }
+
+    @Override
+    public boolean isRejectWhenOverloaded() {
+        return rejectWhenOverloaded;
+    }
+
+    /**
+     * Lets several server processes bind the same port with
+     * {@code SO_REUSEPORT}, the kernel distributes the connections between
+     * them. Off by default, only supported by the epoll backend. Takes
+     * effect when the server is started.
+     *
+     * @param reusePort true to share the port
+     */
+    public void setReusePort(boolean reusePort) {
+        this.reusePort = reusePort;
+    }
+
+    public boolean isReusePort() {
+        return reusePort;
+    }
+
     @Override
     public void startServer(TransportConnectionListener listener) throws InterruptedException {
         synchronized (serverLock) {
@@ -28,8 +28,6 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
@@ -45,6 +43,8 @@ import java.security.cert.CertificateException;
 import java.util.concurrent.ExecutionException;
 
 import javax.net.ssl.SSLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
@@ -52,9 +52,11 @@ import javax.net.ssl.SSLException;
  */
 public abstract class NettyTransportFactory implements TransportFactory {
 
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransportFactory.class);
+
     private static boolean SSL = System.getProperty("ssl") != null;
-    private static final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-    private static final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private static final EventLoopGroup bossGroup = EventLoopBackend.get().newEventLoopGroup(1);
+    private static final EventLoopGroup workerGroup = EventLoopBackend.get().newEventLoopGroup(0);
 
     static {
         InternalLoggerFactory.setDefaultFactory(new Slf4JLoggerFactory());
@@ -128,9 +130,18 @@ public abstract class NettyTransportFactory implements TransportFactory {
 
         ServerBootstrap b = new ServerBootstrap();
         b.group(bossGroup, workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(EventLoopBackend.get().getServerSocketChannelClass())
                 .handler(new LoggingHandler(LogLevel.INFO))
                 .childHandler(createServerChildHandler(serverTransport.getPath(), listener));
+        if (serverTransport.isReusePort()) {
+            if (EventLoopBackend.get().isReusePortSupported()) {
+                // lets several server processes accept connections on the same port
+                EventLoopBackend.get().setReusePort(b);
+            } else {
+                logger.warn("SO_REUSEPORT is not supported by the {} backend, binding {} exclusively",
+                        EventLoopBackend.get(), serverTransport.getLocalSocketAddress());
+            }
+        }
 
         final Channel channel = b.bind(serverTransport.getLocalSocketAddress()).sync().channel();
         serverTransport.setChannel(channel);
@@ -0,0 +1,182 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.netty;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.impl.TransportMessageListener;
+
+/**
+ * Table of the calls waiting for a response on one transport, keyed by
+ * message id. The id of an inbound message is decoded once and the matching
+ * call is found with a single lookup, independent of the number of calls in
+ * flight.
+ *
+ * Calls not answered within the call timeout fail with a
+ * {@link TimeoutException}. Expired calls are swept by a timer shared by all
+ * tables. The default timeout is taken from the system property
+ * {@value #TIMEOUT_PROPERTY} in milliseconds, 0 disables it.
+ */
+public class PendingCalls implements TransportMessageListener {
+
+    public static final String TIMEOUT_PROPERTY = "kiara.rpc.timeout";
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = Long.getLong(TIMEOUT_PROPERTY, 0);
+
+    private static Timer timer;
+
+    private final ConcurrentMap<Object, TransportMessageDispatcher> calls;
+    private volatile SerializerImpl serializer;
+    private volatile long timeoutMillis;
+
+    public PendingCalls() {
+        this.calls = new ConcurrentHashMap<>();
+        this.serializer = null;
+        this.timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    }
+
+    private static synchronized Timer getTimer() {
+        if (timer == null) {
+            timer = new HashedWheelTimer(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "kiara-call-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }, 100, TimeUnit.MILLISECONDS);
+        }
+        return timer;
+    }
+
+    /**
+     * Adds call to the table.
+     *
+     * @param call call waiting for a response
+     * @param ser serializer used to decode message ids of responses
+     * @return false if a call with the same message id is already pending
+     */
+    boolean register(final TransportMessageDispatcher call, SerializerImpl ser) {
+        serializer = ser;
+        if (calls.putIfAbsent(call.getMessageId(), call) != null) {
+            return false;
+        }
+        final long timeout = timeoutMillis;
+        if (timeout > 0) {
+            call.setTimeout(getTimer().newTimeout(new TimerTask() {
+
+                @Override
+                public void run(Timeout t) throws Exception {
+                    if (calls.remove(call.getMessageId(), call)) {
+                        call.fail(new TimeoutException("No response for message " + call.getMessageId()
+                                + " within " + timeout + " ms"));
+                    }
+                }
+            }, timeout, TimeUnit.MILLISECONDS));
+        }
+        return true;
+    }
+
+    boolean unregister(TransportMessageDispatcher call) {
+        return calls.remove(call.getMessageId(), call);
+    }
+
+    @Override
+    public boolean onMessage(TransportMessage message) {
+        if (calls.isEmpty()) {
+            return false;
+        }
+        Object responseId = message.getMessageId();
+        if (responseId == null) {
+            final SerializerImpl ser = serializer;
+            if (ser == null) {
+                return false;
+            }
+            final BinaryInputStream bis = BinaryStreamPool.getDefault().acquireInputStream(message.getPayload());
+            try {
+                responseId = ser.deserializeMessageId(bis);
+            } catch (IOException ex) {
+                return false;
+            } finally {
+                BinaryStreamPool.getDefault().release(bis);
+            }
+            if (responseId == null) {
+                return false;
+            }
+            message.setMessageId(responseId);
+        }
+        final TransportMessageDispatcher call = calls.remove(responseId);
+        if (call == null) {
+            return false;
+        }
+        call.complete(message);
+        return true;
+    }
+
+    /**
+     * Fails all pending calls, e.g. when the connection is closed.
+     *
+     * @param cause reason of the failure
+     */
+    public void failAll(Throwable cause) {
+        for (Iterator<TransportMessageDispatcher> iter = calls.values().iterator(); iter.hasNext();) {
+            final TransportMessageDispatcher call = iter.next();
+            iter.remove();
+            call.fail(cause);
+        }
+    }
+
+    /**
+     * @return number of calls waiting for a response
+     */
+    public int getInFlightCount() {
+        return calls.size();
+    }
+
+    public long getTimeout(TimeUnit unit) {
+        return unit.convert(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the timeout of calls registered from now on.
+     *
+     * @param timeout timeout, 0 disables it
+     * @param unit unit of timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+        }
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+}
@@ -18,6 +18,7 @@
 package org.fiware.kiara.netty;
 
 import com.google.common.util.concurrent.AbstractFuture;
+import io.netty.util.Timeout;
 import java.io.IOException;
 import org.fiware.kiara.serialization.impl.SerializerImpl;
 import org.fiware.kiara.transport.impl.TransportImpl;
@@ -25,8 +26,13 @@ import org.fiware.kiara.transport.impl.TransportMessage;
 import org.fiware.kiara.transport.impl.TransportMessageListener;
 
 import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
 
 /**
+ * Future of the response to a call. Transports implementing
+ * {@link CallRegistry} deliver the response to the call, otherwise the call
+ * listens to all messages of the connection its request is sent over.
+ *
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  */
 public class TransportMessageDispatcher extends AbstractFuture<TransportMessage> implements TransportMessageListener {
@@ -34,12 +40,37 @@ public class TransportMessageDispatcher extends AbstractFuture<TransportMessage>
     private final Object messageId;
     private final SerializerImpl ser;
     private final TransportImpl transport;
+    private final CallRegistry registry;
+    private volatile Timeout timeout;
 
+    /**
+     * Creates the future of a call whose request is unknown, it waits on
+     * transport.
+     *
+     * @param messageId message id of the request
+     * @param ser serializer of the call
+     * @param transport transport the request is sent with
+     */
     public TransportMessageDispatcher(Object messageId, SerializerImpl ser, TransportImpl transport) {
+        this(messageId, ser, transport, null);
+    }
+
+    /**
+     * @param messageId message id of the request
+     * @param ser serializer of the call
+     * @param transport transport the request is sent with
+     * @param request request created by transport, its transport is the
+     * connection the request is sent over
+     */
+    public TransportMessageDispatcher(Object messageId, SerializerImpl ser, TransportImpl transport, TransportMessage request) {
         this.messageId = messageId;
         this.ser = ser;
-        this.transport = transport;
-        this.transport.addMessageListener(this);
+        this.transport = request != null ? request.getTransport() : transport;
+        this.registry = transport instanceof CallRegistry
+                ? ((CallRegistry) transport).register(this, ser, request) : null;
+        if (registry == null) {
+            this.transport.addMessageListener(this);
+        }
     }
 
     public Object getMessageId() {
@@ -50,10 +81,13 @@ public class TransportMessageDispatcher extends AbstractFuture<TransportMessage>
     public boolean onMessage(TransportMessage message) {
         Object responseId = message.getMessageId();
         if (responseId == null) {
+            final BinaryInputStream bis = BinaryStreamPool.getDefault().acquireInputStream(message.getPayload());
             try {
-                responseId = ser.deserializeMessageId(BinaryInputStream.fromByteBuffer(message.getPayload()));
+                responseId = ser.deserializeMessageId(bis);
             } catch (IOException ex) {
                 return false;
+            } finally {
+                BinaryStreamPool.getDefault().release(bis);
             }
             if (responseId != null)
                 message.setMessageId(responseId);
@@ -68,4 +102,39 @@ public class TransportMessageDispatcher extends AbstractFuture<TransportMessage>
         return true;
     }
 
+    void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    void complete(TransportMessage message) {
+        cancelTimeout();
+        set(message);
+    }
+
+    void fail(Throwable cause) {
+        cancelTimeout();
+        setException(cause);
+    }
+
+    private void cancelTimeout() {
+        final Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!super.cancel(mayInterruptIfRunning)) {
+            return false;
+        }
+        cancelTimeout();
+        if (registry != null) {
+            registry.unregister(this);
+        } else {
+            transport.removeMessageListener(this);
+        }
+        return true;
+    }
+
 }
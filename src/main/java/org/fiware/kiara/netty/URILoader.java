@@ -39,11 +39,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContent;
@@ -62,6 +59,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import javax.net.ssl.SSLException;
+import org.fiware.kiara.transport.impl.Global;
 import org.fiware.kiara.util.NoCopyByteArrayOutputStream;
 
 /**
@@ -75,6 +74,8 @@ public class URILoader {
         private Throwable error = null;
         private HttpResponseStatus status = null;
         private String contentType = null;
+        private String etag = null;
+        private String cacheControl = null;
 
         private final NoCopyByteArrayOutputStream bout = new NoCopyByteArrayOutputStream(1024);
 
@@ -98,6 +99,14 @@ public class URILoader {
             return contentType;
         }
 
+        public String getETag() {
+            return etag;
+        }
+
+        public String getCacheControl() {
+            return cacheControl;
+        }
+
         @Override
         public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
             if (msg instanceof HttpResponse) {
@@ -107,6 +116,8 @@ public class URILoader {
 
                 if (!response.headers().isEmpty()) {
                     contentType = response.headers().get("Content-Type");
+                    etag = response.headers().get(HttpHeaders.Names.ETAG);
+                    cacheControl = response.headers().get(HttpHeaders.Names.CACHE_CONTROL);
                 }
             }
             if (msg instanceof HttpContent) {
@@ -168,6 +179,78 @@ public class URILoader {
         }
     }
 
+    /**
+     * Result of a conditional load.
+     */
+    public static final class Content {
+
+        private final ByteBuffer content;
+        private final String etag;
+        private final long maxAge;
+
+        Content(ByteBuffer content, String etag, long maxAge) {
+            this.content = content;
+            this.etag = etag;
+            this.maxAge = maxAge;
+        }
+
+        /**
+         * @return loaded data or null when the resource was not modified
+         */
+        public ByteBuffer getContent() {
+            return content;
+        }
+
+        public boolean isNotModified() {
+            return content == null;
+        }
+
+        /**
+         * @return entity tag of the resource or null
+         */
+        public String getETag() {
+            return etag;
+        }
+
+        /**
+         * @return max-age of the resource in seconds or -1 if not specified
+         */
+        public long getMaxAge() {
+            return maxAge;
+        }
+    }
+
+    private static volatile SslContext clientSslContext;
+
+    private static SslContext getClientSslContext() throws SSLException {
+        SslContext sslCtx = clientSslContext;
+        if (sslCtx == null) {
+            sslCtx = SslContext.newClientContext(InsecureTrustManagerFactory.INSTANCE);
+            clientSslContext = sslCtx;
+        }
+        return sslCtx;
+    }
+
+    static long parseMaxAge(String cacheControl) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim();
+            if (directive.equalsIgnoreCase("no-cache") || directive.equalsIgnoreCase("no-store")) {
+                return 0;
+            }
+            if (directive.regionMatches(true, 0, "max-age=", 0, 8)) {
+                try {
+                    return Long.parseLong(directive.substring(8).trim());
+                } catch (NumberFormatException ex) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
     public static String load(String uriStr, String charsetName) throws URISyntaxException, IOException {
         ByteBuffer buf = load(new URI(uriStr));
         return new String(buf.array(), buf.arrayOffset(), buf.remaining(), charsetName);
@@ -186,6 +269,20 @@ public class URILoader {
     }
 
     public static ByteBuffer load(URI uri) throws IOException {
+        return loadIfModified(uri, null).getContent();
+    }
+
+    /**
+     * Loads uri unless its entity tag still matches ifNoneMatch. The request
+     * runs on the shared transport event loop group.
+     *
+     * @param uri HTTP(S) URI
+     * @param ifNoneMatch entity tag of the cached content or null
+     * @return loaded content, {@link Content#isNotModified()} when the
+     * cached content is still valid
+     * @throws IOException
+     */
+    public static Content loadIfModified(URI uri, String ifNoneMatch) throws IOException {
         String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
         String host = uri.getHost() == null ? "127.0.0.1" : uri.getHost();
         int port = uri.getPort();
@@ -203,20 +300,14 @@ public class URILoader {
 
         // Configure SSL context if necessary.
         final boolean ssl = "https".equalsIgnoreCase(scheme);
-        final SslContext sslCtx;
-        if (ssl) {
-            sslCtx = SslContext.newClientContext(InsecureTrustManagerFactory.INSTANCE);
-        } else {
-            sslCtx = null;
-        }
+        final SslContext sslCtx = ssl ? getClientSslContext() : null;
 
         // Configure the client.
-        EventLoopGroup group = new NioEventLoopGroup();
         HttpClientHandler handler = new HttpClientHandler();
         try {
             Bootstrap b = new Bootstrap();
-            b.group(group)
-                    .channel(NioSocketChannel.class)
+            b.group(Global.transportGroup)
+                    .channel(EventLoopBackend.get().getSocketChannelClass())
                     .handler(new HttpClientInitializer(sslCtx, handler));
 
             // Make the connection attempt.
@@ -228,6 +319,9 @@ public class URILoader {
             request.headers().set(HttpHeaders.Names.HOST, host);
             request.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
             request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
+            if (ifNoneMatch != null) {
+                request.headers().set(HttpHeaders.Names.IF_NONE_MATCH, ifNoneMatch);
+            }
 
             // Send the HTTP request.
             ch.writeAndFlush(request);
@@ -236,18 +330,20 @@ public class URILoader {
             ch.closeFuture().sync();
         } catch (InterruptedException ex) {
             throw new IOException("Loading interrupted", ex);
-        } finally {
-            // Shut down executor threads to exit.
-            group.shutdownGracefully();
         }
 
         Throwable error = handler.getError();
         if (error != null)
             throw new IOException("Could not load content", error);
 
+        final long maxAge = parseMaxAge(handler.getCacheControl());
+
+        if (ifNoneMatch != null && HttpResponseStatus.NOT_MODIFIED.equals(handler.getStatus()))
+            return new Content(null, handler.getETag() != null ? handler.getETag() : ifNoneMatch, maxAge);
+
         if (!HttpResponseStatus.OK.equals(handler.getStatus()))
             throw new IOException("HTTP response error: " + handler.getStatus());
 
-        return ByteBuffer.wrap(handler.getContent(), 0, handler.getContentSize());
+        return new Content(ByteBuffer.wrap(handler.getContent(), 0, handler.getContentSize()), handler.getETag(), maxAge);
     }
 }
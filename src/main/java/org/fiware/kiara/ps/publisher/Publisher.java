@@ -34,6 +34,7 @@ import org.fiware.kiara.ps.rtps.writer.StatefulWriter;
 import org.fiware.kiara.ps.rtps.writer.WriterListener;
 import org.fiware.kiara.ps.topic.TopicDataType;
 import org.fiware.kiara.serialization.impl.Serializable;
+import org.fiware.kiara.serialization.impl.SerializedSizes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -176,6 +177,14 @@ public class Publisher<T> {
             }
         }
 
+        if (kind == ChangeKind.ALIVE) {
+            final int size = this.m_type.getSerializedSize(data);
+            if (size != SerializedSizes.UNKNOWN && size > this.m_type.getTypeSize()) {
+                logger.warn("Serialized Payload length larger than maximum type size");
+                return false;
+            }
+        }
+
         InstanceHandle handle = new InstanceHandle();
         if (this.m_att.topic.topicKind == TopicKind.WITH_KEY) {
             this.m_type.getKey(data, handle);
@@ -91,6 +91,12 @@ public class RTPSParticipantAttributes {
      */
     public boolean useIPv6ToSend;
 
+    /**
+     * Number of threads processing the received submessages, default value 0.
+     * With 0 the submessages are processed by the reception threads.
+     */
+    public int processingThreads;
+
     /**
      * Name of the participant.
      */
@@ -109,6 +115,7 @@ public class RTPSParticipantAttributes {
         this.builtinAtt = new BuiltinAttributes();
         this.useIPv4ToSend = true;
         this.useIPv6ToSend = false;
+        this.processingThreads = 0;
         this.participantID = -1;
         this.portParameters = new PortParameters();
     }
@@ -18,6 +18,7 @@
 package org.fiware.kiara.ps.rtps.common;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Class Locator, uniquely identifies a address+port combination.
@@ -181,6 +182,14 @@ public class Locator {
         return false;
     }
 
+    /**
+     * Computes the hash code of the Locator
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(this.m_address) + Objects.hashCode(this.m_kind)) + this.m_port;
+    }
+
     /**
      * Returns whether the address of the Locator has been defined or not.
      * 
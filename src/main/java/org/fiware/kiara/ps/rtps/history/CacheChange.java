@@ -222,17 +222,19 @@ public class CacheChange implements Comparable<CacheChange> {
     }
 
     /**
-     * Copy a different change into this one 8all the elements are copied, included the data)
+     * Copy a different change into this one 8all the elements are copied, included the data).
+     * The values are copied into the elements of this change, so that no element is
+     * shared between both changes.
      * 
      * @param ch The CacheChange reference
      * @return true if the content can be copied; false otherwise
      */
     public boolean copy(CacheChange ch) {
         this.m_changeKind = ch.m_changeKind;
-        this.m_writerGUID = ch.m_writerGUID;
-        this.m_instanceHandle = ch.m_instanceHandle;
-        this.m_sourceTimestamp = ch.m_sourceTimestamp;
-        this.m_sequenceNumber = ch.m_sequenceNumber;
+        this.m_writerGUID.copy(ch.m_writerGUID);
+        this.m_instanceHandle.copy(ch.m_instanceHandle);
+        this.m_sourceTimestamp.copy(ch.m_sourceTimestamp);
+        this.m_sequenceNumber.copy(ch.m_sequenceNumber);
         return this.m_payload.copy(ch.getSerializedPayload());
     }
 
@@ -18,6 +18,7 @@
 package org.fiware.kiara.ps.rtps.messages;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 
@@ -44,8 +45,10 @@ import org.fiware.kiara.ps.rtps.messages.elements.SerializedPayload;
 import org.fiware.kiara.ps.rtps.messages.elements.Timestamp;
 import org.fiware.kiara.ps.rtps.messages.elements.Unused;
 import org.fiware.kiara.ps.rtps.messages.elements.VendorId;
+import org.fiware.kiara.ps.rtps.participant.RTPSParticipant;
 import org.fiware.kiara.ps.rtps.reader.RTPSReader;
 import org.fiware.kiara.ps.rtps.resources.ListenResource;
+import org.fiware.kiara.ps.rtps.resources.ProcessingPool;
 import org.fiware.kiara.ps.rtps.writer.RTPSWriter;
 import org.fiware.kiara.ps.rtps.writer.ReaderProxy;
 import org.fiware.kiara.ps.rtps.writer.StatefulWriter;
@@ -118,6 +121,72 @@ public class MessageReceiver {
      */
     private ListenResource m_listenResource;
 
+    /**
+     * Indicates whether the messages are decoded into reused objects instead of new ones
+     */
+    private boolean m_flyweight;
+
+    /**
+     * Reused {@link RTPSMessageHeader} (flyweight mode)
+     */
+    private final RTPSMessageHeader m_messageHeader;
+
+    /**
+     * Reused {@link RTPSSubmessage} (flyweight mode)
+     */
+    private final RTPSSubmessage m_submessage;
+
+    /**
+     * Reused {@link RTPSSubmessageHeader} (flyweight mode)
+     */
+    private final RTPSSubmessageHeader m_submessageHeader;
+
+    /**
+     * Reused reply {@link Locator} (flyweight mode)
+     */
+    private final Locator m_replyLocator;
+
+    /**
+     * Reused {@link OctectsToInlineQos} of DATA submessages (flyweight mode)
+     */
+    private final OctectsToInlineQos m_otiQos;
+
+    /**
+     * Reused reader {@link EntityId} of DATA submessages (flyweight mode)
+     */
+    private final EntityId m_readerId;
+
+    /**
+     * Reused writer {@link EntityId} of DATA submessages (flyweight mode)
+     */
+    private final EntityId m_writerId;
+
+    /**
+     * Reused writer {@link SequenceNumber} of DATA submessages (flyweight mode)
+     */
+    private final SequenceNumber m_writerSN;
+
+    /**
+     * Reused inline QoS {@link ParameterList} of DATA submessages (flyweight mode)
+     */
+    private final ParameterList m_inlineQos;
+
+    /**
+     * Reused {@link CacheChange} DATA submessages are decoded into (flyweight mode).
+     * The {@link RTPSReader}s copy it into a {@link CacheChange} of their own pool.
+     */
+    private final CacheChange m_change;
+
+    /**
+     * Reused {@link SerializedPayload} of DATA submessages (flyweight mode)
+     */
+    private final SerializedPayload m_payload;
+
+    /**
+     * Empty {@link SerializedPayload} of DATA submessages without data (flyweight mode)
+     */
+    private final SerializedPayload m_emptyPayload;
+
     /**
      * Logging object
      */
@@ -145,12 +214,63 @@ public class MessageReceiver {
 
         this.m_listenResource = null;
 
+        this.m_flyweight = false;
+        this.m_messageHeader = new RTPSMessageHeader();
+        this.m_submessage = new RTPSSubmessage();
+        this.m_submessageHeader = new RTPSSubmessageHeader();
+        this.m_replyLocator = new Locator();
+        this.m_otiQos = new OctectsToInlineQos((short) 0);
+        this.m_readerId = new EntityId();
+        this.m_writerId = new EntityId();
+        this.m_writerSN = new SequenceNumber();
+        this.m_inlineQos = new ParameterList();
+        this.m_change = new CacheChange();
+        this.m_payload = new SerializedPayload();
+        this.m_emptyPayload = new SerializedPayload();
+
+    }
+
+    /**
+     * Enables or disables the flyweight mode. In flyweight mode the fields of the
+     * received messages are decoded into objects owned by the {@link MessageReceiver}
+     * and reused for every message, and the decoded submessages are not added to
+     * the {@link RTPSMessage}.
+     * 
+     * @param flyweight true to enable the flyweight mode; false otherwise
+     */
+    public void setFlyweight(boolean flyweight) {
+        this.m_flyweight = flyweight;
+    }
+
+    /**
+     * Get the flyweight mode
+     * 
+     * @return true if the flyweight mode is enabled; false otherwise
+     */
+    public boolean isFlyweight() {
+        return this.m_flyweight;
     }
 
     /**
      * Resets all the {@link MessageReceiver} information
      */
     public void reset() {
+        if (this.m_flyweight) {
+            this.m_sourceVersion.copy(this.m_destVersion);
+            this.m_sourceVendorId.setVendorUnknown();
+            for (int i = 0; i < 12; ++i) {
+                this.m_sourceGuidPrefix.setValue(i, (byte) 0);
+            }
+            this.m_hasTimestamp = false;
+            this.m_timestamp.timeInvalid();
+
+            this.m_unicastReplyLocatorList.clear();
+            this.m_multicastReplyLocatorList.clear();
+            this.m_unicastReplyLocatorList.pushBack(this.m_replyLocator);
+            this.m_multicastReplyLocatorList.pushBack(this.m_defUniLoc);
+            return;
+        }
+
         this.m_destVersion = new ProtocolVersion();
         this.m_sourceVersion = new ProtocolVersion();
         this.m_sourceVendorId = new VendorId().setVendorUnknown();
@@ -164,9 +284,6 @@ public class MessageReceiver {
         this.m_multicastReplyLocatorList.clear();
 
         Locator loc = new Locator();
-        LocatorList locList = new LocatorList();
-        locList.clear();
-        locList.pushBack(loc);
 
         this.m_unicastReplyLocatorList.pushBack(loc);
         this.m_multicastReplyLocatorList.pushBack(this.m_defUniLoc);
@@ -181,7 +298,7 @@ public class MessageReceiver {
      * @param msg {@link RTPSMessage} object containing the RTPS message
      */
     public void processCDRMessage(GUIDPrefix RTPSParticipantGuidPrefix, Locator loc, RTPSMessage msg) {
-        if (msg.getBuffer().length < RTPSMessage.RTPS_MESSAGE_HEADER_SIZE) {
+        if (msg.getSize() < RTPSMessage.RTPS_MESSAGE_HEADER_SIZE) {
             logger.warn("Received message is too short, ignoring");
             return;
         }
@@ -198,9 +315,17 @@ public class MessageReceiver {
 
         boolean valid = false;
 
-        while (msg.getBinaryInputStream().getPosition() < msg.getBuffer().length) {
-            RTPSSubmessage subMsg = new RTPSSubmessage();
-            RTPSSubmessageHeader header = new RTPSSubmessageHeader();
+        while (msg.getBinaryInputStream().getPosition() < msg.getSize()) {
+            RTPSSubmessage subMsg;
+            RTPSSubmessageHeader header;
+            if (this.m_flyweight) {
+                subMsg = this.m_submessage;
+                subMsg.clearSubmessageElements();
+                header = this.m_submessageHeader;
+            } else {
+                subMsg = new RTPSSubmessage();
+                header = new RTPSSubmessageHeader();
+            }
             try {
                 header.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             } catch (IOException e) {
@@ -209,7 +334,7 @@ public class MessageReceiver {
                 return;
             }
 
-            if (msg.getBinaryInputStream().getPosition() > msg.getBuffer().length) {
+            if (msg.getBinaryInputStream().getPosition() > msg.getSize()) {
                 logger.warn("Submessage of invalid length"); 
             }
 
@@ -224,7 +349,7 @@ public class MessageReceiver {
                 } else {
                     logger.debug("Data Submsg received, processing...");
                     valid = processSubmessageData(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -234,7 +359,7 @@ public class MessageReceiver {
                 } else {
                     logger.info("Gap Submsg received, processing...");
                     valid = processSubmessageGap(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -244,7 +369,7 @@ public class MessageReceiver {
                 } else {
                     logger.debug("Acknack Submsg received, processing...");
                     valid = processSubmessageAcknack(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -254,7 +379,7 @@ public class MessageReceiver {
                 } else {
                     logger.debug("Heartbeat Submsg received, processing...");
                     valid = processSubmessageHeartbeat(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -264,7 +389,7 @@ public class MessageReceiver {
                 } else {
                     logger.info("Pad Submsg received, processing...");
                     valid = processSubmessagePad(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -274,7 +399,7 @@ public class MessageReceiver {
                 } else {
                     logger.info("InfoDST Submsg received, processing...");
                     valid = processSubmessageInfoDst(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -284,7 +409,7 @@ public class MessageReceiver {
                 } else {
                     logger.info("InfoSRC Submsg received, processing...");
                     valid = processSubmessageInfoSrc(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -294,7 +419,7 @@ public class MessageReceiver {
                 } else {
                     logger.debug("InfoTS Submsg received, processing...");
                     valid = processSubmessageInfoTs(msg, subMsg);
-                    msg.addSubmessage(subMsg);
+                    addSubmessage(msg, subMsg);
                 }
                 break;
 
@@ -315,6 +440,19 @@ public class MessageReceiver {
 
     }
 
+    /**
+     * Adds a processed {@link RTPSSubmessage} to the {@link RTPSMessage}, unless
+     * the flyweight mode is enabled
+     * 
+     * @param msg The {@link RTPSMessage} containing the submessage
+     * @param subMsg The processed {@link RTPSSubmessage}
+     */
+    private void addSubmessage(RTPSMessage msg, RTPSSubmessage subMsg) {
+        if (!this.m_flyweight) {
+            msg.addSubmessage(subMsg);
+        }
+    }
+
     /**
      * Checks the integrity of the RTPS header
      * 
@@ -323,7 +461,7 @@ public class MessageReceiver {
      */
     private boolean checkRTPSHeader(RTPSMessage msg) {
 
-        RTPSMessageHeader header = new RTPSMessageHeader();
+        RTPSMessageHeader header = this.m_flyweight ? this.m_messageHeader : new RTPSMessageHeader();
         try {
             header.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
         } catch (IOException e) {
@@ -338,21 +476,23 @@ public class MessageReceiver {
         }
 
         if (header.getProtocolVersion().isLowerOrEqualThan(this.m_destVersion)) {
-            this.m_sourceVersion = header.getProtocolVersion();
+            this.m_sourceVersion.copy(header.getProtocolVersion());
         } else {
             logger.warn("Major RTPS Version not supported");
             return false;
         }
 
         // Set source vendor ID
-        this.m_sourceVendorId = header.getVendorId();
+        this.m_sourceVendorId.copy(header.getVendorId());
 
         // Set source GUIDPrefix
-        this.m_sourceGuidPrefix = header.getGUIDPrefix();
+        this.m_sourceGuidPrefix.copy(header.getGUIDPrefix());
 
         this.m_hasTimestamp = false;
 
-        msg.setHeader(header);
+        if (!this.m_flyweight) {
+            msg.setHeader(header);
+        }
 
         return true;
     }
@@ -395,11 +535,11 @@ public class MessageReceiver {
                 // Extra flags don't matter for now
                 msg.getBinaryInputStream().skipBytes(2);
 
-                OctectsToInlineQos otiQos = new OctectsToInlineQos((short) 0);
+                OctectsToInlineQos otiQos = this.m_flyweight ? this.m_otiQos : new OctectsToInlineQos((short) 0);
                 otiQos.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
 
                 // Reader and Writer ID
-                EntityId readerId = new EntityId();
+                EntityId readerId = this.m_flyweight ? this.m_readerId : new EntityId();
                 readerId.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
 
                 // Look for the reader
@@ -426,10 +566,26 @@ public class MessageReceiver {
                 subMsg.addSubmessageElement(readerId);
 
                 // Reader has been found
-                CacheChange ch = new CacheChange();
-                GUID writerGUID = new GUID();
+                CacheChange ch;
+                GUID writerGUID;
+                EntityId writerId;
+                SequenceNumber writerSN;
+                if (this.m_flyweight) {
+                    ch = this.m_change;
+                    ch.setKind(ChangeKind.ALIVE);
+                    for (int i = 0; i < 16; ++i) {
+                        ch.getInstanceHandle().setValue(i, (byte) 0);
+                    }
+                    writerGUID = ch.getWriterGUID();
+                    writerId = this.m_writerId;
+                    writerSN = this.m_writerSN;
+                } else {
+                    ch = new CacheChange();
+                    writerGUID = new GUID();
+                    writerId = new EntityId();
+                    writerSN = new SequenceNumber();
+                }
                 writerGUID.setGUIDPrefix(this.m_sourceGuidPrefix);
-                EntityId writerId = new EntityId();
                 writerId.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
                 writerGUID.setEntityId(writerId);
                 ch.setWriterGUID(writerGUID);
@@ -438,7 +594,6 @@ public class MessageReceiver {
                 subMsg.addSubmessageElement(writerId);
 
                 // Get SequenceNumber
-                SequenceNumber writerSN = new SequenceNumber();
                 writerSN.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
 
                 if (writerSN.toLong() <= 0 || writerSN.getHigh() == -1 || writerSN.getLow() == 0) { // Message is invalid
@@ -447,7 +602,11 @@ public class MessageReceiver {
                 }
 
                 subMsg.addSubmessageElement(writerSN);
-                ch.setSequenceNumber(writerSN);
+                if (this.m_flyweight) {
+                    ch.getSequenceNumber().copy(writerSN);
+                } else {
+                    ch.setSequenceNumber(writerSN);
+                }
 
                 if (otiQos.getSerializedSize() > RTPSMessage.OCTETSTOINLINEQOS_DATASUBMSG) {
                     msg.getBinaryInputStream().skipBytes(otiQos.getSerializedSize() - RTPSMessage.OCTETSTOINLINEQOS_DATASUBMSG);
@@ -457,7 +616,13 @@ public class MessageReceiver {
 
                 if (inlineQosFlag) {
                     // Data MSG contains inline QOS
-                    ParameterList paramList = new ParameterList();
+                    ParameterList paramList;
+                    if (this.m_flyweight) {
+                        paramList = this.m_inlineQos;
+                        paramList.resetList();
+                    } else {
+                        paramList = new ParameterList();
+                    }
                     paramList.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
                     inlineQosSize = paramList.getListSize(); 
 
@@ -478,8 +643,8 @@ public class MessageReceiver {
                         payloadSize = subMsg.m_submessageHeader.m_submessageLengthLarger;
                     }
 
+                    SerializedPayload payload = this.m_flyweight ? this.m_payload : new SerializedPayload();
                     if (dataFlag) {
-                        SerializedPayload payload = new SerializedPayload();
                         payload.setDataFlag(true);
                         payload.setLength((short) (payloadSize-RTPSMessage.DATA_EXTRA_ENCODING_SIZE));
                         payload.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
@@ -487,7 +652,7 @@ public class MessageReceiver {
                         ch.setKind(ChangeKind.ALIVE);
                         subMsg.addSubmessageElement(payload);
                     } else if (keyFlag) {
-                        SerializedPayload payload = new SerializedPayload();
+                        payload.setDataFlag(false);
                         payload.setLength((short) (payloadSize-RTPSMessage.DATA_EXTRA_ENCODING_SIZE));
                         payload.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
                         RTPSEndian previousEndian = msg.getEndiannes();
@@ -505,6 +670,9 @@ public class MessageReceiver {
                     }
 
                 } else {
+                    if (this.m_flyweight) {
+                        ch.setSerializedPayload(this.m_emptyPayload);
+                    }
                     int finalDataMsgPosition = msg.getBinaryInputStream().getPosition();
                     int bytesToSkip = 0;
                     if (finalDataMsgPosition - initialDataMsgPos < 24) {
@@ -515,13 +683,30 @@ public class MessageReceiver {
 
                 logger.debug(" Message from Writer {}; Possible RTPSReaders: ", ch.getWriterGUID(), this.m_listenResource.getAssocReaders().size());
 
-                for (RTPSReader it : this.m_listenResource.getAssocReaders()) { 
+                final CacheChange change;
+                final Timestamp timestamp;
+                final GUIDPrefix sourceGuidPrefix;
+                if (this.m_flyweight && getProcessingPool(writerGUID) != null) {
+                    // The reused objects are overwritten by the next message before the delivery
+                    change = new CacheChange();
+                    change.copy(ch);
+                    timestamp = new Timestamp(this.m_timestamp);
+                    sourceGuidPrefix = new GUIDPrefix();
+                    sourceGuidPrefix.copy(this.m_sourceGuidPrefix);
+                } else {
+                    change = ch;
+                    timestamp = this.m_timestamp;
+                    sourceGuidPrefix = this.m_sourceGuidPrefix;
+                }
+                final ListenResource listenResource = this.m_listenResource;
+                final boolean hasTimestamp = this.m_hasTimestamp;
+                deliver(change.getWriterGUID(), readerId, new Delivery() {
 
-                    //ReturnParam<WriterProxy> retProxy = new ReturnParam<>();
-                    if (it.acceptMsgDirectedTo(readerId)) {
-                        it.processDataMsg(ch, this.m_listenResource, this.m_hasTimestamp, this.m_timestamp, this.m_sourceGuidPrefix);
+                    @Override
+                    public void deliver(RTPSReader reader) {
+                        reader.processDataMsg(change, listenResource, hasTimestamp, timestamp, sourceGuidPrefix);
                     }
-                }
+                });
 
 
             } catch (IOException e) {
@@ -565,14 +750,14 @@ public class MessageReceiver {
             subMsg.addSubmessageElement(readerId);
 
             // Get writer ID
-            GUID writerGUID = new GUID();
+            final GUID writerGUID = new GUID();
             EntityId writerId = new EntityId();
             writerId.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             writerGUID.setGUIDPrefix(this.m_sourceGuidPrefix);
             writerGUID.setEntityId(writerId);
             subMsg.addSubmessageElement(writerId);
 
-            SequenceNumberSet gapList = new SequenceNumberSet();
+            final SequenceNumberSet gapList = new SequenceNumberSet();
             gapList.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             
             if (gapList.getBase().toLong() <= 0) {
@@ -586,11 +771,13 @@ public class MessageReceiver {
                 subMsg.addSubmessageElement(gapList.getBase());
                 subMsg.addSubmessageElement(gapList);
                 
-                for (RTPSReader it : this.m_listenResource.getAssocReaders()) {
-                    if (it.acceptMsgDirectedTo(readerId)) {
-                        it.processGapMsg(writerGUID, gapList.getBase(), gapList);
+                deliver(writerGUID, readerId, new Delivery() {
+
+                    @Override
+                    public void deliver(RTPSReader reader) {
+                        reader.processGapMsg(writerGUID, gapList.getBase(), gapList);
                     }
-                }
+                });
                 
             } finally {
                 this.m_listenResource.getMutex().unlock();
@@ -716,8 +903,8 @@ public class MessageReceiver {
         SubmessageFlags flags = subMsg.m_submessageHeader.getFlags();
 
         boolean endiannessFlag = flags.getFlagValue(0);
-        boolean finalFlag = flags.getFlagValue(1);
-        boolean livelinessFlag = flags.getFlagValue(2);
+        final boolean finalFlag = flags.getFlagValue(1);
+        final boolean livelinessFlag = flags.getFlagValue(2);
 
         if (endiannessFlag) {
             msg.setEndiannes(RTPSEndian.LITTLE_ENDIAN);
@@ -735,7 +922,7 @@ public class MessageReceiver {
             subMsg.addSubmessageElement(readerId);
 
             // Get writer ID
-            GUID writerGUID = new GUID();
+            final GUID writerGUID = new GUID();
             EntityId writerId = new EntityId();
             writerId.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             writerGUID.setGUIDPrefix(this.m_sourceGuidPrefix);
@@ -743,10 +930,10 @@ public class MessageReceiver {
             subMsg.addSubmessageElement(writerId);
 
             // Sequence numbers
-            SequenceNumber firstSN = new SequenceNumber();
+            final SequenceNumber firstSN = new SequenceNumber();
             firstSN.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             subMsg.addSubmessageElement(firstSN);
-            SequenceNumber lastSN = new SequenceNumber();
+            final SequenceNumber lastSN = new SequenceNumber();
             lastSN.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             subMsg.addSubmessageElement(lastSN);
 
@@ -760,23 +947,25 @@ public class MessageReceiver {
             count.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
             subMsg.addSubmessageElement(count);
 
-            int hbCount = count.getValue();
+            final int hbCount = count.getValue();
 
             // Status changes
 
             this.m_listenResource.getMutex().lock();
             try {
-                for (RTPSReader it : this.m_listenResource.getAssocReaders()) {
-                    Lock lock = it.getMutex();
-                    lock.lock();
-                    try {
-                        if (it.acceptMsgDirectedTo(readerId)) {
-                            it.processHeartbeatMsg(writerGUID, hbCount, firstSN, lastSN, finalFlag, livelinessFlag);
+                deliver(writerGUID, readerId, new Delivery() {
+
+                    @Override
+                    public void deliver(RTPSReader reader) {
+                        Lock lock = reader.getMutex();
+                        lock.lock();
+                        try {
+                            reader.processHeartbeatMsg(writerGUID, hbCount, firstSN, lastSN, finalFlag, livelinessFlag);
+                        } finally {
+                            lock.unlock();
                         }
-                    } finally {
-                        lock.unlock();
                     }
-                } 
+                });
             } finally {
                 this.m_listenResource.getMutex().unlock();
             }
@@ -789,6 +978,77 @@ public class MessageReceiver {
         return true;
     }
 
+    /**
+     * Delivery of a submessage to one {@link RTPSReader}
+     */
+    private interface Delivery {
+
+        void deliver(RTPSReader reader);
+
+    }
+
+    /**
+     * Delivers a submessage to the associated {@link RTPSReader}s accepting it.
+     * If the {@link RTPSParticipant} has a {@link ProcessingPool} the delivery of
+     * submessages from user writers is queued in the lane of the writer, otherwise
+     * it is done immediately. Builtin submessages are always delivered immediately
+     * because the discovery protocols rely on the {@link ListenResource} mutex
+     * to be processed one at a time. The {@link ListenResource} mutex must be
+     * held by the caller.
+     * 
+     * @param writerGUID {@link GUID} of the writer that sent the submessage
+     * @param readerId {@link EntityId} the submessage is directed to
+     * @param delivery {@link Delivery} to perform for each {@link RTPSReader}
+     */
+    private void deliver(final GUID writerGUID, EntityId readerId, final Delivery delivery) {
+        ProcessingPool pool = getProcessingPool(writerGUID);
+        if (pool == null) {
+            for (RTPSReader it : this.m_listenResource.getAssocReaders()) {
+                if (it.acceptMsgDirectedTo(readerId)) {
+                    delivery.deliver(it);
+                }
+            }
+            return;
+        }
+
+        final List<RTPSReader> readers = new ArrayList<RTPSReader>();
+        for (RTPSReader it : this.m_listenResource.getAssocReaders()) {
+            if (it.acceptMsgDirectedTo(readerId)) {
+                readers.add(it);
+            }
+        }
+        if (readers.isEmpty()) {
+            return;
+        }
+
+        pool.execute(writerGUID, new Runnable() {
+
+            @Override
+            public void run() {
+                for (RTPSReader it : readers) {
+                    try {
+                        delivery.deliver(it);
+                    } catch (RuntimeException e) {
+                        logger.error("Error processing submessage from writer {}", writerGUID, e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the {@link ProcessingPool} the submessages of a writer are delivered through
+     * 
+     * @param writerGUID {@link GUID} of the writer that sent the submessage
+     * @return The {@link ProcessingPool}; null if the submessages are delivered inline
+     */
+    private ProcessingPool getProcessingPool(GUID writerGUID) {
+        if (writerGUID.getEntityId().isBuiltin()) {
+            return null;
+        }
+        return this.m_listenResource.getRTPSParticipant().getProcessingPool();
+    }
+
     /**
      * Processes a PAD submessage
      * 
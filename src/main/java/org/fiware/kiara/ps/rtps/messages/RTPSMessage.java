@@ -74,6 +74,11 @@ public class RTPSMessage {
      * Buffer to serialize the RTPS message into
      */
     private byte[] m_buffer;
+
+    /**
+     * Number of valid bytes in the buffer
+     */
+    private int m_size;
     
     /**
      * Writing output object
@@ -120,6 +125,7 @@ public class RTPSMessage {
         this.m_submessages = new ArrayList<RTPSSubmessage>();
         this.m_endian = endian; 
         this.m_buffer = new byte[payloadSize];
+        this.m_size = payloadSize;
         this.m_bos = new BinaryOutputStream(payloadSize);
         this.m_bis = new BinaryInputStream(m_buffer);
         this.m_maxSize = payloadSize;
@@ -144,6 +150,7 @@ public class RTPSMessage {
      */
     public void serialize() {
         this.m_buffer = this.m_bos.toByteArray();
+        this.m_size = this.m_buffer.length;
         this.m_bis.setBuffer(this.m_buffer);
     }
     
@@ -229,7 +236,7 @@ public class RTPSMessage {
      * Initializes the {@link BinaryOutputStream}
      */
     public void initBinaryOutputStream() {
-        this.m_bis.setBuffer(this.m_buffer);
+        this.m_bis.setBuffer(this.m_buffer, 0, this.m_size);
     }
 
     /**
@@ -248,6 +255,7 @@ public class RTPSMessage {
      */
     public void setBuffer(byte[] buffer) {
         this.m_buffer = buffer;
+        this.m_size = buffer.length;
     }
 
     /**
@@ -258,17 +266,34 @@ public class RTPSMessage {
      */
     public void setBuffer(byte[] buffer, int payloadSize) {
         this.m_buffer = new byte[payloadSize];
+        this.m_size = payloadSize;
         System.arraycopy(buffer, 0, this.m_buffer, 0, payloadSize);
     }
 
     /**
-     * Get the buffer length
+     * Uses the first bytes of a buffer as the content of the
+     * {@link RTPSMessage} without copying them, and prepares it to be read.
+     * The buffer must not be modified while the {@link RTPSMessage} is in use.
+     * 
+     * @param buffer The buffer to be used
+     * @param size The number of valid bytes in the buffer
+     */
+    public void wrapBuffer(byte[] buffer, int size) {
+        this.m_header = null;
+        this.m_submessages.clear();
+        this.m_buffer = buffer;
+        this.m_size = size;
+        this.m_bis.setBuffer(buffer, 0, size);
+    }
+
+    /**
+     * Get the number of valid bytes in the buffer
      * 
      * @return The buffer length
      */
     public int getSize() {
         if (this.m_buffer != null) {
-            return this.m_buffer.length;
+            return this.m_size;
         }
         return -1;
     }
@@ -310,6 +335,17 @@ public class RTPSMessage {
     public void clearSubmessages() {
         this.m_submessages.clear();
     }
+
+    /**
+     * Removes the header, the {@link RTPSSubmessage}s and the written bytes
+     * so that the {@link RTPSMessage} can be built again
+     */
+    public void reset() {
+        this.m_header = null;
+        this.m_submessages.clear();
+        this.m_bos.reset();
+        this.initSubMsgPosition = -1;
+    }
     
     /**
      * Get the maximum size of the {@link RTPSMessage}
@@ -184,6 +184,13 @@ public class RTPSSubmessage {
         this.m_submessageElements.add(element);
     }
 
+    /**
+     * Removes all the {@link RTPSSubmessageElement}s of the {@link RTPSSubmessage}
+     */
+    public void clearSubmessageElements() {
+        this.m_submessageElements.clear();
+    }
+
     
 
 }
@@ -66,9 +66,7 @@ public class SubmessageFlags {
      */
     public void setFlagValue(byte value) {
         for (int i=0; i<8; i++) {
-            if ((value & (1 << i)) > 0) {
-                this.m_bits.set(i);
-            }
+            this.m_bits.set(i, (value & (1 << i)) != 0);
         }
     }
 
@@ -254,6 +254,15 @@ public class EntityId extends RTPSSubmessageElement {
         return equals(new EntityId(EntityIdEnum.ENTITYID_P2P_BUILTIN_RTPSPARTICIPANT_MESSAGE_READER));
     }
 
+    /**
+     * Get the value of the builtin attribute
+     * 
+     * @return true if the EntityId belongs to a builtin entity (its kind is 0b11xxxxxx); false otherwise
+     */
+    public boolean isBuiltin() {
+        return (this.m_value[3] & 0xC0) == 0xC0;
+    }
+
     /**
      * Get the a new EntityId whose value is ENTITYID_UNKNOWN
      * 
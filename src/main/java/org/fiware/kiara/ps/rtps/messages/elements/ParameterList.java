@@ -198,6 +198,7 @@ public class ParameterList extends RTPSSubmessageElement {
      */
     public void resetList() {
         this.m_parameters.clear();
+        this.m_totalBytes = 0;
         this.m_hasChanged = true;
     }
 
@@ -296,13 +296,16 @@ public class SerializedPayload extends RTPSSubmessageElement {
     @Override
     public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
 
-        this.m_ownSerializer.setEndianness(checkEndianness()); // true = LE, false = BE
-
         message.skipBytes(1); // Encapsulation empty octet
         this.m_encapsulation = EncapsulationKind.createFromValue(impl.deserializeByte(message, "")); // Encapsulation octet
         message.skipBytes(2); // Encapsulation options
 
-        this.m_buffer = new byte[this.m_length];
+        this.m_ownSerializer.setEndianness(checkEndianness()); // true = LE, false = BE
+
+        // Reuse the buffer of a previous payload with the same length
+        if (this.m_buffer == null || this.m_buffer.length != this.m_length) {
+            this.m_buffer = new byte[this.m_length];
+        }
         message.readFully(this.m_buffer);
     }
 
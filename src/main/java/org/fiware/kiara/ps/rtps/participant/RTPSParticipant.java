@@ -53,6 +53,7 @@ import org.fiware.kiara.ps.rtps.reader.ReaderListener;
 import org.fiware.kiara.ps.rtps.reader.StatefulReader;
 import org.fiware.kiara.ps.rtps.reader.StatelessReader;
 import org.fiware.kiara.ps.rtps.resources.ListenResource;
+import org.fiware.kiara.ps.rtps.resources.ProcessingPool;
 import org.fiware.kiara.ps.rtps.resources.SendResource;
 import org.fiware.kiara.ps.rtps.writer.RTPSWriter;
 import org.fiware.kiara.ps.rtps.writer.StatefulWriter;
@@ -93,6 +94,11 @@ public class RTPSParticipant {
      */
     private SendResource m_sendResource;
 
+    /**
+     * Pool processing the received submessages (null if they are processed by the reception threads)
+     */
+    private ProcessingPool m_processingPool;
+
     /**
      * Object used to unlock the participant when data is received
      */
@@ -214,6 +220,10 @@ public class RTPSParticipant {
             this.m_sendResource = new SendResource();
             this.m_sendResource.initSend(this, loc, this.m_att.sendSocketBufferSize, this.m_att.useIPv4ToSend, this.m_att.useIPv6ToSend);
 
+            if (this.m_att.processingThreads > 0) {
+                this.m_processingPool = new ProcessingPool("RTPS-processing-" + this.m_att.getName(), this.m_att.processingThreads);
+            }
+
             boolean hasLocatorsDefined = true;
             if (this.m_att.defaultUnicastLocatorList.isEmpty() && this.m_att.defaultMulticastLocatorList.isEmpty()) {
                 hasLocatorsDefined = false;
@@ -288,6 +298,10 @@ public class RTPSParticipant {
             --i;
         }
 
+        if (this.m_processingPool != null) {
+            this.m_processingPool.shutdown();
+        }
+
         if (this.m_builtinProtocols != null) {
             this.m_builtinProtocols.destroy();
         }
@@ -815,6 +829,33 @@ public class RTPSParticipant {
         this.m_sendResource.sendSync(msg, loc);
     }
 
+    /**
+     * Send an asynchronous {@link RTPSMessage}. It is not sent until
+     * {@link #flushSends()} is called.
+     * 
+     * @param msg The {@link RTPSMessage} to be sent
+     * @param loc The {@link Locator} to send the {@link RTPSMessage} to
+     */
+    public void sendAsync(RTPSMessage msg, Locator loc) {
+        this.m_sendResource.sendAsync(msg, loc);
+    }
+
+    /**
+     * Sends all the {@link RTPSMessage}s queued with {@link #sendAsync(RTPSMessage, Locator)}
+     */
+    public void flushSends() {
+        this.m_sendResource.flush();
+    }
+
+    /**
+     * Get the {@link ProcessingPool} of the {@link RTPSParticipant}
+     * 
+     * @return The {@link ProcessingPool} or null if the received submessages are processed by the reception threads
+     */
+    public ProcessingPool getProcessingPool() {
+        return this.m_processingPool;
+    }
+
     /**
      * Announces the {@link RTPSParticipant} state
      */
@@ -863,27 +904,14 @@ public class RTPSParticipant {
      * Semaphore post method
      */
     public void resourceSemaphorePost() {
-        synchronized(this.m_resourceSemaphore) {
-            if (this.m_resourceSemaphore != null) {
-                this.m_resourceSemaphore.notify();
-            }
-        }
+        this.m_resourceSemaphore.release();
     }
 
     /**
      * Semaphore wait method
      */
     public void resourceSemaphoreWait() {
-        synchronized(this.m_resourceSemaphore) {
-            if (this.m_resourceSemaphore != null) {
-                try {
-                    this.m_resourceSemaphore.wait();
-                } catch (InterruptedException e) {
-                    // TODO Handle exception
-                    e.printStackTrace();
-                }
-            }
-        }
+        this.m_resourceSemaphore.acquireUninterruptibly();
     }
 
     /**
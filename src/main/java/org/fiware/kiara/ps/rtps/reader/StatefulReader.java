@@ -473,7 +473,7 @@ public class StatefulReader extends RTPSReader {
                 }
 
                 if (hasTimestamp) {
-                    changeToAdd.setSourceTimestamp(timestamp);
+                    changeToAdd.getSourceTimestamp().copy(timestamp);
                 }
 
                 if (retProxy.value != null) {
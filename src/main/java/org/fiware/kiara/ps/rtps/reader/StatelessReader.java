@@ -246,7 +246,7 @@ public class StatelessReader extends RTPSReader {
                 }
 
                 if (hasTimestamp) {
-                    changeToAdd.setSourceTimestamp(timestamp);
+                    changeToAdd.getSourceTimestamp().copy(timestamp);
                 }
 
                 this.m_mutex.unlock();
@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.fiware.kiara.netty.EventLoopBackend;
 import org.fiware.kiara.ps.rtps.Endpoint;
 import org.fiware.kiara.ps.rtps.common.EndpointKind;
 import org.fiware.kiara.ps.rtps.common.Locator;
@@ -324,6 +325,7 @@ public class ListenResource {
         }
         this.m_receiver = new MessageReceiver(listenSocketSize);
         this.m_receiver.setListenResource(this);
+        this.m_receiver.setFlyweight(true);
 
         this.getLocatorAdresses(loc);
 
@@ -343,6 +345,8 @@ public class ListenResource {
             this.m_listenChannel.setOption(StandardSocketOptions.SO_RCVBUF, listenSocketSize);
             if (isMulticast) {
                 this.m_listenChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                // lets the listen resources of several participants share the port
+                EventLoopBackend.get().setReusePort(this.m_listenChannel);
             }
      
         } catch (SocketException e) {
@@ -0,0 +1,133 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 Proyectos y Sistemas de Mantenimiento S.L. (eProsima)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.ps.rtps.resources;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.fiware.kiara.ps.rtps.messages.elements.GUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of threads processing the submessages received by the
+ * {@link ListenResource}s of a participant. Each writer is assigned to one
+ * lane, a single thread executor, so the submessages of a writer are
+ * processed in the order they were received while different writers are
+ * processed in parallel.
+ *
+ * @author Rafael Lara {@literal <rafaellara@eprosima.com>}
+ */
+public class ProcessingPool {
+
+    /**
+     * Single thread executors, one per lane
+     */
+    private final ExecutorService[] m_lanes;
+
+    /**
+     * Logging object
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingPool.class);
+
+    /**
+     * {@link ProcessingPool} constructor
+     *
+     * @param name Prefix of the thread names
+     * @param threads Number of lanes
+     */
+    public ProcessingPool(final String name, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.m_lanes = new ExecutorService[threads];
+        for (int i = 0; i < threads; ++i) {
+            final String threadName = name + "-" + i;
+            this.m_lanes[i] = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the number of lanes
+     *
+     * @return The number of lanes
+     */
+    public int getSize() {
+        return this.m_lanes.length;
+    }
+
+    /**
+     * Get the lane processing the submessages of a writer
+     *
+     * @param writerGUID {@link GUID} of the writer
+     * @return The lane index
+     */
+    public int getLane(GUID writerGUID) {
+        // GUID hash codes only differ in a few bits, spread them over the lanes
+        int h = writerGUID.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return (h & Integer.MAX_VALUE) % this.m_lanes.length;
+    }
+
+    /**
+     * Queues a task in the lane of a writer. Tasks queued for the same writer
+     * are run one after the other in the order they were queued.
+     *
+     * @param writerGUID {@link GUID} of the writer the task belongs to
+     * @param task The task to run
+     */
+    public void execute(GUID writerGUID, Runnable task) {
+        try {
+            this.m_lanes[getLane(writerGUID)].execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Processing pool is shut down, dropping submessage from {}", writerGUID);
+        }
+    }
+
+    /**
+     * Stops all the lanes, waiting for the queued tasks to finish
+     */
+    public void shutdown() {
+        for (ExecutorService lane : this.m_lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : this.m_lanes) {
+                if (!lane.awaitTermination(1, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -18,9 +18,14 @@
 package org.fiware.kiara.ps.rtps.resources;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
 import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -31,12 +36,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class represents the message reception thread.
+ * This class represents the message reception thread. It waits on a
+ * {@link Selector} and, on every wakeup, drains up to
+ * {@link #MAX_MESSAGES_PER_READ} datagrams into pooled buffers that are
+ * handed to the {@link MessageReceiver} without copying.
  * 
  * @author Rafael Lara {@literal <rafaellara@eprosima.com>}
  */
 public class ReceptionThread implements Runnable {
 
+    /**
+     * Maximum number of datagrams received per wakeup
+     */
+    public static final int MAX_MESSAGES_PER_READ = 16;
+
+    /**
+     * Maximum size of a datagram
+     */
+    private static final int MAX_DATAGRAM_SIZE = 65536;
+
     /**
      * {@link DatagramChannel} the thread will receive from
      */
@@ -57,6 +75,11 @@ public class ReceptionThread implements Runnable {
      */
     private volatile boolean running = true;
     
+    /**
+     * {@link Selector} waiting for incoming datagrams
+     */
+    private volatile Selector m_selector;
+    
     /**
      * Mutex
      */
@@ -81,39 +104,69 @@ public class ReceptionThread implements Runnable {
 
         this.m_listenResource.getRTPSParticipant().resourceSemaphorePost();
 
-        byte[] buf;
         try {
 
-            buf = new byte[this.m_channel.socket().getReceiveBufferSize()];
-            DatagramPacket dp = new DatagramPacket(buf, buf.length);
+            final int bufferSize = Math.min(this.m_channel.socket().getReceiveBufferSize(), MAX_DATAGRAM_SIZE);
+            final ByteBuffer[] buffers = new ByteBuffer[MAX_MESSAGES_PER_READ];
+            final InetSocketAddress[] senders = new InetSocketAddress[MAX_MESSAGES_PER_READ];
+            for (int i = 0; i < buffers.length; ++i) {
+                buffers[i] = ByteBuffer.allocate(bufferSize);
+            }
+            final RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.BIG_ENDIAN);
+
+            this.m_selector = Selector.open();
+            this.m_channel.configureBlocking(false);
+            this.m_channel.register(this.m_selector, SelectionKey.OP_READ);
 
             logger.debug("Thread {} listening in IP {}:{}", Thread.currentThread().getId(), this.m_channel.socket().getLocalAddress().getHostAddress(), this.m_channel.socket().getLocalPort());
             
             while(running && this.m_channel.isOpen()) {
                 
-                dp.setLength(buf.length);
-                this.m_channel.socket().receive(dp);
-                
-                this.m_listenResource.getSenderEndpoint().port = dp.getPort();
-                this.m_listenResource.getSenderEndpoint().address = dp.getAddress();
-
-                RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.BIG_ENDIAN);
-
-                msg.setBuffer(buf, dp.getLength());
-                msg.initBinaryOutputStream();
-
-                this.newRTPSMessage(msg);
+                this.m_selector.select();
+                this.m_selector.selectedKeys().clear();
+
+                int count;
+                do {
+                    count = 0;
+                    while (count < MAX_MESSAGES_PER_READ) {
+                        buffers[count].clear();
+                        InetSocketAddress sender = (InetSocketAddress) this.m_channel.receive(buffers[count]);
+                        if (sender == null) {
+                            break;
+                        }
+                        senders[count++] = sender;
+                    }
+
+                    for (int i = 0; i < count; ++i) {
+                        this.m_listenResource.getSenderEndpoint().port = senders[i].getPort();
+                        this.m_listenResource.getSenderEndpoint().address = senders[i].getAddress();
+                        senders[i] = null;
+
+                        msg.setEndiannes(RTPSEndian.BIG_ENDIAN);
+                        msg.wrapBuffer(buffers[i].array(), buffers[i].position());
+
+                        this.newRTPSMessage(msg);
+                    }
+                } while (count == MAX_MESSAGES_PER_READ);
 
             }
             
-        } catch (java.nio.channels.AsynchronousCloseException ace) {
+        } catch (ClosedChannelException | ClosedSelectorException ce) {
             // DO Nothing
             
 
         } catch (IOException e) {
             logger.error(e.toString());
             //e.printStackTrace();
-        } 
+        } finally {
+            if (this.m_selector != null) {
+                try {
+                    this.m_selector.close();
+                } catch (IOException e) {
+                    logger.error(e.toString());
+                }
+            }
+        }
         
     }
 
@@ -162,5 +215,9 @@ public class ReceptionThread implements Runnable {
      */
     public void terminate() {
         this.running = false;
+        Selector selector = this.m_selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
     }
 }
@@ -22,20 +22,25 @@ import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import io.netty.channel.socket.nio.NioDatagramChannel;
 
 //import org.fiware.kiara.Kiara;
 //import org.fiware.kiara.RunningService;
-import org.fiware.kiara.netty.NioDatagramChannelFactory;
+import org.fiware.kiara.netty.EventLoopBackend;
 import org.fiware.kiara.transport.impl.Global;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.socket.DatagramChannel;
@@ -97,19 +102,39 @@ public class SendResource {
     private final List<DatagramChannel> m_sendSocketIPv6;
 
     /**
-     * IPv4 sending endpoint
+     * Maximum number of cached endpoints
      */
-    private InetSocketAddress m_sendEndpointV4;
+    private static final int MAX_CACHED_ENDPOINTS = 1024;
 
     /**
-     * IPv6 sending endpoint
+     * Resolved sending endpoints by {@link Locator}
      */
-    private InetSocketAddress m_sendEndpointV6;
+    private final ConcurrentMap<Locator, InetSocketAddress> m_endpoints;
+
+    /**
+     * Number of messages written but not yet sent
+     */
+    private final AtomicInteger m_pendingSends;
+
+    /**
+     * Counts down the pending messages and reports failed sends
+     */
+    private final ChannelFutureListener m_sendListener = new ChannelFutureListener() {
+
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+            m_pendingSends.decrementAndGet();
+            if (!future.isSuccess()) {
+                // Should print the actual error message
+                logger.warn(future.cause().toString());
+            }
+        }
+    };
 
     /**
      * Tells whether to send next message or not
      */
-    private boolean m_sendNext;
+    private final AtomicBoolean m_sendNext;
 
     /**
      * Logging object
@@ -131,7 +156,9 @@ public class SendResource {
         this.m_sendSocketIPv6 = new ArrayList<>();
         this.m_useIPv4 = true;
         this.m_useIPv6 = true;
-        this.m_sendNext = true;
+        this.m_endpoints = new ConcurrentHashMap<>();
+        this.m_pendingSends = new AtomicInteger();
+        this.m_sendNext = new AtomicBoolean(true);
         this.m_mutex = new ReentrantLock(true);
     }
     
@@ -164,15 +191,15 @@ public class SendResource {
                 DatagramChannel sendSocketV4 = null;
                 Bootstrap b = new Bootstrap();
                 b.group(Global.transportGroup)
-                .handler(new ChannelInitializer<NioDatagramChannel>() {
+                .handler(new ChannelInitializer<DatagramChannel>() {
 
                     @Override
-                    protected void initChannel(NioDatagramChannel ch) throws Exception {
+                    protected void initChannel(DatagramChannel ch) throws Exception {
                     }
 
                 });
 
-                b.channelFactory(new NioDatagramChannelFactory(InternetProtocolFamily.IPv4));
+                b.channelFactory(EventLoopBackend.get().getDatagramChannelFactory(InternetProtocolFamily.IPv4));
                 b.option(ChannelOption.SO_SNDBUF, sendSockBuffer);
 
                 bindTries = 0;
@@ -223,15 +250,15 @@ public class SendResource {
                 DatagramChannel sendSocketV6 = null;
                 Bootstrap b = new Bootstrap();
                 b.group(Global.transportGroup)
-                .handler(new ChannelInitializer<NioDatagramChannel>() {
+                .handler(new ChannelInitializer<DatagramChannel>() {
 
                     @Override
-                    protected void initChannel(NioDatagramChannel ch) throws Exception {
+                    protected void initChannel(DatagramChannel ch) throws Exception {
                     }
 
                 });
 
-                b.channelFactory(new NioDatagramChannelFactory(InternetProtocolFamily.IPv6));
+                b.channelFactory(EventLoopBackend.get().getDatagramChannelFactory(InternetProtocolFamily.IPv6));
                 b.option(ChannelOption.SO_SNDBUF, sendSockBuffer);
 
                 bindTries = 0;
@@ -281,118 +308,162 @@ public class SendResource {
     }
 
     /**
-     * Send a CDR message synchronously. No waiting is required.
+     * Send a CDR message synchronously. Waits until the message has been
+     * written to every socket.
      *
      * @param msg Reference to the message.
      * @param loc Locator where to send the message.
      */
     public void sendSync(RTPSMessage msg, Locator loc) {
-        m_mutex.lock();
+        send(msg, loc, true);
+    }
 
-        try {
-            if (loc.getPort() == 0) {
-                return;
-            }
+    /**
+     * Send a CDR message asynchronously. The message is queued on every
+     * socket but not flushed, so that several messages and locators can be
+     * flushed at once with {@link #flush()}. The buffer of the message must
+     * not be modified afterwards.
+     *
+     * @param msg Reference to the message.
+     * @param loc Locator where to send the message.
+     */
+    public void sendAsync(RTPSMessage msg, Locator loc) {
+        send(msg, loc, false);
+    }
 
-            if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv4 && m_useIPv4) {
-                byte[] srcAddr = loc.getAddress();
+    /**
+     * Flushes the messages queued with {@link #sendAsync(RTPSMessage, Locator)}
+     */
+    public void flush() {
+        for (DatagramChannel sockit : m_sendSocketIPv4) {
+            sockit.flush();
+        }
+        for (DatagramChannel sockit : m_sendSocketIPv6) {
+            sockit.flush();
+        }
+    }
 
-                byte[] addr = new byte[4];
-                for (int i = 0; i < 4; ++i) {
-                    addr[i] = srcAddr[12 + i];
-                }
+    /**
+     * Get the number of messages written but not yet sent
+     *
+     * @return The number of pending messages
+     */
+    public int getPendingSends() {
+        return m_pendingSends.get();
+    }
 
-                try {
-                    m_sendEndpointV4 = new InetSocketAddress(InetAddress.getByAddress(addr), loc.getPort());
-                } catch (UnknownHostException e) {
-                    logger.error("UDPv4 Error obtaining address: {}", Arrays.toString(addr));
-                    return;
-                }
+    /**
+     * Resolves the endpoint of a {@link Locator}, using the cached one when
+     * available
+     *
+     * @param loc The {@link Locator} to resolve
+     * @return The endpoint or null if the address is not valid
+     */
+    private InetSocketAddress resolve(Locator loc) {
+        InetSocketAddress endpoint = m_endpoints.get(loc);
+        if (endpoint != null) {
+            return endpoint;
+        }
 
-                for (DatagramChannel sockit : m_sendSocketIPv4) {
-                    logger.debug("UDPv4 Sending {} bytes TO {} FROM {}", msg.getSize(), m_sendEndpointV4, sockit.localAddress());
-                    if (m_sendEndpointV4.getPort() > 0) {
-                        if (m_sendNext) {
-                            try {
-                                if (!this.m_sendEndpointV4.getAddress().equals(InetAddress.getByAddress(new byte[] {127,0,0,1})) && // Cannot bind to localhost
-                                        !this.m_sendEndpointV4.getAddress().equals(InetAddress.getByAddress(new byte[] {0,0,0,0}))) { // TODO Fix 0.0.0.0 case
-                                    sockit.writeAndFlush(new DatagramPacket(
-                                            Unpooled.wrappedBuffer(msg.getBuffer()),
-                                            m_sendEndpointV4)).syncUninterruptibly();
-                                }
-                            } catch (Exception error) {
-                                // Should print the actual error message
-                                logger.warn(error.toString());
-                                // error.printStackTrace();
-                            }
-
-                        } else {
-                            m_sendNext = true;
-                        }
-                        logger.debug("UDPv4 Sent {} bytes TO endpoint {}", msg.getBuffer().length, m_sendEndpointV4);
-                    } else if (m_sendEndpointV4.getPort() <= 0) {
-                        logger.warn("Port invalid: {}", m_sendEndpointV4.getPort());
-                    } else {
-                        logger.error("Port error");
-                    }
-                }
-            } else if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv6 && m_useIPv6) {
-                byte[] srcAddr = loc.getAddress();
+        byte[] srcAddr = loc.getAddress();
+        byte[] addr;
+        if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv4) {
+            addr = Arrays.copyOfRange(srcAddr, 12, 16);
+        } else {
+            addr = Arrays.copyOf(srcAddr, 16);
+        }
 
-                byte[] addr = new byte[16];
-                for (int i = 0; i < 16; ++i) {
-                    addr[i] = srcAddr[i];
-                }
+        try {
+            endpoint = new InetSocketAddress(InetAddress.getByAddress(addr), loc.getPort());
+        } catch (UnknownHostException e) {
+            logger.error("Error obtaining address: {}", Arrays.toString(addr));
+            return null;
+        }
 
-                try {
-                    if (this.m_sendEndpointV6 == null) {
-                        m_sendEndpointV6 = new InetSocketAddress(InetAddress.getByAddress(addr), loc.getPort());
-                    }
-                } catch (UnknownHostException e) {
-                    logger.error("UDPv6 Error obtaining address: " + Arrays.toString(addr), e);
-                    return;
-                }
+        if (m_endpoints.size() >= MAX_CACHED_ENDPOINTS) {
+            m_endpoints.clear();
+        }
+        m_endpoints.put(new Locator(loc), endpoint);
+        return endpoint;
+    }
 
-                for (DatagramChannel sockit : m_sendSocketIPv6) {
-                    logger.debug("UDPv6 Sending {} bytes TO {} FROM {}", msg.getSize(), m_sendEndpointV6, sockit.localAddress());
-                    if (m_sendEndpointV6.getPort() > 0) {
-                        if (m_sendNext) {
-                            try {
-
-                                sockit.writeAndFlush(new DatagramPacket(
-                                        Unpooled.wrappedBuffer(msg.getBuffer()),
-                                        m_sendEndpointV6)).sync();
-
-                            } catch (Exception error) {
-                                // Should print the actual error message
-                                logger.error("Thread V6: " + Thread.currentThread().getId() + " - " + error.toString());
-                            }
-
-                        } else {
-                            m_sendNext = true;
-                        }
-                        logger.debug("UDPv6 Sent {} bytes TO endpoint {}", msg.getBuffer().length, m_sendEndpointV6);
-                    } else if (m_sendEndpointV6.getPort() <= 0) {
-                        logger.warn("Port invalid: {}", m_sendEndpointV6.getPort());
-                    } else {
-                        logger.error("Port error");
+    /**
+     * Writes a message to all the sockets of the {@link Locator} kind
+     *
+     * @param msg Reference to the message.
+     * @param loc Locator where to send the message.
+     * @param sync Flush and wait until the message has been written
+     */
+    private void send(RTPSMessage msg, Locator loc, boolean sync) {
+        if (loc.getPort() == 0) {
+            return;
+        }
+
+        final List<DatagramChannel> sockets;
+        if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv4 && m_useIPv4) {
+            sockets = m_sendSocketIPv4;
+        } else if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv6 && m_useIPv6) {
+            sockets = m_sendSocketIPv6;
+        } else {
+            logger.debug("Destination {} not valid for this ListenResource (Use IPv4: {}, Use IPv6: {})", loc, this.m_useIPv4, this.m_useIPv6);
+            return;
+        }
+
+        InetSocketAddress endpoint = resolve(loc);
+        if (endpoint == null) {
+            return;
+        }
+        if (endpoint.getPort() <= 0) {
+            logger.warn("Port invalid: {}", endpoint.getPort());
+            return;
+        }
+        // Cannot bind to localhost TODO Fix 0.0.0.0 case
+        if (loc.getKind() == LocatorKind.LOCATOR_KIND_UDPv4
+                && (endpoint.getAddress().isLoopbackAddress() || endpoint.getAddress().isAnyLocalAddress())) {
+            return;
+        }
+
+        for (DatagramChannel sockit : sockets) {
+            logger.debug("Sending {} bytes TO {} FROM {}", msg.getSize(), endpoint, sockit.localAddress());
+            if (!m_sendNext.compareAndSet(false, true)) {
+                ChannelFuture future = write(sockit, msg, endpoint);
+                if (sync) {
+                    sockit.flush();
+                    if (!sockit.eventLoop().inEventLoop()) {
+                        future.awaitUninterruptibly();
                     }
                 }
-            } else {
-                logger.debug("Destination {} not valid for this ListenResource (Use IPv4: {}, Use IPv6: {})", loc, this.m_useIPv4, this.m_useIPv6);
             }
-
-        } finally {
-            m_mutex.unlock();
         }
+    }
 
+    /**
+     * Writes a message to a socket without flushing it. When the socket
+     * buffer is full the caller waits for the write to complete.
+     *
+     * @param channel The socket
+     * @param msg The message to write
+     * @param endpoint The destination
+     * @return The future of the write
+     */
+    private ChannelFuture write(DatagramChannel channel, RTPSMessage msg, InetSocketAddress endpoint) {
+        m_pendingSends.incrementAndGet();
+        ChannelFuture future = channel.write(new DatagramPacket(Unpooled.wrappedBuffer(msg.getBuffer(), 0, msg.getSize()), endpoint));
+        future.addListener(m_sendListener);
+        if (!channel.isWritable()) {
+            channel.flush();
+            if (!channel.eventLoop().inEventLoop()) {
+                future.awaitUninterruptibly();
+            }
+        }
+        return future;
     }
 
     /**
      * Looses next change (for testing purposes only)
      */
     public void looseNextChange() {
-        m_sendNext = false;
+        m_sendNext.set(false);
     }
 
     /**
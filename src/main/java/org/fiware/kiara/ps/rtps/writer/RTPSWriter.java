@@ -26,6 +26,7 @@ import org.fiware.kiara.ps.rtps.history.HistoryCache;
 import org.fiware.kiara.ps.rtps.history.WriterHistoryCache;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessage;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessageBuilder;
+import org.fiware.kiara.ps.rtps.messages.RTPSMessageGroup;
 import org.fiware.kiara.ps.rtps.messages.common.types.ChangeKind;
 import org.fiware.kiara.ps.rtps.messages.common.types.RTPSEndian;
 import org.fiware.kiara.ps.rtps.messages.elements.GUID;
@@ -54,6 +55,11 @@ public abstract class RTPSWriter extends Endpoint {
      */
     protected RTPSMessage m_rtpsMessage;
     
+    /**
+     * The {@link RTPSMessageGroup} used to send the changes (guarded by the mutex)
+     */
+    protected final RTPSMessageGroup m_messageGroup;
+    
     /**
      * Indicates if liveliness has been asserted
      */
@@ -95,6 +101,7 @@ public abstract class RTPSWriter extends Endpoint {
         this.m_history.m_writer = this;
         this.m_pushMode = true;
         this.m_listener = listener;
+        this.m_messageGroup = new RTPSMessageGroup(this);
         this.initHeader();
         logger.debug("RTPSWriter created successfully");
     }
@@ -145,6 +152,16 @@ public abstract class RTPSWriter extends Endpoint {
         return ch;
     }
     
+    /**
+     * Get the {@link RTPSMessageGroup} used to send the changes. It must only
+     * be used while holding the mutex of the {@link RTPSWriter}
+     * 
+     * @return The {@link RTPSMessageGroup}
+     */
+    public RTPSMessageGroup getMessageGroup() {
+        return this.m_messageGroup;
+    }
+    
     /**
      * Get the minimum {@link SequenceNumber}
      * 
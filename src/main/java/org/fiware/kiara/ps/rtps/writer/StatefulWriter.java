@@ -34,7 +34,6 @@ import org.fiware.kiara.ps.rtps.history.CacheChange;
 import org.fiware.kiara.ps.rtps.history.WriterHistoryCache;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessage;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessageBuilder;
-import org.fiware.kiara.ps.rtps.messages.RTPSMessageGroup;
 import org.fiware.kiara.ps.rtps.messages.elements.Count;
 import org.fiware.kiara.ps.rtps.messages.elements.EntityId;
 import org.fiware.kiara.ps.rtps.messages.elements.GUID;
@@ -167,7 +166,7 @@ public class StatefulWriter extends RTPSWriter {
                     }
                 }
 
-                RTPSMessageGroup.sendChangesAsData(this, changeV, uniLocList, multiLocList, expectsInlineQos, EntityId.createUnknown());
+                this.m_messageGroup.sendChangesAsData(changeV, uniLocList, multiLocList, expectsInlineQos, EntityId.createUnknown());
                 if (this.m_periodicHB == null) { // TODO Review this
                     this.m_periodicHB = new PeriodicHeartbeat(this, this.m_times.heartBeatPeriod.toMilliSecondsDouble());
                 } else {
@@ -223,8 +222,7 @@ public class StatefulWriter extends RTPSWriter {
                         }
                         if (this.m_pushMode) {
                             if (!relevantChanges.isEmpty()) {
-                                RTPSMessageGroup.sendChangesAsData(
-                                        this, 
+                                this.m_messageGroup.sendChangesAsData(
                                         relevantChanges, 
                                         rit.att.endpoint.unicastLocatorList,
                                         rit.att.endpoint.multicastLocatorList, 
@@ -233,8 +231,7 @@ public class StatefulWriter extends RTPSWriter {
 
                             }
                             if (!notRelevantChanges.isEmpty()) {
-                                RTPSMessageGroup.sendChangesAsGap(
-                                        this, 
+                                this.m_messageGroup.sendChangesAsGap(
                                         notRelevantChanges, 
                                         rit.att.guid.getEntityId(), 
                                         rit.att.endpoint.unicastLocatorList, 
@@ -27,7 +27,6 @@ import org.fiware.kiara.ps.rtps.common.Locator;
 import org.fiware.kiara.ps.rtps.common.LocatorList;
 import org.fiware.kiara.ps.rtps.history.CacheChange;
 import org.fiware.kiara.ps.rtps.history.WriterHistoryCache;
-import org.fiware.kiara.ps.rtps.messages.RTPSMessageGroup;
 import org.fiware.kiara.ps.rtps.messages.elements.EntityId;
 import org.fiware.kiara.ps.rtps.messages.elements.GUID;
 import org.fiware.kiara.ps.rtps.messages.elements.EntityId.EntityIdEnum;
@@ -102,9 +101,9 @@ public class StatelessWriter extends RTPSWriter {
                 }
                 
                 if (this.m_guid.getEntityId().equals(new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_WRITER))) {
-                    RTPSMessageGroup.sendChangesAsData((RTPSWriter) this, changes, locList, locList2, false, new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_READER));
+                    this.m_messageGroup.sendChangesAsData(changes, locList, locList2, false, new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_READER));
                 } else {
-                    RTPSMessageGroup.sendChangesAsData((RTPSWriter) this, changes, locList, locList2, false, new EntityId(EntityIdEnum.ENTITYID_UNKNOWN));
+                    this.m_messageGroup.sendChangesAsData(changes, locList, locList2, false, new EntityId(EntityIdEnum.ENTITYID_UNKNOWN));
                 }
                 
             } else {
@@ -131,9 +130,9 @@ public class StatelessWriter extends RTPSWriter {
                     total = it.getUnsentChanges().size();
                     if (this.m_pushMode) {
                         if (this.m_guid.getEntityId().equals(new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_WRITER))) {
-                            RTPSMessageGroup.sendChangesAsData((RTPSWriter) this, it.getUnsentChanges(), it.getLocator(), it.getExpectsInlineQos(), new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_READER));
+                            this.m_messageGroup.sendChangesAsData(it.getUnsentChanges(), it.getLocator(), it.getExpectsInlineQos(), new EntityId(EntityIdEnum.ENTITYID_SPDP_BUILTIN_RTPSPARTICIPANT_READER));
                         } else {
-                            RTPSMessageGroup.sendChangesAsData((RTPSWriter) this, it.getUnsentChanges(), it.getLocator(), it.getExpectsInlineQos(), new EntityId(EntityIdEnum.ENTITYID_UNKNOWN));
+                            this.m_messageGroup.sendChangesAsData(it.getUnsentChanges(), it.getLocator(), it.getExpectsInlineQos(), new EntityId(EntityIdEnum.ENTITYID_UNKNOWN));
                         }
                         it.getUnsentChanges().clear();
                     }
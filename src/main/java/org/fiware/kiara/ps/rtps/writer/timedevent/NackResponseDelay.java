@@ -27,7 +27,6 @@ import org.fiware.kiara.ps.rtps.common.Locator;
 import org.fiware.kiara.ps.rtps.history.CacheChange;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessage;
 import org.fiware.kiara.ps.rtps.messages.RTPSMessageBuilder;
-import org.fiware.kiara.ps.rtps.messages.RTPSMessageGroup;
 import org.fiware.kiara.ps.rtps.messages.common.types.RTPSEndian;
 import org.fiware.kiara.ps.rtps.messages.elements.SequenceNumber;
 import org.fiware.kiara.ps.rtps.resources.TimedEvent;
@@ -102,8 +101,7 @@ public class NackResponseDelay extends TimedEvent {
                             }
                             this.m_RP.isRequestedChangesEmpty = true;
                             if (!relevantChanges.isEmpty()) {
-                                RTPSMessageGroup.sendChangesAsData(
-                                        this.m_RP.getSFW(), 
+                                this.m_RP.getSFW().getMessageGroup().sendChangesAsData(
                                         relevantChanges, 
                                         this.m_RP.att.endpoint.unicastLocatorList, 
                                         this.m_RP.att.endpoint.multicastLocatorList, 
@@ -111,8 +109,7 @@ public class NackResponseDelay extends TimedEvent {
                                         this.m_RP.att.guid.getEntityId());
                             }
                             if (!notRelevantChanges.isEmpty()) {
-                                RTPSMessageGroup.sendChangesAsGap(
-                                        this.m_RP.getSFW(), 
+                                this.m_RP.getSFW().getMessageGroup().sendChangesAsGap(
                                         notRelevantChanges, 
                                         this.m_RP.att.guid.getEntityId(),
                                         this.m_RP.att.endpoint.unicastLocatorList, 
@@ -25,9 +25,13 @@ import org.fiware.kiara.ps.rtps.messages.elements.InstanceHandle;
 import org.fiware.kiara.ps.rtps.messages.elements.SerializedPayload;
 import org.fiware.kiara.serialization.impl.BinaryInputStream;
 import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
 import org.fiware.kiara.serialization.impl.CDRSerializer;
 import org.fiware.kiara.serialization.impl.Serializable;
+import org.fiware.kiara.serialization.impl.SerializableFactories;
+import org.fiware.kiara.serialization.impl.SerializedSizes;
 import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.serialization.impl.SizedSerializable;
 
 /**
  * Class to use as a Topic definition for the user's data types. This 
@@ -38,6 +42,12 @@ import org.fiware.kiara.serialization.impl.SerializerImpl;
  */
 public abstract class SerializableDataType<T extends Serializable & KeyedType> extends TopicDataType<T> {
 
+    /**
+     * Serializer used to compute sizes, the CDR layout does not depend on the
+     * byte order
+     */
+    private static final SerializerImpl SIZE_SERIALIZER = new CDRSerializer(false);
+
     /**
      * Class definition of the user data type
      */
@@ -67,16 +77,34 @@ public abstract class SerializableDataType<T extends Serializable & KeyedType> e
      */
     @Override
     public boolean serialize(T data, SerializedPayload payload) {
-        BinaryOutputStream bos = new BinaryOutputStream();
-        payload.updateSerializer();
-        SerializerImpl ser = payload.getSerializer();
+        final BinaryStreamPool pool = BinaryStreamPool.getDefault();
+        final BinaryOutputStream bos = pool.acquireOutputStream();
         try {
-            ser.serialize(bos, "", data);
-        } catch (IOException ex) {
-            return false;
+            payload.updateSerializer();
+            SerializerImpl ser = payload.getSerializer();
+            final int size = SerializedSizes.of(ser, 0, data);
+            if (size != SerializedSizes.UNKNOWN) {
+                bos.ensureCapacity(size);
+            }
+            try {
+                ser.serialize(bos, "", data);
+            } catch (IOException ex) {
+                return false;
+            }
+            payload.setBuffer(bos.toByteArray());
+            return true;
+        } finally {
+            pool.release(bos);
         }
-        payload.setBuffer(bos.toByteArray());
-        return true;
+    }
+
+    /**
+     * Computes the serialized size when the user data type implements
+     * {@link SizedSerializable}
+     */
+    @Override
+    public int getSerializedSize(T data) {
+        return SerializedSizes.of(SIZE_SERIALIZER, 0, data);
     }
 
     /**
@@ -100,7 +128,7 @@ public abstract class SerializableDataType<T extends Serializable & KeyedType> e
     @Override
     public T createData() {
         try {
-            return dataClass.newInstance();
+            return SerializableFactories.newInstance(dataClass);
         } catch (InstantiationException | IllegalAccessException ex) {
             return null;
         }
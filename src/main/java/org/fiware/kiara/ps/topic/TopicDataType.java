@@ -19,6 +19,7 @@ package org.fiware.kiara.ps.topic;
 
 import org.fiware.kiara.ps.rtps.messages.elements.InstanceHandle;
 import org.fiware.kiara.ps.rtps.messages.elements.SerializedPayload;
+import org.fiware.kiara.serialization.impl.SerializedSizes;
 
 /**
  *
@@ -116,6 +117,17 @@ public abstract class TopicDataType<T> {
         return m_typeSize;
     }
     
+    /**
+     * Get the size data will have once serialized, without serializing it.
+     * The default implementation does not know the size.
+     *
+     * @param data The data to measure
+     * @return The serialized size in bytes or {@link SerializedSizes#UNKNOWN}
+     */
+    public int getSerializedSize(T data) {
+        return SerializedSizes.UNKNOWN;
+    }
+
     /**
      * Get the Key associated to the data inside an {@link InstanceHandle} object
      * 
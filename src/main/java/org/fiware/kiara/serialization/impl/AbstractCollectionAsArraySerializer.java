@@ -27,7 +27,7 @@ import java.util.Iterator;
  * @param <E>
  * @param <T>
  */
-public abstract class AbstractCollectionAsArraySerializer<E, T extends Collection<E>> implements Serializer<T> {
+public abstract class AbstractCollectionAsArraySerializer<E, T extends Collection<E>> implements SizedSerializer<T> {
 
     protected final int arrayDim;
     private final Serializer<E> elementSerializer;
@@ -58,4 +58,18 @@ public abstract class AbstractCollectionAsArraySerializer<E, T extends Collectio
         return container;
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, T object) {
+        int position = currentAlignment;
+        Iterator<E> iter = object.iterator();
+        for (int i = 0; i < arrayDim; ++i) {
+            final int size = SerializedSizes.of(impl, position, elementSerializer, iter.next());
+            if (size == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += size;
+        }
+        return position - currentAlignment;
+    }
+
 }
@@ -26,7 +26,7 @@ import java.util.Collection;
  * @param <E>
  * @param <T>
  */
-public abstract class AbstractCollectionSerializer<E, T extends Collection<E>> implements Serializer<T> {
+public abstract class AbstractCollectionSerializer<E, T extends Collection<E>> implements SizedSerializer<T> {
 
     private final Serializer<E> elementSerializer;
 
@@ -58,4 +58,17 @@ public abstract class AbstractCollectionSerializer<E, T extends Collection<E>> i
         return container;
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, T object) {
+        int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        for (E element : object) {
+            final int size = SerializedSizes.of(impl, position, elementSerializer, element);
+            if (size == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += size;
+        }
+        return position - currentAlignment;
+    }
+
 }
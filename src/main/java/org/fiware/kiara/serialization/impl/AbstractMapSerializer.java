@@ -27,7 +27,7 @@ import java.util.Map;
  * @param <V>
  * @param <T>
  */
-public abstract class AbstractMapSerializer<K, V, T extends Map<K, V>> implements Serializer<T> {
+public abstract class AbstractMapSerializer<K, V, T extends Map<K, V>> implements SizedSerializer<T> {
 
     private final Serializer<K> keySerializer;
     private final Serializer<V> valueSerializer;
@@ -64,4 +64,22 @@ public abstract class AbstractMapSerializer<K, V, T extends Map<K, V>> implement
         return container;
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, T object) {
+        int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        for (Map.Entry<K, V> entry : object.entrySet()) {
+            final int keySize = SerializedSizes.of(impl, position, keySerializer, entry.getKey());
+            if (keySize == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += keySize;
+            final int valueSize = SerializedSizes.of(impl, position, valueSerializer, entry.getValue());
+            if (valueSize == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += valueSize;
+        }
+        return position - currentAlignment;
+    }
+
 }
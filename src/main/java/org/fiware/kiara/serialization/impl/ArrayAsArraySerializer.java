@@ -25,7 +25,7 @@ import java.lang.reflect.Array;
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  * @param <E>
  */
-public class ArrayAsArraySerializer<E> implements Serializer<E[]> {
+public class ArrayAsArraySerializer<E> implements SizedSerializer<E[]> {
 
     private final int arrayDim;
     private final Class<E> componentType;
@@ -57,4 +57,17 @@ public class ArrayAsArraySerializer<E> implements Serializer<E[]> {
         return array;
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, E[] object) {
+        int position = currentAlignment;
+        for (int i = 0; i < arrayDim; ++i) {
+            final int size = SerializedSizes.of(impl, position, elementSerializer, object[i]);
+            if (size == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += size;
+        }
+        return position - currentAlignment;
+    }
+
 }
@@ -25,7 +25,7 @@ import java.lang.reflect.Array;
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  * @param <E>
  */
-public class ArrayAsSequenceSerializer<E> implements Serializer<E[]> {
+public class ArrayAsSequenceSerializer<E> implements SizedSerializer<E[]> {
 
     private final Class<E> componentType;
     private final Serializer<E> elementSerializer;
@@ -60,4 +60,17 @@ public class ArrayAsSequenceSerializer<E> implements Serializer<E[]> {
         return array;
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, E[] object) {
+        int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        for (int i = 0; i < object.length; ++i) {
+            final int size = SerializedSizes.of(impl, position, elementSerializer, object[i]);
+            if (size == SerializedSizes.UNKNOWN) {
+                return SerializedSizes.UNKNOWN;
+            }
+            position += size;
+        }
+        return position - currentAlignment;
+    }
+
 }
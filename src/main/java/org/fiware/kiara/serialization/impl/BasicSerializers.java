@@ -24,7 +24,7 @@ import java.io.IOException;
  */
 public class BasicSerializers {
 
-    public static class Float32Serializer implements org.fiware.kiara.serialization.impl.Serializer<Float> {
+    public static class Float32Serializer implements SizedSerializer<Float> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Float value) throws IOException {
@@ -35,9 +35,14 @@ public class BasicSerializers {
         public Float read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeFloat32(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Float value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        }
     }
 
-    public static class Float64Serializer implements org.fiware.kiara.serialization.impl.Serializer<Double> {
+    public static class Float64Serializer implements SizedSerializer<Double> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Double value) throws IOException {
@@ -48,9 +53,14 @@ public class BasicSerializers {
         public Double read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeFloat64(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Double value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 8);
+        }
     }
 
-    public static class CharSerializer implements org.fiware.kiara.serialization.impl.Serializer<Character> {
+    public static class CharSerializer implements SizedSerializer<Character> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Character value) throws IOException {
@@ -61,9 +71,14 @@ public class BasicSerializers {
         public Character read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeChar(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Character value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 1);
+        }
     }
 
-    public static class ByteSerializer implements org.fiware.kiara.serialization.impl.Serializer<Byte> {
+    public static class ByteSerializer implements SizedSerializer<Byte> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Byte value) throws IOException {
@@ -74,9 +89,14 @@ public class BasicSerializers {
         public Byte read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeByte(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Byte value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 1);
+        }
     }
 
-    public static class I16Serializer implements org.fiware.kiara.serialization.impl.Serializer<Short> {
+    public static class I16Serializer implements SizedSerializer<Short> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Short value) throws IOException {
@@ -87,9 +107,14 @@ public class BasicSerializers {
         public Short read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeI16(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Short value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 2);
+        }
     }
 
-    public static class UI16Serializer implements org.fiware.kiara.serialization.impl.Serializer<Short> {
+    public static class UI16Serializer implements SizedSerializer<Short> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Short value) throws IOException {
@@ -100,9 +125,14 @@ public class BasicSerializers {
         public Short read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeUI16(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Short value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 2);
+        }
     }
 
-    public static class I32Serializer implements org.fiware.kiara.serialization.impl.Serializer<Integer> {
+    public static class I32Serializer implements SizedSerializer<Integer> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Integer value) throws IOException {
@@ -113,9 +143,14 @@ public class BasicSerializers {
         public Integer read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeI32(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Integer value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        }
     }
 
-    public static class UI32Serializer implements org.fiware.kiara.serialization.impl.Serializer<Integer> {
+    public static class UI32Serializer implements SizedSerializer<Integer> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Integer value) throws IOException {
@@ -126,9 +161,14 @@ public class BasicSerializers {
         public Integer read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeUI32(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Integer value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 4);
+        }
     }
 
-    public static class I64Serializer implements org.fiware.kiara.serialization.impl.Serializer<Long> {
+    public static class I64Serializer implements SizedSerializer<Long> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Long value) throws IOException {
@@ -139,9 +179,14 @@ public class BasicSerializers {
         public Long read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeI64(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Long value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 8);
+        }
     }
 
-    public static class UI64Serializer implements org.fiware.kiara.serialization.impl.Serializer<Long> {
+    public static class UI64Serializer implements SizedSerializer<Long> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Long value) throws IOException {
@@ -152,9 +197,14 @@ public class BasicSerializers {
         public Long read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeUI64(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Long value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 8);
+        }
     }
 
-    public static class StringSerializer implements org.fiware.kiara.serialization.impl.Serializer<java.lang.String> {
+    public static class StringSerializer implements SizedSerializer<java.lang.String> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, java.lang.String value) throws IOException {
@@ -165,9 +215,14 @@ public class BasicSerializers {
         public java.lang.String read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeString(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, java.lang.String value) {
+            return impl.getStringSerializedSize(currentAlignment, value);
+        }
     }
 
-    public static class BooleanSerializer implements org.fiware.kiara.serialization.impl.Serializer<Boolean> {
+    public static class BooleanSerializer implements SizedSerializer<Boolean> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, Boolean value) throws IOException {
@@ -178,17 +233,20 @@ public class BasicSerializers {
         public Boolean read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             return impl.deserializeBoolean(message, name);
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, Boolean value) {
+            return impl.getPrimitiveSerializedSize(currentAlignment, 1);
+        }
     }
 
-    public static class ArrayAsFloat32SequenceSerializer implements Serializer<float[]> {
+    public static class ArrayAsFloat32SequenceSerializer implements SizedSerializer<float[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, float[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeFloat32(message, name, array[i]);
-            }
+            impl.serializeFloat32Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -197,23 +255,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             float[] array = new float[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeFloat32(message, name);
-            }
+            impl.deserializeFloat32Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, float[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsFloat64SequenceSerializer implements Serializer<double[]> {
+    public static class ArrayAsFloat64SequenceSerializer implements SizedSerializer<double[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, double[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeFloat64(message, name, array[i]);
-            }
+            impl.serializeFloat64Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -222,15 +282,19 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             double[] array = new double[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeFloat64(message, name);
-            }
+            impl.deserializeFloat64Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, double[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsCharSequenceSerializer implements Serializer<char[]> {
+    public static class ArrayAsCharSequenceSerializer implements SizedSerializer<char[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, char[] array) throws IOException {
@@ -253,17 +317,21 @@ public class BasicSerializers {
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, char[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 
-    public static class ArrayAsByteSequenceSerializer implements Serializer<byte[]> {
+    public static class ArrayAsByteSequenceSerializer implements SizedSerializer<byte[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, byte[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeByte(message, name, array[i]);
-            }
+            impl.serializeByteArray(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -272,23 +340,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             byte[] array = new byte[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeByte(message, name);
-            }
+            impl.deserializeByteArray(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, byte[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 
-    public static class ArrayAsI16SequenceSerializer implements Serializer<short[]> {
+    public static class ArrayAsI16SequenceSerializer implements SizedSerializer<short[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, short[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI16(message, name, array[i]);
-            }
+            impl.serializeI16Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -297,23 +367,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             short[] array = new short[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeI16(message, name);
-            }
+            impl.deserializeI16Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, short[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 2, array.length);
+        }
     }
 
-    public static class ArrayAsUI16SequenceSerializer implements Serializer<short[]> {
+    public static class ArrayAsUI16SequenceSerializer implements SizedSerializer<short[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, short[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI16(message, name, array[i]);
-            }
+            impl.serializeUI16Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -322,23 +394,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             short[] array = new short[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeUI16(message, name);
-            }
+            impl.deserializeUI16Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, short[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 2, array.length);
+        }
     }
 
-    public static class ArrayAsI32SequenceSerializer implements Serializer<int[]> {
+    public static class ArrayAsI32SequenceSerializer implements SizedSerializer<int[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, int[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI32(message, name, array[i]);
-            }
+            impl.serializeI32Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -347,23 +421,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             int[] array = new int[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeI32(message, name);
-            }
+            impl.deserializeI32Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, int[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsUI32SequenceSerializer implements Serializer<int[]> {
+    public static class ArrayAsUI32SequenceSerializer implements SizedSerializer<int[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, int[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI32(message, name, array[i]);
-            }
+            impl.serializeUI32Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -372,23 +448,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             int[] array = new int[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeUI32(message, name);
-            }
+            impl.deserializeUI32Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, int[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsI64SequenceSerializer implements Serializer<long[]> {
+    public static class ArrayAsI64SequenceSerializer implements SizedSerializer<long[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, long[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI64(message, name, array[i]);
-            }
+            impl.serializeI64Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -397,23 +475,25 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             long[] array = new long[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeI64(message, name);
-            }
+            impl.deserializeI64Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, long[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsUI64SequenceSerializer implements Serializer<long[]> {
+    public static class ArrayAsUI64SequenceSerializer implements SizedSerializer<long[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, long[] array) throws IOException {
             impl.serializeSequenceBegin(message, name);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI64(message, name, array[i]);
-            }
+            impl.serializeUI64Array(message, name, array, 0, array.length);
             impl.serializeSequenceEnd(message, name);
         }
 
@@ -422,15 +502,19 @@ public class BasicSerializers {
             impl.deserializeSequenceBegin(message, name);
             int length = impl.deserializeI32(message, "");
             long[] array = new long[length];
-            for (int i = 0; i < length; ++i) {
-                array[i] = impl.deserializeUI64(message, name);
-            }
+            impl.deserializeUI64Array(message, name, array, 0, length);
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, long[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsStringSequenceSerializer implements Serializer<java.lang.String[]> {
+    public static class ArrayAsStringSequenceSerializer implements SizedSerializer<java.lang.String[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, java.lang.String[] array) throws IOException {
@@ -453,9 +537,18 @@ public class BasicSerializers {
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, java.lang.String[] array) {
+            int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            for (int i = 0; i < array.length; ++i) {
+                position += impl.getStringSerializedSize(position, array[i]);
+            }
+            return position - currentAlignment;
+        }
     }
 
-    public static class ArrayAsBooleanSequenceSerializer implements Serializer<boolean[]> {
+    public static class ArrayAsBooleanSequenceSerializer implements SizedSerializer<boolean[]> {
 
         @Override
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, boolean[] array) throws IOException {
@@ -478,9 +571,15 @@ public class BasicSerializers {
             impl.deserializeSequenceEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, boolean[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 
-    public static class ArrayAsFloat32ArraySerializer implements Serializer<float[]> {
+    public static class ArrayAsFloat32ArraySerializer implements SizedSerializer<float[]> {
 
         private final int arrayDim;
 
@@ -492,9 +591,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, float[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeFloat32(message, name, array[i]);
-            }
+            impl.serializeFloat32Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -502,15 +599,19 @@ public class BasicSerializers {
         public float[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final float[] array = new float[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeFloat32(message, name);
-            }
+            impl.deserializeFloat32Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, float[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsFloat64ArraySerializer implements Serializer<double[]> {
+    public static class ArrayAsFloat64ArraySerializer implements SizedSerializer<double[]> {
 
         private final int arrayDim;
 
@@ -522,9 +623,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, double[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeFloat64(message, name, array[i]);
-            }
+            impl.serializeFloat64Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -532,15 +631,19 @@ public class BasicSerializers {
         public double[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final double[] array = new double[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeFloat64(message, name);
-            }
+            impl.deserializeFloat64Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, double[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsCharArraySerializer implements Serializer<char[]> {
+    public static class ArrayAsCharArraySerializer implements SizedSerializer<char[]> {
 
         private final int arrayDim;
 
@@ -568,9 +671,15 @@ public class BasicSerializers {
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, char[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 
-    public static class ArrayAsByteArraySerializer implements Serializer<byte[]> {
+    public static class ArrayAsByteArraySerializer implements SizedSerializer<byte[]> {
 
         private final int arrayDim;
 
@@ -582,9 +691,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, byte[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeByte(message, name, array[i]);
-            }
+            impl.serializeByteArray(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -592,15 +699,19 @@ public class BasicSerializers {
         public byte[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final byte[] array = new byte[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeByte(message, name);
-            }
+            impl.deserializeByteArray(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, byte[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 
-    public static class ArrayAsI16ArraySerializer implements Serializer<short[]> {
+    public static class ArrayAsI16ArraySerializer implements SizedSerializer<short[]> {
 
         private final int arrayDim;
 
@@ -612,9 +723,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, short[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI16(message, name, array[i]);
-            }
+            impl.serializeI16Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -622,15 +731,19 @@ public class BasicSerializers {
         public short[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final short[] array = new short[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeI16(message, name);
-            }
+            impl.deserializeI16Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, short[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 2, array.length);
+        }
     }
 
-    public static class ArrayAsUI16ArraySerializer implements Serializer<short[]> {
+    public static class ArrayAsUI16ArraySerializer implements SizedSerializer<short[]> {
 
         private final int arrayDim;
 
@@ -642,9 +755,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, short[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI16(message, name, array[i]);
-            }
+            impl.serializeUI16Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -652,15 +763,19 @@ public class BasicSerializers {
         public short[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final short[] array = new short[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeUI16(message, name);
-            }
+            impl.deserializeUI16Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, short[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 2, array.length);
+        }
     }
 
-    public static class ArrayAsI32ArraySerializer implements Serializer<int[]> {
+    public static class ArrayAsI32ArraySerializer implements SizedSerializer<int[]> {
 
         private final int arrayDim;
 
@@ -672,9 +787,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, int[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI32(message, name, array[i]);
-            }
+            impl.serializeI32Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -682,15 +795,19 @@ public class BasicSerializers {
         public int[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final int[] array = new int[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeI32(message, name);
-            }
+            impl.deserializeI32Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, int[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsUI32ArraySerializer implements Serializer<int[]> {
+    public static class ArrayAsUI32ArraySerializer implements SizedSerializer<int[]> {
 
         private final int arrayDim;
 
@@ -702,9 +819,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, int[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI32(message, name, array[i]);
-            }
+            impl.serializeUI32Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -712,15 +827,19 @@ public class BasicSerializers {
         public int[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final int[] array = new int[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeUI32(message, name);
-            }
+            impl.deserializeUI32Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, int[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 4, array.length);
+        }
     }
 
-    public static class ArrayAsI64ArraySerializer implements Serializer<long[]> {
+    public static class ArrayAsI64ArraySerializer implements SizedSerializer<long[]> {
 
         private final int arrayDim;
 
@@ -732,9 +851,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, long[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeI64(message, name, array[i]);
-            }
+            impl.serializeI64Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -742,15 +859,19 @@ public class BasicSerializers {
         public long[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final long[] array = new long[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeI64(message, name);
-            }
+            impl.deserializeI64Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, long[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsUI64ArraySerializer implements Serializer<long[]> {
+    public static class ArrayAsUI64ArraySerializer implements SizedSerializer<long[]> {
 
         private final int arrayDim;
 
@@ -762,9 +883,7 @@ public class BasicSerializers {
         public void write(SerializerImpl impl, BinaryOutputStream message, String name, long[] array) throws IOException {
             impl.serializeArrayBegin(message, name, arrayDim);
             impl.serializeI32(message, "", array.length);
-            for (int i = 0; i < array.length; ++i) {
-                impl.serializeUI64(message, name, array[i]);
-            }
+            impl.serializeUI64Array(message, name, array, 0, array.length);
             impl.serializeArrayEnd(message, name);
         }
 
@@ -772,15 +891,19 @@ public class BasicSerializers {
         public long[] read(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
             impl.deserializeArrayBegin(message, name);
             final long[] array = new long[arrayDim];
-            for (int i = 0; i < arrayDim; ++i) {
-                array[i] = impl.deserializeUI64(message, name);
-            }
+            impl.deserializeUI64Array(message, name, array, 0, arrayDim);
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, long[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 8, array.length);
+        }
     }
 
-    public static class ArrayAsStringArraySerializer implements Serializer<java.lang.String[]> {
+    public static class ArrayAsStringArraySerializer implements SizedSerializer<java.lang.String[]> {
 
         private final int arrayDim;
 
@@ -808,9 +931,18 @@ public class BasicSerializers {
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, java.lang.String[] array) {
+            int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            for (int i = 0; i < array.length; ++i) {
+                position += impl.getStringSerializedSize(position, array[i]);
+            }
+            return position - currentAlignment;
+        }
     }
 
-    public static class ArrayAsBooleanArraySerializer implements Serializer<boolean[]> {
+    public static class ArrayAsBooleanArraySerializer implements SizedSerializer<boolean[]> {
 
         private final int arrayDim;
 
@@ -838,5 +970,11 @@ public class BasicSerializers {
             impl.deserializeArrayEnd(message, name);
             return array;
         }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment, boolean[] array) {
+            final int position = currentAlignment + impl.getPrimitiveSerializedSize(currentAlignment, 4);
+            return position - currentAlignment + impl.getPrimitiveArraySerializedSize(position, 1, array.length);
+        }
     }
 }
@@ -23,6 +23,8 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
 
 /**
  * Very similar to the java.io.ByteArrayInputStream but this version is not
@@ -30,10 +32,16 @@ import java.nio.ByteBuffer;
  */
 public class BinaryInputStream extends InputStream {
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private byte[] buffer;
     int limit;
     private int pos;
     int mark;
+    // true while the stream is handed out by a BinaryStreamPool
+    boolean leased;
+    // thread that acquired the stream from a BinaryStreamPool
+    Thread owner;
 
     public BinaryInputStream(byte data[]) {
         this(data, 0, data.length);
@@ -46,14 +54,19 @@ public class BinaryInputStream extends InputStream {
         this.limit = Math.min(offset + size, data.length);
     }
 
+    /**
+     * Creates a stream reading the remaining bytes of buffer. Buffers that are
+     * not backed by an array are read through a {@link ByteBufferInputStream}
+     * without copying.
+     *
+     * @param buffer data to read
+     * @return input stream
+     */
     public static BinaryInputStream fromByteBuffer(ByteBuffer buffer) {
-        final ByteBuffer buf = buffer.duplicate();
-        if (buf.hasArray()) {
-            return new BinaryInputStream(buf.array(), buf.arrayOffset(), buf.remaining());
+        if (buffer.hasArray()) {
+            return new BinaryInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
         } else {
-            final byte[] bytes = new byte[buf.remaining()];
-            buf.get(bytes);
-            return new BinaryInputStream(bytes);
+            return new ByteBufferInputStream(buffer);
         }
     }
 
@@ -234,6 +247,61 @@ public class BinaryInputStream extends InputStream {
         return (int) skip(n);
     }
 
+    /**
+     * Decodes length bytes of UTF-8 directly from the backing array.
+     *
+     * @param length number of bytes to decode
+     * @return decoded string
+     * @throws IOException if fewer than length bytes are available
+     */
+    public String readUTF8(int length) throws IOException {
+        return readUTF8(length, null);
+    }
+
+    /**
+     * Decodes length bytes of UTF-8 directly from the backing array, looking
+     * the result up in cache first.
+     *
+     * @param length number of bytes to decode
+     * @param cache string cache, may be null
+     * @return decoded string
+     * @throws IOException if fewer than length bytes are available
+     */
+    public String readUTF8(int length, StringCache cache) throws IOException {
+        if (length < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length > limit - pos) {
+            throw new EOFException();
+        }
+        final String value = cache != null
+                ? cache.get(buffer, pos, length)
+                : new String(buffer, pos, length, UTF_8);
+        pos += length;
+        return value;
+    }
+
+    /**
+     * Resolves length bytes of UTF-8 in table without decoding them.
+     *
+     * @param <V> value type
+     * @param length number of bytes to read
+     * @param table table to search
+     * @return value mapped to the bytes or null
+     * @throws IOException if fewer than length bytes are available
+     */
+    public <V> V lookupUTF8(int length, NameTable<V> table) throws IOException {
+        if (length < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length > limit - pos) {
+            throw new EOFException();
+        }
+        final V value = table.get(buffer, pos, length);
+        pos += length;
+        return value;
+    }
+
     private final byte readBuffer[] = new byte[8];
 
     public long readLong() throws IOException {
@@ -275,4 +343,41 @@ public class BinaryInputStream extends InputStream {
     public double readDoubleLE() throws IOException {
         return Double.longBitsToDouble(readLongLE());
     }
+
+    /*
+     * Bulk reads of primitive arrays through a ByteBuffer view with the
+     * requested byte order.
+     */
+
+    private ByteBuffer consume(int len, ByteOrder order) throws EOFException {
+        if (len < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len > limit - pos) {
+            throw new EOFException();
+        }
+        final ByteBuffer view = ByteBuffer.wrap(buffer, pos, len).order(order);
+        pos += len;
+        return view;
+    }
+
+    public void readShorts(short[] v, int off, int len, ByteOrder order) throws IOException {
+        consume(len << 1, order).asShortBuffer().get(v, off, len);
+    }
+
+    public void readInts(int[] v, int off, int len, ByteOrder order) throws IOException {
+        consume(len << 2, order).asIntBuffer().get(v, off, len);
+    }
+
+    public void readLongs(long[] v, int off, int len, ByteOrder order) throws IOException {
+        consume(len << 3, order).asLongBuffer().get(v, off, len);
+    }
+
+    public void readFloats(float[] v, int off, int len, ByteOrder order) throws IOException {
+        consume(len << 2, order).asFloatBuffer().get(v, off, len);
+    }
+
+    public void readDoubles(double[] v, int off, int len, ByteOrder order) throws IOException {
+        consume(len << 3, order).asDoubleBuffer().get(v, off, len);
+    }
 }
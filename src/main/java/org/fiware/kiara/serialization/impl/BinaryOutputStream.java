@@ -22,6 +22,8 @@ package org.fiware.kiara.serialization.impl;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * Very similar to the java.io.ByteArrayOutputStream but this version is not
@@ -32,6 +34,10 @@ public class BinaryOutputStream extends OutputStream {
 
     private byte[] buffer;
     private int size;
+    // true while the stream is handed out by a BinaryStreamPool
+    boolean leased;
+    // thread that acquired the stream from a BinaryStreamPool
+    Thread owner;
 
     public BinaryOutputStream() {
         this(1028);
@@ -99,6 +105,20 @@ public class BinaryOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Grows the buffer to exactly capacity bytes if it is smaller. Use it
+     * when the final size of the stream is known in advance.
+     *
+     * @param capacity required capacity in bytes
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            byte b[] = new byte[capacity];
+            System.arraycopy(buffer, 0, b, 0, size);
+            buffer = b;
+        }
+    }
+
     public void reset() {
         size = 0;
     }
@@ -117,54 +137,178 @@ public class BinaryOutputStream extends OutputStream {
         this.write(v);
     }
 
+    /**
+     * Writes len zero bytes. Used for alignment padding.
+     *
+     * @param len number of zero bytes to write
+     */
+    public void writeZeros(int len) {
+        if (len <= 0) {
+            return;
+        }
+        final int newsize = size + len;
+        checkCapacity(newsize);
+        Arrays.fill(buffer, size, newsize, (byte) 0);
+        size = newsize;
+    }
+
+    /**
+     * Returns the number of bytes needed to encode value as UTF-8. Unpaired
+     * surrogates count as one byte, they are written as '?'.
+     *
+     * @param value string to measure
+     * @return encoded length in bytes
+     */
+    public static int utf8Length(String value) {
+        final int n = value.length();
+        int len = n;
+        for (int i = 0; i < n; ++i) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                len += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // two chars, four bytes
+                len += 2;
+                ++i;
+            } else if (!Character.isSurrogate(c)) {
+                len += 2;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Encodes value as UTF-8 directly into the backing array.
+     *
+     * @param value string to write
+     * @param encodedLength result of {@link #utf8Length(String)} for value
+     */
+    public void writeUTF8(String value, int encodedLength) {
+        final int newsize = size + encodedLength;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int n = value.length();
+        int p = size;
+        int i = 0;
+        // ASCII fast path
+        for (; i < n; ++i) {
+            final char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            b[p++] = (byte) c;
+        }
+        for (; i < n; ++i) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                b[p++] = (byte) c;
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int cp = Character.toCodePoint(c, value.charAt(++i));
+                    b[p++] = (byte) (0xF0 | (cp >> 18));
+                    b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    b[p++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    b[p++] = (byte) '?';
+                }
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (p != newsize) {
+            throw new IllegalArgumentException("encodedLength " + encodedLength + " does not match string");
+        }
+        size = newsize;
+    }
+
+    /*
+     * Multi-byte values reserve capacity once and are stored directly
+     * into the backing array.
+     */
+
     public void writeShort(int v) throws IOException {
-        write((v >>> 8) & 0xFF);
-        write((v) & 0xFF);
+        final int newsize = size + 2;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) (v >>> 8);
+        b[p + 1] = (byte) v;
+        size = newsize;
     }
 
     public void writeShortLE(int v) throws IOException {
-        write((v) & 0xFF);
-        write((v >>> 8) & 0xFF);
+        final int newsize = size + 2;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) v;
+        b[p + 1] = (byte) (v >>> 8);
+        size = newsize;
     }
 
     public void writeInt(int v) throws IOException {
-        write((v >>> 24) & 0xFF);
-        write((v >>> 16) & 0xFF);
-        write((v >>> 8) & 0xFF);
-        write((v) & 0xFF);
+        final int newsize = size + 4;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) (v >>> 24);
+        b[p + 1] = (byte) (v >>> 16);
+        b[p + 2] = (byte) (v >>> 8);
+        b[p + 3] = (byte) v;
+        size = newsize;
     }
 
     public void writeIntLE(int v) throws IOException {
-        write((v) & 0xFF);
-        write((v >>> 8) & 0xFF);
-        write((v >>> 16) & 0xFF);
-        write((v >>> 24) & 0xFF);
+        final int newsize = size + 4;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) v;
+        b[p + 1] = (byte) (v >>> 8);
+        b[p + 2] = (byte) (v >>> 16);
+        b[p + 3] = (byte) (v >>> 24);
+        size = newsize;
     }
 
-    private final byte longBuffer[] = new byte[8];
-
     public void writeLong(long v) throws IOException {
-        longBuffer[0] = (byte) (v >>> 56);
-        longBuffer[1] = (byte) (v >>> 48);
-        longBuffer[2] = (byte) (v >>> 40);
-        longBuffer[3] = (byte) (v >>> 32);
-        longBuffer[4] = (byte) (v >>> 24);
-        longBuffer[5] = (byte) (v >>> 16);
-        longBuffer[6] = (byte) (v >>> 8);
-        longBuffer[7] = (byte) (v);
-        write(longBuffer, 0, 8);
+        final int newsize = size + 8;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) (v >>> 56);
+        b[p + 1] = (byte) (v >>> 48);
+        b[p + 2] = (byte) (v >>> 40);
+        b[p + 3] = (byte) (v >>> 32);
+        b[p + 4] = (byte) (v >>> 24);
+        b[p + 5] = (byte) (v >>> 16);
+        b[p + 6] = (byte) (v >>> 8);
+        b[p + 7] = (byte) v;
+        size = newsize;
     }
 
     public void writeLongLE(long v) throws IOException {
-        longBuffer[0] = (byte) (v);
-        longBuffer[1] = (byte) (v >>> 8);
-        longBuffer[2] = (byte) (v >>> 16);
-        longBuffer[3] = (byte) (v >>> 24);
-        longBuffer[4] = (byte) (v >>> 32);
-        longBuffer[5] = (byte) (v >>> 40);
-        longBuffer[6] = (byte) (v >>> 48);
-        longBuffer[7] = (byte) (v >>> 56);
-        write(longBuffer, 0, 8);
+        final int newsize = size + 8;
+        checkCapacity(newsize);
+        final byte[] b = buffer;
+        final int p = size;
+        b[p] = (byte) v;
+        b[p + 1] = (byte) (v >>> 8);
+        b[p + 2] = (byte) (v >>> 16);
+        b[p + 3] = (byte) (v >>> 24);
+        b[p + 4] = (byte) (v >>> 32);
+        b[p + 5] = (byte) (v >>> 40);
+        b[p + 6] = (byte) (v >>> 48);
+        b[p + 7] = (byte) (v >>> 56);
+        size = newsize;
     }
 
     public void writeFloat(float v) throws IOException {
@@ -183,4 +327,38 @@ public class BinaryOutputStream extends OutputStream {
         writeLongLE(Double.doubleToLongBits(v));
     }
 
+    /*
+     * Bulk writes of primitive arrays. Capacity is reserved once and the
+     * values are copied through a ByteBuffer view with the requested byte
+     * order.
+     */
+
+    private ByteBuffer reserve(int len, ByteOrder order) {
+        final int newsize = size + len;
+        checkCapacity(newsize);
+        final ByteBuffer view = ByteBuffer.wrap(buffer, size, len).order(order);
+        size = newsize;
+        return view;
+    }
+
+    public void writeShorts(short[] v, int off, int len, ByteOrder order) {
+        reserve(len << 1, order).asShortBuffer().put(v, off, len);
+    }
+
+    public void writeInts(int[] v, int off, int len, ByteOrder order) {
+        reserve(len << 2, order).asIntBuffer().put(v, off, len);
+    }
+
+    public void writeLongs(long[] v, int off, int len, ByteOrder order) {
+        reserve(len << 3, order).asLongBuffer().put(v, off, len);
+    }
+
+    public void writeFloats(float[] v, int off, int len, ByteOrder order) {
+        reserve(len << 2, order).asFloatBuffer().put(v, off, len);
+    }
+
+    public void writeDoubles(double[] v, int off, int len, ByteOrder order) {
+        reserve(len << 3, order).asDoubleBuffer().put(v, off, len);
+    }
+
 }
@@ -0,0 +1,305 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of reusable {@link BinaryOutputStream} and {@link BinaryInputStream}
+ * instances.
+ *
+ * Output streams are kept in power of two size classes starting with
+ * {@link #MIN_CAPACITY}. Each thread has a one element cache per size class
+ * which takes the streams it acquired itself. Streams released by another
+ * thread, or that do not fit into the cache, go to a bounded queue shared by
+ * all threads. This way a stream acquired by a worker thread and released by
+ * the I/O thread after the transport has written it is still reused, and the
+ * I/O threads do not hold on to streams they never acquire.
+ *
+ * Returning a stream is optional: a stream which is never released is simply
+ * garbage collected. A released stream must not be used anymore, since its
+ * buffer will be handed out again.
+ *
+ * @see org.fiware.kiara.transport.impl.TransportMessage#setPayload(BinaryOutputStream)
+ */
+public final class BinaryStreamPool {
+
+    /**
+     * Capacity of the smallest size class.
+     */
+    public static final int MIN_CAPACITY = 1024;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    private static final BinaryStreamPool defaultPool = new BinaryStreamPool(1 << 20, 64);
+
+    /**
+     * Returns the process wide pool used by the transports, servants and
+     * proxies.
+     *
+     * @return default pool
+     */
+    public static BinaryStreamPool getDefault() {
+        return defaultPool;
+    }
+
+    private final int maxCapacity;
+    private final int numClasses;
+    private final StreamCache<BinaryOutputStream>[] outputCaches;
+    private final StreamCache<BinaryInputStream> inputCache;
+    private final StreamCache<ByteBufferInputStream> viewCache;
+
+    /**
+     * @param maxCapacity buffers larger than this are not pooled
+     * @param maxSharedPerClass maximal number of streams per size class kept
+     * in the queue shared between threads
+     */
+    @SuppressWarnings("unchecked")
+    public BinaryStreamPool(int maxCapacity, int maxSharedPerClass) {
+        if (maxCapacity < MIN_CAPACITY) {
+            throw new IllegalArgumentException("maxCapacity must be at least " + MIN_CAPACITY);
+        }
+        if (maxSharedPerClass < 0) {
+            throw new IllegalArgumentException("maxSharedPerClass must not be negative");
+        }
+        this.numClasses = sizeClassOf(maxCapacity) + 1;
+        this.maxCapacity = MIN_CAPACITY << (numClasses - 1);
+        this.outputCaches = new StreamCache[numClasses];
+        for (int i = 0; i < numClasses; ++i) {
+            this.outputCaches[i] = new StreamCache<>(maxSharedPerClass);
+        }
+        this.inputCache = new StreamCache<>(maxSharedPerClass);
+        this.viewCache = new StreamCache<>(maxSharedPerClass);
+    }
+
+    /**
+     * Returns the index of the smallest size class able to hold capacity
+     * bytes.
+     */
+    private static int sizeClassOf(int capacity) {
+        int sizeClass = 0;
+        while ((MIN_CAPACITY << sizeClass) < capacity) {
+            ++sizeClass;
+        }
+        return sizeClass;
+    }
+
+    /**
+     * Returns the index of the largest size class whose capacity is covered
+     * by a buffer of the passed length, or -1 when the buffer is too small.
+     */
+    private static int sizeClassOfBuffer(int length) {
+        if (length < MIN_CAPACITY) {
+            return -1;
+        }
+        return 31 - Integer.numberOfLeadingZeros(length / MIN_CAPACITY);
+    }
+
+    /**
+     * Acquires an empty output stream of the smallest size class.
+     *
+     * @return empty output stream
+     */
+    public BinaryOutputStream acquireOutputStream() {
+        return acquireOutputStream(MIN_CAPACITY);
+    }
+
+    /**
+     * Acquires an empty output stream with at least the passed capacity.
+     *
+     * @param capacity minimal buffer capacity
+     * @return empty output stream
+     */
+    public BinaryOutputStream acquireOutputStream(int capacity) {
+        if (capacity > maxCapacity) {
+            final BinaryOutputStream stream = new BinaryOutputStream(capacity);
+            stream.leased = true;
+            stream.owner = Thread.currentThread();
+            return stream;
+        }
+        final int sizeClass = sizeClassOf(capacity);
+        BinaryOutputStream stream = outputCaches[sizeClass].poll();
+        if (stream == null) {
+            stream = new BinaryOutputStream(MIN_CAPACITY << sizeClass);
+        } else {
+            stream.reset();
+        }
+        stream.leased = true;
+        stream.owner = Thread.currentThread();
+        return stream;
+    }
+
+    /**
+     * Returns an output stream to the pool.
+     *
+     * @param stream stream to return
+     * @throws IllegalStateException when the stream was already released or
+     * was not acquired from a pool
+     */
+    public void release(BinaryOutputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        if (!stream.leased) {
+            throw new IllegalStateException("Stream is not leased from a pool");
+        }
+        stream.leased = false;
+        final boolean owned = stream.owner == Thread.currentThread();
+        stream.owner = null;
+        final int length = stream.getBuffer().length;
+        if (length > maxCapacity) {
+            return;
+        }
+        final int sizeClass = sizeClassOfBuffer(length);
+        if (sizeClass >= 0) {
+            outputCaches[sizeClass].offer(stream, owned);
+        }
+    }
+
+    /**
+     * Acquires an input stream reading the remaining bytes of buffer. Buffers
+     * without an accessible array are read in place through a
+     * {@link ByteBufferInputStream}.
+     *
+     * @param buffer data to read
+     * @return input stream
+     * @see BinaryInputStream#fromByteBuffer(java.nio.ByteBuffer)
+     */
+    public BinaryInputStream acquireInputStream(ByteBuffer buffer) {
+        if (!buffer.hasArray()) {
+            ByteBufferInputStream stream = viewCache.poll();
+            if (stream == null) {
+                stream = new ByteBufferInputStream(buffer);
+            } else {
+                stream.setByteBuffer(buffer);
+            }
+            stream.leased = true;
+            stream.owner = Thread.currentThread();
+            return stream;
+        }
+        return acquireInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Acquires an input stream reading size bytes of data starting at offset.
+     *
+     * @param data data to read
+     * @param offset start of the data
+     * @param size number of bytes to read
+     * @return input stream
+     */
+    public BinaryInputStream acquireInputStream(byte[] data, int offset, int size) {
+        BinaryInputStream stream = inputCache.poll();
+        if (stream == null) {
+            stream = new BinaryInputStream(data, offset, size);
+        } else {
+            stream.setBuffer(data, offset, size);
+        }
+        stream.leased = true;
+        stream.owner = Thread.currentThread();
+        return stream;
+    }
+
+    /**
+     * Returns an input stream to the pool. The stream drops its reference to
+     * the data.
+     *
+     * @param stream stream to return
+     * @throws IllegalStateException when the stream was already released or
+     * was not acquired from a pool
+     */
+    public void release(BinaryInputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        if (!stream.leased) {
+            throw new IllegalStateException("Stream is not leased from a pool");
+        }
+        stream.leased = false;
+        final boolean owned = stream.owner == Thread.currentThread();
+        stream.owner = null;
+        if (stream instanceof ByteBufferInputStream) {
+            final ByteBufferInputStream view = (ByteBufferInputStream) stream;
+            view.clear();
+            viewCache.offer(view, owned);
+        } else {
+            stream.setBuffer(EMPTY_ARRAY);
+            inputCache.offer(stream, owned);
+        }
+    }
+
+    /**
+     * One element per thread cache in front of a bounded shared queue.
+     */
+    private static final class StreamCache<T> {
+
+        private final ThreadLocal<Object[]> local = new ThreadLocal<Object[]>() {
+
+            @Override
+            protected Object[] initialValue() {
+                return new Object[1];
+            }
+        };
+        private final Queue<T> shared = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger sharedSize = new AtomicInteger();
+        private final int maxShared;
+
+        StreamCache(int maxShared) {
+            this.maxShared = maxShared;
+        }
+
+        @SuppressWarnings("unchecked")
+        T poll() {
+            final Object[] slot = local.get();
+            final T value = (T) slot[0];
+            if (value != null) {
+                slot[0] = null;
+                return value;
+            }
+            final T sharedValue = shared.poll();
+            if (sharedValue != null) {
+                sharedSize.decrementAndGet();
+            }
+            return sharedValue;
+        }
+
+        /**
+         * @param value stream to keep
+         * @param owned true when the releasing thread acquired the stream,
+         * only such streams are kept in the thread's own cache
+         */
+        void offer(T value, boolean owned) {
+            if (owned) {
+                final Object[] slot = local.get();
+                if (slot[0] == null) {
+                    slot[0] = value;
+                    return;
+                }
+            }
+            if (sharedSize.incrementAndGet() <= maxShared) {
+                shared.offer(value);
+            } else {
+                sharedSize.decrementAndGet();
+            }
+        }
+    }
+
+}
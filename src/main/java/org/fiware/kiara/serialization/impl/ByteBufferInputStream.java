@@ -0,0 +1,266 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * {@link BinaryInputStream} reading directly from a {@link ByteBuffer}, e.g.
+ * a direct buffer or the NIO view of a Netty ByteBuf, without copying the
+ * data into a heap array first.
+ *
+ * Positions are relative to the position of the buffer when it was set.
+ * {@link #getBuffer()} is not supported since the data may not be backed by
+ * an array.
+ */
+public class ByteBufferInputStream extends BinaryInputStream {
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.wrap(EMPTY_ARRAY);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private ByteBuffer data;
+    private int start;
+    private int markPosition;
+    // strings are decoded from a heap copy of their bytes
+    private byte[] scratch = EMPTY_ARRAY;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        super(EMPTY_ARRAY);
+        setByteBuffer(buffer);
+    }
+
+    /**
+     * Reads the remaining bytes of buffer. The buffer itself is not modified.
+     *
+     * @param buffer data to read
+     */
+    public final void setByteBuffer(ByteBuffer buffer) {
+        this.data = buffer.duplicate();
+        this.start = data.position();
+        this.markPosition = start;
+    }
+
+    public ByteBuffer getByteBuffer() {
+        return data;
+    }
+
+    void clear() {
+        setByteBuffer(EMPTY_BUFFER);
+    }
+
+    @Override
+    public byte[] getBuffer() {
+        throw new UnsupportedOperationException("Stream is not backed by an array");
+    }
+
+    @Override
+    public int getBufferOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getBufferLength() {
+        return data.limit() - start;
+    }
+
+    @Override
+    public void setBuffer(byte[] data, int offset, int size) {
+        setByteBuffer(ByteBuffer.wrap(data, offset, size));
+    }
+
+    @Override
+    public int getPosition() {
+        return data.position() - start;
+    }
+
+    @Override
+    public void setPosition(int pos) {
+        data.position(Math.min(start + pos, data.limit()));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (data.hasRemaining()) {
+            return data.get() & 0xff;
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) {
+        if (data.hasRemaining()) {
+            len = Math.min(len, data.remaining());
+            if (len > 0) {
+                data.get(b, off, len);
+            }
+            return len;
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public long skip(long len) throws IOException {
+        if (data.hasRemaining()) {
+            final int n = (int) Math.min(len, data.remaining());
+            if (n > 0) {
+                data.position(data.position() + n);
+            }
+            return n;
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    public int available() {
+        return data.remaining();
+    }
+
+    @Override
+    public void mark(int markpos) {
+        markPosition = data.position();
+    }
+
+    @Override
+    public void reset() {
+        data.position(markPosition);
+    }
+
+    private ByteBuffer require(int len, ByteOrder order) throws EOFException {
+        if (len < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len > data.remaining()) {
+            throw new EOFException();
+        }
+        return data.order(order);
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return require(2, ByteOrder.BIG_ENDIAN).getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public short readShortLE() throws IOException {
+        return require(2, ByteOrder.LITTLE_ENDIAN).getShort();
+    }
+
+    @Override
+    public int readUnsignedShortLE() throws IOException {
+        return readShortLE() & 0xFFFF;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return require(4, ByteOrder.BIG_ENDIAN).getInt();
+    }
+
+    @Override
+    public int readIntLE() throws IOException {
+        return require(4, ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return require(8, ByteOrder.BIG_ENDIAN).getLong();
+    }
+
+    @Override
+    public long readLongLE() throws IOException {
+        return require(8, ByteOrder.LITTLE_ENDIAN).getLong();
+    }
+
+    @Override
+    public String readUTF8(int length, StringCache cache) throws IOException {
+        require(length, ByteOrder.BIG_ENDIAN);
+        final byte[] bytes;
+        final int offset;
+        if (data.hasArray()) {
+            bytes = data.array();
+            offset = data.arrayOffset() + data.position();
+            data.position(data.position() + length);
+        } else {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, 64)];
+            }
+            data.get(scratch, 0, length);
+            bytes = scratch;
+            offset = 0;
+        }
+        return cache != null ? cache.get(bytes, offset, length) : new String(bytes, offset, length, UTF_8);
+    }
+
+    @Override
+    public <V> V lookupUTF8(int length, NameTable<V> table) throws IOException {
+        require(length, ByteOrder.BIG_ENDIAN);
+        if (data.hasArray()) {
+            final V value = table.get(data.array(), data.arrayOffset() + data.position(), length);
+            data.position(data.position() + length);
+            return value;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, 64)];
+        }
+        data.get(scratch, 0, length);
+        return table.get(scratch, 0, length);
+    }
+
+    @Override
+    public void readShorts(short[] v, int off, int len, ByteOrder order) throws IOException {
+        require(len << 1, order).asShortBuffer().get(v, off, len);
+        data.position(data.position() + (len << 1));
+    }
+
+    @Override
+    public void readInts(int[] v, int off, int len, ByteOrder order) throws IOException {
+        require(len << 2, order).asIntBuffer().get(v, off, len);
+        data.position(data.position() + (len << 2));
+    }
+
+    @Override
+    public void readLongs(long[] v, int off, int len, ByteOrder order) throws IOException {
+        require(len << 3, order).asLongBuffer().get(v, off, len);
+        data.position(data.position() + (len << 3));
+    }
+
+    @Override
+    public void readFloats(float[] v, int off, int len, ByteOrder order) throws IOException {
+        require(len << 2, order).asFloatBuffer().get(v, off, len);
+        data.position(data.position() + (len << 2));
+    }
+
+    @Override
+    public void readDoubles(double[] v, int off, int len, ByteOrder order) throws IOException {
+        require(len << 3, order).asDoubleBuffer().get(v, off, len);
+        data.position(data.position() + (len << 3));
+    }
+
+}
@@ -18,6 +18,7 @@
 package org.fiware.kiara.serialization.impl;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.util.concurrent.atomic.AtomicInteger;
 
 
@@ -27,15 +28,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 */
 public class CDRSerializer implements SerializerImpl {
 
-    private final AtomicInteger nextId;
+    // service and operation names repeat on every call
+    private static final StringCache NAME_CACHE = new StringCache();
+
+    // message ids are unique process wide, pooled transports are shared by
+    // the serializers of several connections
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
     private boolean endianness = false; // false = BIG_ENDIAN; true = LITTLE_ENDIAN
+    private StringCache stringCache = null;
 
     public CDRSerializer() {
-        nextId = new AtomicInteger(1);
     }
     
     public CDRSerializer(boolean endianness) {
-        nextId = new AtomicInteger(1);
         this.endianness = endianness;
     }
     
@@ -47,6 +52,20 @@ public class CDRSerializer implements SerializerImpl {
         return this.endianness;
     }
 
+    /**
+     * Sets the cache used when deserializing string values, null disables
+     * caching. Service and operation names are always cached.
+     *
+     * @param stringCache cache or null
+     */
+    public void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
+    public StringCache getStringCache() {
+        return this.stringCache;
+    }
+
     @Override
     public String getName() {
         return "cdr";
@@ -56,56 +75,8 @@ public class CDRSerializer implements SerializerImpl {
         return (dataSize - (current_alignment % dataSize)) & (dataSize-1);
     }
 
-    private <T> int calculatePadding(int position, T type) {
-        int pos = position;
-        int align = 0;
-
-        if (type instanceof Short) {
-            align = pos % (Short.SIZE / 8);
-            if (align != 0) {
-                int padding_len = (Short.SIZE / 8) - align;
-                return padding_len;
-            }
-        } else if (type instanceof Integer) {
-            align = pos % (Integer.SIZE / 8);
-            if (align != 0) {
-                int padding_len = (Integer.SIZE / 8) - align;
-                return padding_len;
-            }
-        } else if (type instanceof Long) {
-            align = pos % (Long.SIZE / 8);
-            if (align != 0) {
-                int padding_len = (Long.SIZE / 8) - align;
-                return padding_len;
-            }
-        } else if (type instanceof Float) {
-            align = pos % (Float.SIZE / 8);
-            if (align != 0) {
-                int padding_len = (Float.SIZE / 8) - align;
-                return padding_len;
-            }
-        } else if (type instanceof Double) {
-            align = pos % (Double.SIZE / 8);
-            if (align != 0) {
-                int padding_len = (Double.SIZE / 8) - align;
-                return padding_len;
-            }
-        }
-
-        return 0;
-    }
-
-    private <T> int calculatePadding(BinaryInputStream message, T type) {
-        return calculatePadding(message.getPosition(), type);
-    }
-
-    private <T> int calculatePadding(BinaryOutputStream message, T type) {
-        return calculatePadding(message.getPosition(), type);
-    }
-
-    private void writePadding(BinaryOutputStream message, int padding_len) throws IOException {
-        byte[] padding = new byte[padding_len];
-        message.write(padding);
+    private void writePadding(BinaryOutputStream message, int padding_len) {
+        message.writeZeros(padding_len);
     }
 
     private void jumpPadding(BinaryInputStream message, int padding_len) {
@@ -116,7 +87,7 @@ public class CDRSerializer implements SerializerImpl {
 
     @Override
     public Object getNewMessageId() {
-        return nextId.getAndIncrement();
+        return NEXT_ID.getAndIncrement();
     }
     
     @Override
@@ -153,7 +124,12 @@ public class CDRSerializer implements SerializerImpl {
 
     @Override
     public String deserializeService(BinaryInputStream message) throws IOException {
-        return this.deserializeString(message, "");
+        return this.deserializeString(message, NAME_CACHE);
+    }
+
+    @Override
+    public <V> V deserializeService(BinaryInputStream message, NameTable<V> services) throws IOException {
+        return this.lookupString(message, services);
     }
 
     @Override
@@ -163,7 +139,12 @@ public class CDRSerializer implements SerializerImpl {
 
     @Override
     public String deserializeOperation(BinaryInputStream message) throws IOException {
-        return this.deserializeString(message, "");
+        return this.deserializeString(message, NAME_CACHE);
+    }
+
+    @Override
+    public <V> V deserializeOperation(BinaryInputStream message, NameTable<V> operations) throws IOException {
+        return this.lookupString(message, operations);
     }
     
     /*
@@ -172,8 +153,7 @@ public class CDRSerializer implements SerializerImpl {
     
     public void addPadding(BinaryOutputStream message, int nBytes) throws IOException
     {
-        byte [] bytes = new byte[nBytes];
-        message.write(bytes);
+        message.writeZeros(nBytes);
     }
 
     /*
@@ -183,9 +163,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeChar(BinaryOutputStream message, String name, char value) throws IOException
     {
-        String byteString = String.valueOf(value);
-        byte [] bytes = byteString.getBytes();
-        message.write(bytes);
+        message.write((byte) value);
     }
 
     @Override
@@ -210,7 +188,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeI16(BinaryOutputStream message, String name, short value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 2);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -224,8 +202,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public short deserializeI16(BinaryInputStream message, String name) throws IOException
     {
-        short value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 2);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -239,7 +216,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeUI16(BinaryOutputStream message, String name, short value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 2);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -253,8 +230,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public short deserializeUI16(BinaryInputStream message, String name) throws IOException
     {
-        short value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 2);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -268,7 +244,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeI32(BinaryOutputStream message, String name, int value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -282,8 +258,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public int deserializeI32(BinaryInputStream message, String name) throws IOException
     {
-        int value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -297,7 +272,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeUI32(BinaryOutputStream message, String name, int value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -311,8 +286,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public int deserializeUI32(BinaryInputStream message, String name) throws IOException
     {
-        int value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -326,7 +300,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeI64(BinaryOutputStream message, String name, long value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -340,8 +314,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public long deserializeI64(BinaryInputStream message, String name) throws IOException
     {
-        long value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -355,7 +328,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeUI64(BinaryOutputStream message, String name, long value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -369,8 +342,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public long deserializeUI64(BinaryInputStream message, String name) throws IOException
     {
-        long value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -384,7 +356,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeFloat32(BinaryOutputStream message, String name, float value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -398,8 +370,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public float deserializeFloat32(BinaryInputStream message, String name) throws IOException
     {
-        float value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 4);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -413,7 +384,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeFloat64(BinaryOutputStream message, String name, double value) throws IOException
     {
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             writePadding(message, padding_len);
         }
@@ -427,8 +398,7 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public double deserializeFloat64(BinaryInputStream message, String name) throws IOException
     {
-        double value = 0;
-        int padding_len = calculatePadding(message, value);
+        int padding_len = alignment(message.getPosition(), 8);
         if (padding_len != 0) {
             jumpPadding(message, padding_len);
         }
@@ -454,30 +424,39 @@ public class CDRSerializer implements SerializerImpl {
     @Override
     public void serializeString(BinaryOutputStream message, String name, String value) throws IOException
     {
-        byte[] bytes = value.getBytes();
-        byte[] dest = new byte[bytes.length + 1];
-     
-        // copy ciphertext into start of destination (from pos 0, copy ciphertext.length bytes)
-        System.arraycopy(bytes, 0, dest, 0, bytes.length);
-
-        // copy mac into end of destination (from pos ciphertext.length, copy mac.length bytes)
-        System.arraycopy(new byte[]{'\0'}, 0, dest, bytes.length, 1);
-        
-        // Serialization
-        this.serializeI32(message, "", dest.length);
-        message.write(dest);
+        // UTF-8 bytes and terminating '\0' are written directly into the message
+        final int length = BinaryOutputStream.utf8Length(value);
+        this.serializeI32(message, "", length + 1);
+        message.writeUTF8(value, length);
+        message.write(0);
     }
 
     @Override
     public String deserializeString(BinaryInputStream message, String name) throws IOException
     {
-        int length = 0;
-        length = this.deserializeI32(message, "");
-        byte[] bytes = new byte[length];
-        message.readFully(bytes);
-        byte[] finalBytes = new byte[bytes.length - 1];
-        System.arraycopy(bytes, 0, finalBytes, 0, bytes.length - 1);
-        return new String(finalBytes);
+        return deserializeString(message, this.stringCache);
+    }
+
+    private String deserializeString(BinaryInputStream message, StringCache cache) throws IOException
+    {
+        final int length = this.deserializeI32(message, "");
+        if (length <= 0) {
+            return "";
+        }
+        final String value = message.readUTF8(length - 1, cache);
+        message.readByte(); // '\0'
+        return value;
+    }
+
+    private <V> V lookupString(BinaryInputStream message, NameTable<V> table) throws IOException
+    {
+        final int length = this.deserializeI32(message, "");
+        if (length <= 0) {
+            return table.get("");
+        }
+        final V value = message.lookupUTF8(length - 1, table);
+        message.readByte(); // '\0'
+        return value;
     }
 
 
@@ -497,6 +476,262 @@ public class CDRSerializer implements SerializerImpl {
         return bytes;
     }
 
+    /*
+     * Bulk primitive arrays: align once for the first element, the rest of
+     * the block is contiguous.
+     */
+
+    private ByteOrder byteOrder() {
+        return endianness ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public void serializeByteArray(BinaryOutputStream message, String name, byte[] array, int offset, int length) throws IOException
+    {
+        message.write(array, offset, length);
+    }
+
+    @Override
+    public void deserializeByteArray(BinaryInputStream message, String name, byte[] array, int offset, int length) throws IOException
+    {
+        message.readFully(array, offset, length);
+    }
+
+    @Override
+    public void serializeI16Array(BinaryOutputStream message, String name, short[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 2);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeShorts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeI16Array(BinaryInputStream message, String name, short[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 2);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readShorts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeUI16Array(BinaryOutputStream message, String name, short[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 2);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeShorts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeUI16Array(BinaryInputStream message, String name, short[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 2);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readShorts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeI32Array(BinaryOutputStream message, String name, int[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeInts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeI32Array(BinaryInputStream message, String name, int[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readInts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeUI32Array(BinaryOutputStream message, String name, int[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeInts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeUI32Array(BinaryInputStream message, String name, int[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readInts(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeI64Array(BinaryOutputStream message, String name, long[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeLongs(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeI64Array(BinaryInputStream message, String name, long[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readLongs(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeUI64Array(BinaryOutputStream message, String name, long[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeLongs(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeUI64Array(BinaryInputStream message, String name, long[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readLongs(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeFloat32Array(BinaryOutputStream message, String name, float[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeFloats(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeFloat32Array(BinaryInputStream message, String name, float[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 4);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readFloats(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void serializeFloat64Array(BinaryOutputStream message, String name, double[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            writePadding(message, padding_len);
+        }
+        message.writeDoubles(array, offset, length, byteOrder());
+    }
+
+    @Override
+    public void deserializeFloat64Array(BinaryInputStream message, String name, double[] array, int offset, int length) throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        int padding_len = alignment(message.getPosition(), 8);
+        if (padding_len != 0) {
+            jumpPadding(message, padding_len);
+        }
+        message.readDoubles(array, offset, length, byteOrder());
+    }
+
+    /*
+     * Serialized sizes
+     */
+
+    @Override
+    public int getPrimitiveSerializedSize(int currentAlignment, int typeSize) {
+        return alignment(currentAlignment, typeSize) + typeSize;
+    }
+
+    @Override
+    public int getPrimitiveArraySerializedSize(int currentAlignment, int typeSize, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        return alignment(currentAlignment, typeSize) + typeSize * length;
+    }
+
+    @Override
+    public int getStringSerializedSize(int currentAlignment, String value) {
+        return alignment(currentAlignment, 4) + 4 + BinaryOutputStream.utf8Length(value) + 1;
+    }
+
+    @Override
+    public int getDataSerializedSize(int currentAlignment, int length) {
+        return alignment(currentAlignment, 4) + 4 + length;
+    }
+
     /*
      * Generic types
      */
@@ -509,7 +744,7 @@ public class CDRSerializer implements SerializerImpl {
 
     @Override
     public <T extends Serializable> T deserialize(BinaryInputStream message, String name, Class<T> example) throws InstantiationException, IllegalAccessException, IOException {
-        T object = example.newInstance();
+        T object = SerializableFactories.newInstance(example);
         object.deserialize(this, message, name);
         return object;
     }
@@ -23,7 +23,7 @@ import java.io.IOException;
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  * @param <E>
  */
-public class EnumSerializer<E extends Enum> implements Serializer<E> {
+public class EnumSerializer<E extends Enum> implements SizedSerializer<E> {
 
     private final Class<E> enumClass;
 
@@ -41,4 +41,9 @@ public class EnumSerializer<E extends Enum> implements Serializer<E> {
         return impl.deserializeEnum(message, name, enumClass);
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, E object) {
+        return impl.getPrimitiveSerializedSize(currentAlignment, 4);
+    }
+
 }
@@ -0,0 +1,180 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable table mapping names to values that can be searched with the
+ * UTF-8 bytes of a name, so that service and operation names read from the
+ * wire are resolved without decoding a {@link String}. Values can be servants,
+ * handlers or plain operation ids.
+ *
+ * Tables are never modified, {@link #with(String, Object)} and
+ * {@link #without(String)} return updated copies. A table can therefore be
+ * published through a volatile field and read without locking.
+ *
+ * @param <V> value type
+ */
+public final class NameTable<V> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final NameTable<Object> EMPTY = new NameTable<>(Collections.<String, Object>emptyMap());
+
+    private final String[] names;
+    private final byte[][] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private NameTable(Map<String, ? extends V> entries) {
+        // keep the load factor at or below 0.5
+        final int capacity = Integer.highestOneBit(Math.max(entries.size(), 1) * 4 - 1);
+        this.names = new String[capacity];
+        this.keys = new byte[capacity][];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = entries.size();
+        for (Map.Entry<String, ? extends V> entry : entries.entrySet()) {
+            final byte[] key = entry.getKey().getBytes(UTF_8);
+            int index = hash(key, 0, key.length) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            names[index] = entry.getKey();
+            keys[index] = key;
+            values[index] = entry.getValue();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> NameTable<V> empty() {
+        return (NameTable<V>) EMPTY;
+    }
+
+    public static <V> NameTable<V> of(Map<String, ? extends V> entries) {
+        return entries.isEmpty() ? NameTable.<V>empty() : new NameTable<V>(entries);
+    }
+
+    /**
+     * Returns a copy of this table with name mapped to value.
+     *
+     * @param name name
+     * @param value value, not null
+     * @return updated table
+     */
+    public NameTable<V> with(String name, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        final Map<String, V> entries = toMap();
+        entries.put(name, value);
+        return new NameTable<>(entries);
+    }
+
+    /**
+     * Returns a copy of this table without name.
+     *
+     * @param name name
+     * @return updated table, or this table if name is not mapped
+     */
+    public NameTable<V> without(String name) {
+        if (get(name) == null) {
+            return this;
+        }
+        final Map<String, V> entries = toMap();
+        entries.remove(name);
+        return of(entries);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public V get(String name) {
+        final byte[] key = name.getBytes(UTF_8);
+        return get(key, 0, key.length);
+    }
+
+    /**
+     * Returns the value mapped to the name encoded as length bytes of UTF-8
+     * starting at offset.
+     *
+     * @param data source array
+     * @param offset start of the encoded name
+     * @param length number of bytes
+     * @return value or null if the name is not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V get(byte[] data, int offset, int length) {
+        int index = hash(data, offset, length) & mask;
+        byte[] key;
+        while ((key = keys[index]) != null) {
+            if (matches(key, data, offset, length)) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return modifiable copy of the table contents
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, V> toMap() {
+        final Map<String, V> entries = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; ++i) {
+            if (names[i] != null) {
+                entries.put(names[i], (V) values[i]);
+            }
+        }
+        return entries;
+    }
+
+    private static int hash(byte[] data, int offset, int length) {
+        int hash = length;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            hash = 31 * hash + data[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(byte[] key, byte[] data, int offset, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (key[i] != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+}
@@ -24,7 +24,7 @@ import java.io.IOException;
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  * @param <T>
  */
-public class ObjectSerializer<T extends Serializable> implements Serializer<T> {
+public class ObjectSerializer<T extends Serializable> implements SizedSerializer<T> {
 
     private final Class<T> objectClass;
 
@@ -46,4 +46,9 @@ public class ObjectSerializer<T extends Serializable> implements Serializer<T> {
         }
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, T object) {
+        return SerializedSizes.of(impl, currentAlignment, object);
+    }
+
 }
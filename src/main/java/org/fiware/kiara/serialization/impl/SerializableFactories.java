@@ -0,0 +1,149 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link SerializableFactory} instances used to create objects
+ * during deserialization.
+ *
+ * Types can register a factory, e.g. from a static initializer next to the
+ * generated code:
+ *
+ * <pre>
+ * static {
+ *     SerializableFactories.register(Point.class, new SerializableFactory&lt;Point&gt;() {
+ *         public Point create() {
+ *             return new Point();
+ *         }
+ *     });
+ * }
+ * </pre>
+ *
+ * Types without a registered factory are created through their no-argument
+ * constructor, which is looked up once per type and made accessible, so the
+ * access checks of {@link Class#newInstance()} are not repeated per object.
+ */
+public final class SerializableFactories {
+
+    private static final ConcurrentMap<Class<?>, SerializableFactory<?>> factories = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+    private SerializableFactories() {
+    }
+
+    /**
+     * Registers factory for type, replacing a previously registered one.
+     *
+     * @param <T> type
+     * @param type class of the created objects
+     * @param factory factory
+     */
+    public static <T extends Serializable> void register(Class<T> type, SerializableFactory<? extends T> factory) {
+        if (type == null) {
+            throw new NullPointerException("type");
+        }
+        if (factory == null) {
+            throw new NullPointerException("factory");
+        }
+        factories.put(type, factory);
+    }
+
+    /**
+     * Removes the factory registered for type.
+     *
+     * @param type class of the created objects
+     * @return true if a factory was registered
+     */
+    public static boolean unregister(Class<?> type) {
+        return factories.remove(type) != null;
+    }
+
+    /**
+     * Returns the factory registered for type, or null.
+     *
+     * @param <T> type
+     * @param type class of the created objects
+     * @return registered factory or null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> SerializableFactory<? extends T> get(Class<T> type) {
+        return (SerializableFactory<? extends T>) factories.get(type);
+    }
+
+    /**
+     * Creates a new instance of type with the registered factory, or with the
+     * cached no-argument constructor when none is registered.
+     *
+     * @param <T> type
+     * @param type class of the created object
+     * @return new instance
+     * @throws InstantiationException if type has no usable no-argument
+     * constructor or the constructor failed with a checked exception
+     * @throws IllegalAccessException if the constructor can not be made
+     * accessible
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Serializable> T newInstance(Class<T> type) throws InstantiationException, IllegalAccessException {
+        final SerializableFactory<?> factory = factories.get(type);
+        if (factory != null) {
+            return (T) factory.create();
+        }
+        final Constructor<T> constructor = constructorOf(type);
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            final InstantiationException ie = new InstantiationException(type.getName());
+            ie.initCause(cause);
+            throw ie;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Constructor<T> constructorOf(Class<T> type) throws InstantiationException, IllegalAccessException {
+        Constructor<T> constructor = (Constructor<T>) constructors.get(type);
+        if (constructor == null) {
+            try {
+                constructor = type.getDeclaredConstructor();
+            } catch (NoSuchMethodException ex) {
+                final InstantiationException ie = new InstantiationException(type.getName());
+                ie.initCause(ex);
+                throw ie;
+            }
+            try {
+                constructor.setAccessible(true);
+            } catch (SecurityException ex) {
+                throw new IllegalAccessException(ex.getMessage());
+            }
+            constructors.putIfAbsent(type, constructor);
+        }
+        return constructor;
+    }
+
+}
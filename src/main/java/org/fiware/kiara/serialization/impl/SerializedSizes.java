@@ -0,0 +1,71 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+/**
+ * Helpers for the optional serialized size computation of
+ * {@link SizedSerializable} and {@link SizedSerializer}.
+ */
+public final class SerializedSizes {
+
+    /**
+     * Returned when the size can not be computed in advance.
+     */
+    public static final int UNKNOWN = -1;
+
+    private SerializedSizes() {
+    }
+
+    /**
+     * Returns the serialized size of value, or {@link #UNKNOWN} when it does
+     * not implement {@link SizedSerializable}.
+     *
+     * @param impl serializer used for serialization
+     * @param currentAlignment position of the message when serialization
+     * starts
+     * @param value value to measure
+     * @return serialized size in bytes or {@link #UNKNOWN}
+     */
+    public static int of(SerializerImpl impl, int currentAlignment, Serializable value) {
+        if (value instanceof SizedSerializable) {
+            return ((SizedSerializable) value).getSerializedSize(impl, currentAlignment);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the size serializer writes for value, or {@link #UNKNOWN} when
+     * it does not implement {@link SizedSerializer}.
+     *
+     * @param <T> serialized type
+     * @param impl serializer used for serialization
+     * @param currentAlignment position of the message when serialization
+     * starts
+     * @param serializer serializer writing value
+     * @param value value to measure
+     * @return serialized size in bytes or {@link #UNKNOWN}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int of(SerializerImpl impl, int currentAlignment, Serializer<T> serializer, T value) {
+        if (serializer instanceof SizedSerializer) {
+            return ((SizedSerializer<T>) serializer).getSerializedSize(impl, currentAlignment, value);
+        }
+        return UNKNOWN;
+    }
+
+}
@@ -52,6 +52,17 @@ public interface SerializerImpl extends Serializer {
 
     public String deserializeService(BinaryInputStream message) throws IOException;
 
+    /**
+     * Reads a service name and resolves it in services without decoding it.
+     *
+     * @param <V> value type
+     * @param message input stream
+     * @param services table of known services
+     * @return value mapped to the service name or null if it is unknown
+     * @throws IOException
+     */
+    public <V> V deserializeService(BinaryInputStream message, NameTable<V> services) throws IOException;
+
     /*
      * Operations
      */
@@ -60,6 +71,18 @@ public interface SerializerImpl extends Serializer {
 
     public String deserializeOperation(BinaryInputStream message) throws IOException;
 
+    /**
+     * Reads an operation name and resolves it in operations without decoding
+     * it.
+     *
+     * @param <V> value type
+     * @param message input stream
+     * @param operations table of known operations
+     * @return value mapped to the operation name or null if it is unknown
+     * @throws IOException
+     */
+    public <V> V deserializeOperation(BinaryInputStream message, NameTable<V> operations) throws IOException;
+
     /*
      * Basic Types
      */
@@ -122,6 +145,62 @@ public interface SerializerImpl extends Serializer {
 
     public byte[] deserializeData(BinaryInputStream message, String name) throws IOException;
 
+    /*
+     * Bulk primitive arrays. The elements array[offset] .. array[offset + length - 1]
+     * are encoded exactly as the same number of single value calls would
+     * encode them.
+     */
+
+    public void serializeByteArray(BinaryOutputStream message, String name, byte[] array, int offset, int length) throws IOException;
+
+    public void deserializeByteArray(BinaryInputStream message, String name, byte[] array, int offset, int length) throws IOException;
+
+    public void serializeI16Array(BinaryOutputStream message, String name, short[] array, int offset, int length) throws IOException;
+
+    public void deserializeI16Array(BinaryInputStream message, String name, short[] array, int offset, int length) throws IOException;
+
+    public void serializeUI16Array(BinaryOutputStream message, String name, short[] array, int offset, int length) throws IOException;
+
+    public void deserializeUI16Array(BinaryInputStream message, String name, short[] array, int offset, int length) throws IOException;
+
+    public void serializeI32Array(BinaryOutputStream message, String name, int[] array, int offset, int length) throws IOException;
+
+    public void deserializeI32Array(BinaryInputStream message, String name, int[] array, int offset, int length) throws IOException;
+
+    public void serializeUI32Array(BinaryOutputStream message, String name, int[] array, int offset, int length) throws IOException;
+
+    public void deserializeUI32Array(BinaryInputStream message, String name, int[] array, int offset, int length) throws IOException;
+
+    public void serializeI64Array(BinaryOutputStream message, String name, long[] array, int offset, int length) throws IOException;
+
+    public void deserializeI64Array(BinaryInputStream message, String name, long[] array, int offset, int length) throws IOException;
+
+    public void serializeUI64Array(BinaryOutputStream message, String name, long[] array, int offset, int length) throws IOException;
+
+    public void deserializeUI64Array(BinaryInputStream message, String name, long[] array, int offset, int length) throws IOException;
+
+    public void serializeFloat32Array(BinaryOutputStream message, String name, float[] array, int offset, int length) throws IOException;
+
+    public void deserializeFloat32Array(BinaryInputStream message, String name, float[] array, int offset, int length) throws IOException;
+
+    public void serializeFloat64Array(BinaryOutputStream message, String name, double[] array, int offset, int length) throws IOException;
+
+    public void deserializeFloat64Array(BinaryInputStream message, String name, double[] array, int offset, int length) throws IOException;
+
+    /*
+     * Serialized sizes, used by SizedSerializable and SizedSerializer. Each
+     * returns the number of bytes the matching serialize call writes,
+     * including alignment padding, at position currentAlignment.
+     */
+
+    public int getPrimitiveSerializedSize(int currentAlignment, int typeSize);
+
+    public int getPrimitiveArraySerializedSize(int currentAlignment, int typeSize, int length);
+
+    public int getStringSerializedSize(int currentAlignment, String value);
+
+    public int getDataSerializedSize(int currentAlignment, int length);
+
     /*
      * Generic types
      */
@@ -0,0 +1,40 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+/**
+ * {@link Serializable} type that can compute its serialized size without
+ * serializing itself.
+ *
+ * @see SerializedSizes
+ */
+public interface SizedSerializable extends Serializable {
+
+    /**
+     * Returns the number of bytes {@link #serialize} writes, including
+     * alignment padding, when it starts at position currentAlignment of the
+     * message.
+     *
+     * @param impl serializer used for serialization
+     * @param currentAlignment position of the message when serialization
+     * starts
+     * @return serialized size in bytes
+     */
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment);
+
+}
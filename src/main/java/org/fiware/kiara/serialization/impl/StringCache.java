@@ -0,0 +1,103 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.serialization.impl;
+
+import java.nio.charset.Charset;
+
+/**
+ * Small direct-mapped cache of decoded strings. Repeated short ASCII strings,
+ * like service and operation names, are decoded once and the same
+ * {@link String} instance is returned afterwards. Longer or non-ASCII strings
+ * are decoded without caching.
+ *
+ * The cache is safe to share between threads: entries are immutable strings
+ * and a lost update only costs a decode.
+ */
+public final class StringCache {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static final int DEFAULT_SIZE = 256;
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final String[] entries;
+    private final int mask;
+    private final int maxLength;
+
+    public StringCache() {
+        this(DEFAULT_SIZE, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param size number of entries, rounded up to a power of two
+     * @param maxLength longest string in bytes that is cached
+     */
+    public StringCache(int size, int maxLength) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        final int capacity = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        this.entries = new String[capacity];
+        this.mask = capacity - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the string for length bytes of UTF-8 starting at offset.
+     *
+     * @param data source array
+     * @param offset start of the encoded string
+     * @param length number of bytes
+     * @return decoded string, possibly a cached instance
+     */
+    public String get(byte[] data, int offset, int length) {
+        if (length > maxLength) {
+            return new String(data, offset, length, UTF_8);
+        }
+        int hash = length;
+        final int end = offset + length;
+        for (int i = offset; i < end; ++i) {
+            final byte b = data[i];
+            if (b < 0) {
+                // not ASCII
+                return new String(data, offset, length, UTF_8);
+            }
+            hash = 31 * hash + b;
+        }
+        final int index = (hash ^ (hash >>> 16)) & mask;
+        String value = entries[index];
+        if (value == null || !matches(value, data, offset, length)) {
+            value = new String(data, offset, length, UTF_8);
+            entries[index] = value;
+        }
+        return value;
+    }
+
+    private static boolean matches(String value, byte[] data, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (value.charAt(i) != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -23,7 +23,7 @@ import java.io.IOException;
  *
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
  */
-public class StringSerializer implements Serializer<String> {
+public class StringSerializer implements SizedSerializer<String> {
 
     @Override
     public void write(SerializerImpl impl, BinaryOutputStream message, String name, String object) throws IOException {
@@ -35,4 +35,9 @@ public class StringSerializer implements Serializer<String> {
         return impl.deserializeString(message, name);
     }
 
+    @Override
+    public int getSerializedSize(SerializerImpl impl, int currentAlignment, String object) {
+        return impl.getStringSerializedSize(currentAlignment, object);
+    }
+
 }
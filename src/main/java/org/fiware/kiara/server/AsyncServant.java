@@ -0,0 +1,53 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.server;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.fiware.kiara.serialization.Serializer;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.impl.TransportMessage;
+
+/**
+ * Servant that produces its response message asynchronously. The dispatcher
+ * sends the response when the returned future completes, so the dispatching
+ * thread is free while the request waits, for example for a call to another
+ * service.
+ *
+ * The request stream is only valid until
+ * {@link #processAsync(Serializer, TransportMessage, Transport, Object, BinaryInputStream)}
+ * returns, all arguments must be read before. {@link #process} is only used
+ * by callers which need the response synchronously.
+ */
+public interface AsyncServant extends Servant {
+
+    /**
+     * Processes incoming request message and returns a future of the
+     * response message.
+     *
+     * @param ser serializer for incoming message
+     * @param message incoming request message
+     * @param transport transport layer abstraction
+     * @param messageId message ID
+     * @param bis stream for reading incoming message data
+     * @return future of the response message, the future's value may be
+     * null if no response can be produced
+     */
+    public ListenableFuture<TransportMessage> processAsync(Serializer ser, TransportMessage message, Transport transport, Object messageId, BinaryInputStream bis);
+
+}
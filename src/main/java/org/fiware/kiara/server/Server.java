@@ -1,5 +1,6 @@
 package org.fiware.kiara.server;
 
+import org.fiware.kiara.metrics.MetricsRegistry;
 import org.fiware.kiara.serialization.Serializer;
 import org.fiware.kiara.transport.ServerTransport;
 import java.io.Closeable;
@@ -63,4 +64,13 @@ public interface Server extends Closeable {
      * Starts server.
      */
     public void run();
+
+    /**
+     * Returns the request metrics of all services of this server. When the
+     * system property {@value MetricsRegistry#JMX_PROPERTY} is true the
+     * metrics are also registered as MBean while the server runs.
+     *
+     * @return metrics registry
+     */
+    public MetricsRegistry getMetrics();
 }
@@ -1,5 +1,6 @@
 package org.fiware.kiara.server;
 
+import org.fiware.kiara.dynamic.services.AsyncDynamicFunctionHandler;
 import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
 import org.fiware.kiara.exceptions.IDLParseException;
 
@@ -23,6 +24,14 @@ public interface Service {
      */
     public void register(String idlOperationName, DynamicFunctionHandler handler);
 
+    /**
+     * Register asynchronous dynamic handler with the service.
+     *
+     * @param idlOperationName Name of the operation in the IDL file
+     * @param handler The dynamic handler to be called when a certain input is received
+     */
+    public void register(String idlOperationName, AsyncDynamicFunctionHandler handler);
+
     /**
      *
      * Load service IDL from string.
@@ -0,0 +1,278 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.server;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded worker pool with one queue per service. When it is set as the
+ * dispatching executor of a {@link org.fiware.kiara.transport.ServerTransport}
+ * requests are queued by service name: at most maxActivePerService requests
+ * of a service run at the same time and at most maxQueuedPerService wait.
+ * Requests beyond that are rejected with a
+ * {@link RejectedExecutionException}, so a slow service can neither occupy
+ * all workers nor make the I/O threads wait.
+ *
+ * Tasks submitted through the plain {@link java.util.concurrent.Executor}
+ * methods share a single anonymous queue.
+ *
+ * A queued request is dropped when the executor rejects it later on, for
+ * example because a bounded executor is saturated or was shut down. The
+ * rejection callback given with the request is then run instead.
+ */
+public class ServiceWorkerPool extends AbstractExecutorService {
+
+    private static final String DEFAULT_QUEUE = "";
+
+    private final ExecutorService executor;
+    private final int maxActivePerService;
+    private final int maxQueuedPerService;
+    private final ConcurrentMap<String, ServiceQueue> queues;
+
+    /**
+     * Creates a pool with its own fixed number of worker threads.
+     *
+     * @param threads number of worker threads
+     * @param maxActivePerService maximal number of requests of one service
+     * running concurrently
+     * @param maxQueuedPerService maximal number of requests of one service
+     * waiting for a worker
+     */
+    public ServiceWorkerPool(int threads, int maxActivePerService, int maxQueuedPerService) {
+        this(Executors.newFixedThreadPool(threads), maxActivePerService, maxQueuedPerService);
+    }
+
+    /**
+     * Creates a pool running requests on executor.
+     *
+     * @param executor executor running the requests
+     * @param maxActivePerService maximal number of requests of one service
+     * running concurrently
+     * @param maxQueuedPerService maximal number of requests of one service
+     * waiting for a worker
+     */
+    public ServiceWorkerPool(ExecutorService executor, int maxActivePerService, int maxQueuedPerService) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        if (maxActivePerService <= 0) {
+            throw new IllegalArgumentException("maxActivePerService must be positive: " + maxActivePerService);
+        }
+        if (maxQueuedPerService < 0) {
+            throw new IllegalArgumentException("maxQueuedPerService must not be negative: " + maxQueuedPerService);
+        }
+        this.executor = executor;
+        this.maxActivePerService = maxActivePerService;
+        this.maxQueuedPerService = maxQueuedPerService;
+        this.queues = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Runs task in the queue of service.
+     *
+     * @param service service name
+     * @param task task to run
+     * @throws RejectedExecutionException if the queue of service is full or
+     * the pool is shut down
+     */
+    public void execute(String service, Runnable task) {
+        execute(service, task, null);
+    }
+
+    /**
+     * Runs task in the queue of service.
+     *
+     * @param service service name
+     * @param task task to run
+     * @param onRejected run instead of task when task was queued and the
+     * executor rejects it later, may be null
+     * @throws RejectedExecutionException if the queue of service is full or
+     * the pool is shut down
+     */
+    public void execute(String service, Runnable task, Runnable onRejected) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        ServiceQueue queue = queues.get(service);
+        if (queue == null) {
+            final ServiceQueue newQueue = new ServiceQueue(service);
+            queue = queues.putIfAbsent(service, newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        queue.submit(new QueuedTask(task, onRejected));
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(DEFAULT_QUEUE, task);
+    }
+
+    /**
+     * @param service service name
+     * @return number of requests of service currently running
+     */
+    public int getActiveCount(String service) {
+        final ServiceQueue queue = queues.get(service);
+        return queue == null ? 0 : queue.getActive();
+    }
+
+    /**
+     * @param service service name
+     * @return number of requests of service waiting for a worker
+     */
+    public int getQueuedCount(String service) {
+        final ServiceQueue queue = queues.get(service);
+        return queue == null ? 0 : queue.getQueued();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private static final class QueuedTask {
+
+        final Runnable task;
+        final Runnable onRejected;
+
+        QueuedTask(Runnable task, Runnable onRejected) {
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+
+        void reject() {
+            if (onRejected != null) {
+                onRejected.run();
+            }
+        }
+    }
+
+    private final class ServiceQueue {
+
+        private final String service;
+        private final ArrayDeque<QueuedTask> pending;
+        private int active;
+
+        public ServiceQueue(String service) {
+            this.service = service;
+            this.pending = new ArrayDeque<>();
+            this.active = 0;
+        }
+
+        public synchronized int getActive() {
+            return active;
+        }
+
+        public synchronized int getQueued() {
+            return pending.size();
+        }
+
+        public void submit(QueuedTask task) {
+            synchronized (this) {
+                if (active >= maxActivePerService) {
+                    if (pending.size() >= maxQueuedPerService) {
+                        throw new RejectedExecutionException("Queue of service '" + service + "' is full");
+                    }
+                    pending.add(task);
+                    return;
+                }
+                ++active;
+            }
+            start(task);
+        }
+
+        private void start(final QueuedTask task) {
+            try {
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            task.task.run();
+                        } finally {
+                            next();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                synchronized (this) {
+                    --active;
+                }
+                throw ex;
+            }
+        }
+
+        private void next() {
+            final QueuedTask task;
+            synchronized (this) {
+                task = pending.poll();
+                if (task == null) {
+                    --active;
+                    return;
+                }
+            }
+            // resubmit instead of looping so that other services get a turn
+            try {
+                start(task);
+            } catch (RejectedExecutionException ex) {
+                // nothing is left running that would start the remaining
+                // requests, drop them
+                final QueuedTask[] dropped;
+                synchronized (this) {
+                    dropped = pending.toArray(new QueuedTask[pending.size()]);
+                    pending.clear();
+                }
+                task.reject();
+                for (QueuedTask other : dropped) {
+                    other.reject();
+                }
+            }
+        }
+    }
+
+}
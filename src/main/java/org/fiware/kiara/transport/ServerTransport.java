@@ -33,6 +33,47 @@ public interface ServerTransport extends Closeable {
      */
     public ExecutorService getDispatchingExecutor();
 
+    /**
+     * Limits the number of requests that are dispatched but not yet answered
+     * over all connections of this server. When the limit is reached the
+     * server stops reading from its connections until requests complete.
+     * @param limit maximal number of requests in flight, 0 for no limit
+     */
+    public void setMaxInFlightRequests(int limit);
+
+    /**
+     * Returns the limit of requests in flight of this server.
+     * @return maximal number of requests in flight, 0 for no limit
+     */
+    public int getMaxInFlightRequests();
+
+    /**
+     * Limits the number of requests that are dispatched but not yet answered
+     * per connection. When the limit is reached the server stops reading from
+     * that connection until its requests complete.
+     * @param limit maximal number of requests in flight per connection, 0 for no limit
+     */
+    public void setMaxInFlightRequestsPerConnection(int limit);
+
+    /**
+     * Returns the limit of requests in flight per connection.
+     * @return maximal number of requests in flight per connection, 0 for no limit
+     */
+    public int getMaxInFlightRequestsPerConnection();
+
+    /**
+     * When set, requests received while a limit is reached are answered
+     * immediately with an overloaded error instead of being queued.
+     * @param reject true to reject requests over the limit
+     */
+    public void setRejectWhenOverloaded(boolean reject);
+
+    /**
+     * Returns true if requests over the limit are rejected.
+     * @return rejection status
+     */
+    public boolean isRejectWhenOverloaded();
+
     /**
      * Returns true if server is up and waiting for incoming connections.
      * @return running status
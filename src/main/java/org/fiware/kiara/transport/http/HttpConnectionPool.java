@@ -0,0 +1,111 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.http;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.fiware.kiara.transport.Transport;
+
+/**
+ * Pipelined client connections to a single HTTP endpoint. Transports are
+ * handed out from the connection with the fewest calls in flight.
+ */
+class HttpConnectionPool {
+
+    private static final class Entry {
+
+        public final HttpHandler handler;
+        public final SettableFuture<Transport> future;
+
+        public Entry(HttpHandler handler, SettableFuture<Transport> future) {
+            this.handler = handler;
+            this.future = future;
+        }
+
+        public boolean isClosed() {
+            return future.isDone() && !handler.isOpen();
+        }
+    }
+
+    private final HttpTransportFactory transportFactory;
+    private final URI uri;
+    private final List<Entry> entries = new ArrayList<>();
+
+    public HttpConnectionPool(HttpTransportFactory transportFactory, URI uri) {
+        this.transportFactory = transportFactory;
+        this.uri = uri;
+    }
+
+    public synchronized ListenableFuture<Transport> acquire(int maxConnections) throws IOException {
+        for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+            if (it.next().isClosed()) {
+                it.remove();
+            }
+        }
+
+        while (!entries.isEmpty() && entries.size() >= maxConnections) {
+            Entry best = null;
+            int bestCount = Integer.MAX_VALUE;
+            for (Entry entry : entries) {
+                final int count = entry.handler.getPendingCalls().getInFlightCount();
+                if (count < bestCount) {
+                    best = entry;
+                    bestCount = count;
+                }
+            }
+            if (best.handler.retain()) {
+                return best.future;
+            }
+            // released by all users in the meantime
+            entries.remove(best);
+        }
+
+        final SettableFuture<Transport> future = SettableFuture.create();
+        final Entry entry = new Entry(transportFactory.connect(uri, future), future);
+        entries.add(entry);
+        Futures.addCallback(future, new FutureCallback<Transport>() {
+
+            @Override
+            public void onSuccess(Transport result) {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // a failed connection would otherwise be handed out forever,
+                // it has no calls in flight
+                remove(entry);
+            }
+        });
+        return future;
+    }
+
+    private synchronized void remove(Entry entry) {
+        entries.remove(entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
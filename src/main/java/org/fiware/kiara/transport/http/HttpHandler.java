@@ -24,9 +24,11 @@ import org.fiware.kiara.transport.impl.TransportMessage;
 import org.fiware.kiara.util.HexDump;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
@@ -43,12 +45,17 @@ import io.netty.handler.codec.http.HttpVersion;
 import static io.netty.handler.codec.http.HttpVersion.*;
 import io.netty.handler.codec.http.LastHttpContent;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.netty.ListenableConstantFutureAdapter;
 import org.fiware.kiara.transport.impl.Global;
 
 import org.slf4j.Logger;
@@ -72,6 +79,26 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
     private final Semaphore semaphore;
     private final AtomicBoolean canSend;
 
+    // pipelining mode, see HttpTransportFactory.setPipelining
+    private final boolean pipelining;
+    // number of users of a pooled client connection
+    private final AtomicInteger references;
+    // server side pipelining state, accessed from the event loop only
+    private long nextRequestSequence = 0;
+    private long nextResponseSequence = 0;
+    private final Map<Long, PendingResponse> pendingResponses;
+
+    private static final class PendingResponse {
+
+        public final Object response;
+        public final ChannelPromise promise;
+
+        public PendingResponse(Object response, ChannelPromise promise) {
+            this.response = response;
+            this.promise = promise;
+        }
+    }
+
     public HttpHandler(HttpTransportFactory transportFactory, URI uri, HttpMethod method, TransportConnectionListener connectionListener) {
         super(Mode.CLIENT, State.UNINITIALIZED, transportFactory, connectionListener);
         if (transportFactory == null) {
@@ -86,8 +113,11 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
         this.uri = uri;
         this.method = method;
         this.bout = new ByteArrayOutputStream(1024);
-        this.semaphore = SYNC_REQUEST_RESPONSE ? new Semaphore(1, true) : null;
-        this.canSend = SYNC_REQUEST_RESPONSE ? new AtomicBoolean(true) : null;
+        this.pipelining = transportFactory.isPipelining();
+        this.references = new AtomicInteger(1);
+        this.pendingResponses = null;
+        this.semaphore = SYNC_REQUEST_RESPONSE && !pipelining ? new Semaphore(1, true) : null;
+        this.canSend = SYNC_REQUEST_RESPONSE && !pipelining ? new AtomicBoolean(true) : null;
     }
 
     public HttpHandler(HttpTransportFactory transportFactory, String path, TransportConnectionListener connectionListener) {
@@ -106,15 +136,44 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
         this.uri = tmp;
         this.method = null;
         this.bout = null;
-        this.semaphore = SYNC_REQUEST_RESPONSE ? new Semaphore(1, true) : null;
-        this.canSend = SYNC_REQUEST_RESPONSE ? new AtomicBoolean(false) : null;
-        if (SYNC_REQUEST_RESPONSE)
+        this.pipelining = transportFactory.isPipelining();
+        this.references = new AtomicInteger(1);
+        this.pendingResponses = pipelining ? new HashMap<Long, PendingResponse>() : null;
+        this.semaphore = SYNC_REQUEST_RESPONSE && !pipelining ? new Semaphore(1, true) : null;
+        this.canSend = SYNC_REQUEST_RESPONSE && !pipelining ? new AtomicBoolean(false) : null;
+        if (semaphore != null)
             this.semaphore.acquireUninterruptibly();
     }
 
+    /**
+     * Adds a user to a pooled connection if it is still in use.
+     *
+     * @return false if the connection was already released by all users
+     */
+    boolean retain() {
+        for (;;) {
+            final int n = references.get();
+            if (n <= 0) {
+                return false;
+            }
+            if (references.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // a pooled connection is closed by its last user
+        if (references.decrementAndGet() > 0) {
+            return;
+        }
+        super.close();
+    }
+
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) {
-        if (SYNC_REQUEST_RESPONSE && canSend.compareAndSet(false, true)) {
+        if (semaphore != null && canSend.compareAndSet(false, true)) {
             semaphore.release();
         }
         ctx.flush();
@@ -129,6 +188,7 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
 
                 HttpRequestMessage transportMessage = new HttpRequestMessage(this, request);
                 transportMessage.setPayload(request.content().copy().nioBuffer());
+                transportMessage.sequence = nextRequestSequence++;
 
                 if (logger.isDebugEnabled()) {
                     logger.debug("RECEIVED CONTENT {}", HexDump.dumpHexString(transportMessage.getPayload()));
@@ -234,7 +294,9 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
             response.headers().set(CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
         }
 
-        return new HttpResponseMessage(this, response);
+        final HttpResponseMessage responseMessage = new HttpResponseMessage(this, response);
+        responseMessage.sequence = request.sequence;
+        return responseMessage;
     }
 
     @Override
@@ -272,18 +334,36 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
             throw new IllegalArgumentException("msg is neither of type HttpRequestMessage nor HttpResponseMessage");
         }
 
+        if (pipelining) {
+            final Channel ch = channel;
+            final ChannelPromise promise = ch.newPromise();
+            releasePayloadWhenDone(promise, message);
+            if (!keepAlive) {
+                // If keep-alive is off, close the connection once the content is fully written.
+                promise.addListener(ChannelFutureListener.CLOSE);
+            }
+            if (message instanceof HttpResponseMessage && ((HttpResponseMessage) message).sequence >= 0) {
+                writeResponseInOrder(ch, ((HttpResponseMessage) message).sequence, httpMsg, promise);
+            } else {
+                ch.writeAndFlush(httpMsg, promise);
+            }
+            return new ListenableConstantFutureAdapter<>(promise, null);
+        }
+
         final HttpMessage httpMsgArg = httpMsg;
         final boolean keepAliveArg = keepAlive;
+        final TransportMessage messageArg = message;
 
         ListenableFuture<Void> f = Global.executor.submit(new Callable<Void>() {
 
             @Override
             public Void call() throws Exception {
-                if (SYNC_REQUEST_RESPONSE) {
+                if (semaphore != null) {
                     semaphore.acquireUninterruptibly();
                     canSend.set(false);
                 }
                 final ChannelFuture result = channel.writeAndFlush(httpMsgArg);
+                releasePayloadWhenDone(result, messageArg);
                 if (!keepAliveArg) {
                     // If keep-alive is off, close the connection once the content is fully written.
                     channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
@@ -295,4 +375,34 @@ public class HttpHandler extends BaseHandler<Object, HttpTransportFactory> {
         return f;
     }
 
+    /**
+     * HTTP/1.1 requires the responses of pipelined requests to be sent in
+     * request order. Responses that are ready too early wait until all
+     * previous responses are written.
+     */
+    private void writeResponseInOrder(final Channel ch, final long sequence, final Object response, final ChannelPromise promise) {
+        if (!ch.eventLoop().inEventLoop()) {
+            ch.eventLoop().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    writeResponseInOrder(ch, sequence, response, promise);
+                }
+            });
+            return;
+        }
+        if (sequence != nextResponseSequence) {
+            pendingResponses.put(sequence, new PendingResponse(response, promise));
+            return;
+        }
+        ch.write(response, promise);
+        ++nextResponseSequence;
+        PendingResponse next;
+        while ((next = pendingResponses.remove(nextResponseSequence)) != null) {
+            ch.write(next.response, next.promise);
+            ++nextResponseSequence;
+        }
+        ch.flush();
+    }
+
 }
@@ -31,8 +31,14 @@ public abstract class HttpMessage extends TransportMessage {
         public static final String REQUEST_URI = "request-uri";
         public static final String HTTP_METHOD = "http-method";
         public static final String STATUS_CODE = "status-code";
+        public static final String ETAG = "etag";
+        public static final String IF_NONE_MATCH = "if-none-match";
     }
 
+    // position of the request on its connection, used by pipelining servers
+    // to send the responses in request order
+    long sequence = -1;
+
     protected HttpMessage(TransportImpl connection, ByteBuffer payload) {
         super(connection, payload);
     }
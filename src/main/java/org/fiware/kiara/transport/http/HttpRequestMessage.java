@@ -75,6 +75,21 @@ public class HttpRequestMessage extends HttpMessage {
         return request;
     }
 
+    /**
+     * Answers a received request with an empty Bad Request response, so that
+     * the responses of later pipelined requests are not held back.
+     */
+    @Override
+    public void discard() {
+        if (sequence < 0) {
+            return;
+        }
+        final TransportImpl transport = getTransport();
+        final TransportMessage response = transport.createTransportMessage(this);
+        response.set(HttpMessage.Names.STATUS_CODE, HttpResponseStatus.BAD_REQUEST.code());
+        transport.send(response);
+    }
+
     @Override
     public TransportMessage set(String name, Object value) {
         if (TransportMessage.Names.CONTENT_TYPE.equals(name)) {
@@ -85,6 +100,8 @@ public class HttpRequestMessage extends HttpMessage {
             request.setUri((String)value);
         } else if (HttpMessage.Names.HTTP_METHOD.equals(name)) {
             request.setMethod(HttpMethod.valueOf(name));
+        } else if (HttpMessage.Names.IF_NONE_MATCH.equals(name)) {
+            request.headers().set(HttpHeaders.Names.IF_NONE_MATCH, value);
         }
         return this;
     }
@@ -99,6 +116,8 @@ public class HttpRequestMessage extends HttpMessage {
             return request.getUri();
         } else if (HttpMessage.Names.HTTP_METHOD.equals(name)) {
             return request.getMethod().name();
+        } else if (HttpMessage.Names.IF_NONE_MATCH.equals(name)) {
+            return request.headers().get(HttpHeaders.Names.IF_NONE_MATCH);
         }
         return null;
     }
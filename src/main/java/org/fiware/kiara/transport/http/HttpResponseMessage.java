@@ -104,6 +104,8 @@ public class HttpResponseMessage extends HttpMessage {
             headers.set("x-kiara-session", value);
         } else if (Names.STATUS_CODE.equals(name)) {
             getResponse().setStatus(HttpResponseStatus.valueOf((Integer)value));
+        } else if (Names.ETAG.equals(name)) {
+            headers.set(HttpHeaders.Names.ETAG, value);
         }
         return this;
     }
@@ -116,6 +118,8 @@ public class HttpResponseMessage extends HttpMessage {
             return headers.get("x-kiara-session");
         } else if (Names.STATUS_CODE.equals(name)) {
             return getResponse().getStatus().code();
+        } else if (Names.ETAG.equals(name)) {
+            return headers.get(HttpHeaders.Names.ETAG);
         }
         return null;
     }
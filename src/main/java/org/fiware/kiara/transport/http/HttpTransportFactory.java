@@ -19,14 +19,16 @@ package org.fiware.kiara.transport.http;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import org.fiware.kiara.netty.EventLoopBackend;
 import org.fiware.kiara.netty.NettyTransportFactory;
 import org.fiware.kiara.transport.Transport;
 import org.fiware.kiara.exceptions.impl.InvalidAddressException;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import org.fiware.kiara.transport.impl.TransportImpl;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
@@ -35,6 +37,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.cert.CertificateException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.net.ssl.SSLException;
 
 /**
@@ -43,12 +47,55 @@ import javax.net.ssl.SSLException;
  */
 public class HttpTransportFactory extends NettyTransportFactory {
 
+    /**
+     * System property enabling HTTP pipelining by default.
+     */
+    public static final String PIPELINING_PROPERTY = "kiara.http.pipelining";
+
     private final boolean secure;
+    private volatile boolean pipelining = Boolean.getBoolean(PIPELINING_PROPERTY);
+    private volatile int maxConnectionsPerEndpoint = 0;
+    private final ConcurrentMap<String, HttpConnectionPool> pools = new ConcurrentHashMap<>();
 
     public HttpTransportFactory(boolean secure) {
         this.secure = secure;
     }
 
+    /**
+     * Enables HTTP pipelining for connections opened afterwards. Clients send
+     * requests without waiting for the previous response and servers answer
+     * them in request order, so many calls can be in flight on a single
+     * keep-alive connection.
+     *
+     * @param pipelining true to enable
+     */
+    public void setPipelining(boolean pipelining) {
+        this.pipelining = pipelining;
+    }
+
+    public boolean isPipelining() {
+        return pipelining;
+    }
+
+    /**
+     * Sets the number of pipelined connections shared by all transports
+     * created for the same endpoint. Each new transport uses the pooled
+     * connection with the fewest calls in flight. With 0 every transport
+     * opens its own connection. Only used when pipelining is enabled.
+     *
+     * @param maxConnectionsPerEndpoint connections per endpoint, 0 disables pooling
+     */
+    public void setMaxConnectionsPerEndpoint(int maxConnectionsPerEndpoint) {
+        if (maxConnectionsPerEndpoint < 0) {
+            throw new IllegalArgumentException("maxConnectionsPerEndpoint must not be negative: " + maxConnectionsPerEndpoint);
+        }
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+    }
+
+    public int getMaxConnectionsPerEndpoint() {
+        return maxConnectionsPerEndpoint;
+    }
+
     @Override
     public String getName() {
         return secure ? "https" : "http";
@@ -67,13 +114,32 @@ public class HttpTransportFactory extends NettyTransportFactory {
     @Override
     public ListenableFuture<Transport> createTransport(String uri, Map<String, Object> settings) throws InvalidAddressException, IOException  {
         try {
-            return openConnection(new URI(uri), settings);
+            final URI connectionUri = new URI(uri);
+            final int maxConnections = maxConnectionsPerEndpoint;
+            if (pipelining && maxConnections > 0) {
+                HttpConnectionPool pool = pools.get(uri);
+                if (pool == null) {
+                    final HttpConnectionPool newPool = new HttpConnectionPool(this, connectionUri);
+                    pool = pools.putIfAbsent(uri, newPool);
+                    if (pool == null) {
+                        pool = newPool;
+                    }
+                }
+                return pool.acquire(maxConnections);
+            }
+            return openConnection(connectionUri, settings);
         } catch (URISyntaxException ex) {
             throw new InvalidAddressException(ex);
         }
     }
 
     private ListenableFuture<Transport> openConnection(URI uri, Map<String, Object> settings) throws IOException {
+        final SettableFuture<Transport> onConnectionActive = SettableFuture.create();
+        connect(uri, onConnectionActive);
+        return onConnectionActive;
+    }
+
+    HttpHandler connect(URI uri, final SettableFuture<Transport> onConnectionActive) throws IOException {
         String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
         String host = uri.getHost() == null ? "127.0.0.1" : uri.getHost();
         int port = uri.getPort();
@@ -99,7 +165,6 @@ public class HttpTransportFactory extends NettyTransportFactory {
         }
 
         // Configure the client.
-        final SettableFuture<Transport> onConnectionActive = SettableFuture.create();
         final HttpHandler clientHandler = new HttpHandler(this, uri, HttpMethod.POST, null);
         clientHandler.setConnectionListener(new TransportConnectionListener() {
 
@@ -117,11 +182,19 @@ public class HttpTransportFactory extends NettyTransportFactory {
 
         Bootstrap b = new Bootstrap();
         b.group(getEventLoopGroup())
-                .channel(NioSocketChannel.class)
+                .channel(EventLoopBackend.get().getSocketChannelClass())
                 .handler(new HttpClientInitializer(sslCtx, clientHandler));
-        b.connect(host, port);
+        b.connect(host, port).addListener(new ChannelFutureListener() {
 
-        return onConnectionActive;
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+                if (!future.isSuccess()) {
+                    onConnectionActive.setException(future.cause());
+                }
+            }
+        });
+
+        return clientHandler;
     }
 
     @Override
@@ -22,7 +22,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import org.fiware.kiara.Kiara;
 import org.fiware.kiara.RunningService;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import org.fiware.kiara.netty.EventLoopBackend;
 import java.util.concurrent.Executors;
 
 /**
@@ -33,7 +33,7 @@ public class Global {
 
     public static final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
     public static final ListeningExecutorService sameThreadExecutor = MoreExecutors.sameThreadExecutor();
-    public static final EventLoopGroup transportGroup = new NioEventLoopGroup();
+    public static final EventLoopGroup transportGroup = EventLoopBackend.get().newEventLoopGroup(0);
 
     static {
         Kiara.addRunningService(new RunningService() {
@@ -0,0 +1,380 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.impl;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.exceptions.impl.InvalidAddressException;
+import org.fiware.kiara.netty.CallRegistry;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.transport.TransportFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client transport spreading calls over a pool of connections to one or
+ * more equivalent endpoints.
+ *
+ * Each call goes to the connection with the fewest outstanding calls. A
+ * connection that is closed or fails {@value #MAX_FAILURES} calls in a row
+ * is ejected from the pool for {@value #EJECTION_TIME_PROPERTY}
+ * milliseconds (default 5000) and reconnected when it is picked again
+ * after that.
+ *
+ * The connection is chosen when the request message is created, the
+ * message belongs to the chosen connection. When the
+ * {@link TransportMessageDispatcher} of the call is registered with the
+ * request, the call counts as outstanding on that connection until it
+ * completes.
+ */
+public class LoadBalancingTransport implements TransportImpl, CallRegistry {
+
+    public static final String EJECTION_TIME_PROPERTY = "kiara.connection.ejectionTime";
+
+    /**
+     * Number of consecutive failed calls after which a connection is ejected.
+     */
+    public static final int MAX_FAILURES = 3;
+
+    private static final long EJECTION_MILLIS = Long.getLong(EJECTION_TIME_PROPERTY, 5000);
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBalancingTransport.class);
+
+    /**
+     * Address of a server endpoint.
+     */
+    public static final class Endpoint {
+
+        public final TransportFactory transportFactory;
+        public final String uri;
+
+        public Endpoint(TransportFactory transportFactory, String uri) {
+            this.transportFactory = transportFactory;
+            this.uri = uri;
+        }
+    }
+
+    private static final class Member {
+
+        final Endpoint endpoint;
+        final AtomicInteger outstanding = new AtomicInteger();
+        volatile TransportImpl transport;
+        volatile long ejectedUntil;
+        // guarded by this
+        int failures;
+
+        Member(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private final Member[] members;
+    private final AtomicInteger nextStart = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Opens connectionsPerEndpoint connections to each endpoint.
+     *
+     * @param endpoints equivalent endpoints
+     * @param connectionsPerEndpoint number of connections per endpoint
+     * @throws IOException if no connection could be opened
+     */
+    public LoadBalancingTransport(List<Endpoint> endpoints, int connectionsPerEndpoint) throws IOException {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("no endpoints");
+        }
+        if (connectionsPerEndpoint < 1) {
+            throw new IllegalArgumentException("connectionsPerEndpoint < 1");
+        }
+        members = new Member[endpoints.size() * connectionsPerEndpoint];
+        IOException error = null;
+        int connected = 0;
+        for (int i = 0; i < members.length; ++i) {
+            members[i] = new Member(endpoints.get(i % endpoints.size()));
+            try {
+                members[i].transport = connect(members[i].endpoint);
+                ++connected;
+            } catch (IOException ex) {
+                eject(members[i]);
+                if (error == null) {
+                    error = ex;
+                }
+            }
+        }
+        if (connected == 0) {
+            throw error;
+        }
+    }
+
+    private static TransportImpl connect(Endpoint endpoint) throws IOException {
+        try {
+            return (TransportImpl) endpoint.transportFactory.createTransport(endpoint.uri, null).get();
+        } catch (InvalidAddressException ex) {
+            throw new IOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+        }
+    }
+
+    private void eject(Member member) {
+        member.ejectedUntil = System.currentTimeMillis() + EJECTION_MILLIS;
+        logger.warn("Ejected connection to {} for {} ms", member.endpoint.uri, EJECTION_MILLIS);
+    }
+
+    private void onSuccess(Member member) {
+        synchronized (member) {
+            member.failures = 0;
+        }
+    }
+
+    private void onFailure(Member member, TransportImpl transport) {
+        synchronized (member) {
+            if (member.transport != transport || member.ejectedUntil > System.currentTimeMillis()) {
+                return;
+            }
+            if (++member.failures >= MAX_FAILURES || !transport.isOpen()) {
+                member.failures = 0;
+                eject(member);
+            }
+        }
+    }
+
+    /**
+     * Returns an open transport of member, reconnecting it if required.
+     */
+    private TransportImpl open(Member member) throws IOException {
+        synchronized (member) {
+            TransportImpl transport = member.transport;
+            if (transport != null && transport.isOpen()) {
+                return transport;
+            }
+            try {
+                transport = connect(member.endpoint);
+            } catch (IOException ex) {
+                eject(member);
+                throw ex;
+            }
+            member.transport = transport;
+            member.failures = 0;
+            member.ejectedUntil = 0;
+            return transport;
+        }
+    }
+
+    private Member pick() {
+        final long now = System.currentTimeMillis();
+        final int start = (nextStart.getAndIncrement() & Integer.MAX_VALUE) % members.length;
+        Member best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        Member soonest = null;
+        for (int i = 0; i < members.length; ++i) {
+            final Member member = members[(start + i) % members.length];
+            if (member.ejectedUntil > now) {
+                if (soonest == null || member.ejectedUntil < soonest.ejectedUntil) {
+                    soonest = member;
+                }
+                continue;
+            }
+            final int load = member.outstanding.get();
+            if (load < bestLoad) {
+                best = member;
+                bestLoad = load;
+            }
+        }
+        // all connections are ejected, retry the one that recovers first
+        return best != null ? best : soonest;
+    }
+
+    private Member select() throws IOException {
+        if (closed) {
+            throw new IOException("Connection closed");
+        }
+        IOException error = null;
+        for (int i = 0; i < members.length; ++i) {
+            final Member member = pick();
+            try {
+                open(member);
+                return member;
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+        throw error;
+    }
+
+    private Member getMember(TransportImpl transport) {
+        for (Member member : members) {
+            if (member.transport == transport) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts a call as outstanding on the connection its request message
+     * was created on until it completes, and registers it with that
+     * connection.
+     */
+    @Override
+    public CallRegistry register(TransportMessageDispatcher call, SerializerImpl ser, TransportMessage request) {
+        final TransportImpl transport = request != null ? request.getTransport() : null;
+        final Member member = transport != null ? getMember(transport) : null;
+        if (member == null) {
+            // connection of the call is unknown, it listens to all connections
+            return null;
+        }
+        member.outstanding.incrementAndGet();
+        Futures.addCallback(call, new FutureCallback<Object>() {
+
+            @Override
+            public void onSuccess(Object result) {
+                member.outstanding.decrementAndGet();
+                LoadBalancingTransport.this.onSuccess(member);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                member.outstanding.decrementAndGet();
+                if (!(t instanceof CancellationException)) {
+                    LoadBalancingTransport.this.onFailure(member, transport);
+                }
+            }
+        });
+        return transport instanceof CallRegistry ? ((CallRegistry) transport).register(call, ser, request) : null;
+    }
+
+    @Override
+    public void unregister(TransportMessageDispatcher call) {
+        // calls are registered with the connections
+    }
+
+    @Override
+    public TransportMessage createTransportMessage(TransportMessage message) {
+        if (message != null) {
+            return message.getTransport().createTransportMessage(message);
+        }
+        final Member member;
+        try {
+            member = select();
+        } catch (IOException ex) {
+            throw new IllegalStateException("No connection available", ex);
+        }
+        return member.transport.createTransportMessage(null);
+    }
+
+    @Override
+    public ListenableFuture<Void> send(TransportMessage message) {
+        final TransportImpl transport = message.getTransport();
+        final ListenableFuture<Void> result = transport.send(message);
+        Futures.addCallback(result, new FutureCallback<Void>() {
+
+            @Override
+            public void onSuccess(Void result) {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                final Member member = getMember(transport);
+                if (member != null) {
+                    LoadBalancingTransport.this.onFailure(member, transport);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return number of calls waiting for a response on each connection
+     */
+    public int[] getOutstandingCalls() {
+        final int[] result = new int[members.length];
+        for (int i = 0; i < members.length; ++i) {
+            result[i] = members[i].outstanding.get();
+        }
+        return result;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        final TransportImpl transport = members[0].transport;
+        return transport != null ? transport.getLocalAddress() : null;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        final TransportImpl transport = members[0].transport;
+        return transport != null ? transport.getRemoteAddress() : null;
+    }
+
+    @Override
+    public void addMessageListener(TransportMessageListener listener) {
+        for (Member member : members) {
+            final TransportImpl transport = member.transport;
+            if (transport != null) {
+                transport.addMessageListener(listener);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeMessageListener(TransportMessageListener listener) {
+        boolean removed = false;
+        for (Member member : members) {
+            final TransportImpl transport = member.transport;
+            if (transport != null) {
+                removed |= transport.removeMessageListener(listener);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Member member : members) {
+            final TransportImpl transport = member.transport;
+            if (transport != null) {
+                transport.close();
+            }
+        }
+    }
+
+    @Override
+    public TransportFactory getTransportFactory() {
+        return members[0].endpoint.transportFactory;
+    }
+
+}
@@ -26,6 +26,23 @@ import java.net.SocketAddress;
  */
 public interface ServerTransportImpl extends ServerTransport {
 
+    /**
+     * System property with the default of {@link #setMaxInFlightRequests(int)}.
+     */
+    public static final String MAX_IN_FLIGHT_PROPERTY = "kiara.server.maxInFlight";
+
+    /**
+     * System property with the default of
+     * {@link #setMaxInFlightRequestsPerConnection(int)}.
+     */
+    public static final String MAX_IN_FLIGHT_PER_CONNECTION_PROPERTY = "kiara.server.maxInFlightPerConnection";
+
+    /**
+     * System property with the default of
+     * {@link #setRejectWhenOverloaded(boolean)}.
+     */
+    public static final String REJECT_OVERLOADED_PROPERTY = "kiara.server.rejectOverloaded";
+
     public SocketAddress getLocalSocketAddress();
 
 }
@@ -18,6 +18,8 @@
 package org.fiware.kiara.transport.impl;
 
 import java.nio.ByteBuffer;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
 
 /**
  *
@@ -34,6 +36,7 @@ public abstract class TransportMessage {
 
     private final TransportImpl transport;
     private ByteBuffer payload;
+    private BinaryOutputStream payloadStream;
 
     protected TransportMessage(TransportImpl connection, ByteBuffer payload) {
         if (connection == null) {
@@ -60,6 +63,64 @@ public abstract class TransportMessage {
         return this;
     }
 
+    /**
+     * Sets the payload to the data written to stream. The stream must be
+     * acquired from {@link BinaryStreamPool#getDefault()}, the transport
+     * returns it to the pool as soon as the message is written.
+     *
+     * @param stream pooled stream holding the payload
+     * @return this message
+     */
+    public TransportMessage setPayload(BinaryOutputStream stream) {
+        setPayload(stream.getByteBuffer());
+        this.payloadStream = stream;
+        return this;
+    }
+
+    /**
+     * Keeps the payload of a received message valid after the transport's
+     * message listeners returned. Transports may hand out payloads that are
+     * views of their receive buffers; a listener that processes the message
+     * asynchronously must retain it and call {@link #releasePayload()} when
+     * done. Does nothing for payloads owned by the message.
+     *
+     * @return this message
+     */
+    public TransportMessage retainPayload() {
+        return this;
+    }
+
+    /**
+     * Returns the pooled stream holding the payload to the pool. Called by
+     * the transport after the message was written; does nothing when the
+     * payload was not set from a pooled stream. For received messages it
+     * undoes a {@link #retainPayload()}.
+     */
+    public void releasePayload() {
+        final BinaryOutputStream stream = payloadStream;
+        if (stream != null) {
+            payloadStream = null;
+            BinaryStreamPool.getDefault().release(stream);
+        }
+    }
+
+    /**
+     * Called by a message listener that drops a received request without
+     * sending a reply, because not even its message id can be decoded.
+     * Transports which must answer every request, like HTTP, send an empty
+     * error response instead. Does nothing by default.
+     */
+    public void discard() {
+    }
+
+    /**
+     * @return true if the payload was set from a pooled stream, which is
+     * reused once {@link #releasePayload()} is called
+     */
+    public boolean hasPooledPayload() {
+        return payloadStream != null;
+    }
+
     public boolean hasPayload() {
         return getPayloadSize() > 0;
     }
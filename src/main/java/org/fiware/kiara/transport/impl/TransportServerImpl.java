@@ -18,7 +18,6 @@
 package org.fiware.kiara.transport.impl;
 
 import org.fiware.kiara.RunningService;
-import org.fiware.kiara.netty.NettyTransportFactory;
 import org.fiware.kiara.transport.ServerTransport;
 
 import java.io.IOException;
@@ -76,9 +75,6 @@ public class TransportServerImpl implements TransportServer, RunningService {
             throw new IllegalArgumentException("transport factory is not an instance of " + ServerTransportImpl.class.getName() + " class");
         }
         final ServerTransportImpl st = (ServerTransportImpl) serverTransport;
-        if (!(st.getTransportFactory() instanceof NettyTransportFactory)) {
-            throw new IllegalArgumentException("transport factory is not an instance of " + NettyTransportFactory.class.getName() + " class");
-        }
         synchronized (serverEntries) {
             serverEntries.add(new ServerEntry(st, listener));
         }
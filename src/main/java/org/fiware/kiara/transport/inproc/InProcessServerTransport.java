@@ -0,0 +1,207 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.inproc;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.fiware.kiara.transport.impl.ServerTransportImpl;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+
+/**
+ * Server side of the in-process transport. A running server is registered
+ * with its factory under its address, clients of the same JVM connect to it
+ * without any socket.
+ */
+public class InProcessServerTransport implements ServerTransportImpl {
+
+    private final InProcessTransportFactory transportFactory;
+    private final InProcessAddress address;
+    private final Object serverLock = new Object();
+    private final List<InProcessTransport> connections = new ArrayList<>();
+
+    private TransportConnectionListener listener;
+    private ExecutorService dispatchingExecutor;
+    private int maxInFlightRequests = Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 0);
+    private int maxInFlightRequestsPerConnection = Integer.getInteger(MAX_IN_FLIGHT_PER_CONNECTION_PROPERTY, 0);
+    private boolean rejectWhenOverloaded = Boolean.getBoolean(REJECT_OVERLOADED_PROPERTY);
+
+    private final TransportConnectionListener connectionTracker = new TransportConnectionListener() {
+
+        @Override
+        public void onConnectionOpened(TransportImpl connection) {
+        }
+
+        @Override
+        public void onConnectionClosed(TransportImpl connection) {
+            final TransportConnectionListener currentListener;
+            synchronized (serverLock) {
+                connections.remove((InProcessTransport) connection);
+                currentListener = listener;
+            }
+            if (currentListener != null) {
+                currentListener.onConnectionClosed(connection);
+            }
+        }
+    };
+
+    InProcessServerTransport(InProcessTransportFactory transportFactory, InProcessAddress address) {
+        this.transportFactory = transportFactory;
+        this.address = address;
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return address;
+    }
+
+    @Override
+    public InProcessTransportFactory getTransportFactory() {
+        return transportFactory;
+    }
+
+    @Override
+    public void setDispatchingExecutor(ExecutorService executor) {
+        this.dispatchingExecutor = executor;
+    }
+
+    @Override
+    public ExecutorService getDispatchingExecutor() {
+        return dispatchingExecutor;
+    }
+
+    @Override
+    public void setMaxInFlightRequests(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequests = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    @Override
+    public void setMaxInFlightRequestsPerConnection(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequestsPerConnection = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequestsPerConnection() {
+        return maxInFlightRequestsPerConnection;
+    }
+
+    @Override
+    public void setRejectWhenOverloaded(boolean reject) {
+        this.rejectWhenOverloaded = reject;
+    }
+
+    @Override
+    public boolean isRejectWhenOverloaded() {
+        return rejectWhenOverloaded;
+    }
+
+    @Override
+    public boolean isRunning() {
+        synchronized (serverLock) {
+            return listener != null;
+        }
+    }
+
+    @Override
+    public void startServer(TransportConnectionListener listener) throws InterruptedException {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        synchronized (serverLock) {
+            if (this.listener != null) {
+                throw new IllegalStateException("Server is already running");
+            }
+            if (!transportFactory.bind(this)) {
+                throw new IllegalStateException("Address already in use: " + address);
+            }
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Opens a connection to this server.
+     *
+     * @param clientAddress address of the client end
+     * @return client end of the connection
+     * @throws IOException if the server is not running
+     */
+    InProcessTransport accept(InProcessAddress clientAddress) throws IOException {
+        final InProcessTransport client;
+        final TransportConnectionListener currentListener;
+        synchronized (serverLock) {
+            currentListener = listener;
+            if (currentListener == null) {
+                throw new IOException("Connection refused: " + address);
+            }
+            client = InProcessTransport.connect(transportFactory, clientAddress, address, connectionTracker);
+            connections.add(client.getPeer());
+        }
+        currentListener.onConnectionOpened(client.getPeer());
+        return client;
+    }
+
+    @Override
+    public void stopServer() throws InterruptedException {
+        final List<InProcessTransport> openConnections;
+        synchronized (serverLock) {
+            if (listener == null) {
+                return;
+            }
+            transportFactory.unbind(this);
+            openConnections = new ArrayList<>(connections);
+        }
+        for (InProcessTransport connection : openConnections) {
+            try {
+                connection.close();
+            } catch (IOException ex) {
+                // in-process connections do not fail on close
+            }
+        }
+        synchronized (serverLock) {
+            listener = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            stopServer();
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public String getLocalTransportAddress() {
+        return transportFactory.getName() + "://" + address.getName();
+    }
+}
@@ -0,0 +1,175 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.inproc;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.impl.TransportMessageListener;
+
+/**
+ * One end of an in-process connection. Sent messages are delivered to the
+ * listeners of the peer in the sending thread, the payload buffer is handed
+ * over without copying unless it belongs to a pooled stream.
+ */
+public class InProcessTransport implements TransportImpl {
+
+    private final InProcessTransportFactory transportFactory;
+    private final InProcessAddress localAddress;
+    private final InProcessAddress remoteAddress;
+    private final CopyOnWriteArrayList<TransportMessageListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile InProcessTransport peer;
+    private volatile TransportConnectionListener connectionListener;
+    private volatile boolean open = true;
+
+    InProcessTransport(InProcessTransportFactory transportFactory, InProcessAddress localAddress, InProcessAddress remoteAddress) {
+        this.transportFactory = transportFactory;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+    }
+
+    /**
+     * Creates the two connected ends of a connection to a server.
+     *
+     * @param transportFactory factory of both ends
+     * @param clientAddress address of the client end
+     * @param serverAddress address of the server
+     * @param serverListener connection listener of the server, notified
+     * when the connection is closed
+     * @return client end, its peer is the server end
+     */
+    static InProcessTransport connect(InProcessTransportFactory transportFactory, InProcessAddress clientAddress,
+            InProcessAddress serverAddress, TransportConnectionListener serverListener) {
+        final InProcessTransport client = new InProcessTransport(transportFactory, clientAddress, serverAddress);
+        final InProcessTransport server = new InProcessTransport(transportFactory, serverAddress, clientAddress);
+        client.peer = server;
+        server.peer = client;
+        server.connectionListener = serverListener;
+        return client;
+    }
+
+    InProcessTransport getPeer() {
+        return peer;
+    }
+
+    @Override
+    public InProcessTransportFactory getTransportFactory() {
+        return transportFactory;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public TransportMessage createTransportMessage(TransportMessage message) {
+        return new InProcessMessage(this, (ByteBuffer) null);
+    }
+
+    @Override
+    public ListenableFuture<Void> send(TransportMessage message) {
+        if (message == null) {
+            throw new NullPointerException("message");
+        }
+        if (message.getPayload() == null) {
+            throw new NullPointerException("message payload");
+        }
+        final InProcessTransport receiver = peer;
+        if (!open || receiver == null || !receiver.open) {
+            message.releasePayload();
+            return Futures.immediateFailedFuture(new IOException("Connection closed"));
+        }
+        final ByteBuffer payload;
+        if (message.hasPooledPayload()) {
+            // the receiver may still read the payload on another thread
+            // after its listeners returned, while a released pooled stream
+            // is immediately reused by the next sender
+            final ByteBuffer source = message.getPayload();
+            payload = ByteBuffer.allocate(source.remaining());
+            payload.put(source.duplicate()).flip();
+            message.releasePayload();
+        } else {
+            payload = message.getPayload().duplicate();
+        }
+        final InProcessMessage received = new InProcessMessage(receiver, payload);
+        final String contentType = message.getContentType();
+        if (contentType != null) {
+            received.setContentType(contentType);
+        }
+        receiver.notifyListeners(received);
+        return Futures.immediateFuture(null);
+    }
+
+    private void notifyListeners(TransportMessage message) {
+        for (TransportMessageListener listener : listeners) {
+            if (listener.onMessage(message)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void addMessageListener(TransportMessageListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean removeMessageListener(TransportMessageListener listener) {
+        if (listener == null) {
+            return false;
+        }
+        return listeners.remove(listener);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        final InProcessTransport other = peer;
+        if (other != null) {
+            other.close();
+        }
+        final TransportConnectionListener listener = connectionListener;
+        if (listener != null) {
+            connectionListener = null;
+            listener.onConnectionClosed(this);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.inproc;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fiware.kiara.exceptions.impl.InvalidAddressException;
+import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.TransportFactory;
+
+/**
+ * Transport between clients and servers running in the same JVM. Messages
+ * are passed by reference: the serialized payload of a request is handed
+ * to the servant dispatcher and the reply payload back to the proxy without
+ * copying and without any socket.
+ *
+ * Servers are addressed as {@code inproc://host:port/path}. Since all
+ * servers live in the same process the host of an address with a port is
+ * ignored, so {@code inproc://0.0.0.0:9090/rpc} and
+ * {@code inproc://localhost:9090/rpc} name the same server.
+ */
+public class InProcessTransportFactory implements TransportFactory {
+
+    private final ConcurrentMap<InProcessAddress, InProcessServerTransport> servers = new ConcurrentHashMap<>();
+    private final AtomicLong nextConnectionId = new AtomicLong(1);
+
+    @Override
+    public String getName() {
+        return "inproc";
+    }
+
+    @Override
+    public int getPriority() {
+        // preferred over all network transports when the server is local
+        return 0;
+    }
+
+    @Override
+    public boolean isSecureTransport() {
+        // messages never leave the process
+        return true;
+    }
+
+    static InProcessAddress toAddress(URI uri) {
+        final String path = uri.getPath() == null || "/".equals(uri.getPath()) ? "" : uri.getPath();
+        if (uri.getPort() != -1) {
+            return new InProcessAddress(uri.getPort() + path);
+        }
+        final String host = uri.getHost() != null ? uri.getHost() : uri.getAuthority();
+        return new InProcessAddress((host != null ? host : "") + path);
+    }
+
+    private static URI parse(String uri) throws InvalidAddressException {
+        try {
+            return new URI(uri);
+        } catch (URISyntaxException ex) {
+            throw new InvalidAddressException(ex);
+        }
+    }
+
+    /**
+     * @param uri server address
+     * @return true if a server of this process is running at uri
+     */
+    public boolean isBound(String uri) {
+        try {
+            return servers.containsKey(toAddress(parse(uri)));
+        } catch (InvalidAddressException ex) {
+            return false;
+        }
+    }
+
+    boolean bind(InProcessServerTransport server) {
+        return servers.putIfAbsent((InProcessAddress) server.getLocalSocketAddress(), server) == null;
+    }
+
+    void unbind(InProcessServerTransport server) {
+        servers.remove((InProcessAddress) server.getLocalSocketAddress(), server);
+    }
+
+    @Override
+    public ListenableFuture<Transport> createTransport(String uri, Map<String, Object> settings) throws InvalidAddressException, IOException {
+        final InProcessAddress address = toAddress(parse(uri));
+        final InProcessServerTransport server = servers.get(address);
+        if (server == null) {
+            throw new IOException("Connection refused: no in-process server at " + uri);
+        }
+        final InProcessAddress clientAddress = new InProcessAddress(address.getName() + "#" + nextConnectionId.getAndIncrement());
+        return Futures.<Transport>immediateFuture(server.accept(clientAddress));
+    }
+
+    @Override
+    public ServerTransport createServerTransport(String url) throws IOException {
+        try {
+            return new InProcessServerTransport(this, toAddress(new URI(url)));
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
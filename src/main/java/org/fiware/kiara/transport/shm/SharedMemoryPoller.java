@@ -0,0 +1,136 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.shm;
+
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread serving all shared memory connections and servers of a transport
+ * factory: reads and writes the rings of the connections and accepts new
+ * connections. Processes cannot signal each other through the mapped
+ * memory, so the poller spins while there is work and backs off to parking
+ * up to {@link #MAX_PARK_NANOS} when idle. The thread runs as long as
+ * there are connections or servers.
+ *
+ * Message listeners are called by the poller thread and must not block.
+ */
+final class SharedMemoryPoller implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryPoller.class);
+
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 200;
+    private static final int MAX_IDLE_ROUNDS = YIELD_ROUNDS + 20;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long ACCEPT_INTERVAL = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final CopyOnWriteArrayList<SharedMemoryTransport> connections = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<SharedMemoryServerTransport> servers = new CopyOnWriteArrayList<>();
+    private Thread thread;
+
+    synchronized void add(SharedMemoryTransport connection) {
+        connections.add(connection);
+        start();
+    }
+
+    void remove(SharedMemoryTransport connection) {
+        connections.remove(connection);
+    }
+
+    synchronized void add(SharedMemoryServerTransport server) {
+        servers.add(server);
+        start();
+    }
+
+    void remove(SharedMemoryServerTransport server) {
+        servers.remove(server);
+    }
+
+    private void start() {
+        if (thread == null) {
+            thread = new Thread(this, "kiara-shm-poller");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private boolean stopIfIdle() {
+        if (!connections.isEmpty() || !servers.isEmpty()) {
+            return false;
+        }
+        synchronized (this) {
+            if (connections.isEmpty() && servers.isEmpty()) {
+                thread = null;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        int idleRounds = 0;
+        long nextAccept = System.nanoTime();
+        while (!stopIfIdle()) {
+            final long now = System.nanoTime();
+            boolean worked = false;
+            for (SharedMemoryTransport connection : connections) {
+                try {
+                    worked |= connection.poll(now);
+                } catch (RuntimeException ex) {
+                    logger.error("Shared memory connection {} failed", connection, ex);
+                    try {
+                        connection.close();
+                    } catch (IOException closeEx) {
+                        logger.warn("Could not close {}", connection, closeEx);
+                    }
+                }
+            }
+            if (now - nextAccept >= 0) {
+                nextAccept = now + ACCEPT_INTERVAL;
+                for (SharedMemoryServerTransport server : servers) {
+                    worked |= server.acceptConnections();
+                }
+            }
+            if (worked) {
+                idleRounds = 0;
+            } else {
+                idleRounds = Math.min(idleRounds + 1, MAX_IDLE_ROUNDS);
+                idle(idleRounds);
+            }
+        }
+    }
+
+    private static void idle(int idleRounds) {
+        if (idleRounds <= SPIN_ROUNDS) {
+            return;
+        }
+        if (idleRounds <= YIELD_ROUNDS) {
+            Thread.yield();
+            return;
+        }
+        final int shift = idleRounds - YIELD_ROUNDS;
+        LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << shift, MAX_PARK_NANOS));
+    }
+}
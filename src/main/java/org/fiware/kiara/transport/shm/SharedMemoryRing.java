@@ -0,0 +1,140 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.shm;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single producer, single consumer byte pipe in a region of a memory-mapped
+ * file shared by two processes. The region starts with the read position,
+ * written only by the consumer, and the write position, written only by the
+ * producer, each on its own cache line, followed by the data. Positions
+ * only grow, a position refers to the data at position modulo capacity.
+ *
+ * Mapped buffers offer no ordered stores, so a position is published after
+ * a volatile write, which the JVM implements with a full memory fence, and
+ * the peer's position is read before one. The producer's data is therefore
+ * visible before the write position covering it, and the consumer is done
+ * reading before the read position releases the space.
+ */
+final class SharedMemoryRing {
+
+    static final int READ_POSITION_OFFSET = 0;
+    static final int WRITE_POSITION_OFFSET = 64;
+    static final int DATA_OFFSET = 128;
+
+    private static volatile int fence;
+
+    private final ByteBuffer region;
+    private final ByteBuffer data;
+    private final int capacity;
+    private long position;
+
+    /**
+     * @param region mapped region of {@link #size(int)} bytes, initially
+     * zero
+     * @param producer true for the writing end, false for the reading end
+     */
+    SharedMemoryRing(ByteBuffer region, boolean producer) {
+        this.region = region.duplicate();
+        this.capacity = region.capacity() - DATA_OFFSET;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("region too small");
+        }
+        this.region.position(DATA_OFFSET);
+        this.data = this.region.slice();
+        this.region.clear();
+        this.position = region.getLong(producer ? WRITE_POSITION_OFFSET : READ_POSITION_OFFSET);
+    }
+
+    /**
+     * @param capacity number of data bytes
+     * @return size of a region holding capacity bytes
+     */
+    static int size(int capacity) {
+        return DATA_OFFSET + capacity;
+    }
+
+    static void fence() {
+        fence = 0;
+    }
+
+    /**
+     * Copies as many bytes of src as fit into the ring.
+     *
+     * @param src bytes to write, its position is advanced by the number of
+     * bytes written
+     * @return number of bytes written
+     */
+    int write(ByteBuffer src) {
+        final long readPosition = region.getLong(READ_POSITION_OFFSET);
+        fence();
+        final int length = (int) Math.min(capacity - (position - readPosition), src.remaining());
+        if (length <= 0) {
+            return 0;
+        }
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(length, capacity - offset);
+        final int srcLimit = src.limit();
+        data.clear();
+        data.position(offset);
+        src.limit(src.position() + first);
+        data.put(src);
+        if (first < length) {
+            data.clear();
+            src.limit(src.position() + length - first);
+            data.put(src);
+        }
+        src.limit(srcLimit);
+        fence();
+        position += length;
+        region.putLong(WRITE_POSITION_OFFSET, position);
+        return length;
+    }
+
+    /**
+     * Copies as many bytes as available into dst.
+     *
+     * @param dst buffer to fill, its position is advanced by the number of
+     * bytes read
+     * @return number of bytes read
+     */
+    int read(ByteBuffer dst) {
+        final long writePosition = region.getLong(WRITE_POSITION_OFFSET);
+        fence();
+        final int length = (int) Math.min(writePosition - position, dst.remaining());
+        if (length <= 0) {
+            return 0;
+        }
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(length, capacity - offset);
+        data.clear();
+        data.position(offset);
+        data.limit(offset + first);
+        dst.put(data);
+        if (first < length) {
+            data.clear();
+            data.limit(length - first);
+            dst.put(data);
+        }
+        fence();
+        position += length;
+        region.putLong(READ_POSITION_OFFSET, position);
+        return length;
+    }
+}
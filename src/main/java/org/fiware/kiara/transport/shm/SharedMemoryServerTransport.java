@@ -0,0 +1,310 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.shm;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.fiware.kiara.transport.impl.ServerTransportImpl;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server side of the shared memory transport. A running server owns a
+ * directory named after its address and holds a lock on the lock file in
+ * it. Clients connect by writing connection files to the directory, the
+ * poller of the transport factory accepts them.
+ */
+public class SharedMemoryServerTransport implements ServerTransportImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryServerTransport.class);
+
+    private final SharedMemoryTransportFactory transportFactory;
+    private final SharedMemoryAddress address;
+    private final String localTransportAddress;
+    private final Path directory;
+    private final Object serverLock = new Object();
+    private final List<SharedMemoryTransport> connections = new ArrayList<>();
+
+    private TransportConnectionListener listener;
+    private boolean accepting;
+    private FileChannel lockChannel;
+    private ExecutorService dispatchingExecutor;
+    private int maxInFlightRequests = Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 0);
+    private int maxInFlightRequestsPerConnection = Integer.getInteger(MAX_IN_FLIGHT_PER_CONNECTION_PROPERTY, 0);
+    private boolean rejectWhenOverloaded = Boolean.getBoolean(REJECT_OVERLOADED_PROPERTY);
+
+    private final TransportConnectionListener connectionTracker = new TransportConnectionListener() {
+
+        @Override
+        public void onConnectionOpened(TransportImpl connection) {
+        }
+
+        @Override
+        public void onConnectionClosed(TransportImpl connection) {
+            final TransportConnectionListener currentListener;
+            synchronized (serverLock) {
+                connections.remove((SharedMemoryTransport) connection);
+                currentListener = listener;
+            }
+            if (currentListener != null) {
+                currentListener.onConnectionClosed(connection);
+            }
+        }
+    };
+
+    SharedMemoryServerTransport(SharedMemoryTransportFactory transportFactory, SharedMemoryAddress address, String localTransportAddress) {
+        this.transportFactory = transportFactory;
+        this.address = address;
+        this.localTransportAddress = localTransportAddress;
+        this.directory = transportFactory.getDirectory(address);
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return address;
+    }
+
+    @Override
+    public SharedMemoryTransportFactory getTransportFactory() {
+        return transportFactory;
+    }
+
+    @Override
+    public void setDispatchingExecutor(ExecutorService executor) {
+        this.dispatchingExecutor = executor;
+    }
+
+    @Override
+    public ExecutorService getDispatchingExecutor() {
+        return dispatchingExecutor;
+    }
+
+    @Override
+    public void setMaxInFlightRequests(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequests = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    @Override
+    public void setMaxInFlightRequestsPerConnection(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit < 0");
+        }
+        this.maxInFlightRequestsPerConnection = limit;
+    }
+
+    @Override
+    public int getMaxInFlightRequestsPerConnection() {
+        return maxInFlightRequestsPerConnection;
+    }
+
+    @Override
+    public void setRejectWhenOverloaded(boolean reject) {
+        this.rejectWhenOverloaded = reject;
+    }
+
+    @Override
+    public boolean isRejectWhenOverloaded() {
+        return rejectWhenOverloaded;
+    }
+
+    @Override
+    public boolean isRunning() {
+        synchronized (serverLock) {
+            return listener != null;
+        }
+    }
+
+    @Override
+    public void startServer(TransportConnectionListener listener) throws InterruptedException {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        synchronized (serverLock) {
+            if (this.listener != null) {
+                throw new IllegalStateException("Server is already running");
+            }
+            if (!transportFactory.bind(this)) {
+                throw new IllegalStateException("Address already in use: " + address);
+            }
+            try {
+                lockChannel = lockDirectory();
+            } catch (IOException | RuntimeException ex) {
+                transportFactory.unbind(this);
+                throw new IllegalStateException("Could not bind to " + address, ex);
+            }
+            if (lockChannel == null) {
+                transportFactory.unbind(this);
+                throw new IllegalStateException("Address already in use: " + address);
+            }
+            this.listener = listener;
+            this.accepting = true;
+        }
+        transportFactory.getPoller().add(this);
+    }
+
+    /**
+     * Creates the directory of this server and locks it.
+     *
+     * @return channel of the locked lock file, null if another process runs
+     * a server at this address
+     */
+    private FileChannel lockDirectory() throws IOException {
+        Files.createDirectories(directory);
+        final FileChannel channel = FileChannel.open(directory.resolve(SharedMemoryTransportFactory.LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException | IOException ex) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            return null;
+        }
+        // connection files of a previous server are never accepted
+        deleteFiles("*" + SharedMemoryTransportFactory.CONNECTION_SUFFIX);
+        return channel;
+    }
+
+    private void deleteFiles(String glob) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not clean up {}", directory, ex);
+        }
+    }
+
+    /**
+     * Accepts the connections of all connection files in the directory of
+     * this server, called by the poller of the transport factory.
+     *
+     * @return true if a connection was accepted
+     */
+    boolean acceptConnections() {
+        boolean accepted = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SharedMemoryTransportFactory.CONNECTION_SUFFIX)) {
+            for (Path file : stream) {
+                SharedMemoryTransport connection = null;
+                try {
+                    connection = SharedMemoryTransport.accept(transportFactory, file, address, connectionTracker);
+                } catch (IOException | RuntimeException ex) {
+                    logger.warn("Could not accept connection {}", file, ex);
+                } finally {
+                    // both ends mapped the file, it is not needed anymore
+                    Files.deleteIfExists(file);
+                }
+                if (connection != null) {
+                    accepted |= open(connection);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not read connections of {}", directory, ex);
+        }
+        return accepted;
+    }
+
+    private boolean open(SharedMemoryTransport connection) throws IOException {
+        final TransportConnectionListener currentListener;
+        synchronized (serverLock) {
+            currentListener = accepting ? listener : null;
+            if (currentListener != null) {
+                connections.add(connection);
+            }
+        }
+        if (currentListener == null) {
+            connection.close();
+            return false;
+        }
+        transportFactory.getPoller().add(connection);
+        currentListener.onConnectionOpened(connection);
+        return true;
+    }
+
+    @Override
+    public void stopServer() throws InterruptedException {
+        final List<SharedMemoryTransport> openConnections;
+        synchronized (serverLock) {
+            if (listener == null) {
+                return;
+            }
+            accepting = false;
+            transportFactory.getPoller().remove(this);
+            openConnections = new ArrayList<>(connections);
+        }
+        for (SharedMemoryTransport connection : openConnections) {
+            try {
+                connection.close();
+            } catch (IOException ex) {
+                logger.warn("Could not close {}", connection, ex);
+            }
+        }
+        synchronized (serverLock) {
+            deleteFiles("*");
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException ex) {
+                logger.warn("Could not delete {}", directory, ex);
+            }
+            try {
+                lockChannel.close();
+            } catch (IOException ex) {
+                logger.warn("Could not unlock {}", directory, ex);
+            }
+            lockChannel = null;
+            transportFactory.unbind(this);
+            listener = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            stopServer();
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public String getLocalTransportAddress() {
+        return localTransportAddress;
+    }
+}
@@ -0,0 +1,556 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.shm;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.impl.TransportMessageListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One end of a shared memory connection between two processes of the same
+ * host. Both ends map the same connection file, created by the client in
+ * the server's directory: a header followed by one
+ * {@link SharedMemoryRing} per direction. Messages are written to the ring
+ * as frames of a length, the content type and the payload, the poller of
+ * the transport factory reads them and notifies the listeners.
+ *
+ * The header holds the state of the connection. Each end holds a lock on
+ * its own byte of the header while the connection is open, so an end
+ * notices when the peer's process exited without closing the connection.
+ */
+public class SharedMemoryTransport implements TransportImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryTransport.class);
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final int MAGIC = 0x4b53484d;
+    static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int ACCEPTED_OFFSET = 12;
+    private static final int CLIENT_CLOSED_OFFSET = 16;
+    private static final int SERVER_CLOSED_OFFSET = 20;
+    private static final long CLIENT_LOCK_OFFSET = 32;
+    private static final long SERVER_LOCK_OFFSET = 33;
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Largest ring capacity, the connection file is mapped as a whole.
+     */
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / 2 - SharedMemoryRing.DATA_OFFSET;
+
+    private static final long LIVENESS_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int CONNECTING = 0;
+    private static final int OPEN = 1;
+    private static final int CLOSED = 2;
+
+    private final SharedMemoryTransportFactory transportFactory;
+    private final SharedMemoryAddress localAddress;
+    private final SharedMemoryAddress remoteAddress;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final FileLock lock;
+    private final Path file;
+    private final boolean client;
+    private final int capacity;
+    private final SharedMemoryRing inbound;
+    private final SharedMemoryRing outbound;
+    private final CopyOnWriteArrayList<TransportMessageListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+    private final ArrayDeque<OutboundFrame> pending = new ArrayDeque<>();
+    private final SettableFuture<Transport> connectFuture = SettableFuture.create();
+    private final long connectDeadline;
+
+    // only accessed by the poller
+    private final ByteBuffer frameLength = ByteBuffer.allocate(4);
+    private ByteBuffer frame;
+    private long nextLivenessCheck;
+
+    private volatile int state = CONNECTING;
+    private volatile TransportConnectionListener connectionListener;
+
+    private SharedMemoryTransport(SharedMemoryTransportFactory transportFactory, SharedMemoryAddress localAddress,
+            SharedMemoryAddress remoteAddress, FileChannel channel, MappedByteBuffer buffer, FileLock lock,
+            Path file, boolean client, long connectDeadline) {
+        this.transportFactory = transportFactory;
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lock = lock;
+        this.file = file;
+        this.client = client;
+        this.connectDeadline = connectDeadline;
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        final int ringSize = SharedMemoryRing.size(capacity);
+        final SharedMemoryRing clientToServer = new SharedMemoryRing(region(buffer, HEADER_SIZE, ringSize), client);
+        final SharedMemoryRing serverToClient = new SharedMemoryRing(region(buffer, HEADER_SIZE + ringSize, ringSize), !client);
+        this.outbound = client ? clientToServer : serverToClient;
+        this.inbound = client ? serverToClient : clientToServer;
+    }
+
+    private static ByteBuffer region(ByteBuffer buffer, int offset, int size) {
+        final ByteBuffer region = buffer.duplicate();
+        region.position(offset);
+        region.limit(offset + size);
+        return region.slice();
+    }
+
+    private static long fileSize(long capacity) {
+        return HEADER_SIZE + 2 * (SharedMemoryRing.DATA_OFFSET + capacity);
+    }
+
+    /**
+     * Creates the client end of a connection: writes a new connection file
+     * to the server's directory. The returned connection is open when the
+     * server accepted it, see {@link #getConnectFuture()}.
+     *
+     * @param transportFactory factory of the connection
+     * @param directory directory of the server
+     * @param serverAddress address of the server
+     * @param capacity size of each ring in bytes
+     * @param timeoutMillis time the server has to accept the connection
+     * @return client end of the connection
+     * @throws IOException if the connection file could not be created
+     */
+    static SharedMemoryTransport connect(SharedMemoryTransportFactory transportFactory, Path directory,
+            SharedMemoryAddress serverAddress, int capacity, long timeoutMillis) throws IOException {
+        final Path tmp = Files.createTempFile(directory, "connection", ".tmp");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final int size = (int) fileSize(capacity);
+            allocate(channel, size);
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            final FileLock lock = channel.lock(CLIENT_LOCK_OFFSET, 1, false);
+            final String tmpName = tmp.getFileName().toString();
+            final String name = tmpName.substring(0, tmpName.length() - ".tmp".length());
+            final Path file = directory.resolve(name + SharedMemoryTransportFactory.CONNECTION_SUFFIX);
+            final SharedMemoryTransport transport = new SharedMemoryTransport(transportFactory,
+                    new SharedMemoryAddress(serverAddress.getName() + "#" + name), serverAddress,
+                    channel, buffer, lock, file, true,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+            // the server only sees complete connection files
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            return transport;
+        } catch (IOException | RuntimeException ex) {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes the whole file, a sparse file could fail with a bus error when
+     * the file system is full and the mapping is first written.
+     */
+    private static void allocate(FileChannel channel, int size) throws IOException {
+        final ByteBuffer zeros = ByteBuffer.allocate(Math.min(size, 64 * 1024));
+        long position = 0;
+        while (position < size) {
+            zeros.clear();
+            zeros.limit((int) Math.min(zeros.capacity(), size - position));
+            position += channel.write(zeros, position);
+        }
+    }
+
+    /**
+     * Creates the server end of a connection from a connection file written
+     * by a client and signals the client that the connection is open.
+     *
+     * @param transportFactory factory of the connection
+     * @param file connection file
+     * @param serverAddress address of the server
+     * @param serverListener connection listener of the server, notified
+     * when the connection is closed
+     * @return server end of the connection
+     * @throws IOException if the file is no valid connection file
+     */
+    static SharedMemoryTransport accept(SharedMemoryTransportFactory transportFactory, Path file,
+            SharedMemoryAddress serverAddress, TransportConnectionListener serverListener) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Invalid connection file " + file);
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            final int capacity = buffer.getInt(CAPACITY_OFFSET);
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION
+                    || capacity <= 0 || size != fileSize(capacity)) {
+                throw new IOException("Invalid connection file " + file);
+            }
+            final FileLock lock = channel.tryLock(SERVER_LOCK_OFFSET, 1, false);
+            if (lock == null) {
+                throw new IOException("Connection already accepted: " + file);
+            }
+            final String fileName = file.getFileName().toString();
+            final String name = fileName.substring(0, fileName.length() - SharedMemoryTransportFactory.CONNECTION_SUFFIX.length());
+            final SharedMemoryTransport transport = new SharedMemoryTransport(transportFactory, serverAddress,
+                    new SharedMemoryAddress(serverAddress.getName() + "#" + name),
+                    channel, buffer, lock, null, false, 0);
+            transport.connectionListener = serverListener;
+            transport.state = OPEN;
+            transport.connectFuture.set(transport);
+            SharedMemoryRing.fence();
+            buffer.putInt(ACCEPTED_OFFSET, 1);
+            return transport;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return future completed with this connection when the server
+     * accepted it
+     */
+    ListenableFuture<Transport> getConnectFuture() {
+        return connectFuture;
+    }
+
+    @Override
+    public SharedMemoryTransportFactory getTransportFactory() {
+        return transportFactory;
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public TransportMessage createTransportMessage(TransportMessage message) {
+        return new SharedMemoryMessage(this, null);
+    }
+
+    @Override
+    public ListenableFuture<Void> send(TransportMessage message) {
+        if (message == null) {
+            throw new NullPointerException("message");
+        }
+        if (message.getPayload() == null) {
+            throw new NullPointerException("message payload");
+        }
+        final ByteBuffer payload = message.getPayload().duplicate();
+        final String contentType = message.getContentType();
+        final byte[] contentTypeBytes = contentType != null ? contentType.getBytes(UTF_8) : new byte[0];
+        final long frameSize = 2L + contentTypeBytes.length + payload.remaining();
+        if (contentTypeBytes.length > 0xffff || frameSize > Integer.MAX_VALUE) {
+            message.releasePayload();
+            return Futures.immediateFailedFuture(new IOException("Message too large"));
+        }
+        final ByteBuffer header = ByteBuffer.allocate(4 + 2 + contentTypeBytes.length);
+        header.putInt((int) frameSize);
+        header.putShort((short) contentTypeBytes.length);
+        header.put(contentTypeBytes);
+        header.flip();
+        final OutboundFrame outboundFrame = new OutboundFrame(message, header, payload);
+        synchronized (writeLock) {
+            if (state != CLOSED) {
+                if (state == OPEN && pending.isEmpty()) {
+                    outboundFrame.write(outbound);
+                    if (outboundFrame.isWritten()) {
+                        message.releasePayload();
+                        return Futures.immediateFuture(null);
+                    }
+                }
+                // written by the poller as the peer makes room
+                pending.add(outboundFrame);
+                return outboundFrame.future;
+            }
+        }
+        message.releasePayload();
+        return Futures.immediateFailedFuture(new IOException("Connection closed"));
+    }
+
+    /**
+     * Does the pending work of this connection, called by the poller of the
+     * transport factory.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return true if any work was done
+     */
+    boolean poll(long now) {
+        final int currentState = state;
+        if (currentState == CONNECTING) {
+            if (buffer.getInt(ACCEPTED_OFFSET) != 0) {
+                SharedMemoryRing.fence();
+                state = OPEN;
+                nextLivenessCheck = now + LIVENESS_CHECK_INTERVAL;
+                connectFuture.set(this);
+                return true;
+            }
+            if (now - connectDeadline >= 0) {
+                connectFuture.setException(new IOException("Connection timed out: " + remoteAddress));
+                closeQuietly();
+                return true;
+            }
+            return false;
+        }
+        if (currentState != OPEN) {
+            return false;
+        }
+        // the peer writes all its data before it marks the connection closed
+        final boolean peerClosed = buffer.getInt(client ? SERVER_CLOSED_OFFSET : CLIENT_CLOSED_OFFSET) != 0;
+        SharedMemoryRing.fence();
+        boolean worked = receive();
+        worked |= flush();
+        if (peerClosed || (now - nextLivenessCheck >= 0 && !isPeerAlive(now))) {
+            closeQuietly();
+            return true;
+        }
+        return worked;
+    }
+
+    private boolean isPeerAlive(long now) {
+        nextLivenessCheck = now + LIVENESS_CHECK_INTERVAL;
+        try {
+            final FileLock peerLock = channel.tryLock(client ? SERVER_LOCK_OFFSET : CLIENT_LOCK_OFFSET, 1, false);
+            if (peerLock == null) {
+                return true;
+            }
+            // the peer's process exited without closing the connection
+            peerLock.release();
+            return false;
+        } catch (OverlappingFileLockException ex) {
+            // the peer is part of this process
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads frames from the inbound ring and notifies the listeners, at
+     * most about one ring of data per call so other connections of the
+     * poller are not starved.
+     */
+    private boolean receive() {
+        int received = 0;
+        while (received < capacity && state == OPEN) {
+            if (frame == null) {
+                received += inbound.read(frameLength);
+                if (frameLength.hasRemaining()) {
+                    break;
+                }
+                frameLength.flip();
+                final int length = frameLength.getInt();
+                frameLength.clear();
+                if (length < 2) {
+                    logger.error("Invalid frame length {} received on {}", length, this);
+                    closeQuietly();
+                    break;
+                }
+                frame = ByteBuffer.allocate(length);
+            }
+            received += inbound.read(frame);
+            if (frame.hasRemaining()) {
+                break;
+            }
+            frame.flip();
+            final ByteBuffer completeFrame = frame;
+            frame = null;
+            deliver(completeFrame);
+        }
+        return received > 0;
+    }
+
+    private void deliver(ByteBuffer completeFrame) {
+        final int contentTypeLength = completeFrame.getShort() & 0xffff;
+        if (contentTypeLength > completeFrame.remaining()) {
+            logger.error("Invalid frame received on {}", this);
+            closeQuietly();
+            return;
+        }
+        String contentType = null;
+        if (contentTypeLength > 0) {
+            final byte[] contentTypeBytes = new byte[contentTypeLength];
+            completeFrame.get(contentTypeBytes);
+            contentType = new String(contentTypeBytes, UTF_8);
+        }
+        final SharedMemoryMessage message = new SharedMemoryMessage(this, completeFrame.slice());
+        if (contentType != null) {
+            message.setContentType(contentType);
+        }
+        for (TransportMessageListener listener : listeners) {
+            if (listener.onMessage(message)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes pending frames as far as the outbound ring has room.
+     */
+    private boolean flush() {
+        final List<OutboundFrame> written = new ArrayList<>();
+        boolean worked = false;
+        synchronized (writeLock) {
+            while (state == OPEN && !pending.isEmpty()) {
+                final OutboundFrame outboundFrame = pending.peek();
+                worked |= outboundFrame.write(outbound) > 0;
+                if (!outboundFrame.isWritten()) {
+                    break;
+                }
+                written.add(pending.poll());
+            }
+        }
+        for (OutboundFrame outboundFrame : written) {
+            outboundFrame.message.releasePayload();
+            outboundFrame.future.set(null);
+        }
+        return worked;
+    }
+
+    @Override
+    public void addMessageListener(TransportMessageListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean removeMessageListener(TransportMessageListener listener) {
+        if (listener == null) {
+            return false;
+        }
+        return listeners.remove(listener);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state == OPEN;
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ex) {
+            logger.warn("Could not close {}", this, ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        final List<OutboundFrame> dropped;
+        synchronized (writeLock) {
+            if (state == CLOSED) {
+                return;
+            }
+            state = CLOSED;
+            dropped = new ArrayList<>(pending);
+            pending.clear();
+        }
+        SharedMemoryRing.fence();
+        buffer.putInt(client ? CLIENT_CLOSED_OFFSET : SERVER_CLOSED_OFFSET, 1);
+        transportFactory.getPoller().remove(this);
+        try {
+            lock.release();
+            channel.close();
+        } finally {
+            if (file != null) {
+                // not yet accepted connections are never seen by the server
+                Files.deleteIfExists(file);
+            }
+            for (OutboundFrame outboundFrame : dropped) {
+                outboundFrame.message.releasePayload();
+                outboundFrame.future.setException(new IOException("Connection closed"));
+            }
+            connectFuture.setException(new IOException("Connection closed"));
+            final TransportConnectionListener listener = connectionListener;
+            if (listener != null) {
+                connectionListener = null;
+                listener.onConnectionClosed(this);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedMemoryTransport{" + localAddress + " -> " + remoteAddress + '}';
+    }
+
+    private static final class OutboundFrame {
+
+        final TransportMessage message;
+        final ByteBuffer header;
+        final ByteBuffer payload;
+        final SettableFuture<Void> future = SettableFuture.create();
+
+        OutboundFrame(TransportMessage message, ByteBuffer header, ByteBuffer payload) {
+            this.message = message;
+            this.header = header;
+            this.payload = payload;
+        }
+
+        int write(SharedMemoryRing ring) {
+            int written = 0;
+            if (header.hasRemaining()) {
+                written += ring.write(header);
+                if (header.hasRemaining()) {
+                    return written;
+                }
+            }
+            return written + ring.write(payload);
+        }
+
+        boolean isWritten() {
+            return !header.hasRemaining() && !payload.hasRemaining();
+        }
+    }
+}
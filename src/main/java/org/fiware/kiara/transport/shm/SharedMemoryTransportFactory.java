@@ -0,0 +1,257 @@
+/* KIARA - Middleware for efficient and QoS/Security-aware invocation of services and exchange of messages
+ *
+ * Copyright (C) 2015 German Research Center for Artificial Intelligence (DFKI)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fiware.kiara.transport.shm;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.fiware.kiara.exceptions.impl.InvalidAddressException;
+import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.TransportFactory;
+
+/**
+ * Transport between processes running on the same host. Each connection is
+ * a memory-mapped file with a ring buffer per direction, a message is
+ * copied into the ring by the sender and out of it by the receiver, without
+ * any socket or system call.
+ *
+ * Servers are addressed as {@code shm://host:port/path}, the host must be
+ * an address of the local host. A server owns the directory named after
+ * its port and path below {@link #DIRECTORY_PROPERTY}, which defaults to
+ * {@code kiara-shm} in the temporary directory; pointing it to a tmpfs like
+ * {@code /dev/shm} avoids writing the rings back to disk. Connection files
+ * are only accessible by the user who created them, so clients and servers
+ * must run as the same user.
+ */
+public class SharedMemoryTransportFactory implements TransportFactory {
+
+    /**
+     * System property with the directory of the server directories.
+     */
+    public static final String DIRECTORY_PROPERTY = "kiara.shm.dir";
+
+    /**
+     * System property with the size of each ring buffer of a connection in
+     * bytes, messages larger than the ring are written in parts.
+     */
+    public static final String RING_SIZE_PROPERTY = "kiara.shm.ringSize";
+
+    /**
+     * System property with the time in milliseconds a server has to accept
+     * a connection.
+     */
+    public static final String CONNECT_TIMEOUT_PROPERTY = "kiara.shm.connectTimeout";
+
+    public static final int DEFAULT_RING_SIZE = 1024 * 1024;
+
+    public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+
+    static final String LOCK_FILE = "server.lock";
+    static final String CONNECTION_SUFFIX = ".conn";
+
+    private final Path directory;
+    private final int ringSize;
+    private final long connectTimeout;
+    private final SharedMemoryPoller poller = new SharedMemoryPoller();
+    private final ConcurrentMap<SharedMemoryAddress, SharedMemoryServerTransport> servers = new ConcurrentHashMap<>();
+
+    public SharedMemoryTransportFactory() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY,
+                Paths.get(System.getProperty("java.io.tmpdir"), "kiara-shm").toString())),
+                Integer.getInteger(RING_SIZE_PROPERTY, DEFAULT_RING_SIZE),
+                Long.getLong(CONNECT_TIMEOUT_PROPERTY, DEFAULT_CONNECT_TIMEOUT));
+    }
+
+    /**
+     * @param directory directory of the server directories
+     * @param ringSize size of each ring buffer of a connection in bytes
+     * @param connectTimeout time in milliseconds a server has to accept a
+     * connection
+     */
+    public SharedMemoryTransportFactory(Path directory, int ringSize, long connectTimeout) {
+        if (directory == null) {
+            throw new NullPointerException("directory");
+        }
+        if (ringSize <= 0 || ringSize > SharedMemoryTransport.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid ring size " + ringSize);
+        }
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("connectTimeout < 0");
+        }
+        this.directory = directory;
+        this.ringSize = ringSize;
+        this.connectTimeout = connectTimeout;
+    }
+
+    @Override
+    public String getName() {
+        return "shm";
+    }
+
+    @Override
+    public int getPriority() {
+        // preferred over all network transports when the server is local
+        return 1;
+    }
+
+    @Override
+    public boolean isSecureTransport() {
+        // connection files can be read by other processes of the same user
+        return false;
+    }
+
+    private static String getPath(URI uri) {
+        return uri.getPath() == null || "/".equals(uri.getPath()) ? "" : uri.getPath();
+    }
+
+    static SharedMemoryAddress toAddress(URI uri) {
+        final String path = getPath(uri);
+        if (uri.getPort() != -1) {
+            return new SharedMemoryAddress(uri.getPort() + path);
+        }
+        final String host = uri.getHost() != null ? uri.getHost() : uri.getAuthority();
+        return new SharedMemoryAddress((host != null ? host : "") + path);
+    }
+
+    private static URI parse(String uri) throws InvalidAddressException {
+        try {
+            return new URI(uri);
+        } catch (URISyntaxException ex) {
+            throw new InvalidAddressException(ex);
+        }
+    }
+
+    /**
+     * @param uri server address
+     * @return true if the host of uri is unspecified or an address of this
+     * host
+     */
+    static boolean isLocalHost(URI uri) {
+        if (uri.getPort() == -1 || uri.getHost() == null) {
+            return true;
+        }
+        try {
+            final InetAddress address = InetAddress.getByName(uri.getHost());
+            return address.isAnyLocalAddress() || address.isLoopbackAddress()
+                    || NetworkInterface.getByInetAddress(address) != null;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    Path getDirectory(SharedMemoryAddress address) {
+        try {
+            return directory.resolve(URLEncoder.encode(address.getName(), "UTF-8"));
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    SharedMemoryPoller getPoller() {
+        return poller;
+    }
+
+    /**
+     * @param uri server address
+     * @return true if a server of this host is running at uri
+     */
+    public boolean isBound(String uri) {
+        try {
+            final URI serverUri = parse(uri);
+            return isLocalHost(serverUri) && isRunning(toAddress(serverUri));
+        } catch (InvalidAddressException ex) {
+            return false;
+        }
+    }
+
+    private boolean isRunning(SharedMemoryAddress address) {
+        if (servers.containsKey(address)) {
+            return true;
+        }
+        // a running server of another process holds the lock
+        try (FileChannel channel = FileChannel.open(getDirectory(address).resolve(LOCK_FILE),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException ex) {
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    boolean bind(SharedMemoryServerTransport server) {
+        return servers.putIfAbsent((SharedMemoryAddress) server.getLocalSocketAddress(), server) == null;
+    }
+
+    void unbind(SharedMemoryServerTransport server) {
+        servers.remove((SharedMemoryAddress) server.getLocalSocketAddress(), server);
+    }
+
+    @Override
+    public ListenableFuture<Transport> createTransport(String uri, Map<String, Object> settings) throws InvalidAddressException, IOException {
+        final URI serverUri = parse(uri);
+        if (!isLocalHost(serverUri)) {
+            throw new IOException("Connection refused: " + uri + " is not a local address");
+        }
+        final SharedMemoryAddress address = toAddress(serverUri);
+        if (!isRunning(address)) {
+            throw new IOException("Connection refused: no shared memory server at " + uri);
+        }
+        final SharedMemoryTransport transport = SharedMemoryTransport.connect(this, getDirectory(address), address, ringSize, connectTimeout);
+        poller.add(transport);
+        return transport.getConnectFuture();
+    }
+
+    @Override
+    public ServerTransport createServerTransport(String url) throws IOException {
+        try {
+            final URI uri = new URI(url);
+            final SharedMemoryAddress address = toAddress(uri);
+            final String localTransportAddress;
+            if (uri.getPort() != -1) {
+                localTransportAddress = new URI(getName(), null, uri.getHost() != null ? uri.getHost() : "0.0.0.0",
+                        uri.getPort(), getPath(uri), null, null).toString();
+            } else {
+                localTransportAddress = getName() + "://" + address.getName();
+            }
+            return new SharedMemoryServerTransport(this, address, localTransportAddress);
+        } catch (URISyntaxException ex) {
+            throw new IOException(ex);
+        }
+    }
+}
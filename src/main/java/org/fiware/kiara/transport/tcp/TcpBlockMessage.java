@@ -19,6 +19,7 @@ package org.fiware.kiara.transport.tcp;
 
 import org.fiware.kiara.transport.impl.TransportMessage;
 import org.fiware.kiara.transport.impl.TransportImpl;
+import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +34,7 @@ public class TcpBlockMessage extends TransportMessage {
 
     private final Map<String, Object> properties = new HashMap<String, Object>();
     private static final Logger logger = LoggerFactory.getLogger(TcpBlockMessage.class);
+    private final ByteBuf frame;
 
     /**
      * @param connection
@@ -40,6 +42,35 @@ public class TcpBlockMessage extends TransportMessage {
      */
     public TcpBlockMessage(TransportImpl connection, ByteBuffer payload) {
         super(connection, payload);
+        this.frame = null;
+    }
+
+    /**
+     * Creates a message whose payload is a view of frame. The frame is owned
+     * by the caller, {@link #retainPayload()} keeps it alive beyond that.
+     *
+     * @param connection
+     * @param frame received frame
+     */
+    public TcpBlockMessage(TransportImpl connection, ByteBuf frame) {
+        super(connection, frame.nioBuffer());
+        this.frame = frame;
+    }
+
+    @Override
+    public TransportMessage retainPayload() {
+        if (frame != null) {
+            frame.retain();
+        }
+        return this;
+    }
+
+    @Override
+    public void releasePayload() {
+        super.releasePayload();
+        if (frame != null) {
+            frame.release();
+        }
     }
 
     @Override
@@ -22,6 +22,8 @@ import com.google.common.util.concurrent.SettableFuture;
 
 import org.fiware.kiara.transport.Transport;
 import org.fiware.kiara.exceptions.impl.InvalidAddressException;
+import org.fiware.kiara.netty.FlushStatistics;
+import org.fiware.kiara.netty.EventLoopBackend;
 import org.fiware.kiara.netty.NettyTransportFactory;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import org.fiware.kiara.transport.impl.TransportImpl;
@@ -30,7 +32,6 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.JdkSslClientContext;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslProvider;
@@ -44,6 +45,7 @@ import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLException;
@@ -58,12 +60,103 @@ public class TcpBlockTransportFactory extends NettyTransportFactory {
     private static final int DEFAULT_TCP_PORT = 1111;
     private static final int DEFAULT_TCPS_PORT = 1112;
 
+    /**
+     * System property enabling the zero copy server pipeline by default.
+     */
+    public static final String ZERO_COPY_PROPERTY = "kiara.tcp.zerocopy";
+
+    /**
+     * System property enabling write coalescing by default.
+     */
+    public static final String FLUSH_BATCHING_PROPERTY = "kiara.tcp.flushbatching";
+
+    private static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
     private final boolean secure;
+    private volatile boolean zeroCopy = Boolean.getBoolean(ZERO_COPY_PROPERTY);
+    private volatile boolean flushBatching = Boolean.getBoolean(FLUSH_BATCHING_PROPERTY);
+    private volatile int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+    private volatile long maxFlushDelayNanos = 0;
+    private final FlushStatistics flushStatistics = new FlushStatistics();
 
     public TcpBlockTransportFactory(boolean secure) {
         this.secure = secure;
     }
 
+    /**
+     * Enables the zero copy pipeline for servers started afterwards. Received
+     * frames are not copied into heap arrays but handed to the servants as
+     * views of the Netty receive buffers, and reply payloads are written
+     * without copying them into the framed output buffer.
+     *
+     * @param zeroCopy true to enable
+     */
+    public void setZeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * Enables write coalescing for connections opened afterwards. Messages
+     * are not flushed one by one but at the end of a read batch, after the
+     * maximal flush delay, or when the flush threshold is reached.
+     *
+     * @param flushBatching true to enable
+     * @see org.fiware.kiara.netty.FlushBatcher
+     */
+    public void setFlushBatching(boolean flushBatching) {
+        this.flushBatching = flushBatching;
+    }
+
+    public boolean isFlushBatching() {
+        return flushBatching;
+    }
+
+    /**
+     * Sets the number of pending bytes that forces a flush.
+     *
+     * @param flushThreshold threshold in bytes
+     */
+    public void setFlushThreshold(int flushThreshold) {
+        if (flushThreshold <= 0) {
+            throw new IllegalArgumentException("flushThreshold must be positive: " + flushThreshold);
+        }
+        this.flushThreshold = flushThreshold;
+    }
+
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    /**
+     * Sets how long a message written outside of a read batch may wait for
+     * the flush. With 0 it is flushed when the event loop has processed all
+     * writes queued so far.
+     *
+     * @param delay maximal delay
+     * @param unit unit of delay
+     */
+    public void setMaxFlushDelay(long delay, TimeUnit unit) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative: " + delay);
+        }
+        this.maxFlushDelayNanos = unit.toNanos(delay);
+    }
+
+    public long getMaxFlushDelay(TimeUnit unit) {
+        return unit.convert(maxFlushDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return messages per flush of all connections with write coalescing
+     */
+    public FlushStatistics getFlushStatistics() {
+        return flushStatistics;
+    }
+
     public String getName() {
         return secure ? "tcps" : "tcp";
     }
@@ -135,7 +228,7 @@ public class TcpBlockTransportFactory extends NettyTransportFactory {
 
         Bootstrap b = new Bootstrap();
         b.group(getEventLoopGroup())
-                .channel(NioSocketChannel.class)
+                .channel(EventLoopBackend.get().getSocketChannelClass())
                 .handler(new TcpClientInitializer(sslCtx, clientHandler));
         b.connect(host, port);
         
@@ -19,15 +19,18 @@ package org.fiware.kiara.transport.tcp;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import org.fiware.kiara.netty.BaseHandler;
+import org.fiware.kiara.netty.FlushBatcher;
 import org.fiware.kiara.netty.ListenableConstantFutureAdapter;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import org.fiware.kiara.transport.impl.TransportMessage;
 import org.fiware.kiara.util.Buffers;
 import org.fiware.kiara.util.HexDump;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +45,8 @@ public class TcpHandler extends BaseHandler<Object, TcpBlockTransportFactory> {
     private final URI uri;
     private volatile String sessionId = null;
     private final boolean SEND_SESSION_ID = false;
+    // set when the channel becomes active and write coalescing is enabled
+    private volatile FlushBatcher batcher = null;
 
     public TcpHandler(TcpBlockTransportFactory transportFactory, URI uri, TransportConnectionListener connectionListener) {
         super(Mode.CLIENT, State.UNINITIALIZED, transportFactory, connectionListener);
@@ -70,6 +75,11 @@ public class TcpHandler extends BaseHandler<Object, TcpBlockTransportFactory> {
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        final TcpBlockTransportFactory factory = getTransportFactory();
+        if (factory.isFlushBatching()) {
+            batcher = new FlushBatcher(ctx.channel(), factory.getFlushThreshold(),
+                    factory.getMaxFlushDelay(TimeUnit.NANOSECONDS), factory.getFlushStatistics());
+        }
         if ((state == State.UNINITIALIZED || state == State.WAIT_CONNECT) && mode == Mode.CLIENT && SEND_SESSION_ID) {
             // FIXME send sessionID
             ctx.writeAndFlush(EMPTY_BUFFER);
@@ -80,14 +90,27 @@ public class TcpHandler extends BaseHandler<Object, TcpBlockTransportFactory> {
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) {
         // ctx.flush();
+        final FlushBatcher b = batcher;
+        if (b != null) {
+            b.readComplete();
+        }
     }
 
     @Override
     protected void channelRead0(final ChannelHandlerContext ctx, Object msg) throws Exception {
         logger.debug("Handler: {} / Mode: {} / Channel: {} / Message class {}", this, mode, ctx.channel(), msg.getClass());
 
+        final FlushBatcher b = batcher;
+        if (b != null) {
+            // replies sent while processing are flushed in channelReadComplete
+            b.readStarted();
+        }
 
-        final TcpBlockMessage transportMessage = new TcpBlockMessage(this, (ByteBuffer) msg);
+        // In the zero copy pipeline msg is a frame slice, which is released
+        // when this method returns unless a listener retains the payload.
+        final TcpBlockMessage transportMessage = msg instanceof ByteBuf
+                ? new TcpBlockMessage(this, (ByteBuf) msg)
+                : new TcpBlockMessage(this, (ByteBuffer) msg);
 
         if (logger.isDebugEnabled()) {
             logger.debug("RECEIVED CONTENT {}", HexDump.dumpHexString(transportMessage.getPayload()));
@@ -111,7 +134,7 @@ public class TcpHandler extends BaseHandler<Object, TcpBlockTransportFactory> {
     }
 
     public TransportMessage createTransportMessage(TransportMessage transportMessage) {
-        return new TcpBlockMessage(this, null);
+        return new TcpBlockMessage(this, (ByteBuffer) null);
     }
 
     public ListenableFuture<Void> send(TransportMessage message) {
@@ -130,7 +153,10 @@ public class TcpHandler extends BaseHandler<Object, TcpBlockTransportFactory> {
             //logger.debug("SEND CONTENT: {}", Buffers.bufferToString(message.getPayload()));
         }
 
-        ChannelFuture result = channel.writeAndFlush(message.getPayload());
+        final FlushBatcher b = batcher;
+        final ByteBuffer payload = message.getPayload();
+        ChannelFuture result = b != null ? b.write(payload, payload.remaining()) : channel.writeAndFlush(payload);
+        releasePayloadWhenDone(result, message);
         return new ListenableConstantFutureAdapter<>(result, null);
     }
 
@@ -19,6 +19,8 @@ package org.fiware.kiara.transport.tcp;
 
 import org.fiware.kiara.netty.ByteBufferDecoder;
 import org.fiware.kiara.netty.ByteBufferEncoder;
+import org.fiware.kiara.netty.LengthPrefixedByteBufferEncoder;
+import org.fiware.kiara.netty.SlicingFrameDecoder;
 import org.fiware.kiara.transport.impl.TransportConnectionListener;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -55,17 +57,24 @@ public class TcpServerInitializer extends ChannelInitializer<SocketChannel> {
         }
         p.addLast("logger", new LoggingHandler(LogLevel.DEBUG));
 
-        p.addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, Integer.MAX_VALUE, 0, 4, 0, 4, true));
-        p.addLast(new ByteBufferDecoder());
+        if (transportFactory.isZeroCopy()) {
+            // frames are passed to the handler as slices of the receive
+            // buffer, replies are written without copying the payload
+            p.addLast(new SlicingFrameDecoder(ByteOrder.LITTLE_ENDIAN, Integer.MAX_VALUE, 0, 4, 0, 4, true));
+            p.addLast(new LengthPrefixedByteBufferEncoder());
+        } else {
+            p.addLast(new LengthFieldBasedFrameDecoder(ByteOrder.LITTLE_ENDIAN, Integer.MAX_VALUE, 0, 4, 0, 4, true));
+            p.addLast(new ByteBufferDecoder());
 
-        p.addLast(new LengthFieldPrepender(4, 0, false) {
-            @Override
-            protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
-                ByteBuf outWithLittleEndian = out.order(ByteOrder.LITTLE_ENDIAN);
-                super.encode(ctx, msg, outWithLittleEndian);
-            }
-        });
-        p.addLast(new ByteBufferEncoder());
+            p.addLast(new LengthFieldPrepender(4, 0, false) {
+                @Override
+                protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+                    ByteBuf outWithLittleEndian = out.order(ByteOrder.LITTLE_ENDIAN);
+                    super.encode(ctx, msg, outWithLittleEndian);
+                }
+            });
+            p.addLast(new ByteBufferEncoder());
+        }
         p.addLast(new TcpHandler(transportFactory, path, connectionListener));
     }
 }
@@ -0,0 +1,295 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.util.concurrent.SettableFuture;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.impl.ServantDispatcher;
+import org.fiware.kiara.metrics.MetricsRegistry;
+import org.fiware.kiara.netty.BatchTransport;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.server.Server;
+import org.fiware.kiara.server.Service;
+import org.fiware.kiara.server.ServiceWorkerPool;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CalculatorAdmissionTest {
+
+    private static final int PORT = 9430;
+
+    public static class BlockingCalculatorServant extends CalculatorServant {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public int add(int param1, int param2) {
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return param1 + param2;
+        }
+
+        @Override
+        public int subtract(int param1, int param2) {
+            return param1 - param2;
+        }
+    }
+
+    private final BlockingCalculatorServant servant = new BlockingCalculatorServant();
+    private ExecutorService serverExecutor;
+    private Context serverContext;
+    private Context clientContext;
+    private Server server;
+
+    @Before
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        serverContext = Kiara.createContext();
+        clientContext = Kiara.createContext();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        servant.release.countDown();
+        if (clientContext != null) {
+            clientContext.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (serverContext != null) {
+            serverContext.close();
+        }
+        serverExecutor.shutdown();
+        serverExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void startServer(String uri, int maxInFlight, int maxInFlightPerConnection, boolean reject) throws Exception {
+        final Service service = serverContext.createService();
+        service.register(servant);
+        server = serverContext.createServer();
+        final ServerTransport serverTransport = serverContext.createServerTransport(uri);
+        serverTransport.setDispatchingExecutor(serverExecutor);
+        serverTransport.setMaxInFlightRequests(maxInFlight);
+        serverTransport.setMaxInFlightRequestsPerConnection(maxInFlightPerConnection);
+        serverTransport.setRejectWhenOverloaded(reject);
+        server.addService(service, serverTransport, serverContext.createSerializer("cdr"));
+        server.run();
+    }
+
+    private static Future<Integer> add(CalculatorClient calculator, int a, int b) {
+        final SettableFuture<Integer> result = SettableFuture.create();
+        calculator.add(a, b, new AsyncCallback<Integer>() {
+
+            @Override
+            public void onSuccess(Integer value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                result.setException(caught);
+            }
+        });
+        return result;
+    }
+
+    @Test
+    public void testRejectWhenOverloaded() throws Exception {
+        startServer("inproc://0.0.0.0:" + PORT, 1, 0, true);
+        final SerializerImpl ser = (SerializerImpl) clientContext.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) clientContext.createTransport("inproc://0.0.0.0:" + PORT);
+        final CalculatorClient calculator = new CalculatorProxy(ser, transport);
+
+        final Future<Integer> blocked = add(calculator, 1, 2);
+        servant.entered.await(10, TimeUnit.SECONDS);
+
+        assertEquals(GenericRemoteException.SERVER_OVERLOADED, TestUtils.callAndGetError(ser, transport, "add").getErrorCode());
+
+        servant.release.countDown();
+        assertEquals(3, blocked.get(10, TimeUnit.SECONDS).intValue());
+        // the request is counted down after its reply is sent
+        GenericRemoteException error = TestUtils.callAndGetError(ser, transport, "add");
+        for (int i = 0; i < 100 && error != null; i++) {
+            Thread.sleep(10);
+            error = TestUtils.callAndGetError(ser, transport, "add");
+        }
+        assertNull(error);
+        transport.close();
+    }
+
+    private static int callBatchAndGetReturnCode(SerializerImpl ser, TransportImpl transport, int count) throws Exception {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final TransportMessage trequest = transport.createTransportMessage(null);
+        final Object messageId = ser.getNewMessageId();
+        ser.serializeMessageId(bos, messageId);
+        ser.serializeService(bos, BatchTransport.BATCH_SERVICE_NAME);
+        ser.serializeUI32(bos, "", count);
+        trequest.setPayload(bos.getByteBuffer());
+
+        final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, ser, transport);
+        transport.send(trequest);
+        final ByteBuffer payload = dispatcher.get(10, TimeUnit.SECONDS).getPayload();
+        final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(payload);
+        assertEquals(messageId, ser.deserializeMessageId(bis));
+        return ser.deserializeUI32(bis, "");
+    }
+
+    /**
+     * @return number of calls of a batch of additions answered by the server
+     */
+    private static int callBatchAndCountReplies(SerializerImpl ser, TransportImpl transport, int calls) throws Exception {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final TransportMessage trequest = transport.createTransportMessage(null);
+        final Object messageId = ser.getNewMessageId();
+        ser.serializeMessageId(bos, messageId);
+        ser.serializeService(bos, BatchTransport.BATCH_SERVICE_NAME);
+        ser.serializeUI32(bos, "", calls);
+        for (int i = 0; i < calls; i++) {
+            final BinaryOutputStream call = new BinaryOutputStream();
+            ser.serializeMessageId(call, ser.getNewMessageId());
+            ser.serializeService(call, "Calculator");
+            ser.serializeOperation(call, "add");
+            ser.serializeI32(call, "", i);
+            ser.serializeI32(call, "", i);
+            final ByteBuffer data = call.getByteBuffer();
+            ser.serializeUI32(bos, "", data.remaining());
+            bos.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        }
+        trequest.setPayload(bos.getByteBuffer());
+
+        final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, ser, transport);
+        transport.send(trequest);
+        final ByteBuffer payload = dispatcher.get(10, TimeUnit.SECONDS).getPayload();
+        final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(payload);
+        assertEquals(messageId, ser.deserializeMessageId(bis));
+        assertEquals(calls, ser.deserializeUI32(bis, ""));
+        int answered = 0;
+        for (int i = 0; i < calls; i++) {
+            final int length = ser.deserializeUI32(bis, "");
+            if (length > 0) {
+                answered++;
+            }
+            bis.skipBytes(length);
+        }
+        return answered;
+    }
+
+    @Test
+    public void testBatchCountsEveryCall() throws Exception {
+        servant.release.countDown();
+        startServer("inproc://0.0.0.0:" + (PORT + 4), 2, 0, true);
+        final SerializerImpl ser = (SerializerImpl) clientContext.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) clientContext.createTransport("inproc://0.0.0.0:" + (PORT + 4));
+
+        assertEquals(2, callBatchAndCountReplies(ser, transport, 2));
+        // more calls than the limit allows are rejected as a whole
+        assertEquals(0, callBatchAndCountReplies(ser, transport, 3));
+        assertNull(TestUtils.callAndGetError(ser, transport, "add"));
+        transport.close();
+    }
+
+    @Test
+    public void testInvalidBatchSize() throws Exception {
+        servant.release.countDown();
+        startServer("inproc://0.0.0.0:" + (PORT + 2), 1, 0, true);
+        final SerializerImpl ser = (SerializerImpl) clientContext.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) clientContext.createTransport("inproc://0.0.0.0:" + (PORT + 2));
+
+        assertEquals(GenericRemoteException.INVALID_REQUEST, callBatchAndGetReturnCode(ser, transport, -1));
+        assertEquals(GenericRemoteException.INVALID_REQUEST, callBatchAndGetReturnCode(ser, transport, Integer.MAX_VALUE));
+        // the rejected batches gave back their slot
+        assertNull(TestUtils.callAndGetError(ser, transport, "add"));
+        transport.close();
+    }
+
+    @Test
+    public void testQueuedRequestRejectedByExecutor() throws Exception {
+        // the only worker is still busy when the pool starts the queued
+        // request, so the saturated executor rejects it
+        serverExecutor.shutdown();
+        serverExecutor = new ServiceWorkerPool(
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<Runnable>()), 1, 10);
+        startServer("inproc://0.0.0.0:" + (PORT + 3), 0, 0, false);
+        final SerializerImpl ser = (SerializerImpl) clientContext.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) clientContext.createTransport("inproc://0.0.0.0:" + (PORT + 3));
+        final CalculatorClient calculator = new CalculatorProxy(ser, transport);
+        final MetricsRegistry metrics = server.getMetrics();
+
+        final Future<Integer> blocked = add(calculator, 1, 2);
+        servant.entered.await(10, TimeUnit.SECONDS);
+        final ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            final Future<GenericRemoteException> queued = client.submit(new Callable<GenericRemoteException>() {
+
+                @Override
+                public GenericRemoteException call() throws Exception {
+                    return TestUtils.callAndGetError(ser, transport, "add");
+                }
+            });
+            for (int i = 0; i < 1000 && metrics.getGaugeValue(ServantDispatcher.QUEUED_GAUGE) == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, metrics.getGaugeValue(ServantDispatcher.QUEUED_GAUGE));
+
+            servant.release.countDown();
+            assertEquals(3, blocked.get(10, TimeUnit.SECONDS).intValue());
+            assertEquals(GenericRemoteException.SERVER_OVERLOADED, queued.get(10, TimeUnit.SECONDS).getErrorCode());
+        } finally {
+            client.shutdownNow();
+        }
+
+        // the dropped request is not counted as in flight anymore
+        for (int i = 0; i < 100 && metrics.getGaugeValue(ServantDispatcher.IN_FLIGHT_GAUGE) != 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, metrics.getGaugeValue(ServantDispatcher.IN_FLIGHT_GAUGE));
+        assertEquals(0, metrics.getGaugeValue(ServantDispatcher.QUEUED_GAUGE));
+        assertEquals(1, metrics.getGaugeValue(ServantDispatcher.REJECTED_GAUGE));
+        transport.close();
+    }
+
+    @Test
+    public void testSuspendReading() throws Exception {
+        startServer("tcp://0.0.0.0:" + (PORT + 1), 0, 1, false);
+        final CalculatorClient calculator = clientContext.connect("tcp://0.0.0.0:" + (PORT + 1) + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+
+        final Future<Integer>[] results = new Future[1000];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = add(calculator, i, i);
+        }
+        servant.entered.await(10, TimeUnit.SECONDS);
+        servant.release.countDown();
+
+        // reading resumes as requests complete
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(i + i, results[i].get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+}
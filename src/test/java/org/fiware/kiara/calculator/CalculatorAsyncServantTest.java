@@ -0,0 +1,302 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.dynamic.DynamicValueBuilder;
+import org.fiware.kiara.dynamic.data.DynamicPrimitive;
+import org.fiware.kiara.dynamic.services.AsyncDynamicFunctionHandler;
+import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
+import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
+import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.serialization.Serializer;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.server.AsyncServant;
+import org.fiware.kiara.server.Server;
+import org.fiware.kiara.server.Service;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.Transport;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.typecode.TypeDescriptorBuilder;
+import org.fiware.kiara.typecode.TypeKind;
+import org.fiware.kiara.typecode.data.PrimitiveTypeDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CalculatorAsyncServantTest {
+
+    private static final int PORT = 9450;
+    private static final int CALLS = 500;
+
+    /**
+     * Servant in the form generated for asynchronous operations.
+     */
+    public static abstract class CalculatorAsyncServant implements AsyncServant {
+
+        @Override
+        public String getServiceName() {
+            return "Calculator";
+        }
+
+        public abstract ListenableFuture<Integer> add(int n1, int n2);
+
+        public abstract ListenableFuture<Integer> subtract(int n1, int n2);
+
+        @Override
+        public TransportMessage process(Serializer ser, TransportMessage message, Transport transport, Object messageId, BinaryInputStream bis) {
+            return Futures.getUnchecked(processAsync(ser, message, transport, messageId, bis));
+        }
+
+        @Override
+        public ListenableFuture<TransportMessage> processAsync(Serializer ser, final TransportMessage message, Transport transport, final Object messageId, BinaryInputStream bis) {
+            final SerializerImpl serImpl = (SerializerImpl) ser;
+            final TransportImpl transportImpl = (TransportImpl) transport;
+            try {
+                final String operation = serImpl.deserializeOperation(bis);
+                final int n1 = serImpl.deserializeI32(bis, "");
+                final int n2 = serImpl.deserializeI32(bis, "");
+
+                final ListenableFuture<Integer> ret;
+                if (operation.equals("add")) {
+                    ret = add(n1, n2);
+                } else if (operation.equals("subtract")) {
+                    ret = subtract(n1, n2);
+                } else {
+                    return Futures.immediateFuture(null);
+                }
+                return Futures.transform(ret, new Function<Integer, TransportMessage>() {
+
+                    @Override
+                    public TransportMessage apply(Integer input) {
+                        try {
+                            final BinaryOutputStream retBuffer = new BinaryOutputStream();
+                            final TransportMessage retMsg = transportImpl.createTransportMessage(message);
+                            serImpl.serializeMessageId(retBuffer, messageId);
+                            // Serialize return code (0 = OK)
+                            serImpl.serializeUI32(retBuffer, "", 0);
+                            serImpl.serializeI32(retBuffer, "", input);
+                            retMsg.setPayload(retBuffer.getByteBuffer());
+                            return retMsg;
+                        } catch (IOException ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
+                });
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    /**
+     * Addition that is completed later by the test.
+     */
+    private static final class PendingAdd {
+
+        final int n1;
+        final int n2;
+        final SettableFuture<Integer> result = SettableFuture.create();
+
+        PendingAdd(int n1, int n2) {
+            this.n1 = n1;
+            this.n2 = n2;
+        }
+    }
+
+    private final Queue<PendingAdd> pending = new ConcurrentLinkedQueue<>();
+    private ExecutorService serverExecutor;
+    private Context serverContext;
+    private Context clientContext;
+    private Server server;
+
+    @Before
+    public void setUp() throws Exception {
+        // a single worker serves all calls
+        serverExecutor = Executors.newSingleThreadExecutor();
+        serverContext = Kiara.createContext();
+        clientContext = Kiara.createContext();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (clientContext != null) {
+            clientContext.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (serverContext != null) {
+            serverContext.close();
+        }
+        serverExecutor.shutdown();
+        serverExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private CalculatorClient startServer(Service service, int port) throws Exception {
+        server = serverContext.createServer();
+        final ServerTransport serverTransport = serverContext.createServerTransport("inproc://0.0.0.0:" + port);
+        serverTransport.setDispatchingExecutor(serverExecutor);
+        server.addService(service, serverTransport, serverContext.createSerializer("cdr"));
+        server.run();
+        return clientContext.connect("inproc://0.0.0.0:" + port + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+    }
+
+    private static Future<Integer> add(CalculatorClient calculator, int a, int b) {
+        final SettableFuture<Integer> result = SettableFuture.create();
+        calculator.add(a, b, new AsyncCallback<Integer>() {
+
+            @Override
+            public void onSuccess(Integer value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                result.setException(caught);
+            }
+        });
+        return result;
+    }
+
+    private void callAndCompleteLater(CalculatorClient calculator) throws Exception {
+        final Future<Integer>[] results = new Future[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            results[i] = add(calculator, i, i);
+        }
+        // all calls are waiting at the same time although only one worker exists
+        for (int i = 0; i < 1000 && pending.size() < CALLS; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(CALLS, pending.size());
+
+        for (PendingAdd call; (call = pending.poll()) != null;) {
+            call.result.set(call.n1 + call.n2);
+        }
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals(i + i, results[i].get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    @Test
+    public void testAsyncServant() throws Exception {
+        final Service service = serverContext.createService();
+        service.register(new CalculatorAsyncServant() {
+
+            @Override
+            public ListenableFuture<Integer> add(int n1, int n2) {
+                final PendingAdd call = new PendingAdd(n1, n2);
+                pending.add(call);
+                return call.result;
+            }
+
+            @Override
+            public ListenableFuture<Integer> subtract(int n1, int n2) {
+                return Futures.immediateFuture(n1 - n2);
+            }
+        });
+        final CalculatorClient calculator = startServer(service, PORT);
+
+        assertEquals(1, calculator.subtract(3, 2));
+        callAndCompleteLater(calculator);
+    }
+
+    @Test
+    public void testFailedFuture() throws Exception {
+        final Service service = serverContext.createService();
+        service.register(new CalculatorAsyncServant() {
+
+            @Override
+            public ListenableFuture<Integer> add(int n1, int n2) {
+                return Futures.immediateFailedFuture(new IllegalStateException("add failed"));
+            }
+
+            @Override
+            public ListenableFuture<Integer> subtract(int n1, int n2) {
+                return Futures.immediateFuture(n1 - n2);
+            }
+        });
+        startServer(service, PORT + 2);
+        final SerializerImpl ser = (SerializerImpl) clientContext.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) clientContext.createTransport("inproc://0.0.0.0:" + (PORT + 2));
+
+        GenericRemoteException error = TestUtils.callAndGetError(ser, transport, "add");
+        assertNotNull(error);
+        assertEquals(GenericRemoteException.INTERNAL_ERROR, error.getErrorCode());
+        assertEquals("add failed", error.getMessage());
+
+        // the servant completes unknown operations with a null reply
+        error = TestUtils.callAndGetError(ser, transport, "multiply");
+        assertNotNull(error);
+        assertEquals(GenericRemoteException.METHOD_NOT_FOUND, error.getErrorCode());
+
+        assertNull(TestUtils.callAndGetError(ser, transport, "subtract"));
+        transport.close();
+    }
+
+    @Test
+    public void testAsyncDynamicHandler() throws Exception {
+        final Service service = serverContext.createService();
+        service.loadServiceIDLFromString(IDLText.contents);
+
+        final TypeDescriptorBuilder tdbuilder = Kiara.getTypeDescriptorBuilder();
+        final DynamicValueBuilder builder = Kiara.getDynamicValueBuilder();
+        final PrimitiveTypeDescriptor intTy = tdbuilder.createPrimitiveType(TypeKind.INT_32_TYPE);
+
+        service.register("Calculator.add", new AsyncDynamicFunctionHandler() {
+
+            @Override
+            public ListenableFuture<Void> processAsync(DynamicFunctionRequest request, final DynamicFunctionResponse response) {
+                final int a = (Integer) ((DynamicPrimitive) request.getParameterAt(0)).get();
+                final int b = (Integer) ((DynamicPrimitive) request.getParameterAt(1)).get();
+                final PendingAdd call = new PendingAdd(a, b);
+                pending.add(call);
+                return Futures.transform(call.result, new Function<Integer, Void>() {
+
+                    @Override
+                    public Void apply(Integer input) {
+                        final DynamicPrimitive intVal = (DynamicPrimitive) builder.createData(intTy);
+                        intVal.set(input);
+                        response.setReturnValue(intVal);
+                        return null;
+                    }
+                });
+            }
+        });
+        service.register("Calculator.subtract", new DynamicFunctionHandler() {
+
+            @Override
+            public void process(DynamicFunctionRequest request, DynamicFunctionResponse response) {
+                final int a = (Integer) ((DynamicPrimitive) request.getParameterAt(0)).get();
+                final int b = (Integer) ((DynamicPrimitive) request.getParameterAt(1)).get();
+                final DynamicPrimitive intVal = (DynamicPrimitive) builder.createData(intTy);
+                intVal.set(a - b);
+                response.setReturnValue(intVal);
+            }
+        });
+        final CalculatorClient calculator = startServer(service, PORT + 1);
+
+        assertEquals(1, calculator.subtract(3, 2));
+        callAndCompleteLater(calculator);
+    }
+}
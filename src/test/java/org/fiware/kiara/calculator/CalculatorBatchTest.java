@@ -0,0 +1,182 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import com.google.common.util.concurrent.SettableFuture;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.client.CallBatch;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.netty.BatchTransport;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.test.TypeFactory;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class CalculatorBatchTest {
+
+    private static final AtomicInteger nextPort = new AtomicInteger(9390);
+
+    private final CalculatorTest.CalculatorSetup calculatorSetup;
+    private final String transport;
+    private final int port;
+    private Context context;
+    private CallBatch batch;
+
+    @Parameterized.Parameters
+    public static Collection configs() {
+        final List<Object> configs = new ArrayList<>();
+        configs.addAll(TestUtils.createDefaultTestConfig());
+        configs.addAll(TestUtils.createHttpTestConfig());
+        configs.addAll(TestUtils.createInProcessTestConfig());
+        return configs;
+    }
+
+    public CalculatorBatchTest(String transport, String protocol, TypeFactory<ExecutorService> serverExecutorFactory) {
+        this.transport = transport;
+        this.port = nextPort.getAndIncrement();
+        calculatorSetup = new CalculatorTest.CalculatorSetup(port, transport, protocol, "", serverExecutorFactory);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        assertNotNull(calculatorSetup.start(100));
+        context = Kiara.createContext();
+        final String path = "http".equals(transport) ? "/rpc" : "/";
+        batch = context.connect(transport + "://0.0.0.0:" + port + path + "?serialization=cdr").createBatch();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        calculatorSetup.shutdown();
+    }
+
+    private static Future<Integer> add(CalculatorClient calculator, int a, int b) {
+        final SettableFuture<Integer> result = SettableFuture.create();
+        calculator.add(a, b, new AsyncCallback<Integer>() {
+
+            @Override
+            public void onSuccess(Integer value) {
+                result.set(value);
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                result.setException(caught);
+            }
+        });
+        return result;
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        final CalculatorClient calculator = batch.getServiceProxy(CalculatorClient.class);
+        final Future<Integer>[] result = new Future[50];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = add(calculator, i, i);
+        }
+        assertEquals(result.length, batch.size());
+
+        batch.flush().get();
+        assertEquals(0, batch.size());
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i + i, result[i].get().intValue());
+        }
+    }
+
+    private static ByteBuffer serializeAdd(SerializerImpl ser, Object messageId, String service, int a, int b) throws Exception {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeMessageId(bos, messageId);
+        ser.serializeService(bos, service);
+        ser.serializeOperation(bos, "add");
+        ser.serializeI32(bos, "", a);
+        ser.serializeI32(bos, "", b);
+        return bos.getByteBuffer();
+    }
+
+    @Test
+    public void testErrorEntries() throws Exception {
+        final SerializerImpl ser = (SerializerImpl) context.createSerializer("cdr");
+        final String path = "http".equals(this.transport) ? "/rpc" : "/";
+        final TransportImpl transport = (TransportImpl) context.createTransport(this.transport + "://0.0.0.0:" + port + path);
+        final Object[] callIds = {ser.getNewMessageId(), ser.getNewMessageId()};
+        final ByteBuffer[] calls = {
+            serializeAdd(ser, callIds[0], "Unknown", 1, 2),
+            serializeAdd(ser, callIds[1], "Calculator", 1, 2)
+        };
+
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final Object batchId = ser.getNewMessageId();
+        ser.serializeMessageId(bos, batchId);
+        ser.serializeService(bos, BatchTransport.BATCH_SERVICE_NAME);
+        ser.serializeUI32(bos, "", calls.length);
+        for (ByteBuffer call : calls) {
+            ser.serializeUI32(bos, "", call.remaining());
+            bos.write(call.array(), call.arrayOffset() + call.position(), call.remaining());
+        }
+        final TransportMessage trequest = transport.createTransportMessage(null);
+        trequest.setPayload(bos.getByteBuffer());
+        final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(batchId, ser, transport);
+        transport.send(trequest);
+
+        final ByteBuffer payload = dispatcher.get(10, TimeUnit.SECONDS).getPayload();
+        final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(payload);
+        assertEquals(batchId, ser.deserializeMessageId(bis));
+        assertEquals(calls.length, ser.deserializeUI32(bis, ""));
+        final int[] codes = new int[calls.length];
+        for (int i = 0; i < calls.length; i++) {
+            final int length = ser.deserializeUI32(bis, "");
+            final ByteBuffer data = payload.duplicate();
+            data.position(payload.position() + bis.getPosition());
+            data.limit(data.position() + length);
+            bis.skipBytes(length);
+            final BinaryInputStream entry = BinaryInputStream.fromByteBuffer(data.slice());
+            assertEquals(callIds[i], ser.deserializeMessageId(entry));
+            codes[i] = ser.deserializeUI32(entry, "");
+            if (codes[i] == 0) {
+                assertEquals(3, ser.deserializeI32(entry, ""));
+            }
+        }
+        // a failed call gets the error code it would get outside a batch
+        assertEquals(GenericRemoteException.METHOD_NOT_FOUND, codes[0]);
+        assertEquals(0, codes[1]);
+        transport.close();
+    }
+
+    @Test
+    public void testRepeatedFlush() throws Exception {
+        final CalculatorClient calculator = batch.getServiceProxy(CalculatorClient.class);
+        batch.flush().get();
+        for (int round = 0; round < 3; round++) {
+            final Future<Integer> first = add(calculator, round, 1);
+            final Future<Integer> second = add(calculator, round, 2);
+            batch.flush().get();
+            assertEquals(round + 1, first.get().intValue());
+            assertEquals(round + 2, second.get().intValue());
+        }
+    }
+}
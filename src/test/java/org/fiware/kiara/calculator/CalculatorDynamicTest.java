@@ -13,6 +13,7 @@ import org.fiware.kiara.test.TestUtils;
 import org.fiware.kiara.test.TypeFactory;
 import org.fiware.kiara.transport.ServerTransport;
 
+import java.net.URI;
 import java.util.Collection;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -22,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.fiware.kiara.Kiara;
 import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.client.CallBatch;
 import org.fiware.kiara.dynamic.DynamicValueBuilder;
 import org.fiware.kiara.dynamic.data.DynamicData;
 import org.fiware.kiara.dynamic.data.DynamicPrimitive;
@@ -29,6 +31,7 @@ import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
 import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
 import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
 import org.fiware.kiara.dynamic.services.DynamicProxy;
+import org.fiware.kiara.impl.ServerConfigurationCache;
 import org.fiware.kiara.typecode.TypeDescriptorBuilder;
 import org.fiware.kiara.typecode.TypeKind;
 import org.fiware.kiara.typecode.data.PrimitiveTypeDescriptor;
@@ -39,6 +42,7 @@ import org.junit.Assert;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -157,6 +161,8 @@ public class CalculatorDynamicTest {
 
     @Before
     public void setUp() throws Exception {
+        // every configuration starts a new server on the same port
+        ServerConfigurationCache.getDefault().clear();
         calculator = calculatorSetup.start(100);
         Assert.assertNotNull(calculator);
         executor = Executors.newCachedThreadPool();
@@ -406,4 +412,53 @@ public class CalculatorDynamicTest {
 
     }
 
+
+    @Test
+    public void testConfigurationCache() throws Exception {
+        final URI configUri = new URI("http://127.0.0.1:9090/service");
+        final ServerConfigurationCache.Entry first = ServerConfigurationCache.getDefault().get(configUri);
+        final ServerConfigurationCache.Entry second = ServerConfigurationCache.getDefault().get(configUri);
+        // the unchanged configuration is revalidated, not parsed again
+        assertSame(first.serverConfiguration, second.serverConfiguration);
+        assertSame(first.serviceTypes, second.serviceTypes);
+    }
+
+    @Test
+    public void testDCalcBatch() throws Exception {
+        final Context context = Kiara.createContext();
+        try {
+            final CallBatch batch = context.connect("kiara://127.0.0.1:9090/service").createBatch();
+            final DynamicProxy proxy = batch.getDynamicProxy("Calculator");
+            Assert.assertNotNull(proxy);
+
+            final Future<Integer>[] result = new Future[20];
+            for (int i = 0; i < result.length; i++) {
+                final SettableFuture<Integer> resultValue = SettableFuture.create();
+                final DynamicFunctionRequest drequest = proxy.createFunctionRequest("add");
+                ((DynamicPrimitive) drequest.getParameterAt(0)).set(i);
+                ((DynamicPrimitive) drequest.getParameterAt(1)).set(i);
+                drequest.executeAsync(new AsyncCallback<DynamicFunctionResponse>() {
+
+                    @Override
+                    public void onSuccess(DynamicFunctionResponse response) {
+                        resultValue.set((Integer) ((DynamicPrimitive) response.getReturnValue()).get());
+                    }
+
+                    @Override
+                    public void onFailure(Throwable caught) {
+                        resultValue.setException(caught);
+                    }
+                });
+                result[i] = resultValue;
+            }
+            assertEquals(result.length, batch.size());
+            batch.flush().get();
+
+            for (int i = 0; i < result.length; i++) {
+                assertEquals(i + i, result[i].get().intValue());
+            }
+        } finally {
+            context.close();
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.dynamic.data.DynamicPrimitive;
+import org.fiware.kiara.dynamic.services.DynamicFunctionHandler;
+import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
+import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
+import org.fiware.kiara.impl.ContextImpl;
+import org.fiware.kiara.server.Server;
+import org.fiware.kiara.server.Service;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.test.TypeFactory;
+import org.fiware.kiara.transport.ServerTransport;
+import org.fiware.kiara.transport.inproc.InProcessTransportFactory;
+import org.fiware.kiara.typecode.TypeKind;
+import org.fiware.kiara.typecode.data.PrimitiveTypeDescriptor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class CalculatorInProcessTest {
+
+    private static final int PORT = 9290;
+
+    private final CalculatorTest.CalculatorSetup calculatorSetup;
+    private CalculatorClient calculator = null;
+    private ExecutorService executor = null;
+
+    @Parameterized.Parameters
+    public static Collection configs() {
+        return TestUtils.createInProcessTestConfig();
+    }
+
+    public CalculatorInProcessTest(String transport, String protocol, TypeFactory<ExecutorService> serverExecutorFactory) {
+        calculatorSetup = new CalculatorTest.CalculatorSetup(PORT, transport, protocol, "", serverExecutorFactory);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        calculator = calculatorSetup.start(100);
+        assertNotNull(calculator);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        calculatorSetup.shutdown();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void testCalcSync() throws Exception {
+        assertEquals(21 + 32, calculator.add(21, 32));
+        assertEquals(32 - 21, calculator.subtract(32, 21));
+    }
+
+    @Test
+    public void testCalcSyncParallel() throws Exception {
+        final Future<Integer>[] result = new Future[200];
+
+        for (int i = 0; i < result.length; i++) {
+            final int arg = i;
+            result[arg] = executor.submit(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    return arg % 2 == 0 ? calculator.add(arg, arg) : calculator.subtract(arg, 1);
+                }
+            });
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i % 2 == 0 ? i + i : i - 1, result[i].get().intValue());
+        }
+    }
+
+    @Test
+    public void testCalcAsync() throws Exception {
+        final Future<Integer>[] result = new Future[100];
+
+        for (int i = 0; i < result.length; i++) {
+            final SettableFuture<Integer> resultValue = SettableFuture.create();
+            calculator.add(i, i, new AsyncCallback<Integer>() {
+
+                @Override
+                public void onSuccess(Integer result) {
+                    resultValue.set(result);
+                }
+
+                @Override
+                public void onFailure(Throwable caught) {
+                    resultValue.setException(caught);
+                }
+            });
+            result[i] = resultValue;
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i + i, result[i].get().intValue());
+        }
+    }
+
+    @Test
+    public void testDynamicServantParallel() throws Exception {
+        // the dynamic servant serializes its replies into pooled streams on
+        // the server's workers, which must not be reused while the clients
+        // still read the replies
+        final Context serverContext = Kiara.createContext();
+        final Context clientContext = Kiara.createContext();
+        final ExecutorService serverExecutor = Executors.newFixedThreadPool(4);
+        // calls that never get their reply are not waited for
+        final ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+        final Server server = serverContext.createServer();
+        try {
+            final Service service = serverContext.createService();
+            service.loadServiceIDLFromString(IDLText.contents);
+            final PrimitiveTypeDescriptor intTy = Kiara.getTypeDescriptorBuilder().createPrimitiveType(TypeKind.INT_32_TYPE);
+            service.register("Calculator.add", new DynamicFunctionHandler() {
+
+                @Override
+                public void process(DynamicFunctionRequest request, DynamicFunctionResponse response) {
+                    final int a = (Integer) ((DynamicPrimitive) request.getParameterAt(0)).get();
+                    final int b = (Integer) ((DynamicPrimitive) request.getParameterAt(1)).get();
+                    final DynamicPrimitive intVal = (DynamicPrimitive) Kiara.getDynamicValueBuilder().createData(intTy);
+                    intVal.set(a + b);
+                    response.setReturnValue(intVal);
+                }
+            });
+            final ServerTransport serverTransport = serverContext.createServerTransport("inproc://0.0.0.0:" + (PORT + 2));
+            serverTransport.setDispatchingExecutor(serverExecutor);
+            server.addService(service, serverTransport, serverContext.createSerializer("cdr"));
+            server.run();
+
+            final CalculatorClient client = clientContext.connect("inproc://0.0.0.0:" + (PORT + 2) + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+            final Future<Integer>[] result = new Future[1000];
+            for (int i = 0; i < result.length; i++) {
+                final int arg = i;
+                result[arg] = clientExecutor.submit(new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() throws Exception {
+                        return client.add(arg, arg);
+                    }
+                });
+            }
+
+            for (int i = 0; i < result.length; i++) {
+                assertEquals(i + i, result[i].get(10, TimeUnit.SECONDS).intValue());
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+            clientContext.close();
+            server.close();
+            serverContext.close();
+            serverExecutor.shutdown();
+            serverExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testAddressesNameLocalServer() throws Exception {
+        final InProcessTransportFactory factory = (InProcessTransportFactory) ContextImpl.getTransportFactoryByURI("inproc://localhost");
+        assertTrue(factory.isBound("inproc://localhost:" + PORT));
+        assertTrue(factory.isBound("inproc://127.0.0.1:" + PORT + "/"));
+        assertFalse(factory.isBound("inproc://localhost:" + (PORT + 1)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testConnectionRefused() throws Exception {
+        final Context context = Kiara.createContext();
+        try {
+            context.connect("inproc://0.0.0.0:" + (PORT + 1) + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+        } finally {
+            context.close();
+        }
+    }
+}
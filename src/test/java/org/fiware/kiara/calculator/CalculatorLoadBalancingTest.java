@@ -0,0 +1,182 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.dynamic.data.DynamicPrimitive;
+import org.fiware.kiara.dynamic.services.DynamicFunctionRequest;
+import org.fiware.kiara.dynamic.services.DynamicFunctionResponse;
+import org.fiware.kiara.dynamic.services.DynamicProxy;
+import org.fiware.kiara.impl.ContextImpl;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.test.TypeFactory;
+import org.fiware.kiara.transport.TransportFactory;
+import org.fiware.kiara.transport.impl.LoadBalancingTransport;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CalculatorLoadBalancingTest {
+
+    private static final int PORT = 9300;
+
+    private CalculatorTest.CalculatorSetup first;
+    private CalculatorTest.CalculatorSetup second;
+    private Context context;
+    private LoadBalancingTransport transport;
+    private CalculatorClient calculator;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        final TypeFactory<ExecutorService> executorFactory = new TypeFactory<ExecutorService>() {
+            @Override
+            public ExecutorService create() {
+                return Executors.newCachedThreadPool();
+            }
+        };
+        first = new CalculatorTest.CalculatorSetup(PORT, "inproc", "cdr", "", executorFactory);
+        second = new CalculatorTest.CalculatorSetup(PORT + 1, "inproc", "cdr", "", executorFactory);
+        first.start(100);
+        second.start(100);
+
+        final TransportFactory factory = ContextImpl.getTransportFactoryByURI("inproc://localhost");
+        transport = new LoadBalancingTransport(Arrays.asList(
+                new LoadBalancingTransport.Endpoint(factory, "inproc://localhost:" + PORT),
+                new LoadBalancingTransport.Endpoint(factory, "inproc://localhost:" + (PORT + 1))), 2);
+        context = Kiara.createContext();
+        calculator = new CalculatorProxy(context.createSerializer("cdr"), transport);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+        if (transport != null) {
+            transport.close();
+        }
+        if (context != null) {
+            context.close();
+        }
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @Test
+    public void testCalcParallel() throws Exception {
+        final Future<Integer>[] result = new Future[200];
+        for (int i = 0; i < result.length; i++) {
+            final int arg = i;
+            result[arg] = executor.submit(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    return calculator.add(arg, arg);
+                }
+            });
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i + i, result[i].get().intValue());
+        }
+        // calls are counted down after their result is delivered
+        for (int i = 0; i < 100 && !Arrays.equals(new int[4], transport.getOutstandingCalls()); i++) {
+            Thread.sleep(10);
+        }
+        assertArrayEquals(new int[4], transport.getOutstandingCalls());
+    }
+
+    @Test
+    public void testEjectsClosedEndpoint() throws Exception {
+        assertEquals(3, calculator.add(1, 2));
+        second.shutdown();
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 1, calculator.add(i, 1));
+        }
+    }
+
+    @Test
+    public void testConnectWithPool() throws Exception {
+        final Context pooled = Kiara.createContext();
+        try {
+            final CalculatorClient client = pooled.connect("inproc://0.0.0.0:" + PORT + "/?serialization=cdr&connections=3").getServiceProxy(CalculatorClient.class);
+            assertEquals(5, client.add(2, 3));
+            assertEquals(1, client.subtract(3, 2));
+        } finally {
+            pooled.close();
+        }
+    }
+
+    @Test
+    public void testRequestCreatedOnOtherThread() throws Exception {
+        final SerializerImpl ser = (SerializerImpl) context.createSerializer("cdr");
+        for (int i = 0; i < 20; i++) {
+            // the member is chosen when the message is created, not when it is sent
+            final TransportMessage request = executor.submit(new Callable<TransportMessage>() {
+
+                @Override
+                public TransportMessage call() throws Exception {
+                    return transport.createTransportMessage(null);
+                }
+            }).get();
+            final Object messageId = ser.getNewMessageId();
+            final BinaryOutputStream bos = new BinaryOutputStream();
+            ser.serializeMessageId(bos, messageId);
+            ser.serializeService(bos, "Calculator");
+            ser.serializeOperation(bos, "add");
+            ser.serializeI32(bos, "", i);
+            ser.serializeI32(bos, "", 1);
+            request.setPayload(bos.getByteBuffer());
+
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, ser, transport, request);
+            transport.send(request);
+            final TransportMessage response = dispatcher.get(5, TimeUnit.SECONDS);
+            assertNotNull(response);
+            final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(response.getPayload());
+            assertEquals(messageId, ser.deserializeMessageId(bis));
+            assertEquals(0, ser.deserializeUI32(bis, ""));
+            assertEquals(i + 1, ser.deserializeI32(bis, ""));
+        }
+        for (int i = 0; i < 100 && !Arrays.equals(new int[4], transport.getOutstandingCalls()); i++) {
+            Thread.sleep(10);
+        }
+        assertArrayEquals(new int[4], transport.getOutstandingCalls());
+    }
+
+    @Test
+    public void testDynamicProxyWithPool() throws Exception {
+        final CalculatorDynamicTest.CalculatorSetup setup = new CalculatorDynamicTest.CalculatorSetup(PORT + 2, "tcp", "cdr", "", null);
+        setup.start(100);
+        final Context pooled = Kiara.createContext();
+        try {
+            final DynamicProxy proxy = pooled.connect("kiara://127.0.0.1:" + (PORT + 2) + "/service?connections=3").getDynamicProxy("Calculator");
+            assertNotNull(proxy);
+            for (int i = 0; i < 10; i++) {
+                final DynamicFunctionRequest drequest = proxy.createFunctionRequest("add");
+                ((DynamicPrimitive) drequest.getParameterAt(0)).set(i);
+                ((DynamicPrimitive) drequest.getParameterAt(1)).set(1);
+                final DynamicFunctionResponse dresponse = drequest.execute();
+                assertEquals(i + 1, ((DynamicPrimitive) dresponse.getReturnValue()).get());
+            }
+        } finally {
+            pooled.close();
+            setup.shutdown();
+        }
+    }
+}
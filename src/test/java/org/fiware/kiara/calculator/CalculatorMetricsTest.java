@@ -0,0 +1,134 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.impl.ServantDispatcher;
+import org.fiware.kiara.metrics.MetricsRegistry;
+import org.fiware.kiara.metrics.OperationMetrics;
+import org.fiware.kiara.server.Server;
+import org.fiware.kiara.server.Service;
+import org.fiware.kiara.transport.ServerTransport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CalculatorMetricsTest {
+
+    private static final int PORT = 9440;
+
+    private ExecutorService serverExecutor;
+    private Context serverContext;
+    private Context clientContext;
+    private Server server;
+    private CalculatorClient calculator;
+
+    @Before
+    public void setUp() throws Exception {
+        serverExecutor = Executors.newCachedThreadPool();
+        serverContext = Kiara.createContext();
+        final Service service = serverContext.createService();
+        service.register(new CalculatorTest.CalculatorServantImpl());
+        server = serverContext.createServer();
+        final ServerTransport serverTransport = serverContext.createServerTransport("inproc://0.0.0.0:" + PORT);
+        serverTransport.setDispatchingExecutor(serverExecutor);
+        server.addService(service, serverTransport, serverContext.createSerializer("cdr"));
+        server.run();
+
+        clientContext = Kiara.createContext();
+        calculator = clientContext.connect("inproc://0.0.0.0:" + PORT + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (clientContext != null) {
+            clientContext.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (serverContext != null) {
+            serverContext.close();
+        }
+        serverExecutor.shutdown();
+        serverExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static void awaitLatencyCount(OperationMetrics metrics, long count) throws InterruptedException {
+        // the reply is recorded after it is handed to the transport
+        for (int i = 0; i < 100 && metrics.getLatency().getCount() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testOperationMetrics() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, calculator.add(i, 1));
+        }
+        assertEquals(1, calculator.subtract(3, 2));
+
+        final MetricsRegistry metrics = server.getMetrics();
+        final OperationMetrics add = metrics.getOperationMetrics("Calculator", "add");
+        final OperationMetrics subtract = metrics.getOperationMetrics("Calculator", "subtract");
+        awaitLatencyCount(add, 10);
+        awaitLatencyCount(subtract, 1);
+
+        assertEquals(10, add.getRequests());
+        assertEquals(1, subtract.getRequests());
+        assertEquals(11, metrics.getRequests());
+        assertEquals(0, add.getFailed());
+        assertTrue(add.getBytesReceived() > 0);
+        assertTrue(add.getBytesSent() > 0);
+        assertEquals(10, add.getLatency().getCount());
+        assertEquals(10, add.getQueueTime().getCount());
+        assertEquals(10, add.getProcessTime().getCount());
+        assertTrue(add.getLatency().getMax() >= add.getProcessTime().getMax());
+        // generated servants do not separate the handler from serialization
+        assertEquals(0, add.getHandlerTime().getCount());
+        assertEquals(2, metrics.getOperations().size());
+
+        for (int i = 0; i < 100 && metrics.getGaugeValue(ServantDispatcher.IN_FLIGHT_GAUGE) != 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, metrics.getGaugeValue(ServantDispatcher.IN_FLIGHT_GAUGE));
+        assertEquals(0, metrics.getGaugeValue(ServantDispatcher.QUEUED_GAUGE));
+        assertEquals(0, metrics.getGaugeValue(ServantDispatcher.REJECTED_GAUGE));
+
+        metrics.reset();
+        assertEquals(0, add.getRequests());
+        assertEquals(0, add.getLatency().getCount());
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        assertEquals(5, calculator.add(2, 3));
+        final MetricsRegistry metrics = server.getMetrics();
+        awaitLatencyCount(metrics.getOperationMetrics("Calculator", "add"), 1);
+
+        final ObjectName name = metrics.registerMBean();
+        final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, mbeanServer.getAttribute(name, "Requests"));
+            final CompositeData[] operations = (CompositeData[]) mbeanServer.getAttribute(name, "Operations");
+            assertEquals(1, operations.length);
+            assertEquals("add", operations[0].get("operationName"));
+            assertEquals(1L, operations[0].get("requests"));
+            assertNotNull(mbeanServer.getAttribute(name, "Gauges"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(mbeanServer.isRegistered(name));
+    }
+}
@@ -0,0 +1,181 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.impl.ContextImpl;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.test.TypeFactory;
+import org.fiware.kiara.transport.http.HttpTransportFactory;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class CalculatorPipeliningTest {
+
+    // client connections outlive their context, a pooled connection to the
+    // server of a previous test must not be picked up by the next one
+    private static final AtomicInteger nextPort = new AtomicInteger(9190);
+
+    private static HttpTransportFactory transportFactory;
+
+    private final CalculatorTest.CalculatorSetup calculatorSetup;
+    private final int port;
+    private final int maxConnections;
+    private CalculatorClient calculator = null;
+    private ExecutorService executor = null;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        transportFactory = (HttpTransportFactory) ContextImpl.getTransportFactoryByURI("http://localhost");
+        transportFactory.setPipelining(true);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        transportFactory.setPipelining(Boolean.getBoolean(HttpTransportFactory.PIPELINING_PROPERTY));
+        transportFactory.setMaxConnectionsPerEndpoint(0);
+    }
+
+    @Parameterized.Parameters
+    public static Collection configs() {
+        return TestUtils.createHttpTestConfig();
+    }
+
+    public CalculatorPipeliningTest(String transport, String protocol, TypeFactory<ExecutorService> serverExecutorFactory) {
+        port = nextPort.getAndIncrement();
+        calculatorSetup = new CalculatorTest.CalculatorSetup(port, transport, protocol, "", serverExecutorFactory);
+        // alternate between a private connection and a pool of two
+        maxConnections = serverExecutorFactory == null ? 0 : 2;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        transportFactory.setMaxConnectionsPerEndpoint(maxConnections);
+        calculator = calculatorSetup.start(100);
+        assertNotNull(calculator);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        calculatorSetup.shutdown();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void testCalcSyncParallel() throws Exception {
+        final Future<Integer>[] result = new Future[200];
+
+        for (int i = 0; i < result.length; i++) {
+            final int arg = i;
+            result[arg] = executor.submit(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    return arg % 2 == 0 ? calculator.add(arg, arg) : calculator.subtract(arg, 1);
+                }
+            });
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i % 2 == 0 ? i + i : i - 1, result[i].get().intValue());
+        }
+    }
+
+    @Test
+    public void testUnansweredRequests() throws Exception {
+        final Context context = Kiara.createContext();
+        final SerializerImpl ser = (SerializerImpl) context.createSerializer("cdr");
+        final TransportImpl transport = (TransportImpl) context.createTransport("http://0.0.0.0:" + port + "/rpc");
+
+        // requests the server can not process must not hold back the
+        // responses of the requests pipelined after them
+        final TransportMessageDispatcher unknown = TestUtils.sendCall(ser, transport, "Unknown", "add");
+        final TransportMessage undecodable = transport.createTransportMessage(null);
+        undecodable.setPayload(ByteBuffer.wrap(new byte[1]));
+        transport.send(undecodable);
+        final TransportMessageDispatcher add = TestUtils.sendCall(ser, transport, "Calculator", "add");
+
+        assertNull(TestUtils.getError(ser, add));
+        assertEquals(GenericRemoteException.METHOD_NOT_FOUND, TestUtils.getError(ser, unknown).getErrorCode());
+        transport.close();
+        context.close();
+    }
+
+    @Test
+    public void testFailedConnect() throws Exception {
+        transportFactory.setMaxConnectionsPerEndpoint(1);
+        final int unusedPort = nextPort.getAndIncrement();
+        final String uri = "http://0.0.0.0:" + unusedPort + "/rpc";
+        try {
+            transportFactory.createTransport(uri, null).get(10, TimeUnit.SECONDS);
+            fail("connected without a server");
+        } catch (ExecutionException ex) {
+        }
+
+        // the failed connection is not handed out again
+        final CalculatorTest.CalculatorSetup setup = new CalculatorTest.CalculatorSetup(unusedPort, "http", "cdr", "", null);
+        assertNotNull(setup.start(100));
+        try {
+            final TransportImpl transport = (TransportImpl) transportFactory.createTransport(uri, null).get(10, TimeUnit.SECONDS);
+            assertTrue(transport.isOpen());
+            transport.close();
+        } finally {
+            setup.shutdown();
+        }
+    }
+
+    @Test
+    public void testCalcManyClients() throws Exception {
+        final Context context = Kiara.createContext();
+        final CalculatorClient[] clients = new CalculatorClient[4];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = context.connect("http://0.0.0.0:" + port + "/rpc?serialization=cdr").getServiceProxy(CalculatorClient.class);
+        }
+
+        final Future<Integer>[] result = new Future[100];
+        for (int i = 0; i < result.length; i++) {
+            final int arg = i;
+            result[arg] = executor.submit(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    return clients[arg % clients.length].add(arg, 1);
+                }
+            });
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i + 1, result[i].get().intValue());
+        }
+        context.close();
+    }
+}
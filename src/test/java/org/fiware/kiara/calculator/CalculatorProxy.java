@@ -72,7 +72,7 @@ class CalculatorProxy implements CalculatorClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -119,7 +119,7 @@ class CalculatorProxy implements CalculatorClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -167,7 +167,7 @@ class CalculatorProxy implements CalculatorClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
@@ -208,7 +208,7 @@ class CalculatorProxy implements CalculatorClient {
                 throw new RuntimeException(ex);
             }
             trequest.setPayload(bos.getByteBuffer());
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
@@ -0,0 +1,133 @@
+package org.fiware.kiara.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.client.AsyncCallback;
+import org.fiware.kiara.impl.ContextImpl;
+import org.fiware.kiara.test.TestUtils;
+import org.fiware.kiara.test.TypeFactory;
+import org.fiware.kiara.transport.shm.SharedMemoryTransportFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class CalculatorSharedMemoryTest {
+
+    private static final int PORT = 9390;
+
+    private final CalculatorTest.CalculatorSetup calculatorSetup;
+    private CalculatorClient calculator = null;
+    private ExecutorService executor = null;
+
+    @Parameterized.Parameters
+    public static Collection configs() {
+        return TestUtils.createSharedMemoryTestConfig();
+    }
+
+    public CalculatorSharedMemoryTest(String transport, String protocol, TypeFactory<ExecutorService> serverExecutorFactory) {
+        calculatorSetup = new CalculatorTest.CalculatorSetup(PORT, transport, protocol, "", serverExecutorFactory);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        calculator = calculatorSetup.start(100);
+        assertNotNull(calculator);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        calculatorSetup.shutdown();
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void testCalcSync() throws Exception {
+        assertEquals(21 + 32, calculator.add(21, 32));
+        assertEquals(32 - 21, calculator.subtract(32, 21));
+    }
+
+    @Test
+    public void testCalcSyncParallel() throws Exception {
+        final Future<Integer>[] result = new Future[200];
+
+        for (int i = 0; i < result.length; i++) {
+            final int arg = i;
+            result[arg] = executor.submit(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    return arg % 2 == 0 ? calculator.add(arg, arg) : calculator.subtract(arg, 1);
+                }
+            });
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i % 2 == 0 ? i + i : i - 1, result[i].get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    @Test
+    public void testCalcAsync() throws Exception {
+        final Future<Integer>[] result = new Future[100];
+
+        for (int i = 0; i < result.length; i++) {
+            final SettableFuture<Integer> resultValue = SettableFuture.create();
+            calculator.add(i, i, new AsyncCallback<Integer>() {
+
+                @Override
+                public void onSuccess(Integer result) {
+                    resultValue.set(result);
+                }
+
+                @Override
+                public void onFailure(Throwable caught) {
+                    resultValue.setException(caught);
+                }
+            });
+            result[i] = resultValue;
+        }
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(i + i, result[i].get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    @Test
+    public void testAddressesNameLocalServer() throws Exception {
+        final SharedMemoryTransportFactory factory = (SharedMemoryTransportFactory) ContextImpl.getTransportFactoryByURI("shm://localhost");
+        assertTrue(factory.isBound("shm://localhost:" + PORT));
+        assertTrue(factory.isBound("shm://127.0.0.1:" + PORT + "/"));
+        assertFalse(factory.isBound("shm://localhost:" + (PORT + 1)));
+        assertFalse(factory.isBound("shm://192.0.2.1:" + PORT));
+    }
+
+    @Test(expected = IOException.class)
+    public void testConnectionRefused() throws Exception {
+        final Context context = Kiara.createContext();
+        try {
+            context.connect("shm://0.0.0.0:" + (PORT + 1) + "/?serialization=cdr").getServiceProxy(CalculatorClient.class);
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -74,7 +74,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 			
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -121,7 +121,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 			
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -165,7 +165,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -212,7 +212,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -257,7 +257,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -301,7 +301,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 	        m_transport.send(trequest);
 	        
 	        try {
@@ -349,7 +349,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
 			Futures.addCallback(dispatcher, new FutureCallback<TransportMessage> () {
 
@@ -390,7 +390,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 			
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 			
 			Futures.addCallback(dispatcher, new FutureCallback<TransportMessage> () {
 
@@ -431,7 +431,7 @@ class TestServiceProxy implements TestServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 			
-			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+			final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
 			Futures.addCallback(dispatcher, new FutureCallback<TransportMessage> () {
 
@@ -72,7 +72,7 @@ class ExceptionsProxy implements ExceptionsClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -130,7 +130,7 @@ class ExceptionsProxy implements ExceptionsClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -199,7 +199,7 @@ class ExceptionsProxy implements ExceptionsClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
@@ -240,7 +240,7 @@ class ExceptionsProxy implements ExceptionsClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
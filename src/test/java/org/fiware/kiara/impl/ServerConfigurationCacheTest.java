@@ -0,0 +1,129 @@
+package org.fiware.kiara.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.config.ServerConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServerConfigurationCacheTest {
+
+    private static final String IDL = "service Calculator {\n  i32 add (i32 n1, i32 n2);\n};\n";
+
+    /**
+     * Resource answering conditional requests with 304 while its text is
+     * unchanged.
+     */
+    private static class Resource implements HttpHandler {
+
+        private volatile String text;
+        private volatile int version;
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger loads = new AtomicInteger();
+
+        Resource(String text) {
+            this.text = text;
+        }
+
+        void setText(String text) {
+            this.text = text;
+            version++;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            final String etag = "\"" + version + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                loads.incrementAndGet();
+                final byte[] data = text.getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, data.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(data);
+                }
+            }
+            exchange.close();
+        }
+    }
+
+    private HttpServer server;
+    private Resource config;
+    private Resource idl;
+    private URI configUri;
+
+    @Before
+    public void setUp() throws Exception {
+        final ServerConfiguration serverConfig = new ServerConfiguration();
+        serverConfig.idlURL = "/calculator.idl";
+        config = new Resource(serverConfig.toJson());
+        idl = new Resource(IDL);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/service", config);
+        server.createContext("/calculator.idl", idl);
+        server.start();
+        configUri = new URI("http://127.0.0.1:" + server.getAddress().getPort() + "/service");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+    }
+
+    @Test
+    public void testFreshEntryIsNotRevalidated() throws Exception {
+        final ServerConfigurationCache cache = new ServerConfigurationCache(60000);
+        final ServerConfigurationCache.Entry first = cache.get(configUri);
+        assertSame(first, cache.get(configUri));
+        assertEquals(1, config.requests.get());
+        assertEquals(1, idl.requests.get());
+    }
+
+    @Test
+    public void testExpiredEntryIsRevalidated() throws Exception {
+        final ServerConfigurationCache cache = new ServerConfigurationCache(100);
+        final ServerConfigurationCache.Entry first = cache.get(configUri);
+        Thread.sleep(200);
+
+        final ServerConfigurationCache.Entry second = cache.get(configUri);
+        assertEquals(2, config.requests.get());
+        assertEquals(2, idl.requests.get());
+        // both answered with 304, nothing is loaded or parsed again
+        assertEquals(1, config.loads.get());
+        assertEquals(1, idl.loads.get());
+        assertSame(first.serverConfiguration, second.serverConfiguration);
+        assertSame(first.serviceTypes, second.serviceTypes);
+    }
+
+    @Test
+    public void testChangedIdlOfUnchangedConfiguration() throws Exception {
+        final ServerConfigurationCache cache = new ServerConfigurationCache(0);
+        final ServerConfigurationCache.Entry first = cache.get(configUri);
+        assertEquals(1, first.serviceTypes.get(0).getFunctions().size());
+
+        idl.setText(IDL.replace("};", "  i32 subtract (i32 n1, i32 n2);\n};"));
+        final ServerConfigurationCache.Entry second = cache.get(configUri);
+        assertEquals(1, config.loads.get());
+        assertEquals(2, idl.loads.get());
+        assertSame(first.serverConfiguration, second.serverConfiguration);
+        assertNotSame(first.serviceTypes, second.serviceTypes);
+        assertEquals(2, second.serviceTypes.get(0).getFunctions().size());
+
+        final ServerConfigurationCache.Entry third = cache.get(configUri);
+        assertEquals(2, idl.loads.get());
+        assertSame(second.serviceTypes, third.serviceTypes);
+    }
+}
@@ -0,0 +1,79 @@
+package org.fiware.kiara.ps.rtps.messages;
+
+import static org.junit.Assert.*;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import org.fiware.kiara.ps.rtps.messages.common.types.RTPSEndian;
+import org.fiware.kiara.ps.rtps.messages.elements.GUIDPrefix;
+import org.junit.Test;
+
+public class RTPSMessageTest {
+
+    private static byte[] build(RTPSMessage msg, GUIDPrefix prefix, long time) {
+        RTPSMessageBuilder.addHeader(msg, prefix);
+        RTPSMessageBuilder.addSubmessageInfoTS(msg, new Timestamp(time), false);
+        msg.checkPadding(false);
+        msg.serialize();
+        return msg.getBuffer();
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        final GUIDPrefix prefix = new GUIDPrefix();
+        for (int i = 0; i < 12; ++i) {
+            prefix.setValue(i, (byte) (i + 1));
+        }
+        final byte[] expected = build(RTPSMessageBuilder.createMessage(RTPSEndian.LITTLE_ENDIAN), prefix, 1000);
+
+        final RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.LITTLE_ENDIAN);
+        final byte[] first = build(msg, new GUIDPrefix(), 2000);
+        assertEquals(expected.length, first.length);
+
+        msg.reset();
+        assertEquals(0, msg.getBinaryOutputStream().getPosition());
+        final byte[] second = build(msg, prefix, 1000);
+        assertArrayEquals(expected, second);
+        // buffers handed out before the reset are not overwritten
+        assertNotSame(first, second);
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void testWrapBuffer() throws Exception {
+        final byte[] data = build(RTPSMessageBuilder.createMessage(RTPSEndian.LITTLE_ENDIAN), new GUIDPrefix(), 1000);
+        final byte[] pooled = new byte[1024];
+        Arrays.fill(pooled, (byte) 0x55);
+        System.arraycopy(data, 0, pooled, 0, data.length);
+
+        final RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.BIG_ENDIAN);
+        msg.wrapBuffer(pooled, data.length);
+        assertSame(pooled, msg.getBuffer());
+        assertEquals(data.length, msg.getSize());
+        assertEquals(data.length, msg.getBinaryInputStream().available());
+
+        final RTPSMessageHeader header = new RTPSMessageHeader();
+        header.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
+        assertEquals(RTPSMessage.RTPS_MESSAGE_HEADER_SIZE, msg.getBinaryInputStream().getPosition());
+    }
+
+    @Test
+    public void testReuseSubmessageHeader() throws Exception {
+        // INFO_TS with the endianness and invalidate flags, then INFO_TS with the endianness flag only
+        final byte[] data = new byte[] { 0x09, 0x03, 0x00, 0x00, 0x09, 0x01, 0x08, 0x00 };
+
+        final RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.LITTLE_ENDIAN);
+        msg.wrapBuffer(data, data.length);
+
+        final RTPSSubmessageHeader header = new RTPSSubmessageHeader();
+        header.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
+        assertTrue(header.getFlags().getFlagValue(0));
+        assertTrue(header.getFlags().getFlagValue(1));
+        assertEquals(0, header.getOctectsToNextHeader());
+
+        header.deserialize(msg.getSerializer(), msg.getBinaryInputStream(), "");
+        assertTrue(header.getFlags().getFlagValue(0));
+        assertFalse(header.getFlags().getFlagValue(1));
+        assertEquals(8, header.getOctectsToNextHeader());
+    }
+}
@@ -0,0 +1,90 @@
+package org.fiware.kiara.ps.rtps.resources;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.ps.rtps.messages.elements.EntityId;
+import org.fiware.kiara.ps.rtps.messages.elements.GUID;
+import org.fiware.kiara.ps.rtps.messages.elements.GUIDPrefix;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessingPoolTest {
+
+    private static final int WRITERS = 16;
+    private static final int MESSAGES = 1000;
+
+    private ProcessingPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ProcessingPool("test-processing", 4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static GUID createGUID(int participant, int entity) {
+        GUIDPrefix prefix = new GUIDPrefix();
+        prefix.setValue(0, (byte) 1);
+        prefix.setValue(11, (byte) participant);
+        GUID guid = new GUID();
+        guid.setGUIDPrefix(prefix);
+        guid.setEntityId(new EntityId(entity << 8 | 0x03));
+        return guid;
+    }
+
+    @Test
+    public void testLanes() {
+        Set<Integer> lanes = new HashSet<Integer>();
+        for (int i = 0; i < WRITERS; ++i) {
+            int lane = pool.getLane(createGUID(i / 4, i % 4));
+            assertTrue(lane >= 0 && lane < pool.getSize());
+            assertEquals(lane, pool.getLane(createGUID(i / 4, i % 4)));
+            lanes.add(lane);
+        }
+        assertTrue(lanes.size() > 1);
+    }
+
+    @Test
+    public void testPerWriterOrder() throws Exception {
+        final CountDownLatch done = new CountDownLatch(WRITERS * MESSAGES);
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        for (int w = 0; w < WRITERS; ++w) {
+            received.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+
+        for (int i = 0; i < MESSAGES; ++i) {
+            for (int w = 0; w < WRITERS; ++w) {
+                final List<Integer> list = received.get(w);
+                final int seq = i;
+                pool.execute(createGUID(w / 4, w % 4), new Runnable() {
+
+                    @Override
+                    public void run() {
+                        list.add(seq);
+                        done.countDown();
+                    }
+                });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> list : received) {
+            assertEquals(MESSAGES, list.size());
+            for (int i = 0; i < MESSAGES; ++i) {
+                assertEquals(i, list.get(i).intValue());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.fiware.kiara.ps.rtps.resources;
+
+import static org.junit.Assert.*;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import org.fiware.kiara.ps.rtps.common.Locator;
+import org.fiware.kiara.ps.rtps.common.LocatorKind;
+import org.fiware.kiara.ps.rtps.messages.RTPSMessage;
+import org.fiware.kiara.ps.rtps.messages.RTPSMessageBuilder;
+import org.fiware.kiara.ps.rtps.messages.common.types.RTPSEndian;
+import org.fiware.kiara.ps.rtps.messages.elements.GUIDPrefix;
+import org.fiware.kiara.ps.rtps.utils.IPFinder;
+import org.fiware.kiara.ps.rtps.utils.IPTYPE;
+import org.fiware.kiara.ps.rtps.utils.InfoIP;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SendResourceTest {
+
+    private DatagramSocket receiver;
+    private SendResource sendResource;
+    private Locator destination;
+
+    @Before
+    public void setUp() throws Exception {
+        String address = null;
+        for (InfoIP ip : IPFinder.getIPs()) {
+            if (ip.type == IPTYPE.IPv4) {
+                address = ip.name;
+                break;
+            }
+        }
+        // localhost destinations are not sent to
+        Assume.assumeNotNull(address);
+
+        receiver = new DatagramSocket(new InetSocketAddress(InetAddress.getByName(address), 0));
+        receiver.setSoTimeout(5000);
+
+        destination = new Locator(receiver.getLocalPort());
+        destination.setKind(LocatorKind.LOCATOR_KIND_UDPv4);
+        destination.setIPv4Address(address);
+
+        sendResource = new SendResource();
+        assertTrue(sendResource.initSend(null, new Locator(9460), 65536, true, false));
+    }
+
+    @After
+    public void tearDown() {
+        if (receiver != null) {
+            receiver.close();
+        }
+    }
+
+    private static RTPSMessage createMessage(byte id) {
+        final GUIDPrefix prefix = new GUIDPrefix();
+        prefix.setValue(0, id);
+        final RTPSMessage msg = RTPSMessageBuilder.createMessage(RTPSEndian.LITTLE_ENDIAN);
+        RTPSMessageBuilder.addHeader(msg, prefix);
+        RTPSMessageBuilder.addSubmessageInfoTSNow(msg, false);
+        msg.checkPadding(false);
+        msg.serialize();
+        return msg;
+    }
+
+    private byte[] receive() throws Exception {
+        final DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+        receiver.receive(packet);
+        return Arrays.copyOf(packet.getData(), packet.getLength());
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        final RTPSMessage[] messages = new RTPSMessage[10];
+        for (int i = 0; i < messages.length; ++i) {
+            messages[i] = createMessage((byte) i);
+            sendResource.sendAsync(messages[i], destination);
+        }
+        sendResource.flush();
+
+        for (RTPSMessage msg : messages) {
+            assertArrayEquals(msg.getBuffer(), receive());
+        }
+        for (int i = 0; i < 100 && sendResource.getPendingSends() != 0; ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, sendResource.getPendingSends());
+    }
+
+    @Test
+    public void testSendSync() throws Exception {
+        final RTPSMessage msg = createMessage((byte) 1);
+        sendResource.sendSync(msg, destination);
+        assertArrayEquals(msg.getBuffer(), receive());
+
+        // the next message is dropped
+        sendResource.looseNextChange();
+        sendResource.sendSync(createMessage((byte) 2), destination);
+        final RTPSMessage next = createMessage((byte) 3);
+        sendResource.sendSync(next, destination);
+        assertArrayEquals(next.getBuffer(), receive());
+    }
+}
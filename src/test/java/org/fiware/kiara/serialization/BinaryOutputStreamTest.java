@@ -90,6 +90,30 @@ public class BinaryOutputStreamTest {
         org.junit.Assert.assertEquals(0xBEBAFECAEFBEADDEL, Double.doubleToLongBits(in.readDouble()));
     }
 
+    @Test
+    public void testWriteZeros() throws IOException {
+        BinaryOutputStream out = new BinaryOutputStream(4);
+        out.writeIntLE(-1);
+        out.setPosition(1);
+        out.writeZeros(2);
+        out.setPosition(4);
+        out.writeZeros(3);
+        out.writeByte(7);
+
+        assertEquals(new byte[]{-1, 0, 0, -1, 0, 0, 0, 7}, out.toByteArray());
+    }
+
+    @Test
+    public void testWriteGrowsBuffer() throws IOException {
+        BinaryOutputStream out = new BinaryOutputStream(1);
+        out.writeByte(1);
+        out.writeShort(0x0203);
+        out.writeInt(0x04050607);
+        out.writeLong(0x08090A0B0C0D0E0FL);
+
+        assertEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15}, out.toByteArray());
+    }
+
     private static void assertEquals(byte[] expected, byte[] actual) {
         org.junit.Assert.assertEquals(Bytes.asList(expected), Bytes.asList(actual));
     }
@@ -0,0 +1,116 @@
+package org.fiware.kiara.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.junit.Test;
+
+public class BinaryStreamPoolTest {
+
+    @Test
+    public void testOutputStreamIsReused() throws IOException {
+        BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        BinaryOutputStream bos = pool.acquireOutputStream();
+        assertTrue(bos.getBuffer().length >= BinaryStreamPool.MIN_CAPACITY);
+        bos.writeInt(42);
+        pool.release(bos);
+
+        BinaryOutputStream bos2 = pool.acquireOutputStream();
+        assertSame(bos, bos2);
+        assertEquals(0, bos2.size());
+    }
+
+    @Test
+    public void testSizeClasses() {
+        BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        BinaryOutputStream small = pool.acquireOutputStream(100);
+        BinaryOutputStream large = pool.acquireOutputStream(5000);
+        assertEquals(BinaryStreamPool.MIN_CAPACITY, small.getBuffer().length);
+        assertEquals(8192, large.getBuffer().length);
+        pool.release(small);
+        pool.release(large);
+
+        assertSame(large, pool.acquireOutputStream(6000));
+        assertSame(small, pool.acquireOutputStream(10));
+        assertNotSame(large, pool.acquireOutputStream(10000));
+    }
+
+    @Test
+    public void testOversizedStreamIsNotPooled() {
+        BinaryStreamPool pool = new BinaryStreamPool(BinaryStreamPool.MIN_CAPACITY, 4);
+        BinaryOutputStream bos = pool.acquireOutputStream(4 * BinaryStreamPool.MIN_CAPACITY);
+        pool.release(bos);
+        assertNotSame(bos, pool.acquireOutputStream(4 * BinaryStreamPool.MIN_CAPACITY));
+    }
+
+    @Test
+    public void testReleaseOnOtherThread() throws InterruptedException {
+        final BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        final BinaryOutputStream bos = pool.acquireOutputStream();
+        // a stream released by a thread that did not acquire it goes to the shared queue
+        Thread t = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                pool.release(bos);
+            }
+        });
+        t.start();
+        t.join();
+        assertSame(bos, pool.acquireOutputStream());
+    }
+
+    @Test
+    public void testForeignReleaseIsNotCachedLocally() throws Exception {
+        // without a shared queue a stream released by another thread is dropped
+        final BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 0);
+        final BinaryOutputStream bos = pool.acquireOutputStream();
+        final BinaryOutputStream[] acquired = new BinaryOutputStream[1];
+        Thread t = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                pool.release(bos);
+                acquired[0] = pool.acquireOutputStream();
+            }
+        });
+        t.start();
+        t.join();
+        assertNotSame(bos, acquired[0]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDoubleRelease() {
+        BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        BinaryOutputStream bos = pool.acquireOutputStream();
+        pool.release(bos);
+        pool.release(bos);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleaseOfUnpooledStream() {
+        BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        pool.release(new BinaryOutputStream());
+    }
+
+    @Test
+    public void testInputStream() throws IOException {
+        BinaryStreamPool pool = new BinaryStreamPool(1 << 16, 4);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 0, 0, 0, 7, 0, 0, 0, 9});
+        buffer.position(4);
+        BinaryInputStream bis = pool.acquireInputStream(buffer);
+        assertEquals(7, bis.readInt());
+        pool.release(bis);
+
+        BinaryInputStream bis2 = pool.acquireInputStream(buffer.array(), 8, 4);
+        assertSame(bis, bis2);
+        assertEquals(0, bis2.getPosition());
+        assertEquals(9, bis2.readInt());
+        pool.release(bis2);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.fiware.kiara.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.ByteBufferInputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.junit.Test;
+
+public class ByteBufferInputStreamTest {
+
+    private static ByteBuffer directCopy(BinaryOutputStream bos, int skip) {
+        // data starts at position skip of the direct buffer
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(skip + bos.size());
+        buffer.position(skip);
+        buffer.put(bos.getBuffer(), 0, bos.size());
+        buffer.position(skip);
+        return buffer;
+    }
+
+    private static void write(CDRSerializer ser, BinaryOutputStream bos) throws Exception {
+        ser.serializeByte(bos, "", (byte) 1);
+        ser.serializeI32(bos, "", 0x01020304);
+        ser.serializeString(bos, "", "gr\u00fc\u00dfe");
+        ser.serializeI16(bos, "", (short) -2);
+        ser.serializeI64(bos, "", Long.MIN_VALUE);
+        ser.serializeFloat64(bos, "", 2.5);
+        ser.serializeI32Array(bos, "", new int[]{5, 6, 7}, 0, 3);
+    }
+
+    private static void check(CDRSerializer ser, BinaryInputStream bis) throws Exception {
+        assertEquals(1, ser.deserializeByte(bis, ""));
+        assertEquals(0x01020304, ser.deserializeI32(bis, ""));
+        assertEquals("gr\u00fc\u00dfe", ser.deserializeString(bis, ""));
+        assertEquals(-2, ser.deserializeI16(bis, ""));
+        assertEquals(Long.MIN_VALUE, ser.deserializeI64(bis, ""));
+        assertEquals(2.5, ser.deserializeFloat64(bis, ""), 0.0);
+        final int[] ints = new int[3];
+        ser.deserializeI32Array(bis, "", ints, 0, 3);
+        assertArrayEquals(new int[]{5, 6, 7}, ints);
+        assertEquals(0, bis.available());
+    }
+
+    @Test
+    public void testReadDirectBuffer() throws Exception {
+        for (boolean littleEndian : new boolean[]{false, true}) {
+            final CDRSerializer ser = new CDRSerializer(littleEndian);
+            final BinaryOutputStream bos = new BinaryOutputStream();
+            write(ser, bos);
+
+            // alignment is relative to the start of the data, not of the buffer
+            final ByteBuffer buffer = directCopy(bos, 3);
+            final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(buffer);
+            assertTrue(bis instanceof ByteBufferInputStream);
+            check(ser, bis);
+            assertEquals(3, buffer.position());
+        }
+    }
+
+    @Test
+    public void testFromHeapBufferWithPosition() throws Exception {
+        final CDRSerializer ser = new CDRSerializer();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        bos.write(new byte[5]);
+        final BinaryOutputStream data = new BinaryOutputStream();
+        write(ser, data);
+        bos.write(data.getBuffer(), 0, data.size());
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bos.toByteArray());
+        buffer.position(5);
+        check(ser, BinaryInputStream.fromByteBuffer(buffer));
+    }
+
+    @Test
+    public void testPositionAndEOF() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.putInt(0, 42);
+        final BinaryInputStream bis = new ByteBufferInputStream(buffer);
+
+        bis.setPosition(4);
+        assertEquals(4, bis.available());
+        bis.setPosition(0);
+        assertEquals(42, bis.readInt());
+        assertEquals(4, bis.getPosition());
+        assertEquals(8, bis.getBufferLength());
+        try {
+            bis.readLong();
+            fail("expected EOFException");
+        } catch (EOFException ex) {
+            assertEquals(4, bis.getPosition());
+        }
+        try {
+            bis.getBuffer();
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+        }
+    }
+
+    @Test
+    public void testPooledView() throws Exception {
+        final BinaryStreamPool pool = new BinaryStreamPool(BinaryStreamPool.MIN_CAPACITY, 4);
+        final CDRSerializer ser = new CDRSerializer();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        write(ser, bos);
+
+        final BinaryInputStream first = pool.acquireInputStream(directCopy(bos, 0));
+        assertTrue(first instanceof ByteBufferInputStream);
+        check(ser, first);
+        pool.release(first);
+
+        final BinaryInputStream second = pool.acquireInputStream(directCopy(bos, 1));
+        assertSame(first, second);
+        check(ser, second);
+        pool.release(second);
+
+        // heap buffers still use the plain stream
+        final BinaryInputStream heap = pool.acquireInputStream(ByteBuffer.wrap(bos.toByteArray()));
+        assertFalse(heap instanceof ByteBufferInputStream);
+        check(ser, heap);
+        pool.release(heap);
+    }
+
+}
@@ -1,7 +1,11 @@
 package org.fiware.kiara.serialization;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.EOFException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -867,4 +871,100 @@ public class CDRSequenceTest {
 
     }
 
+    /*
+     * Bulk primitive arrays
+     */
+    @Test
+    public void bulkArrayEncodingBigEndianTest() throws Exception {
+        checkBulkArrayEncoding(new CDRSerializer(false));
+    }
+
+    @Test
+    public void bulkArrayEncodingLittleEndianTest() throws Exception {
+        checkBulkArrayEncoding(new CDRSerializer(true));
+    }
+
+    private static void checkBulkArrayEncoding(CDRSerializer ser) throws Exception {
+        final short[] shorts = {1, -2, Short.MAX_VALUE};
+        final int[] ints = {1, -2, Integer.MIN_VALUE};
+        final long[] longs = {1L, -2L, Long.MAX_VALUE};
+        final float[] floats = {1.5f, -2.25f, Float.MIN_VALUE};
+        final double[] doubles = {1.5, -2.25, Double.MAX_VALUE};
+
+        // element by element, starting unaligned
+        BinaryOutputStream expected = new BinaryOutputStream();
+        ser.serializeByte(expected, "", (byte) 7);
+        for (short v : shorts) {
+            ser.serializeI16(expected, "", v);
+        }
+        ser.serializeByte(expected, "", (byte) 7);
+        for (int v : ints) {
+            ser.serializeI32(expected, "", v);
+        }
+        ser.serializeByte(expected, "", (byte) 7);
+        for (long v : longs) {
+            ser.serializeI64(expected, "", v);
+        }
+        ser.serializeByte(expected, "", (byte) 7);
+        for (float v : floats) {
+            ser.serializeFloat32(expected, "", v);
+        }
+        ser.serializeByte(expected, "", (byte) 7);
+        for (double v : doubles) {
+            ser.serializeFloat64(expected, "", v);
+        }
+
+        BinaryOutputStream actual = new BinaryOutputStream(1);
+        ser.serializeByte(actual, "", (byte) 7);
+        ser.serializeI16Array(actual, "", shorts, 0, shorts.length);
+        ser.serializeByte(actual, "", (byte) 7);
+        ser.serializeI32Array(actual, "", ints, 0, ints.length);
+        ser.serializeByte(actual, "", (byte) 7);
+        ser.serializeI64Array(actual, "", longs, 0, longs.length);
+        ser.serializeByte(actual, "", (byte) 7);
+        ser.serializeFloat32Array(actual, "", floats, 0, floats.length);
+        ser.serializeByte(actual, "", (byte) 7);
+        ser.serializeFloat64Array(actual, "", doubles, 0, doubles.length);
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        final short[] shortsOut = new short[shorts.length];
+        final int[] intsOut = new int[ints.length];
+        final long[] longsOut = new long[longs.length];
+        final float[] floatsOut = new float[floats.length];
+        final double[] doublesOut = new double[doubles.length];
+
+        BinaryInputStream bis = new BinaryInputStream(actual.getBuffer(), actual.getBufferOffset(), actual.getBufferLength());
+        ser.deserializeByte(bis, "");
+        ser.deserializeI16Array(bis, "", shortsOut, 0, shortsOut.length);
+        ser.deserializeByte(bis, "");
+        ser.deserializeI32Array(bis, "", intsOut, 0, intsOut.length);
+        ser.deserializeByte(bis, "");
+        ser.deserializeI64Array(bis, "", longsOut, 0, longsOut.length);
+        ser.deserializeByte(bis, "");
+        ser.deserializeFloat32Array(bis, "", floatsOut, 0, floatsOut.length);
+        ser.deserializeByte(bis, "");
+        ser.deserializeFloat64Array(bis, "", doublesOut, 0, doublesOut.length);
+
+        assertArrayEquals(shorts, shortsOut);
+        assertArrayEquals(ints, intsOut);
+        assertArrayEquals(longs, longsOut);
+        assertArrayEquals(floats, floatsOut, 0f);
+        assertArrayEquals(doubles, doublesOut, 0.0);
+        assertEquals(0, bis.available());
+    }
+
+    @Test
+    public void bulkArrayTruncatedTest() throws Exception {
+        BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeI32Array(bos, "", new int[]{1, 2}, 0, 2);
+        BinaryInputStream bis = new BinaryInputStream(bos.getBuffer(), bos.getBufferOffset(), bos.getBufferLength());
+        try {
+            ser.deserializeI32Array(bis, "", new int[3], 0, 3);
+            fail("expected EOFException");
+        } catch (EOFException e) {
+            assertEquals(0, bis.getPosition());
+        }
+    }
+
 }
@@ -13,6 +13,7 @@ import org.fiware.kiara.serialization.impl.BinaryInputStream;
 import org.fiware.kiara.serialization.impl.BinaryOutputStream;
 
 import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.serialization.impl.StringCache;
 import org.fiware.kiara.serialization.types.GenericEnumeration;
 import org.fiware.kiara.serialization.types.GenericType;
 import org.fiware.kiara.transport.impl.TransportMessage;
@@ -156,6 +157,65 @@ public class CDRSerializerTest {
         reset();
     }
 
+    /*
+     * SerializeString
+     */
+
+    @Test
+    public void serializeStringWireFormatTest() throws Exception {
+        BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeByte(bos, "", (byte) 1);
+        ser.serializeString(bos, "MyString", "ab\u00e9");
+
+        // aligned length including '\0', then the UTF-8 bytes
+        assertArrayEquals(new byte[]{1, 0, 0, 0, 0, 0, 0, 5, 'a', 'b', (byte) 0xC3, (byte) 0xA9, 0},
+                bos.toByteArray());
+    }
+
+    @Test
+    public void deserializeStringTest() throws Exception {
+        String[] in = {"", "ascii", "gr\u00fc\u00dfe", "\u20ac \u65e5\u672c", "pile \ud83d\udca9"};
+
+        BinaryOutputStream bos = new BinaryOutputStream(1);
+        for (String s : in) {
+            ser.serializeString(bos, "MyString", s);
+        }
+        BinaryInputStream bis = new BinaryInputStream(bos.getBuffer(), bos.getBufferOffset(), bos.getBufferLength());
+        for (String s : in) {
+            assertEquals(s, ser.deserializeString(bis, "MyString"));
+        }
+        assertEquals(0, bis.available());
+    }
+
+    @Test
+    public void serializeStringUnpairedSurrogateTest() throws Exception {
+        BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeString(bos, "MyString", "a\ud800b");
+        BinaryInputStream bis = new BinaryInputStream(bos.getBuffer(), bos.getBufferOffset(), bos.getBufferLength());
+
+        assertEquals("a?b", ser.deserializeString(bis, "MyString"));
+    }
+
+    @Test
+    public void deserializeStringCacheTest() throws Exception {
+        BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeOperation(bos, "OperationName");
+        ser.serializeOperation(bos, "OperationName");
+        ser.serializeString(bos, "MyString", "value");
+        ser.serializeString(bos, "MyString", "value");
+        BinaryInputStream bis = new BinaryInputStream(bos.getBuffer(), bos.getBufferOffset(), bos.getBufferLength());
+
+        assertSame(ser.deserializeOperation(bis), ser.deserializeOperation(bis));
+        // strings are only cached when a cache is set
+        assertNotSame(ser.deserializeString(bis, "MyString"), ser.deserializeString(bis, "MyString"));
+
+        ser.setStringCache(new StringCache());
+        bis.setPosition(0);
+        ser.deserializeOperation(bis);
+        ser.deserializeOperation(bis);
+        assertSame(ser.deserializeString(bis, "MyString"), ser.deserializeString(bis, "MyString"));
+    }
+
     /*
      * SerializeByte
      */
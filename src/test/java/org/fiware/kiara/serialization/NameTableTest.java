@@ -0,0 +1,75 @@
+package org.fiware.kiara.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.serialization.impl.NameTable;
+import org.junit.Test;
+
+public class NameTableTest {
+
+    @Test
+    public void testLookup() {
+        final Map<String, Integer> entries = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            entries.put("op" + i, i);
+        }
+        entries.put("\u00fcber", 100);
+        final NameTable<Integer> table = NameTable.of(entries);
+        assertEquals(101, table.size());
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            assertEquals(entry.getValue(), table.get(entry.getKey()));
+        }
+        assertNull(table.get("op100"));
+        assertNull(table.get(""));
+
+        final byte[] data = "xxop42yy".getBytes();
+        assertEquals(Integer.valueOf(42), table.get(data, 2, 4));
+        assertNull(table.get(data, 2, 5));
+    }
+
+    @Test
+    public void testCopies() {
+        final NameTable<String> empty = NameTable.empty();
+        final NameTable<String> one = empty.with("a", "A");
+        final NameTable<String> two = one.with("b", "B").with("a", "AA");
+        assertNull(empty.get("a"));
+        assertEquals("A", one.get("a"));
+        assertEquals("AA", two.get("a"));
+        assertEquals(2, two.size());
+        assertSame(two, two.without("c"));
+        assertNull(two.without("a").get("a"));
+        assertEquals("B", two.without("a").get("b"));
+    }
+
+    @Test
+    public void testDeserializeFromStream() throws IOException {
+        final NameTable<Integer> table = NameTable.<Integer>empty().with("service", 1).with("add", 2);
+        final CDRSerializer ser = new CDRSerializer();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeService(bos, "service");
+        ser.serializeOperation(bos, "add");
+        ser.serializeOperation(bos, "unknown");
+        ser.serializeI32(bos, "", 7);
+
+        final BinaryInputStream bis = new BinaryInputStream(bos.toByteArray());
+        assertEquals(Integer.valueOf(1), ser.deserializeService(bis, table));
+        assertEquals(Integer.valueOf(2), ser.deserializeOperation(bis, table));
+        assertNull(ser.deserializeOperation(bis, table));
+        assertEquals(7, ser.deserializeI32(bis, ""));
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bos.size());
+        direct.put(bos.toByteArray()).flip();
+        final BinaryInputStream view = BinaryInputStream.fromByteBuffer(direct);
+        assertEquals(Integer.valueOf(1), ser.deserializeService(view, table));
+        assertEquals(Integer.valueOf(2), ser.deserializeOperation(view, table));
+        assertNull(ser.deserializeOperation(view, table));
+        assertEquals(7, ser.deserializeI32(view, ""));
+    }
+}
@@ -0,0 +1,97 @@
+package org.fiware.kiara.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.serialization.impl.ObjectSerializer;
+import org.fiware.kiara.serialization.impl.Serializable;
+import org.fiware.kiara.serialization.impl.SerializableFactories;
+import org.fiware.kiara.serialization.impl.SerializableFactory;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.serialization.types.GenericType;
+import org.junit.After;
+import org.junit.Test;
+
+public class SerializableFactoriesTest {
+
+    private static class Hidden implements Serializable {
+
+        private int value;
+
+        private Hidden() {
+        }
+
+        @Override
+        public void serialize(SerializerImpl impl, BinaryOutputStream message, String name) throws IOException {
+            impl.serializeI32(message, name, value);
+        }
+
+        @Override
+        public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
+            value = impl.deserializeI32(message, name);
+        }
+    }
+
+    public static class Failing implements Serializable {
+
+        public Failing() {
+            throw new IllegalStateException("failing");
+        }
+
+        @Override
+        public void serialize(SerializerImpl impl, BinaryOutputStream message, String name) throws IOException {
+        }
+
+        @Override
+        public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SerializableFactories.unregister(GenericType.class);
+    }
+
+    @Test
+    public void testRegisteredFactoryIsUsed() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        SerializableFactories.register(GenericType.class, new SerializableFactory<GenericType>() {
+
+            @Override
+            public GenericType create() {
+                created.incrementAndGet();
+                return new GenericType();
+            }
+        });
+
+        final CDRSerializer ser = new CDRSerializer();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final ObjectSerializer<GenericType> s = new ObjectSerializer<>(GenericType.class);
+        s.write(ser, bos, "", new GenericType(1, "one"));
+        ser.serialize(bos, "", new GenericType(2, "two"));
+
+        final BinaryInputStream bis = new BinaryInputStream(bos.getBuffer(), bos.getBufferOffset(), bos.getBufferLength());
+        assertEquals(new GenericType(1, "one"), s.read(ser, bis, ""));
+        assertEquals(new GenericType(2, "two"), ser.deserialize(bis, "", GenericType.class));
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void testConstructorFallback() throws Exception {
+        assertNull(SerializableFactories.get(Hidden.class));
+        final Hidden first = SerializableFactories.newInstance(Hidden.class);
+        final Hidden second = SerializableFactories.newInstance(Hidden.class);
+        assertNotNull(first);
+        assertNotSame(first, second);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConstructorExceptionIsPropagated() throws Exception {
+        SerializableFactories.newInstance(Failing.class);
+    }
+
+}
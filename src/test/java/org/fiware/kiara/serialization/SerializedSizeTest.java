@@ -0,0 +1,148 @@
+package org.fiware.kiara.serialization;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.fiware.kiara.serialization.impl.ArrayAsArraySerializer;
+import org.fiware.kiara.serialization.impl.BasicSerializers;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.serialization.impl.ListAsSequenceSerializer;
+import org.fiware.kiara.serialization.impl.MapAsMapSerializer;
+import org.fiware.kiara.serialization.impl.ObjectSerializer;
+import org.fiware.kiara.serialization.impl.SerializedSizes;
+import org.fiware.kiara.serialization.impl.Serializer;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.serialization.impl.SizedSerializable;
+import org.fiware.kiara.serialization.impl.StringSerializer;
+import org.fiware.kiara.serialization.types.GenericType;
+import org.junit.Test;
+
+public class SerializedSizeTest {
+
+    public static class Sample implements SizedSerializable {
+
+        private static final ListAsSequenceSerializer<String> NAMES
+                = new ListAsSequenceSerializer<>(new StringSerializer());
+
+        private static final BasicSerializers.ArrayAsI32SequenceSerializer VALUES
+                = new BasicSerializers.ArrayAsI32SequenceSerializer();
+
+        private byte flag = 1;
+        private double weight = 2.5;
+        private String label = "s\u00e4mple";
+        private int[] values = {1, 2, 3};
+        private List<String> names = Arrays.asList("a", "bc", "");
+        private short tail = 7;
+
+        @Override
+        public void serialize(SerializerImpl impl, BinaryOutputStream message, String name) throws IOException {
+            impl.serializeByte(message, name, flag);
+            impl.serializeFloat64(message, name, weight);
+            impl.serializeString(message, name, label);
+            VALUES.write(impl, message, name, values);
+            NAMES.write(impl, message, name, names);
+            impl.serializeI16(message, name, tail);
+        }
+
+        @Override
+        public void deserialize(SerializerImpl impl, BinaryInputStream message, String name) throws IOException {
+            flag = impl.deserializeByte(message, name);
+            weight = impl.deserializeFloat64(message, name);
+            label = impl.deserializeString(message, name);
+            values = VALUES.read(impl, message, name);
+            names = NAMES.read(impl, message, name);
+            tail = impl.deserializeI16(message, name);
+        }
+
+        @Override
+        public int getSerializedSize(SerializerImpl impl, int currentAlignment) {
+            int position = currentAlignment;
+            position += impl.getPrimitiveSerializedSize(position, 1);
+            position += impl.getPrimitiveSerializedSize(position, 8);
+            position += impl.getStringSerializedSize(position, label);
+            position += VALUES.getSerializedSize(impl, position, values);
+            position += NAMES.getSerializedSize(impl, position, names);
+            position += impl.getPrimitiveSerializedSize(position, 2);
+            return position - currentAlignment;
+        }
+    }
+
+    private static <T> void assertSize(Serializer<T> serializer, T value) throws IOException {
+        final CDRSerializer ser = new CDRSerializer();
+        for (int offset = 0; offset < 8; ++offset) {
+            final BinaryOutputStream bos = new BinaryOutputStream();
+            bos.setPosition(offset);
+            serializer.write(ser, bos, "", value);
+            assertEquals("offset " + offset, bos.getPosition() - offset,
+                    SerializedSizes.of(ser, offset, serializer, value));
+        }
+    }
+
+    @Test
+    public void testPrimitives() throws IOException {
+        assertSize(new BasicSerializers.ByteSerializer(), (byte) 1);
+        assertSize(new BasicSerializers.I16Serializer(), (short) 1);
+        assertSize(new BasicSerializers.I32Serializer(), 1);
+        assertSize(new BasicSerializers.I64Serializer(), 1L);
+        assertSize(new BasicSerializers.Float32Serializer(), 1.0f);
+        assertSize(new BasicSerializers.Float64Serializer(), 1.0);
+        assertSize(new BasicSerializers.BooleanSerializer(), true);
+        assertSize(new BasicSerializers.CharSerializer(), 'c');
+    }
+
+    @Test
+    public void testStrings() throws IOException {
+        assertSize(new StringSerializer(), "");
+        assertSize(new StringSerializer(), "ascii");
+        assertSize(new StringSerializer(), "\u00fc\u20ac\ud83d\ude00");
+    }
+
+    @Test
+    public void testSequencesAndArrays() throws IOException {
+        assertSize(new BasicSerializers.ArrayAsI64SequenceSerializer(), new long[0]);
+        assertSize(new BasicSerializers.ArrayAsI64SequenceSerializer(), new long[]{1, 2});
+        assertSize(new BasicSerializers.ArrayAsI16ArraySerializer(3), new short[]{1, 2, 3});
+        assertSize(new BasicSerializers.ArrayAsStringSequenceSerializer(), new String[]{"a", "bcd"});
+        assertSize(new ListAsSequenceSerializer<>(new BasicSerializers.Float64Serializer()), Arrays.asList(1.0, 2.0));
+        assertSize(new ArrayAsArraySerializer<>(2, String.class, new StringSerializer()), new String[]{"x", "yz"});
+
+        final Map<String, Long> map = new HashMap<>();
+        map.put("one", 1L);
+        map.put("two", 2L);
+        assertSize(new MapAsMapSerializer<>(new StringSerializer(), new BasicSerializers.I64Serializer()), map);
+    }
+
+    @Test
+    public void testStruct() throws IOException {
+        assertSize(new ObjectSerializer<>(Sample.class), new Sample());
+        assertSize(new ListAsSequenceSerializer<>(new ObjectSerializer<>(Sample.class)),
+                Arrays.asList(new Sample(), new Sample()));
+    }
+
+    @Test
+    public void testUnknownSize() throws IOException {
+        final CDRSerializer ser = new CDRSerializer();
+        assertEquals(SerializedSizes.UNKNOWN, SerializedSizes.of(ser, 0, new GenericType(1, "one")));
+        assertEquals(SerializedSizes.UNKNOWN, SerializedSizes.of(ser, 0,
+                new ListAsSequenceSerializer<>(new ObjectSerializer<>(GenericType.class)),
+                Arrays.asList(new GenericType(1, "one"))));
+    }
+
+    @Test
+    public void testEnsureCapacity() throws IOException {
+        final BinaryOutputStream bos = new BinaryOutputStream(4);
+        bos.writeInt(42);
+        bos.ensureCapacity(10);
+        assertEquals(10, bos.getBuffer().length);
+        bos.ensureCapacity(2);
+        assertEquals(10, bos.getBuffer().length);
+        assertEquals(4, bos.size());
+        assertEquals(42, new BinaryInputStream(bos.getBuffer(), 0, 4).readInt());
+    }
+}
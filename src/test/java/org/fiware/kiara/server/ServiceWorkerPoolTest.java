@@ -0,0 +1,118 @@
+package org.fiware.kiara.server;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServiceWorkerPoolTest {
+
+    private ServiceWorkerPool pool;
+    private CountDownLatch blocker;
+
+    @Before
+    public void setUp() {
+        pool = new ServiceWorkerPool(4, 1, 2);
+        blocker = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        blocker.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private Runnable blocking(final CountDownLatch started) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    blocker.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static Runnable counting(final CountDownLatch done) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testSlowServiceDoesNotBlockOthers() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        pool.execute("slow", blocking(started));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        final CountDownLatch done = new CountDownLatch(2);
+        pool.execute("fast", counting(done));
+        pool.execute("fast", counting(done));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, pool.getActiveCount("slow"));
+    }
+
+    @Test
+    public void testQueueIsBounded() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        pool.execute("slow", blocking(started));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        final CountDownLatch done = new CountDownLatch(2);
+        pool.execute("slow", counting(done));
+        pool.execute("slow", counting(done));
+        assertEquals(2, pool.getQueuedCount("slow"));
+        try {
+            pool.execute("slow", counting(done));
+            fail("expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+        }
+
+        blocker.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, pool.getQueuedCount("slow"));
+    }
+
+    @Test
+    public void testRejectedQueuedTasksAreFailed() throws InterruptedException {
+        // a single worker and no queue, the worker is still busy when the
+        // pool tries to start the next queued task
+        final ServiceWorkerPool bounded = new ServiceWorkerPool(
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<Runnable>()), 1, 2);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            bounded.execute("slow", blocking(started));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            final CountDownLatch done = new CountDownLatch(2);
+            final CountDownLatch rejected = new CountDownLatch(2);
+            bounded.execute("slow", counting(done), counting(rejected));
+            bounded.execute("slow", counting(done), counting(rejected));
+            assertEquals(2, bounded.getQueuedCount("slow"));
+
+            blocker.countDown();
+            assertTrue(rejected.await(10, TimeUnit.SECONDS));
+            assertEquals(2, done.getCount());
+            assertEquals(0, bounded.getQueuedCount("slow"));
+            assertEquals(0, bounded.getActiveCount("slow"));
+        } finally {
+            bounded.shutdown();
+            assertTrue(bounded.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
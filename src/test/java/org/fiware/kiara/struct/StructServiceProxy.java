@@ -70,7 +70,7 @@ class StructServiceProxy implements StructServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -116,7 +116,7 @@ class StructServiceProxy implements StructServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
             m_transport.send(trequest);
 
             try {
@@ -163,7 +163,7 @@ class StructServiceProxy implements StructServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
@@ -204,7 +204,7 @@ class StructServiceProxy implements StructServiceClient {
             }
             trequest.setPayload(bos.getByteBuffer());
 
-            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport);
+            final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, m_ser, m_transport, trequest);
 
             Futures.addCallback(dispatcher, new FutureCallback<TransportMessage>() {
 
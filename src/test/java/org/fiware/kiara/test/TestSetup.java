@@ -42,6 +42,12 @@ public abstract class TestSetup<CLIENT_INTERFACE> {
             return "tcp://0.0.0.0:" + port + "/?serialization=" + protocol;
         } else if ("tcps".equals(transport)) {
             return "tcps://0.0.0.0:" + port + "/?serialization=" + protocol;
+        } else if ("http".equals(transport)) {
+            return "http://0.0.0.0:" + port + "/rpc?serialization=" + protocol;
+        } else if ("inproc".equals(transport)) {
+            return "inproc://0.0.0.0:" + port + "/?serialization=" + protocol;
+        } else if ("shm".equals(transport)) {
+            return "shm://0.0.0.0:" + port + "/?serialization=" + protocol;
         }
 
         throw new IllegalArgumentException("Unknown transport " + transport);
@@ -52,6 +58,12 @@ public abstract class TestSetup<CLIENT_INTERFACE> {
             return "tcp://0.0.0.0:" + port;
         } else if ("tcps".equals(transport)) {
             return "tcps://0.0.0.0:" + port;
+        } else if ("http".equals(transport)) {
+            return "http://0.0.0.0:" + port + "/rpc";
+        } else if ("inproc".equals(transport)) {
+            return "inproc://0.0.0.0:" + port;
+        } else if ("shm".equals(transport)) {
+            return "shm://0.0.0.0:" + port;
         }
         throw new IllegalArgumentException("Unknown transport " + transport);
     }
@@ -85,7 +97,8 @@ public abstract class TestSetup<CLIENT_INTERFACE> {
         System.out.println("Starting server, transport = " + transport + " ...");
         server.run();
         
-        if (!checkConnection(timeout)) {
+        // in-process and shared memory servers do not listen on a socket
+        if (!"inproc".equals(transport) && !"shm".equals(transport) && !checkConnection(timeout)) {
             throw new IOException("Could not start server");
         }
         
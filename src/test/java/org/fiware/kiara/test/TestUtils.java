@@ -17,6 +17,8 @@
  */
 package org.fiware.kiara.test;
 
+import static org.junit.Assert.assertEquals;
+
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
@@ -25,6 +27,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.exceptions.impl.GenericRemoteException;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.SerializerImpl;
+import org.fiware.kiara.server.ServiceWorkerPool;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
 
 /**
  * @author Dmitri Rubinstein {@literal <dmitri.rubinstein@dfki.de>}
@@ -78,6 +89,12 @@ public class TestUtils {
                 public ExecutorService create() {
                     return Executors.newCachedThreadPool();
                 }
+            },
+            new TypeFactory<ExecutorService>() {
+                @Override
+                public ExecutorService create() {
+                    return new ServiceWorkerPool(2, 2, 1024);
+                }
             }
         };
         return executorFactories;
@@ -117,5 +134,76 @@ public class TestUtils {
         return params;
     }
 
+    public static Collection<?> createInProcessTestConfig() {
+        Collection<Object[]> params = new ArrayList<>();
+        final String[] transports = {"inproc"};
+        final String[] protocols = {"cdr"};
+        final TypeFactory[] executorFactories = TestUtils.createExecutorFactories();
+
+        for (String transport : transports) {
+            for (String protocol : protocols) {
+                for (TypeFactory executorFactory : executorFactories) {
+                    Object[] config = new Object[]{transport, protocol, executorFactory};
+                    params.add(config);
+                }
+            }
+        }
+        return params;
+    }
+
+    public static Collection<?> createSharedMemoryTestConfig() {
+        Collection<Object[]> params = new ArrayList<>();
+        final String[] transports = {"shm"};
+        final String[] protocols = {"cdr"};
+        final TypeFactory[] executorFactories = TestUtils.createExecutorFactories();
 
+        for (String transport : transports) {
+            for (String protocol : protocols) {
+                for (TypeFactory executorFactory : executorFactories) {
+                    Object[] config = new Object[]{transport, protocol, executorFactory};
+                    params.add(config);
+                }
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Sends a call with the arguments 1 and 2 directly through the
+     * transport, so that error replies are not dropped by a generated proxy.
+     */
+    public static TransportMessageDispatcher sendCall(SerializerImpl ser, TransportImpl transport, String service, String operation) throws IOException {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        final TransportMessage trequest = transport.createTransportMessage(null);
+        final Object messageId = ser.getNewMessageId();
+        ser.serializeMessageId(bos, messageId);
+        ser.serializeService(bos, service);
+        ser.serializeOperation(bos, operation);
+        ser.serializeI32(bos, "", 1);
+        ser.serializeI32(bos, "", 2);
+        trequest.setPayload(bos.getByteBuffer());
+
+        final TransportMessageDispatcher dispatcher = new TransportMessageDispatcher(messageId, ser, transport, trequest);
+        transport.send(trequest);
+        return dispatcher;
+    }
+
+    /**
+     * Waits for the reply of a call sent with {@link #sendCall}.
+     *
+     * @return the error of the reply, null if the call succeeded
+     */
+    public static GenericRemoteException getError(SerializerImpl ser, TransportMessageDispatcher dispatcher) throws Exception {
+        final BinaryInputStream bis = BinaryInputStream.fromByteBuffer(dispatcher.get(10, TimeUnit.SECONDS).getPayload());
+        assertEquals(dispatcher.getMessageId(), ser.deserializeMessageId(bis));
+        final int code = ser.deserializeUI32(bis, "");
+        if (code == 0) {
+            return null;
+        }
+        return new GenericRemoteException(ser.deserializeString(bis, ""), code);
+    }
+
+    public static GenericRemoteException callAndGetError(SerializerImpl ser, TransportImpl transport, String operation) throws Exception {
+        return getError(ser, sendCall(ser, transport, "Calculator", operation));
+    }
 }
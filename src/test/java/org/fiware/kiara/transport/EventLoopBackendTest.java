@@ -0,0 +1,98 @@
+package org.fiware.kiara.transport;
+
+import static org.junit.Assert.*;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.InternetProtocolFamily;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.DatagramChannel;
+import org.fiware.kiara.Context;
+import org.fiware.kiara.Kiara;
+import org.fiware.kiara.netty.EventLoopBackend;
+import org.fiware.kiara.netty.NettyServerTransport;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class EventLoopBackendTest {
+
+    @Test
+    public void testForName() {
+        assertSame(EventLoopBackend.NIO, EventLoopBackend.forName("nio"));
+        assertSame(EventLoopBackend.NIO, EventLoopBackend.forName("unknown"));
+        assertSame(EventLoopBackend.isEpollUsable() ? EventLoopBackend.EPOLL : EventLoopBackend.NIO,
+                EventLoopBackend.forName("EPOLL"));
+    }
+
+    @Test
+    public void testNioHasNoReusePort() throws Exception {
+        assertFalse(EventLoopBackend.NIO.isReusePortSupported());
+        try (DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET)) {
+            assertFalse(EventLoopBackend.NIO.setReusePort(channel));
+        }
+    }
+
+    @Test
+    public void testEpollDatagramReusePort() throws Exception {
+        Assume.assumeTrue(EventLoopBackend.isEpollUsable());
+        final EventLoopBackend backend = EventLoopBackend.EPOLL;
+        final EventLoopGroup group = backend.newEventLoopGroup(2);
+        try {
+            final Bootstrap b = new Bootstrap();
+            b.group(group)
+                    .channelFactory(backend.getDatagramChannelFactory(InternetProtocolFamily.IPv4))
+                    .handler(new ChannelInitializer<Channel>() {
+
+                        @Override
+                        protected void initChannel(Channel ch) throws Exception {
+                        }
+                    });
+            backend.setReusePort(b);
+
+            final Channel first = b.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            final int port = ((InetSocketAddress) first.localAddress()).getPort();
+            final Channel second = b.bind(new InetSocketAddress("127.0.0.1", port)).sync().channel();
+            assertEquals(port, ((InetSocketAddress) second.localAddress()).getPort());
+
+            first.close().sync();
+            second.close().sync();
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    @Test
+    public void testServerPortIsNotSharedByDefault() throws Exception {
+        final TransportConnectionListener listener = new TransportConnectionListener() {
+
+            @Override
+            public void onConnectionOpened(TransportImpl connection) {
+            }
+
+            @Override
+            public void onConnectionClosed(TransportImpl connection) {
+            }
+        };
+        final Context context = Kiara.createContext();
+        final NettyServerTransport first = (NettyServerTransport) context.createServerTransport("tcp://0.0.0.0:9490");
+        final NettyServerTransport second = (NettyServerTransport) context.createServerTransport("tcp://0.0.0.0:9490");
+        assertFalse(first.isReusePort());
+        first.startServer(listener);
+        try {
+            second.startServer(listener);
+            fail("Second server bound the port of the first one");
+        } catch (Exception ex) {
+            assertTrue(ex instanceof BindException);
+        } finally {
+            first.stopServer();
+            second.stopServer();
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.fiware.kiara.transport;
+
+import static org.junit.Assert.*;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.fiware.kiara.netty.FlushBatcher;
+import org.fiware.kiara.netty.FlushStatistics;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FlushBatcherTest {
+
+    private int flushes;
+    private EmbeddedChannel channel;
+    private FlushStatistics statistics;
+
+    @Before
+    public void setUp() {
+        flushes = 0;
+        channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+
+            @Override
+            public void flush(ChannelHandlerContext ctx) throws Exception {
+                ++flushes;
+                super.flush(ctx);
+            }
+        });
+        statistics = new FlushStatistics();
+    }
+
+    private void write(FlushBatcher batcher, int size) {
+        batcher.write(Unpooled.wrappedBuffer(new byte[size]), size);
+    }
+
+    @Test
+    public void testFlushAtEndOfRead() {
+        final FlushBatcher batcher = new FlushBatcher(channel, 1024, 0, statistics);
+        batcher.readStarted();
+        write(batcher, 4);
+        write(batcher, 4);
+        write(batcher, 4);
+        assertEquals(0, flushes);
+        batcher.readComplete();
+        assertEquals(1, flushes);
+        assertEquals(3, channel.outboundMessages().size());
+        assertEquals(1, statistics.getFlushCount());
+        assertEquals(3.0, statistics.getMessagesPerFlush(), 0.0);
+    }
+
+    @Test
+    public void testScheduledFlushOutsideOfRead() {
+        final FlushBatcher batcher = new FlushBatcher(channel, 1024, 0, statistics);
+        write(batcher, 4);
+        write(batcher, 4);
+        assertEquals(0, flushes);
+        channel.runPendingTasks();
+        assertEquals(1, flushes);
+        assertEquals(2, statistics.getMessageCount());
+    }
+
+    @Test
+    public void testThresholdForcesFlush() {
+        final FlushBatcher batcher = new FlushBatcher(channel, 10, 0, statistics);
+        batcher.readStarted();
+        write(batcher, 6);
+        assertEquals(0, flushes);
+        write(batcher, 6);
+        assertEquals(1, flushes);
+        batcher.readComplete();
+        assertEquals(1, flushes);
+        assertEquals(1, statistics.getFlushCount());
+        assertEquals(2, statistics.getMessageCount());
+    }
+}
@@ -0,0 +1,91 @@
+package org.fiware.kiara.transport;
+
+import static org.junit.Assert.*;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.fiware.kiara.netty.TransportMessageDispatcher;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.tcp.TcpBlockTransportFactory;
+import org.fiware.kiara.transport.tcp.TcpHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PendingCallsTest {
+
+    private CDRSerializer ser;
+    private TcpHandler handler;
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        ser = new CDRSerializer();
+        handler = new TcpHandler(new TcpBlockTransportFactory(false), new URI("tcp://localhost:9090"), null);
+        channel = new EmbeddedChannel(handler);
+    }
+
+    private ByteBuffer response(int messageId, int value) throws IOException {
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeMessageId(bos, messageId);
+        ser.serializeI32(bos, "", value);
+        return ByteBuffer.wrap(bos.toByteArray());
+    }
+
+    @Test
+    public void testResponsesMatchCalls() throws Exception {
+        final TransportMessageDispatcher[] calls = new TransportMessageDispatcher[1000];
+        for (int i = 0; i < calls.length; ++i) {
+            calls[i] = new TransportMessageDispatcher(i, ser, handler);
+        }
+        assertEquals(calls.length, handler.getPendingCalls().getInFlightCount());
+
+        for (int i = calls.length - 1; i >= 0; --i) {
+            channel.writeInbound(response(i, -i));
+        }
+        assertEquals(0, handler.getPendingCalls().getInFlightCount());
+        for (int i = 0; i < calls.length; ++i) {
+            final TransportMessage message = calls[i].get(0, TimeUnit.SECONDS);
+            assertEquals(i, message.getMessageId());
+        }
+    }
+
+    @Test
+    public void testCancelRemovesCall() throws Exception {
+        final TransportMessageDispatcher call = new TransportMessageDispatcher(1, ser, handler);
+        assertEquals(1, handler.getPendingCalls().getInFlightCount());
+        assertTrue(call.cancel(false));
+        assertEquals(0, handler.getPendingCalls().getInFlightCount());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        handler.getPendingCalls().setTimeout(50, TimeUnit.MILLISECONDS);
+        final TransportMessageDispatcher call = new TransportMessageDispatcher(1, ser, handler);
+        try {
+            call.get(10, TimeUnit.SECONDS);
+            fail("expected TimeoutException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        assertEquals(0, handler.getPendingCalls().getInFlightCount());
+    }
+
+    @Test
+    public void testCloseFailsCalls() throws Exception {
+        final TransportMessageDispatcher call = new TransportMessageDispatcher(1, ser, handler);
+        channel.finish();
+        try {
+            call.get(0, TimeUnit.SECONDS);
+            fail("expected IOException");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IOException);
+        }
+    }
+}
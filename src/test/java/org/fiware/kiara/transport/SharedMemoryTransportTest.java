@@ -0,0 +1,194 @@
+package org.fiware.kiara.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.fiware.kiara.transport.impl.ServerTransportImpl;
+import org.fiware.kiara.transport.impl.TransportConnectionListener;
+import org.fiware.kiara.transport.impl.TransportImpl;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.impl.TransportMessageListener;
+import org.fiware.kiara.transport.shm.SharedMemoryTransportFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedMemoryTransportTest {
+
+    private static final int PORT = 9390;
+    private static final int RING_SIZE = 4096;
+
+    private Path directory;
+    private SharedMemoryTransportFactory transportFactory;
+
+    /**
+     * Echo server running in a separate process.
+     */
+    public static class EchoProcess {
+
+        public static void main(String[] args) throws Exception {
+            final SharedMemoryTransportFactory transportFactory = new SharedMemoryTransportFactory(Paths.get(args[0]), RING_SIZE, 5000);
+            startEchoServer(transportFactory, Integer.parseInt(args[1]));
+            System.out.println("ready");
+            System.out.flush();
+            // run until the test closes stdin or kills this process
+            while (System.in.read() != -1) {
+            }
+        }
+    }
+
+    private static ServerTransportImpl startEchoServer(SharedMemoryTransportFactory transportFactory, int port) throws Exception {
+        final ServerTransportImpl serverTransport = (ServerTransportImpl) transportFactory.createServerTransport("shm://0.0.0.0:" + port);
+        final TransportMessageListener echo = new TransportMessageListener() {
+
+            @Override
+            public boolean onMessage(TransportMessage message) {
+                final TransportImpl transport = message.getTransport();
+                final TransportMessage response = transport.createTransportMessage(message);
+                response.setPayload(message.getPayload().duplicate());
+                response.setContentType(message.getContentType());
+                transport.send(response);
+                return true;
+            }
+        };
+        serverTransport.startServer(new TransportConnectionListener() {
+
+            @Override
+            public void onConnectionOpened(TransportImpl connection) {
+                connection.addMessageListener(echo);
+            }
+
+            @Override
+            public void onConnectionClosed(TransportImpl connection) {
+                connection.removeMessageListener(echo);
+            }
+        });
+        return serverTransport;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("kiara-shm-test");
+        transportFactory = new SharedMemoryTransportFactory(directory, RING_SIZE, 5000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // left over by the killed server process
+        final File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File dir : files) {
+                final File[] dirFiles = dir.listFiles();
+                if (dirFiles != null) {
+                    for (File file : dirFiles) {
+                        file.delete();
+                    }
+                }
+                dir.delete();
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private static ByteBuffer createData(int size) {
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return ByteBuffer.wrap(data);
+    }
+
+    private static TransportMessage sendAndReceive(TransportImpl transport, ByteBuffer data) throws Exception {
+        final LinkedBlockingQueue<TransportMessage> responses = new LinkedBlockingQueue<>();
+        final TransportMessageListener listener = new TransportMessageListener() {
+
+            @Override
+            public boolean onMessage(TransportMessage message) {
+                responses.add(message);
+                return true;
+            }
+        };
+        transport.addMessageListener(listener);
+        try {
+            final TransportMessage request = transport.createTransportMessage(null);
+            request.setPayload(data.duplicate());
+            request.setContentType("application/octet-stream");
+            transport.send(request).get(10, TimeUnit.SECONDS);
+            final TransportMessage response = responses.poll(10, TimeUnit.SECONDS);
+            if (response == null) {
+                fail("No response received");
+            }
+            return response;
+        } finally {
+            transport.removeMessageListener(listener);
+        }
+    }
+
+    @Test
+    public void testMessagesLargerThanRing() throws Exception {
+        final ServerTransportImpl serverTransport = startEchoServer(transportFactory, PORT);
+        try {
+            final TransportImpl transport = (TransportImpl) transportFactory.createTransport("shm://0.0.0.0:" + PORT, null).get(10, TimeUnit.SECONDS);
+            assertTrue(transport.isOpen());
+            for (int size : new int[]{0, 1, RING_SIZE - 10, RING_SIZE, 100 * RING_SIZE + 7}) {
+                final ByteBuffer data = createData(size);
+                final TransportMessage response = sendAndReceive(transport, data);
+                assertEquals(data, response.getPayload());
+                assertEquals("application/octet-stream", response.getContentType());
+            }
+            transport.close();
+            assertFalse(transport.isOpen());
+        } finally {
+            serverTransport.close();
+        }
+        try {
+            transportFactory.createTransport("shm://0.0.0.0:" + PORT, null);
+            fail("Connected to stopped server");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testServerInOtherProcess() throws Exception {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                EchoProcess.class.getName(), directory.toString(), Integer.toString(PORT + 1))
+                .redirectErrorStream(true).start();
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null && !"ready".equals(line)) {
+                System.out.println(line);
+            }
+            assertEquals("ready", line);
+
+            final TransportImpl transport = (TransportImpl) transportFactory.createTransport("shm://localhost:" + (PORT + 1), null).get(10, TimeUnit.SECONDS);
+            final ByteBuffer data = createData(10 * RING_SIZE);
+            assertEquals(data, sendAndReceive(transport, data).getPayload());
+
+            // the connection is closed when the server's process exits
+            process.destroy();
+            process.waitFor();
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (transport.isOpen() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(transport.isOpen());
+            assertFalse(transportFactory.isBound("shm://localhost:" + (PORT + 1)));
+        } finally {
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.fiware.kiara.transport;
+
+import static org.junit.Assert.*;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.fiware.kiara.netty.LengthPrefixedByteBufferEncoder;
+import org.fiware.kiara.netty.SlicingFrameDecoder;
+import org.fiware.kiara.serialization.impl.BinaryInputStream;
+import org.fiware.kiara.serialization.impl.BinaryOutputStream;
+import org.fiware.kiara.serialization.impl.BinaryStreamPool;
+import org.fiware.kiara.serialization.impl.CDRSerializer;
+import org.fiware.kiara.transport.impl.TransportMessage;
+import org.fiware.kiara.transport.tcp.TcpBlockMessage;
+import org.fiware.kiara.transport.tcp.TcpBlockTransportFactory;
+import org.fiware.kiara.transport.tcp.TcpHandler;
+import org.junit.Test;
+
+public class ZeroCopyPipelineTest {
+
+    private static ByteBuf frame(byte[] payload) {
+        final ByteBuf buf = Unpooled.directBuffer();
+        buf.writeInt(Integer.reverseBytes(payload.length));
+        buf.writeBytes(payload);
+        return buf;
+    }
+
+    private static byte[] bytes(ByteBuf buf) {
+        final byte[] result = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), result);
+        return result;
+    }
+
+    @Test
+    public void testDecoderSlicesFrames() {
+        final EmbeddedChannel channel = new EmbeddedChannel(
+                new SlicingFrameDecoder(ByteOrder.LITTLE_ENDIAN, Integer.MAX_VALUE, 0, 4, 0, 4, true));
+        final ByteBuf input = Unpooled.wrappedBuffer(frame(new byte[]{1, 2, 3}), frame(new byte[]{4}));
+        assertTrue(channel.writeInbound(input));
+
+        final ByteBuf first = (ByteBuf) channel.readInbound();
+        final ByteBuf second = (ByteBuf) channel.readInbound();
+        assertArrayEquals(new byte[]{1, 2, 3}, bytes(first));
+        assertArrayEquals(new byte[]{4}, bytes(second));
+        assertNull(channel.readInbound());
+
+        first.release();
+        second.release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testEncoderFraming() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new LengthPrefixedByteBufferEncoder());
+        final byte[] payload = {1, 2, 3, 4, 5};
+        assertTrue(channel.writeOutbound(ByteBuffer.wrap(payload, 1, 3)));
+
+        final ByteBuf header = (ByteBuf) channel.readOutbound();
+        final ByteBuf body = (ByteBuf) channel.readOutbound();
+        assertEquals(3, header.order(ByteOrder.LITTLE_ENDIAN).readInt());
+        assertArrayEquals(new byte[]{2, 3, 4}, bytes(body));
+
+        header.release();
+        body.release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testMessageOnFrame() throws Exception {
+        final CDRSerializer ser = new CDRSerializer();
+        final BinaryOutputStream bos = new BinaryOutputStream();
+        ser.serializeMessageId(bos, 7);
+        ser.serializeService(bos, "Calculator");
+        ser.serializeOperation(bos, "add");
+
+        final ByteBuf frame = Unpooled.directBuffer().writeBytes(bos.getBuffer(), 0, bos.size());
+        final TcpHandler handler = new TcpHandler(new TcpBlockTransportFactory(false), "/", new org.fiware.kiara.transport.impl.TransportConnectionListener() {
+
+            public void onConnectionOpened(org.fiware.kiara.transport.impl.TransportImpl connection) {
+            }
+
+            public void onConnectionClosed(org.fiware.kiara.transport.impl.TransportImpl connection) {
+            }
+        });
+        final TransportMessage message = new TcpBlockMessage(handler, frame);
+
+        final BinaryInputStream bis = BinaryStreamPool.getDefault().acquireInputStream(message.getPayload());
+        assertEquals(7, ser.deserializeMessageId(bis));
+        assertEquals("Calculator", ser.deserializeService(bis));
+        assertEquals("add", ser.deserializeOperation(bis));
+        BinaryStreamPool.getDefault().release(bis);
+
+        message.retainPayload();
+        assertEquals(2, frame.refCnt());
+        message.releasePayload();
+        assertEquals(1, frame.refCnt());
+        frame.release();
+    }
+
+}